@@ -0,0 +1,194 @@
+package com.citasmart.gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Configuración del rate limiter local del gateway
+ *
+ * Las cuotas se definen por id de ruta bajo {@code citasmart.rate-limit.routes};
+ * las rutas sin entrada propia usan {@code default-quota}.
+ *
+ * @author CitaSmart Development Team
+ * @version 1.0.0
+ */
+@Component
+@ConfigurationProperties(prefix = "citasmart.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    /** Número de particiones de la tabla de buckets; se redondea a potencia de dos */
+    private int stripes = 64;
+
+    /** Máximo de buckets en memoria entre todas las particiones */
+    private int maxKeys = 100000;
+
+    /** Intervalo (ms) del barrido que libera buckets llenos e inactivos */
+    private long sweepInterval = 30000;
+
+    private Quota defaultQuota = new Quota();
+
+    private Map<String, Quota> routes = new HashMap<>();
+
+    private Sync sync = new Sync();
+
+    /**
+     * Cuota aplicable a una ruta
+     *
+     * @param routeId Id de la ruta del gateway, puede ser null
+     * @return Cuota de la ruta o la cuota por defecto
+     */
+    public Quota quotaFor(String routeId) {
+        Quota quota = routeId != null ? routes.get(routeId) : null;
+        return quota != null ? quota : defaultQuota;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getStripes() {
+        return stripes;
+    }
+
+    public void setStripes(int stripes) {
+        this.stripes = stripes;
+    }
+
+    public int getMaxKeys() {
+        return maxKeys;
+    }
+
+    public void setMaxKeys(int maxKeys) {
+        this.maxKeys = maxKeys;
+    }
+
+    public long getSweepInterval() {
+        return sweepInterval;
+    }
+
+    public void setSweepInterval(long sweepInterval) {
+        this.sweepInterval = sweepInterval;
+    }
+
+    public Quota getDefaultQuota() {
+        return defaultQuota;
+    }
+
+    public void setDefaultQuota(Quota defaultQuota) {
+        this.defaultQuota = defaultQuota;
+    }
+
+    public Map<String, Quota> getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(Map<String, Quota> routes) {
+        this.routes = routes;
+    }
+
+    public Sync getSync() {
+        return sync;
+    }
+
+    public void setSync(Sync sync) {
+        this.sync = sync;
+    }
+
+    /**
+     * Cuota de un bucket: ritmo de reposición, ráfaga máxima y coste por request
+     */
+    public static class Quota {
+
+        /** Tokens repuestos por segundo; 0 desactiva el límite para la ruta */
+        private int replenishRate = 10;
+
+        private int burstCapacity = 20;
+
+        private int requestedTokens = 1;
+
+        public boolean isUnlimited() {
+            return replenishRate <= 0;
+        }
+
+        public int getReplenishRate() {
+            return replenishRate;
+        }
+
+        public void setReplenishRate(int replenishRate) {
+            this.replenishRate = replenishRate;
+        }
+
+        public int getBurstCapacity() {
+            return burstCapacity;
+        }
+
+        public void setBurstCapacity(int burstCapacity) {
+            this.burstCapacity = burstCapacity;
+        }
+
+        public int getRequestedTokens() {
+            return requestedTokens;
+        }
+
+        public void setRequestedTokens(int requestedTokens) {
+            this.requestedTokens = requestedTokens;
+        }
+    }
+
+    /**
+     * Sincronización asíncrona del consumo con Redis entre instancias del gateway
+     */
+    public static class Sync {
+
+        private boolean enabled = false;
+
+        /** Intervalo (ms) entre publicaciones del consumo local */
+        private long interval = 1000;
+
+        /** Vida (ms) de los contadores compartidos sin actividad */
+        private long keyTtl = 60000;
+
+        private String keyPrefix = "citasmart:ratelimit:";
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getInterval() {
+            return interval;
+        }
+
+        public void setInterval(long interval) {
+            this.interval = interval;
+        }
+
+        public long getKeyTtl() {
+            return keyTtl;
+        }
+
+        public void setKeyTtl(long keyTtl) {
+            this.keyTtl = keyTtl;
+        }
+
+        public String getKeyPrefix() {
+            return keyPrefix;
+        }
+
+        public void setKeyPrefix(String keyPrefix) {
+            this.keyPrefix = keyPrefix;
+        }
+    }
+}
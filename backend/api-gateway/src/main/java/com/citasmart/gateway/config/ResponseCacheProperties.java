@@ -0,0 +1,205 @@
+package com.citasmart.gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuración de la caché de respuestas GET del gateway
+ *
+ * Solo se cachean las rutas que coinciden con alguna regla de
+ * {@code citasmart.response-cache.rules}; cada regla fija su TTL, el alcance
+ * de autorización que separa las entradas y las surrogate keys con las que
+ * los servicios pueden invalidarlas.
+ *
+ * @author CitaSmart Development Team
+ * @version 1.0.0
+ */
+@Component
+@ConfigurationProperties(prefix = "citasmart.response-cache")
+public class ResponseCacheProperties {
+
+    private boolean enabled = true;
+
+    /** Número de particiones LRU; se redondea a potencia de dos */
+    private int stripes = 16;
+
+    private int maxEntries = 10000;
+
+    /** Bytes máximos de cuerpos en caché entre todas las particiones */
+    private long maxBytes = 64L * 1024 * 1024;
+
+    /** Respuestas más grandes no se cachean */
+    private int maxBodySize = 256 * 1024;
+
+    /** Intervalo (ms) del barrido de entradas caducadas */
+    private long sweepInterval = 10000;
+
+    private List<Rule> rules = new ArrayList<>();
+
+    private Purge purge = new Purge();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getStripes() {
+        return stripes;
+    }
+
+    public void setStripes(int stripes) {
+        this.stripes = stripes;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public void setMaxEntries(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public void setMaxBytes(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    public int getMaxBodySize() {
+        return maxBodySize;
+    }
+
+    public void setMaxBodySize(int maxBodySize) {
+        this.maxBodySize = maxBodySize;
+    }
+
+    public long getSweepInterval() {
+        return sweepInterval;
+    }
+
+    public void setSweepInterval(long sweepInterval) {
+        this.sweepInterval = sweepInterval;
+    }
+
+    public List<Rule> getRules() {
+        return rules;
+    }
+
+    public void setRules(List<Rule> rules) {
+        this.rules = rules;
+    }
+
+    public Purge getPurge() {
+        return purge;
+    }
+
+    public void setPurge(Purge purge) {
+        this.purge = purge;
+    }
+
+    /**
+     * Alcance de autorización de una entrada: quién puede recibir la misma respuesta
+     */
+    public enum Scope {
+        /** Cualquier usuario autenticado */
+        SHARED,
+        /** Usuarios con el mismo conjunto de roles */
+        ROLES,
+        /** Solo el mismo usuario */
+        USER
+    }
+
+    /**
+     * Regla de caché para un patrón de path
+     */
+    public static class Rule {
+
+        /** Id de ruta del gateway; vacío aplica a cualquier ruta */
+        private String route;
+
+        /** Patrón de path con variables, p. ej. /api/v1/appointments/doctor/{doctorId}/availability */
+        private String path;
+
+        /** Vida (ms) de la entrada; el backend puede acortarla con Cache-Control */
+        private long ttl = 1000;
+
+        private Scope scope = Scope.USER;
+
+        /** Plantillas de surrogate keys con variables del path, p. ej. doctor:{doctorId} */
+        private List<String> surrogateKeys = new ArrayList<>();
+
+        public String getRoute() {
+            return route;
+        }
+
+        public void setRoute(String route) {
+            this.route = route;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public void setPath(String path) {
+            this.path = path;
+        }
+
+        public long getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(long ttl) {
+            this.ttl = ttl;
+        }
+
+        public Scope getScope() {
+            return scope;
+        }
+
+        public void setScope(Scope scope) {
+            this.scope = scope;
+        }
+
+        public List<String> getSurrogateKeys() {
+            return surrogateKeys;
+        }
+
+        public void setSurrogateKeys(List<String> surrogateKeys) {
+            this.surrogateKeys = surrogateKeys;
+        }
+    }
+
+    /**
+     * Recepción de eventos de purga publicados por los servicios en Redis
+     */
+    public static class Purge {
+
+        private boolean enabled = true;
+
+        private String channel = "citasmart:cache-purge";
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getChannel() {
+            return channel;
+        }
+
+        public void setChannel(String channel) {
+            this.channel = channel;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.citasmart.gateway.config;
+
+import com.citasmart.gateway.config.ResponseCacheProperties.Scope;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuración de la agrupación de GET idénticos en vuelo (single-flight)
+ *
+ * @author CitaSmart Development Team
+ * @version 1.0.0
+ */
+@Component
+@ConfigurationProperties(prefix = "citasmart.single-flight")
+public class SingleFlightProperties {
+
+    private boolean enabled = true;
+
+    /** Ids de ruta donde se agrupan requests; vacío aplica a todas */
+    private List<String> routes = new ArrayList<>();
+
+    /**
+     * Alcance de autorización para paths sin regla de caché; con regla se
+     * usa el alcance de la regla
+     */
+    private Scope defaultScope = Scope.USER;
+
+    /**
+     * Bytes que el líder retiene como mucho; al superarlos el cuerpo pasa
+     * sin retener y cada request en espera va al servicio
+     */
+    private int maxBodySize = 1024 * 1024;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public List<String> getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(List<String> routes) {
+        this.routes = routes;
+    }
+
+    public Scope getDefaultScope() {
+        return defaultScope;
+    }
+
+    public void setDefaultScope(Scope defaultScope) {
+        this.defaultScope = defaultScope;
+    }
+
+    public int getMaxBodySize() {
+        return maxBodySize;
+    }
+
+    public void setMaxBodySize(int maxBodySize) {
+        this.maxBodySize = maxBodySize;
+    }
+}
@@ -0,0 +1,68 @@
+package com.citasmart.gateway.filter;
+
+import com.citasmart.gateway.service.IdentityHeaderSigner;
+import com.citasmart.gateway.service.JwtPrincipal;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Filtro global que propaga la identidad verificada a los microservicios
+ *
+ * Elimina siempre la cabecera de identidad que pudiera traer el cliente y,
+ * si el filtro JWT autenticó la request, añade una nueva firmada por
+ * {@link IdentityHeaderSigner}. Así los servicios confían solo en cabeceras
+ * emitidas por el gateway.
+ *
+ * @author CitaSmart Development Team
+ * @version 1.0.0
+ */
+@Component
+public class IdentityPropagationFilter implements GlobalFilter, Ordered {
+
+    private final IdentityHeaderSigner identityHeaderSigner;
+
+    public IdentityPropagationFilter(IdentityHeaderSigner identityHeaderSigner) {
+        this.identityHeaderSigner = identityHeaderSigner;
+    }
+
+    /**
+     * Reemplaza la cabecera de identidad antes de enrutar la request
+     *
+     * @param exchange ServerWebExchange actual
+     * @param chain GatewayFilterChain para continuar el procesamiento
+     * @return Mono<Void> para el procesamiento reactivo
+     */
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        JwtPrincipal principal = exchange.getAttribute(JwtPrincipal.EXCHANGE_ATTRIBUTE);
+        boolean forged = exchange.getRequest().getHeaders().containsKey(IdentityHeaderSigner.HEADER);
+        if (principal == null && !forged) {
+            return chain.filter(exchange);
+        }
+
+        ServerHttpRequest request = exchange.getRequest().mutate()
+            .headers(headers -> {
+                headers.remove(IdentityHeaderSigner.HEADER);
+                if (principal != null) {
+                    headers.set(IdentityHeaderSigner.HEADER, identityHeaderSigner.sign(principal));
+                }
+            })
+            .build();
+        return chain.filter(exchange.mutate().request(request).build());
+    }
+
+    /**
+     * Se ejecuta antes que los filtros de enrutamiento
+     *
+     * @return Orden del filtro
+     */
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 100;
+    }
+}
@@ -1,10 +1,10 @@
 package com.citasmart.gateway.filter;
 
+import com.citasmart.gateway.service.JwtPrincipal;
 import com.citasmart.gateway.service.JwtService;
 import org.springframework.http.HttpHeaders;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.ReactiveSecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
@@ -13,8 +13,7 @@ import org.springframework.web.server.WebFilter;
 import org.springframework.web.server.WebFilterChain;
 import reactor.core.publisher.Mono;
 
-import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Optional;
 
 /**
  * Filtro de autenticación JWT para validar tokens en requests
@@ -49,12 +48,14 @@ public class JwtAuthenticationFilter implements WebFilter {
     public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
         String token = extractTokenFromRequest(exchange);
         
-        if (token != null && jwtService.isTokenValid(token)) {
-            return createAuthenticationFromToken(token)
-                .flatMap(authentication -> 
-                    chain.filter(exchange)
-                        .contextWrite(ReactiveSecurityContextHolder.withAuthentication(authentication))
-                );
+        if (token != null) {
+            Optional<JwtPrincipal> principal = jwtService.authenticate(token);
+            if (principal.isPresent()) {
+                exchange.getAttributes().put(JwtPrincipal.EXCHANGE_ATTRIBUTE, principal.get());
+                Authentication authentication = createAuthentication(principal.get());
+                return chain.filter(exchange)
+                    .contextWrite(ReactiveSecurityContextHolder.withAuthentication(authentication));
+            }
         }
         
         return chain.filter(exchange);
@@ -77,25 +78,16 @@ public class JwtAuthenticationFilter implements WebFilter {
     }
 
     /**
-     * Crea un objeto Authentication a partir del token JWT
+     * Crea un objeto Authentication a partir de la identidad del token
      * 
-     * @param token Token JWT válido
-     * @return Mono<Authentication> con la información del usuario
+     * @param principal Identidad extraída del token JWT válido
+     * @return Authentication con la información del usuario
      */
-    private Mono<Authentication> createAuthenticationFromToken(String token) {
-        return Mono.fromCallable(() -> {
-            String username = jwtService.extractUsername(token);
-            List<String> roles = jwtService.extractRoles(token);
-            
-            List<SimpleGrantedAuthority> authorities = roles.stream()
-                .map(role -> new SimpleGrantedAuthority("ROLE_" + role))
-                .collect(Collectors.toList());
-            
-            return new UsernamePasswordAuthenticationToken(
-                username, 
-                null, 
-                authorities
-            );
-        });
+    private Authentication createAuthentication(JwtPrincipal principal) {
+        return new UsernamePasswordAuthenticationToken(
+            principal,
+            null,
+            principal.getAuthorities()
+        );
     }
 }
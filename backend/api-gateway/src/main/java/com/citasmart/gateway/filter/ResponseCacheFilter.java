@@ -0,0 +1,253 @@
+package com.citasmart.gateway.filter;
+
+import com.citasmart.gateway.config.ResponseCacheProperties.Scope;
+import com.citasmart.gateway.service.CachedResponse;
+import com.citasmart.gateway.service.JwtPrincipal;
+import com.citasmart.gateway.service.RequestKeys;
+import com.citasmart.gateway.service.ResponseCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filtro global que cachea respuestas GET durante unos segundos
+ *
+ * Solo actúa en los paths con una regla en {@code citasmart.response-cache.rules}.
+ * La clave combina ruta, path, query normalizada y alcance de autorización
+ * ({@link RequestKeys}). Respeta el Cache-Control del servicio (no-store,
+ * no-cache, private y max-age acortan o impiden el cacheo) y responde 304
+ * desde caché cuando el If-None-Match coincide con el ETag guardado. Las
+ * entradas se etiquetan con las surrogate keys de la regla y las que envíe
+ * el servicio en la cabecera Surrogate-Key, que no llega al cliente.
+ *
+ * @author CitaSmart Development Team
+ * @version 1.0.0
+ */
+@Component
+public class ResponseCacheFilter implements GlobalFilter, Ordered {
+
+    public static final String SURROGATE_KEY_HEADER = "Surrogate-Key";
+    private static final String CACHE_STATUS_HEADER = "X-Cache";
+
+    /** Cabeceras del servicio que se guardan con el cuerpo; el resto son propias de cada request */
+    private static final List<String> STORED_HEADERS = Arrays.asList(
+        HttpHeaders.CONTENT_TYPE,
+        HttpHeaders.CONTENT_ENCODING,
+        HttpHeaders.CONTENT_LANGUAGE,
+        HttpHeaders.CACHE_CONTROL,
+        HttpHeaders.ETAG,
+        HttpHeaders.LAST_MODIFIED);
+
+    private final ResponseCache responseCache;
+    private final MeterRegistry meterRegistry;
+
+    public ResponseCacheFilter(ResponseCache responseCache, MeterRegistry meterRegistry) {
+        this.responseCache = responseCache;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Sirve la respuesta desde caché o la captura al volver del servicio
+     *
+     * @param exchange ServerWebExchange actual
+     * @param chain GatewayFilterChain para continuar el procesamiento
+     * @return Mono<Void> para el procesamiento reactivo
+     */
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (request.getMethod() != HttpMethod.GET) {
+            return chain.filter(exchange);
+        }
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        String routeId = route != null ? route.getId() : null;
+        ResponseCache.Match match = responseCache.match(routeId, request.getPath().pathWithinApplication());
+        if (match == null) {
+            return chain.filter(exchange);
+        }
+        Scope scope = match.getRule().getScope();
+        JwtPrincipal principal = exchange.getAttribute(JwtPrincipal.EXCHANGE_ATTRIBUTE);
+        String key = RequestKeys.build(routeId, request, scope, principal);
+        if (key == null) {
+            return chain.filter(exchange);
+        }
+
+        String metricRoute = routeId != null ? routeId : "none";
+        if (!hasDirective(request.getHeaders().getCacheControl(), "no-cache")) {
+            CachedResponse cached = responseCache.get(key);
+            if (cached != null) {
+                meterRegistry.counter("gateway.cache.requests", "route", metricRoute, "result", "hit").increment();
+                return writeCached(exchange, cached);
+            }
+        }
+        meterRegistry.counter("gateway.cache.requests", "route", metricRoute, "result", "miss").increment();
+
+        CapturingResponse response = new CapturingResponse(exchange.getResponse(), key, match, System.nanoTime());
+        return chain.filter(exchange.mutate().response(response).build());
+    }
+
+    private Mono<Void> writeCached(ServerWebExchange exchange, CachedResponse cached) {
+        ServerHttpResponse response = exchange.getResponse();
+        HttpHeaders headers = response.getHeaders();
+        headers.set(CACHE_STATUS_HEADER, "HIT");
+        headers.set(HttpHeaders.AGE, Long.toString(cached.ageSeconds()));
+
+        String etag = cached.getETag();
+        if (etag != null && exchange.getRequest().getHeaders().getIfNoneMatch().contains(etag)) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            headers.setETag(etag);
+            return response.setComplete();
+        }
+        response.setStatusCode(HttpStatus.valueOf(cached.getStatus()));
+        headers.putAll(cached.getHeaders());
+        headers.setContentLength(cached.getBody().length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.getBody())));
+    }
+
+    /**
+     * TTL efectivo: el de la regla, acortado por s-maxage o max-age del servicio
+     *
+     * @return Milisegundos, o 0 si la respuesta no debe cachearse
+     */
+    private static long effectiveTtl(long ruleTtl, Scope scope, String cacheControl) {
+        if (cacheControl == null || cacheControl.isEmpty()) {
+            return ruleTtl;
+        }
+        long ttl = ruleTtl;
+        long maxAge = -1;
+        long sharedMaxAge = -1;
+        for (String directive : cacheControl.toLowerCase(Locale.ROOT).split(",")) {
+            directive = directive.trim();
+            if (directive.equals("no-store") || directive.equals("no-cache")) {
+                return 0;
+            }
+            if (directive.equals("private") && scope != Scope.USER) {
+                return 0;
+            }
+            if (directive.startsWith("s-maxage=")) {
+                sharedMaxAge = parseSeconds(directive.substring(9));
+            } else if (directive.startsWith("max-age=")) {
+                maxAge = parseSeconds(directive.substring(8));
+            }
+        }
+        long limit = sharedMaxAge >= 0 ? sharedMaxAge : maxAge;
+        if (limit >= 0) {
+            ttl = Math.min(ttl, TimeUnit.SECONDS.toMillis(limit));
+        }
+        return ttl;
+    }
+
+    private static long parseSeconds(String value) {
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static boolean hasDirective(String cacheControl, String directive) {
+        return cacheControl != null && cacheControl.toLowerCase(Locale.ROOT).contains(directive);
+    }
+
+    /**
+     * Se ejecuta después del rate limiting y antes de escribir la respuesta
+     * del servicio, para poder decorarla
+     *
+     * @return Orden del filtro
+     */
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 150;
+    }
+
+    /**
+     * Respuesta que guarda en caché el cuerpo del servicio mientras lo
+     * escribe al cliente
+     */
+    private class CapturingResponse extends ServerHttpResponseDecorator {
+
+        private final String key;
+        private final ResponseCache.Match match;
+        private final long requestedAt;
+
+        CapturingResponse(ServerHttpResponse delegate, String key, ResponseCache.Match match, long requestedAt) {
+            super(delegate);
+            this.key = key;
+            this.match = match;
+            this.requestedAt = requestedAt;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            HttpHeaders headers = getHeaders();
+            Set<String> surrogateKeys = new LinkedHashSet<>(match.getSurrogateKeys());
+            String backendKeys = headers.getFirst(SURROGATE_KEY_HEADER);
+            if (backendKeys != null) {
+                surrogateKeys.addAll(Arrays.asList(backendKeys.trim().split("\\s+")));
+                headers.remove(SURROGATE_KEY_HEADER);
+            }
+            headers.set(CACHE_STATUS_HEADER, "MISS");
+
+            long ttl = effectiveTtl(match.getRule().getTtl(), match.getRule().getScope(), headers.getCacheControl());
+            if (!isCacheable(headers, ttl)) {
+                return super.writeWith(body);
+            }
+            return DataBufferUtils.join(Flux.from(body))
+                .flatMap(joined -> {
+                    byte[] bytes = new byte[joined.readableByteCount()];
+                    joined.read(bytes);
+                    DataBufferUtils.release(joined);
+                    responseCache.put(key, new CachedResponse(HttpStatus.OK.value(), storedHeaders(headers), bytes,
+                        surrogateKeys, requestedAt, requestedAt + TimeUnit.MILLISECONDS.toNanos(ttl)));
+                    return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+                });
+        }
+
+        private boolean isCacheable(HttpHeaders headers, long ttl) {
+            if (ttl <= 0 || getStatusCode() != HttpStatus.OK || headers.containsKey(HttpHeaders.SET_COOKIE)) {
+                return false;
+            }
+            MediaType contentType = headers.getContentType();
+            if (contentType != null && MediaType.TEXT_EVENT_STREAM.isCompatibleWith(contentType)) {
+                return false;
+            }
+            long length = headers.getContentLength();
+            return length < 0 || length <= responseCache.getMaxBodySize();
+        }
+
+        private HttpHeaders storedHeaders(HttpHeaders headers) {
+            HttpHeaders stored = new HttpHeaders();
+            for (String name : STORED_HEADERS) {
+                List<String> values = headers.get(name);
+                if (values != null) {
+                    stored.addAll(name, values);
+                }
+            }
+            return stored;
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package com.citasmart.gateway.filter;
+
+import com.citasmart.gateway.config.ResponseCacheProperties.Scope;
+import com.citasmart.gateway.config.SingleFlightProperties;
+import com.citasmart.gateway.service.JwtPrincipal;
+import com.citasmart.gateway.service.RequestKeys;
+import com.citasmart.gateway.service.ResponseCache;
+import com.citasmart.gateway.service.SingleFlightRegistry;
+import com.citasmart.gateway.service.SingleFlightRegistry.Flight;
+import com.citasmart.gateway.service.SingleFlightRegistry.SharedResponse;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Filtro global que agrupa GET idénticos en vuelo (single-flight)
+ *
+ * Cuando llegan a la vez varias requests con la misma ruta, path, query y
+ * alcance de autorización ({@link RequestKeys}), solo la primera llama al
+ * servicio; las demás esperan y reciben los mismos bytes. El alcance es el
+ * de la regla de caché del path o, sin regla, {@code default-scope}. Las
+ * llamadas ahorradas se cuentan por ruta en {@code gateway.singleflight.saved}.
+ *
+ * @author CitaSmart Development Team
+ * @version 1.0.0
+ */
+@Component
+public class SingleFlightFilter implements GlobalFilter, Ordered {
+
+    /** Cabeceras de la respuesta del líder que no se copian: son de su conexión o de su sesión */
+    private static final List<String> PER_RESPONSE_HEADERS = Arrays.asList(
+        HttpHeaders.CONTENT_LENGTH,
+        HttpHeaders.TRANSFER_ENCODING,
+        HttpHeaders.CONNECTION,
+        HttpHeaders.SET_COOKIE);
+
+    private static final List<MediaType> STREAMING_TYPES = Arrays.asList(
+        MediaType.TEXT_EVENT_STREAM,
+        MediaType.APPLICATION_NDJSON,
+        new MediaType("text", "csv"));
+
+    private final SingleFlightRegistry registry;
+    private final SingleFlightProperties properties;
+    private final ResponseCache responseCache;
+
+    public SingleFlightFilter(SingleFlightRegistry registry, SingleFlightProperties properties,
+                              ResponseCache responseCache) {
+        this.registry = registry;
+        this.properties = properties;
+        this.responseCache = responseCache;
+    }
+
+    /**
+     * Lidera la llamada al servicio o espera la respuesta de la request idéntica en vuelo
+     *
+     * @param exchange ServerWebExchange actual
+     * @param chain GatewayFilterChain para continuar el procesamiento
+     * @return Mono<Void> para el procesamiento reactivo
+     */
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (!properties.isEnabled() || request.getMethod() != HttpMethod.GET || isConditionalOrStreaming(request)) {
+            return chain.filter(exchange);
+        }
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        String routeId = route != null ? route.getId() : null;
+        if (!properties.getRoutes().isEmpty() && !properties.getRoutes().contains(routeId)) {
+            return chain.filter(exchange);
+        }
+        ResponseCache.Match match = responseCache.match(routeId, request.getPath().pathWithinApplication());
+        Scope scope = match != null ? match.getRule().getScope() : properties.getDefaultScope();
+        JwtPrincipal principal = exchange.getAttribute(JwtPrincipal.EXCHANGE_ATTRIBUTE);
+        String key = RequestKeys.build(routeId, request, scope, principal);
+        if (key == null) {
+            return chain.filter(exchange);
+        }
+
+        String metricRoute = routeId != null ? routeId : "none";
+        Flight flight = registry.join(key);
+        if (!flight.isLeader()) {
+            return flight.response().flatMap(shared -> {
+                if (shared == SingleFlightRegistry.NOT_SHARED) {
+                    registry.recordUpstream(metricRoute);
+                    return chain.filter(exchange);
+                }
+                registry.recordSaved(metricRoute);
+                return writeShared(exchange.getResponse(), shared);
+            });
+        }
+
+        registry.recordUpstream(metricRoute);
+        SharingResponse response = new SharingResponse(exchange.getResponse(), flight);
+        return chain.filter(exchange.mutate().response(response).build())
+            .doOnError(flight::fail)
+            .doFinally(signal -> flight.release());
+    }
+
+    /**
+     * Requests cuya respuesta depende de algo que no está en la clave o que
+     * no se puede almacenar entera
+     */
+    private static boolean isConditionalOrStreaming(ServerHttpRequest request) {
+        HttpHeaders headers = request.getHeaders();
+        if (headers.containsKey(HttpHeaders.IF_NONE_MATCH)
+            || headers.containsKey(HttpHeaders.IF_MODIFIED_SINCE)
+            || headers.containsKey(HttpHeaders.RANGE)) {
+            return true;
+        }
+        for (MediaType accept : headers.getAccept()) {
+            if (isStreaming(accept)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Tipos que los servicios escriben como stream de longitud indefinida
+     * (exportaciones NDJSON/CSV, eventos SSE); nunca se almacenan enteros
+     */
+    private static boolean isStreaming(MediaType mediaType) {
+        for (MediaType streaming : STREAMING_TYPES) {
+            if (streaming.equalsTypeAndSubtype(mediaType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Mono<Void> writeShared(ServerHttpResponse response, SharedResponse shared) {
+        response.setRawStatusCode(shared.getStatus());
+        HttpHeaders headers = response.getHeaders();
+        // Las cabeceras propias de esta request (rate limit, CORS) tienen prioridad
+        for (Map.Entry<String, List<String>> header : shared.getHeaders().entrySet()) {
+            if (!headers.containsKey(header.getKey())) {
+                headers.put(header.getKey(), header.getValue());
+            }
+        }
+        headers.setContentLength(shared.getBody().length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(shared.getBody())));
+    }
+
+    private static byte[] toBytes(List<DataBuffer> chunk) {
+        int length = 0;
+        for (DataBuffer buffer : chunk) {
+            length += buffer.readableByteCount();
+        }
+        byte[] bytes = new byte[length];
+        int offset = 0;
+        for (DataBuffer buffer : chunk) {
+            int count = buffer.readableByteCount();
+            buffer.read(bytes, offset, count);
+            offset += count;
+            DataBufferUtils.release(buffer);
+        }
+        return bytes;
+    }
+
+    /**
+     * Se ejecuta después de la caché de respuestas, así solo se agrupan los fallos de caché
+     *
+     * @return Orden del filtro
+     */
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 175;
+    }
+
+    /**
+     * Respuesta del líder: entrega el cuerpo completo a los seguidores antes
+     * de escribirlo a su propio cliente
+     *
+     * Retiene como mucho {@code max-body-size} bytes: en cuanto el cuerpo
+     * los supera, suelta lo retenido y deja pasar el resto tal cual llega,
+     * y los seguidores llaman al servicio por su cuenta.
+     */
+    private class SharingResponse extends ServerHttpResponseDecorator {
+
+        private final Flight flight;
+        private long buffered;
+
+        SharingResponse(ServerHttpResponse delegate, Flight flight) {
+            super(delegate);
+            this.flight = flight;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            if (!isShareable()) {
+                flight.release();
+                return super.writeWith(body);
+            }
+            // bufferUntil emite lo retenido al pasar el límite o, si no se pasa, el cuerpo entero al terminar
+            Flux<DataBuffer> bounded = Flux.<DataBuffer>from(body)
+                .bufferUntil(buffer -> (buffered += buffer.readableByteCount()) > properties.getMaxBodySize())
+                .concatMapIterable(chunk -> {
+                    if (isOverLimit()) {
+                        flight.release();
+                        return chunk;
+                    }
+                    byte[] bytes = toBytes(chunk);
+                    share(bytes);
+                    return Collections.singletonList(bufferFactory().wrap(bytes));
+                })
+                .doOnComplete(() -> {
+                    if (buffered == 0) {
+                        share(new byte[0]);
+                    }
+                })
+                .doOnDiscard(DataBuffer.class, DataBufferUtils::release);
+            return super.writeWith(bounded);
+        }
+
+        private boolean isOverLimit() {
+            return buffered > properties.getMaxBodySize();
+        }
+
+        @Override
+        public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            flight.release();
+            return super.writeAndFlushWith(body);
+        }
+
+        @Override
+        public Mono<Void> setComplete() {
+            if (isShareable()) {
+                share(new byte[0]);
+            }
+            return super.setComplete();
+        }
+
+        private void share(byte[] bytes) {
+            HttpHeaders headers = new HttpHeaders();
+            getHeaders().forEach((name, values) -> {
+                if (PER_RESPONSE_HEADERS.stream().noneMatch(name::equalsIgnoreCase)) {
+                    headers.addAll(name, values);
+                }
+            });
+            Integer status = getRawStatusCode();
+            flight.complete(new SharedResponse(status != null ? status : HttpStatus.OK.value(), headers, bytes));
+        }
+
+        private boolean isShareable() {
+            HttpHeaders headers = getHeaders();
+            if (headers.containsKey(HttpHeaders.SET_COOKIE)) {
+                return false;
+            }
+            MediaType contentType = headers.getContentType();
+            if (contentType != null && isStreaming(contentType)) {
+                return false;
+            }
+            long length = headers.getContentLength();
+            return length < 0 || length <= properties.getMaxBodySize();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.citasmart.gateway.service;
+
+import org.springframework.http.HttpHeaders;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Respuesta de un servicio guardada en la caché del gateway
+ *
+ * Inmutable: el cuerpo se comparte entre todas las requests que la reciben
+ * y nunca se modifica.
+ *
+ * @author CitaSmart Development Team
+ * @version 1.0.0
+ */
+public final class CachedResponse {
+
+    private final int status;
+    private final HttpHeaders headers;
+    private final byte[] body;
+    private final Set<String> surrogateKeys;
+    private final long requestedAt;
+    private final long expiresAt;
+    private final long storedAtMillis;
+
+    /**
+     * @param requestedAt nanoTime en que se pidió al servicio; las purgas posteriores la invalidan
+     * @param expiresAt nanoTime de caducidad
+     */
+    public CachedResponse(int status, HttpHeaders headers, byte[] body, Set<String> surrogateKeys,
+                          long requestedAt, long expiresAt) {
+        this.status = status;
+        this.headers = HttpHeaders.readOnlyHttpHeaders(headers);
+        this.body = body;
+        this.surrogateKeys = Collections.unmodifiableSet(surrogateKeys);
+        this.requestedAt = requestedAt;
+        this.expiresAt = expiresAt;
+        this.storedAtMillis = System.currentTimeMillis();
+    }
+
+    public boolean isExpired(long now) {
+        return expiresAt - now <= 0;
+    }
+
+    /**
+     * Edad en segundos, para la cabecera Age
+     *
+     * @return Segundos desde que se guardó
+     */
+    public long ageSeconds() {
+        return Math.max(0L, (System.currentTimeMillis() - storedAtMillis) / 1000);
+    }
+
+    /**
+     * Memoria aproximada que ocupa la entrada
+     *
+     * @return Bytes del cuerpo más una estimación fija para cabeceras
+     */
+    public int weight() {
+        return body.length + 512;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public HttpHeaders getHeaders() {
+        return headers;
+    }
+
+    public byte[] getBody() {
+        return body;
+    }
+
+    public String getETag() {
+        return headers.getETag();
+    }
+
+    public Set<String> getSurrogateKeys() {
+        return surrogateKeys;
+    }
+
+    public long getRequestedAt() {
+        return requestedAt;
+    }
+}
@@ -0,0 +1,89 @@
+package com.citasmart.gateway.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Base64;
+
+/**
+ * Firma la identidad interna que el gateway propaga a los microservicios
+ *
+ * Una vez verificado el JWT, el gateway reenvía la identidad del usuario en
+ * la cabecera {@value #HEADER} para que los servicios no vuelvan a parsear
+ * el token ni a consultar el usuario. Formato:
+ *
+ * <pre>v1.base64url(userId \n username \n ROL1,ROL2 \n expiraEpochMillis).base64url(HMAC-SHA256)</pre>
+ *
+ * El HMAC cubre {@code v1.} y el payload codificado, con un secreto
+ * compartido distinto del de los JWT. La expiración es corta (como mucho
+ * {@code citasmart.identity.ttl}, y nunca posterior a la del token) para
+ * limitar la reutilización de una cabecera capturada.
+ *
+ * @author CitaSmart Development Team
+ * @version 1.0.0
+ */
+@Service
+public class IdentityHeaderSigner {
+
+    public static final String HEADER = "X-CitaSmart-Identity";
+
+    private static final String VERSION = "v1.";
+    private static final String ALGORITHM = "HmacSHA256";
+
+    @Value("${citasmart.identity.secret:}")
+    private String identitySecret;
+
+    @Value("${citasmart.identity.ttl:30000}")
+    private long ttlMillis;
+
+    private SecretKeySpec signingKey;
+    private ThreadLocal<Mac> macs;
+
+    /**
+     * Deriva la clave HMAC una sola vez; cada hilo reutiliza su propio Mac
+     */
+    @PostConstruct
+    void init() {
+        if (identitySecret == null || identitySecret.trim().isEmpty()) {
+            throw new IllegalStateException("citasmart.identity.secret no está configurado; defina GATEWAY_IDENTITY_SECRET");
+        }
+        signingKey = new SecretKeySpec(Base64.getDecoder().decode(identitySecret), ALGORITHM);
+        macs = ThreadLocal.withInitial(this::newMac);
+    }
+
+    /**
+     * Genera el valor de la cabecera de identidad para un usuario autenticado
+     *
+     * @param principal Identidad extraída del JWT verificado
+     * @return Valor firmado de la cabecera
+     */
+    public String sign(JwtPrincipal principal) {
+        long expiresAt = System.currentTimeMillis() + ttlMillis;
+        if (principal.getExpiresAt() != null) {
+            expiresAt = Math.min(expiresAt, principal.getExpiresAt().toEpochMilli());
+        }
+        String payload = (principal.getUserId() != null ? principal.getUserId().toString() : "")
+            + "\n" + principal.getUsername()
+            + "\n" + String.join(",", principal.getRoles())
+            + "\n" + expiresAt;
+        String signed = VERSION + Base64.getUrlEncoder().withoutPadding()
+            .encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+        byte[] mac = macs.get().doFinal(signed.getBytes(StandardCharsets.US_ASCII));
+        return signed + "." + Base64.getUrlEncoder().withoutPadding().encodeToString(mac);
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(signingKey);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot initialise " + ALGORITHM, e);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.citasmart.gateway.service;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.security.Principal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Identidad extraída de un token JWT ya verificado
+ *
+ * Inmutable: se construye una sola vez por token y se comparte entre todas
+ * las requests que presentan el mismo token mientras permanezca en caché.
+ * Las authorities se calculan al construirla para no repetir el mapeo de
+ * roles en cada request.
+ *
+ * @author CitaSmart Development Team
+ * @version 1.0.0
+ */
+public final class JwtPrincipal implements Principal {
+
+    /**
+     * Atributo del exchange donde el filtro JWT deja la identidad verificada
+     */
+    public static final String EXCHANGE_ATTRIBUTE = JwtPrincipal.class.getName();
+
+    private final Long userId;
+    private final String username;
+    private final List<String> roles;
+    private final List<GrantedAuthority> authorities;
+    private final Instant expiresAt;
+
+    public JwtPrincipal(Long userId, String username, List<String> roles, Instant expiresAt) {
+        this.userId = userId;
+        this.username = username;
+        this.roles = roles != null
+            ? Collections.unmodifiableList(new ArrayList<>(roles))
+            : Collections.<String>emptyList();
+        List<GrantedAuthority> mapped = new ArrayList<>(this.roles.size());
+        for (String role : this.roles) {
+            mapped.add(new SimpleGrantedAuthority("ROLE_" + role));
+        }
+        this.authorities = Collections.unmodifiableList(mapped);
+        this.expiresAt = expiresAt;
+    }
+
+    /**
+     * @return ID del usuario (claim {@code userId}), puede ser null
+     */
+    public Long getUserId() {
+        return userId;
+    }
+
+    /**
+     * @return Nombre de usuario (subject del token)
+     */
+    public String getUsername() {
+        return username;
+    }
+
+    @Override
+    public String getName() {
+        return username;
+    }
+
+    /**
+     * @return Roles del usuario sin el prefijo ROLE_
+     */
+    public List<String> getRoles() {
+        return roles;
+    }
+
+    /**
+     * @return Roles como authorities de Spring Security
+     */
+    public List<GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    /**
+     * @return Instante de expiración del token
+     */
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    /**
+     * Verifica si el token ha expirado en el instante indicado
+     *
+     * @param now Instante de referencia
+     * @return true si el token ya no es válido
+     */
+    public boolean isExpired(Instant now) {
+        return expiresAt != null && !expiresAt.isAfter(now);
+    }
+
+    @Override
+    public String toString() {
+        return username;
+    }
+}
@@ -1,23 +1,42 @@
 package com.citasmart.gateway.service;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Base64;
 import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Optional;
 import java.util.function.Function;
 
 /**
  * Servicio para manejo de JWT tokens
- * 
+ *
  * Proporciona funcionalidades para validar, parsear y extraer información
  * de tokens JWT utilizados para autenticación en el sistema.
- * 
+ *
+ * La clave de firma y el parser se construyen una sola vez al arrancar. Cada
+ * token se verifica y parsea una única vez hacia un {@link JwtPrincipal}
+ * inmutable, que se guarda en una caché LRU particionada indexada por el
+ * SHA-256 del token: las requests siguientes con el mismo bearer token no
+ * repiten la verificación HMAC ni el parseo. Una entrada deja de servirse
+ * cuando expira el token o, como máximo, tras {@code citasmart.jwt.cache.ttl};
+ * con la caché llena cada inserción descarta solo la entrada menos usada.
+ *
  * @author CitaSmart Development Team
  * @version 1.0.0
  */
@@ -30,40 +49,117 @@ public class JwtService {
     @Value("${citasmart.jwt.expiration:86400000}")
     private long jwtExpiration;
 
+    @Value("${citasmart.jwt.cache.max-entries:10000}")
+    private int cacheMaxEntries;
+
+    @Value("${citasmart.jwt.cache.ttl:300000}")
+    private long cacheTtlMillis;
+
+    @Value("${citasmart.jwt.cache.stripes:16}")
+    private int cacheStripes;
+
+    private Stripe[] verifiedTokens;
+    private int stripeMask;
+
+    private final ThreadLocal<MessageDigest> digests = ThreadLocal.withInitial(JwtService::sha256);
+
+    private SecretKey signInKey;
+    private JwtParser parser;
+
+    /**
+     * Deriva la clave de firma y construye el parser (inmutable y thread-safe)
+     */
+    @PostConstruct
+    void init() {
+        signInKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+        parser = Jwts.parser()
+            .verifyWith(signInKey)
+            .build();
+
+        int count = cacheStripes <= 1 ? 1 : Integer.highestOneBit((cacheStripes - 1) << 1);
+        verifiedTokens = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            verifiedTokens[i] = new Stripe(Math.max(1, cacheMaxEntries / count));
+        }
+        stripeMask = count - 1;
+    }
+
+    /**
+     * Verifica el token y devuelve la identidad que contiene
+     *
+     * @param token Token JWT
+     * @return Identidad del usuario, vacío si el token no es válido o ha expirado
+     */
+    public Optional<JwtPrincipal> authenticate(String token) {
+        try {
+            return Optional.of(parseToken(token));
+        } catch (Exception e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Verifica el token y devuelve la identidad que contiene, usando la caché
+     * de tokens verificados
+     *
+     * @param token Token JWT
+     * @return Identidad del usuario
+     * @throws JwtException si la firma no es válida o el token ha expirado
+     */
+    public JwtPrincipal parseToken(String token) {
+        String key = digest(token);
+        Instant now = Instant.now();
+        Stripe stripe = stripeFor(key);
+        CachedPrincipal cached = stripe.get(key);
+        if (cached != null) {
+            if (cached.isUsable(now)) {
+                return cached.principal;
+            }
+            stripe.remove(key, cached);
+        }
+
+        Claims claims = extractAllClaims(token);
+        JwtPrincipal principal = toPrincipal(claims);
+        if (principal.isExpired(now)) {
+            throw new JwtException("JWT expired at " + principal.getExpiresAt());
+        }
+        stripe.put(key, new CachedPrincipal(principal, now.plusMillis(cacheTtlMillis)));
+        return principal;
+    }
+
     /**
      * Extrae el nombre de usuario del token JWT
-     * 
+     *
      * @param token Token JWT
      * @return Nombre de usuario
      */
     public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return parseToken(token).getUsername();
     }
 
     /**
      * Extrae los roles del usuario del token JWT
-     * 
+     *
      * @param token Token JWT
      * @return Lista de roles del usuario
      */
-    @SuppressWarnings("unchecked")
     public List<String> extractRoles(String token) {
-        return extractClaim(token, claims -> (List<String>) claims.get("roles"));
+        return parseToken(token).getRoles();
     }
 
     /**
      * Extrae el ID del usuario del token JWT
-     * 
+     *
      * @param token Token JWT
      * @return ID del usuario
      */
     public Long extractUserId(String token) {
-        return extractClaim(token, claims -> claims.get("userId", Long.class));
+        return parseToken(token).getUserId();
     }
 
     /**
      * Extrae una claim específica del token JWT
-     * 
+     *
      * @param token Token JWT
      * @param claimsResolver Función para extraer la claim deseada
      * @param <T> Tipo de la claim
@@ -76,60 +172,129 @@ public class JwtService {
 
     /**
      * Valida si el token JWT es válido
-     * 
+     *
      * @param token Token JWT a validar
      * @return true si el token es válido, false en caso contrario
      */
     public boolean isTokenValid(String token) {
-        try {
-            return !isTokenExpired(token);
-        } catch (Exception e) {
-            return false;
-        }
+        return authenticate(token).isPresent();
     }
 
     /**
-     * Verifica si el token JWT ha expirado
-     * 
+     * Extrae todas las claims del token JWT
+     *
      * @param token Token JWT
-     * @return true si el token ha expirado, false en caso contrario
+     * @return Claims del token
+     */
+    private Claims extractAllClaims(String token) {
+        return parser
+            .parseSignedClaims(token)
+            .getPayload();
+    }
+
+    /**
+     * Construye la identidad a partir de las claims verificadas
+     *
+     * @param claims Claims del token
+     * @return Identidad inmutable
      */
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    @SuppressWarnings("unchecked")
+    private static JwtPrincipal toPrincipal(Claims claims) {
+        Date expiration = claims.getExpiration();
+        return new JwtPrincipal(
+            claims.get("userId", Long.class),
+            claims.getSubject(),
+            (List<String>) claims.get("roles"),
+            expiration != null ? expiration.toInstant() : null
+        );
     }
 
     /**
-     * Extrae la fecha de expiración del token JWT
-     * 
-     * @param token Token JWT
-     * @return Fecha de expiración
+     * Número de tokens verificados en caché
      */
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    int cachedTokens() {
+        int size = 0;
+        for (Stripe stripe : verifiedTokens) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    private Stripe stripeFor(String key) {
+        int hash = key.hashCode();
+        return verifiedTokens[(hash ^ (hash >>> 16)) & stripeMask];
     }
 
     /**
-     * Extrae todas las claims del token JWT
-     * 
+     * Calcula el SHA-256 del token para no guardar bearer tokens en memoria
+     *
      * @param token Token JWT
-     * @return Claims del token
+     * @return Digest en Base64
      */
-    private Claims extractAllClaims(String token) {
-        return Jwts
-            .parser()
-            .verifyWith(getSignInKey())
-            .build()
-            .parseSignedClaims(token)
-            .getPayload();
+    private String digest(String token) {
+        MessageDigest digest = digests.get();
+        digest.reset();
+        return Base64.getEncoder().encodeToString(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
 
     /**
-     * Obtiene la clave de firma para validar tokens JWT
-     * 
-     * @return Clave secreta para firma
+     * Entrada de la caché de tokens verificados
      */
-    private SecretKey getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private static final class CachedPrincipal {
+        private final JwtPrincipal principal;
+        private final Instant cachedUntil;
+
+        private CachedPrincipal(JwtPrincipal principal, Instant cachedUntil) {
+            this.principal = principal;
+            this.cachedUntil = cachedUntil;
+        }
+
+        private boolean isUsable(Instant now) {
+            return !principal.isExpired(now) && now.isBefore(cachedUntil);
+        }
+    }
+
+    /**
+     * Partición LRU de la caché; cada una con su propio lock, que solo se toma
+     * durante la consulta o inserción. Las entradas caducadas se retiran al
+     * consultarlas o cuando pasan a ser las menos usadas
+     */
+    private static final class Stripe {
+
+        private final LinkedHashMap<String, CachedPrincipal> entries = new LinkedHashMap<>(16, 0.75f, true);
+        private final int maxEntries;
+
+        private Stripe(int maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+
+        synchronized CachedPrincipal get(String key) {
+            return entries.get(key);
+        }
+
+        synchronized void put(String key, CachedPrincipal entry) {
+            entries.put(key, entry);
+            Iterator<CachedPrincipal> eldest = entries.values().iterator();
+            while (entries.size() > maxEntries && eldest.hasNext()) {
+                eldest.next();
+                eldest.remove();
+            }
+        }
+
+        synchronized void remove(String key, CachedPrincipal entry) {
+            entries.remove(key, entry);
+        }
+
+        synchronized int size() {
+            return entries.size();
+        }
     }
 }
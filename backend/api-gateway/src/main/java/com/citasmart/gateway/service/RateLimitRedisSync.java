@@ -0,0 +1,109 @@
+package com.citasmart.gateway.service;
+
+import com.citasmart.gateway.config.RateLimitProperties;
+import com.citasmart.gateway.service.TokenBucketRateLimiter.Bucket;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Comparte de forma aproximada el consumo de los rate limits entre gateways
+ *
+ * Cada intervalo publica en Redis, con un INCRBY por clave, los tokens
+ * consumidos localmente desde la última vez; el total devuelto, menos lo
+ * propio, es lo que consumieron las demás instancias y se descuenta del
+ * bucket local. Todo ocurre fuera del camino de la request: si Redis no
+ * responde, cada gateway sigue limitando con sus buckets locales.
+ *
+ * @author CitaSmart Development Team
+ * @version 1.0.0
+ */
+@Service
+@ConditionalOnProperty(prefix = "citasmart.rate-limit.sync", name = "enabled", havingValue = "true")
+public class RateLimitRedisSync {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitRedisSync.class);
+
+    private static final int CONCURRENCY = 64;
+
+    private final TokenBucketRateLimiter rateLimiter;
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final RateLimitProperties.Sync settings;
+
+    private Disposable schedule;
+
+    public RateLimitRedisSync(TokenBucketRateLimiter rateLimiter, ReactiveStringRedisTemplate redisTemplate,
+                              RateLimitProperties properties) {
+        this.rateLimiter = rateLimiter;
+        this.redisTemplate = redisTemplate;
+        this.settings = properties.getSync();
+    }
+
+    /**
+     * Arranca la sincronización periódica; un ciclo no empieza hasta que
+     * termina el anterior
+     */
+    @PostConstruct
+    void start() {
+        Duration interval = Duration.ofMillis(settings.getInterval());
+        schedule = Flux.interval(interval, interval)
+            .onBackpressureDrop()
+            .concatMap(tick -> syncOnce(), 1)
+            .subscribe();
+    }
+
+    @PreDestroy
+    void stop() {
+        schedule.dispose();
+    }
+
+    /**
+     * Publica el consumo pendiente de todos los buckets con actividad
+     *
+     * @return Mono que completa al terminar el ciclo, incluso con errores de Redis
+     */
+    Mono<Void> syncOnce() {
+        List<Bucket> active = new ArrayList<>();
+        List<Long> pending = new ArrayList<>();
+        rateLimiter.forEachBucket(bucket -> {
+            long tokens = bucket.drainUnsynced();
+            if (tokens > 0) {
+                active.add(bucket);
+                pending.add(tokens);
+            }
+        });
+        if (active.isEmpty()) {
+            return Mono.empty();
+        }
+
+        Duration ttl = Duration.ofMillis(settings.getKeyTtl());
+        return Flux.range(0, active.size())
+            .flatMap(i -> publish(active.get(i), pending.get(i), ttl), CONCURRENCY)
+            .then();
+    }
+
+    private Mono<Void> publish(Bucket bucket, long tokens, Duration ttl) {
+        String key = settings.getKeyPrefix() + bucket.getKey();
+        return redisTemplate.opsForValue().increment(key, tokens)
+            .doOnNext(total -> bucket.applyGlobal(total, tokens))
+            .onErrorResume(e -> {
+                bucket.restoreUnsynced(tokens);
+                logger.debug("Rate limit sync failed for {}: {}", key, e.getMessage());
+                return Mono.empty();
+            })
+            .flatMap(total -> redisTemplate.expire(key, ttl)
+                .onErrorResume(e -> Mono.empty()))
+            .then();
+    }
+}
@@ -0,0 +1,109 @@
+package com.citasmart.gateway.service;
+
+import com.citasmart.gateway.config.ResponseCacheProperties.Scope;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.util.UriUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Claves que identifican requests GET equivalentes
+ *
+ * Dos requests tienen la misma clave si van a la misma ruta y path, con los
+ * mismos parámetros en cualquier orden, las mismas cabeceras de negociación
+ * de contenido y el mismo alcance de autorización: cualquier usuario, los
+ * mismos roles o el mismo usuario.
+ *
+ * @author CitaSmart Development Team
+ * @version 1.0.0
+ */
+public final class RequestKeys {
+
+    /** Cabeceras con las que el servicio puede elegir otra representación */
+    private static final List<String> NEGOTIATION_HEADERS = Arrays.asList(
+        HttpHeaders.ACCEPT,
+        HttpHeaders.ACCEPT_ENCODING,
+        HttpHeaders.ACCEPT_LANGUAGE);
+
+    private RequestKeys() {
+    }
+
+    /**
+     * Construye la clave de una request
+     *
+     * @param routeId Id de la ruta del gateway, puede ser null
+     * @param request Request GET
+     * @param scope Alcance de autorización que separa las claves
+     * @param principal Usuario autenticado, puede ser null
+     * @return Clave, o null si el alcance exige un usuario y no lo hay
+     */
+    public static String build(String routeId, ServerHttpRequest request, Scope scope, JwtPrincipal principal) {
+        String scopeKey = scopeKey(scope, principal);
+        if (scopeKey == null) {
+            return null;
+        }
+        StringBuilder key = new StringBuilder(128)
+            .append(routeId != null ? routeId : "")
+            .append(' ')
+            .append(request.getPath().pathWithinApplication().value());
+        appendNormalizedQuery(key, request.getQueryParams());
+        // Un valor de cabecera no puede contener saltos de línea, así que no se confunden los campos
+        HttpHeaders headers = request.getHeaders();
+        for (String name : NEGOTIATION_HEADERS) {
+            List<String> values = headers.get(name);
+            key.append('\n');
+            if (values != null) {
+                key.append(String.join(",", values));
+            }
+        }
+        return key.append('\n').append(scopeKey).toString();
+    }
+
+    private static String scopeKey(Scope scope, JwtPrincipal principal) {
+        switch (scope) {
+            case SHARED:
+                return "shared";
+            case ROLES:
+                if (principal == null) {
+                    return "anonymous";
+                }
+                List<String> roles = new ArrayList<>(principal.getRoles());
+                roles.sort(null);
+                return "roles:" + String.join(",", roles);
+            default:
+                if (principal == null) {
+                    return null;
+                }
+                return "user:" + (principal.getUserId() != null ? principal.getUserId() : principal.getUsername());
+        }
+    }
+
+    /**
+     * Añade los parámetros ordenados por nombre; los valores repetidos
+     * conservan su orden, que puede ser significativo. Nombres y valores se
+     * codifican para que un '&' o '=' dentro de un valor no colisione con
+     * otra combinación de parámetros
+     */
+    private static void appendNormalizedQuery(StringBuilder key, MultiValueMap<String, String> params) {
+        if (params.isEmpty()) {
+            return;
+        }
+        char separator = '?';
+        for (Map.Entry<String, List<String>> param : new TreeMap<>(params).entrySet()) {
+            for (String value : param.getValue()) {
+                key.append(separator).append(UriUtils.encode(param.getKey(), StandardCharsets.UTF_8));
+                if (value != null) {
+                    key.append('=').append(UriUtils.encode(value, StandardCharsets.UTF_8));
+                }
+                separator = '&';
+            }
+        }
+    }
+}
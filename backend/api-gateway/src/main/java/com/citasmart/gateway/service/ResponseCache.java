@@ -0,0 +1,333 @@
+package com.citasmart.gateway.service;
+
+import com.citasmart.gateway.config.ResponseCacheProperties;
+import com.citasmart.gateway.config.ResponseCacheProperties.Rule;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.server.PathContainer;
+import org.springframework.stereotype.Service;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caché en memoria de respuestas GET con TTL corto
+ *
+ * Las entradas se reparten en particiones LRU acotadas por número de
+ * entradas y por bytes. La invalidación por surrogate key es perezosa: una
+ * purga solo anota el instante de la clave, y una entrada deja de servirse
+ * si alguna de sus claves se purgó después de pedirla al servicio. Así
+ * purgar cuesta lo mismo con una entrada que con miles y no hace falta un
+ * índice inverso que mantener al desalojar.
+ *
+ * @author CitaSmart Development Team
+ * @version 1.0.0
+ */
+@Service
+public class ResponseCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResponseCache.class);
+
+    private final ResponseCacheProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    private final List<CompiledRule> rules = new ArrayList<>();
+    private final Map<String, Long> purgedAt = new ConcurrentHashMap<>();
+    private Stripe[] stripes;
+    private int stripeMask;
+    private long maxTtlNanos;
+    private ScheduledExecutorService sweeper;
+
+    public ResponseCache(ResponseCacheProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Compila los patrones de las reglas y crea las particiones
+     */
+    @PostConstruct
+    void init() {
+        PathPatternParser parser = new PathPatternParser();
+        long maxTtl = 0;
+        for (Rule rule : properties.getRules()) {
+            rules.add(new CompiledRule(rule, parser.parse(rule.getPath())));
+            maxTtl = Math.max(maxTtl, rule.getTtl());
+        }
+        maxTtlNanos = TimeUnit.MILLISECONDS.toNanos(maxTtl);
+
+        int count = properties.getStripes() <= 1 ? 1 : Integer.highestOneBit((properties.getStripes() - 1) << 1);
+        stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe(Math.max(1, properties.getMaxEntries() / count),
+                Math.max(1L, properties.getMaxBytes() / count));
+        }
+        stripeMask = count - 1;
+
+        sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "gateway-response-cache-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweeper.scheduleWithFixedDelay(this::sweep, properties.getSweepInterval(),
+            properties.getSweepInterval(), TimeUnit.MILLISECONDS);
+
+        Gauge.builder("gateway.cache.entries", this, ResponseCache::size)
+            .description("GET responses held in the gateway cache")
+            .register(meterRegistry);
+        Gauge.builder("gateway.cache.bytes", this, ResponseCache::bytes)
+            .description("Bytes of cached response bodies")
+            .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        sweeper.shutdownNow();
+    }
+
+    /**
+     * Busca la regla que aplica a una request
+     *
+     * @param routeId Id de la ruta del gateway, puede ser null
+     * @param path Path de la request
+     * @return Regla con sus surrogate keys resueltas, o null si la ruta no se cachea
+     */
+    public Match match(String routeId, PathContainer path) {
+        if (!properties.isEnabled()) {
+            return null;
+        }
+        for (CompiledRule compiled : rules) {
+            String route = compiled.rule.getRoute();
+            if (route != null && !route.isEmpty() && !route.equals(routeId)) {
+                continue;
+            }
+            PathPattern.PathMatchInfo info = compiled.pattern.matchAndExtract(path);
+            if (info != null) {
+                return new Match(compiled.rule, resolveKeys(compiled.rule.getSurrogateKeys(), info.getUriVariables()));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Entrada vigente para una clave
+     *
+     * @param key Clave de caché
+     * @return Respuesta guardada, o null si no existe, caducó o fue purgada
+     */
+    public CachedResponse get(String key) {
+        Stripe stripe = stripeFor(key);
+        CachedResponse cached = stripe.get(key);
+        if (cached == null) {
+            return null;
+        }
+        if (cached.isExpired(System.nanoTime()) || isPurged(cached.getSurrogateKeys(), cached.getRequestedAt())) {
+            stripe.remove(key, cached);
+            return null;
+        }
+        return cached;
+    }
+
+    /**
+     * Guarda una respuesta, salvo que sus claves se hayan purgado mientras se
+     * obtenía del servicio
+     *
+     * @param key Clave de caché
+     * @param response Respuesta a guardar
+     */
+    public void put(String key, CachedResponse response) {
+        if (response.getBody().length > properties.getMaxBodySize()
+            || isPurged(response.getSurrogateKeys(), response.getRequestedAt())) {
+            return;
+        }
+        stripeFor(key).put(key, response);
+    }
+
+    /**
+     * Invalida todas las entradas etiquetadas con alguna de las claves
+     *
+     * @param surrogateKeys Surrogate keys a purgar
+     */
+    public void purge(Collection<String> surrogateKeys) {
+        long now = System.nanoTime();
+        for (String surrogateKey : surrogateKeys) {
+            purgedAt.put(surrogateKey, now);
+        }
+        meterRegistry.counter("gateway.cache.purges").increment(surrogateKeys.size());
+        logger.debug("Purged surrogate keys {}", surrogateKeys);
+    }
+
+    public int getMaxBodySize() {
+        return properties.getMaxBodySize();
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    public long bytes() {
+        long bytes = 0;
+        for (Stripe stripe : stripes) {
+            bytes += stripe.bytes();
+        }
+        return bytes;
+    }
+
+    private boolean isPurged(Set<String> surrogateKeys, long requestedAt) {
+        if (purgedAt.isEmpty()) {
+            return false;
+        }
+        for (String surrogateKey : surrogateKeys) {
+            Long purged = purgedAt.get(surrogateKey);
+            if (purged != null && purged - requestedAt >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Stripe stripeFor(String key) {
+        int hash = key.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & stripeMask];
+    }
+
+    /**
+     * Retira las entradas caducadas y las marcas de purga más viejas que el
+     * TTL más largo, que ya no pueden afectar a ninguna entrada
+     */
+    private void sweep() {
+        try {
+            long now = System.nanoTime();
+            for (Stripe stripe : stripes) {
+                stripe.removeExpired(now);
+            }
+            purgedAt.values().removeIf(purged -> now - purged > maxTtlNanos);
+        } catch (RuntimeException e) {
+            logger.warn("Response cache sweep failed", e);
+        }
+    }
+
+    private static Set<String> resolveKeys(List<String> templates, Map<String, String> variables) {
+        Set<String> keys = new LinkedHashSet<>();
+        for (String template : templates) {
+            String key = template;
+            for (Map.Entry<String, String> variable : variables.entrySet()) {
+                key = key.replace("{" + variable.getKey() + "}", variable.getValue());
+            }
+            keys.add(key);
+        }
+        return keys;
+    }
+
+    /**
+     * Regla aplicable a una request con sus surrogate keys ya resueltas
+     */
+    public static final class Match {
+
+        private final Rule rule;
+        private final Set<String> surrogateKeys;
+
+        Match(Rule rule, Set<String> surrogateKeys) {
+            this.rule = rule;
+            this.surrogateKeys = surrogateKeys;
+        }
+
+        public Rule getRule() {
+            return rule;
+        }
+
+        public Set<String> getSurrogateKeys() {
+            return surrogateKeys;
+        }
+    }
+
+    private static final class CompiledRule {
+
+        private final Rule rule;
+        private final PathPattern pattern;
+
+        private CompiledRule(Rule rule, PathPattern pattern) {
+            this.rule = rule;
+            this.pattern = pattern;
+        }
+    }
+
+    /**
+     * Partición LRU; cada una con su propio lock, que solo se toma durante
+     * la consulta o inserción en el mapa
+     */
+    private static final class Stripe {
+
+        private final LinkedHashMap<String, CachedResponse> entries = new LinkedHashMap<>(16, 0.75f, true);
+        private final int maxEntries;
+        private final long maxBytes;
+        private long bytes;
+
+        private Stripe(int maxEntries, long maxBytes) {
+            this.maxEntries = maxEntries;
+            this.maxBytes = maxBytes;
+        }
+
+        synchronized CachedResponse get(String key) {
+            return entries.get(key);
+        }
+
+        synchronized void put(String key, CachedResponse response) {
+            CachedResponse previous = entries.put(key, response);
+            if (previous != null) {
+                bytes -= previous.weight();
+            }
+            bytes += response.weight();
+            Iterator<CachedResponse> eldest = entries.values().iterator();
+            while ((entries.size() > maxEntries || bytes > maxBytes) && eldest.hasNext()) {
+                bytes -= eldest.next().weight();
+                eldest.remove();
+            }
+        }
+
+        synchronized void remove(String key, CachedResponse response) {
+            if (entries.remove(key, response)) {
+                bytes -= response.weight();
+            }
+        }
+
+        synchronized void removeExpired(long now) {
+            Iterator<CachedResponse> iterator = entries.values().iterator();
+            while (iterator.hasNext()) {
+                CachedResponse response = iterator.next();
+                if (response.isExpired(now)) {
+                    bytes -= response.weight();
+                    iterator.remove();
+                }
+            }
+        }
+
+        synchronized int size() {
+            return entries.size();
+        }
+
+        synchronized long bytes() {
+            return bytes;
+        }
+    }
+}
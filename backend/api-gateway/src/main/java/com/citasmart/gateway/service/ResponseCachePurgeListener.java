@@ -0,0 +1,76 @@
+package com.citasmart.gateway.service;
+
+import com.citasmart.gateway.config.ResponseCacheProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.ReactiveRedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.util.retry.Retry;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Recibe los eventos de purga que publican los servicios en Redis
+ *
+ * Cada mensaje es una lista de surrogate keys separadas por espacios, p. ej.
+ * {@code doctor:42 medical-center:3}; las entradas de caché etiquetadas con
+ * ellas dejan de servirse en el acto. Si la suscripción se cae se reintenta
+ * con backoff y, mientras tanto, las entradas caducan por TTL.
+ *
+ * @author CitaSmart Development Team
+ * @version 1.0.0
+ */
+@Service
+@ConditionalOnProperty(prefix = "citasmart.response-cache.purge", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ResponseCachePurgeListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResponseCachePurgeListener.class);
+
+    private final ResponseCache responseCache;
+    private final ReactiveRedisConnectionFactory connectionFactory;
+    private final String channel;
+
+    private ReactiveRedisMessageListenerContainer container;
+    private Disposable subscription;
+
+    public ResponseCachePurgeListener(ResponseCache responseCache, ReactiveRedisConnectionFactory connectionFactory,
+                                      ResponseCacheProperties properties) {
+        this.responseCache = responseCache;
+        this.connectionFactory = connectionFactory;
+        this.channel = properties.getPurge().getChannel();
+    }
+
+    @PostConstruct
+    void start() {
+        container = new ReactiveRedisMessageListenerContainer(connectionFactory);
+        subscription = container.receive(ChannelTopic.of(channel))
+            .doOnNext(message -> responseCache.purge(parse(message.getMessage())))
+            .doOnError(e -> logger.warn("Cache purge subscription to {} failed: {}", channel, e.getMessage()))
+            .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30)))
+            .subscribe();
+    }
+
+    @PreDestroy
+    void stop() {
+        subscription.dispose();
+        container.destroy();
+    }
+
+    private static List<String> parse(String message) {
+        List<String> keys = new ArrayList<>();
+        for (String key : message.trim().split("\\s+")) {
+            if (!key.isEmpty()) {
+                keys.add(key);
+            }
+        }
+        return keys;
+    }
+}
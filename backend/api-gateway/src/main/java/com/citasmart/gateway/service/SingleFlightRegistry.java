@@ -0,0 +1,166 @@
+package com.citasmart.gateway.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import javax.annotation.PostConstruct;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registro de requests GET en vuelo hacia los servicios
+ *
+ * La primera request con una clave lidera el vuelo y hace la llamada al
+ * servicio; las idénticas que llegan mientras tanto se suman y reciben la
+ * misma respuesta. La clave sale del mapa en cuanto hay respuesta, así que
+ * una request posterior abre un vuelo nuevo y nunca recibe datos viejos.
+ *
+ * @author CitaSmart Development Team
+ * @version 1.0.0
+ */
+@Service
+public class SingleFlightRegistry {
+
+    /** Marca de que el líder no compartió su respuesta: cada seguidor llama al servicio */
+    public static final SharedResponse NOT_SHARED = new SharedResponse(0, HttpHeaders.EMPTY, new byte[0]);
+
+    private final ConcurrentHashMap<String, Sinks.One<SharedResponse>> inFlight = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    public SingleFlightRegistry(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void init() {
+        Gauge.builder("gateway.singleflight.inflight", inFlight, ConcurrentHashMap::size)
+            .description("Distinct GET requests currently awaiting an upstream response")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Se une al vuelo de la clave o abre uno nuevo
+     *
+     * @param key Clave de la request ({@link RequestKeys})
+     * @return Vuelo, liderado por esta request si no había otro
+     */
+    public Flight join(String key) {
+        Sinks.One<SharedResponse> existing = inFlight.get(key);
+        if (existing == null) {
+            Sinks.One<SharedResponse> sink = Sinks.one();
+            existing = inFlight.putIfAbsent(key, sink);
+            if (existing == null) {
+                return new Flight(key, sink, true);
+            }
+        }
+        return new Flight(key, existing, false);
+    }
+
+    /**
+     * Anota una llamada al servicio, hecha por el líder de un vuelo
+     *
+     * @param routeId Id de la ruta
+     */
+    public void recordUpstream(String routeId) {
+        meterRegistry.counter("gateway.singleflight.upstream", "route", routeId).increment();
+    }
+
+    /**
+     * Anota una request servida con la respuesta de otra, una llamada al
+     * servicio ahorrada
+     *
+     * @param routeId Id de la ruta
+     */
+    public void recordSaved(String routeId) {
+        meterRegistry.counter("gateway.singleflight.saved", "route", routeId).increment();
+    }
+
+    /**
+     * Un vuelo visto desde una de sus requests
+     */
+    public final class Flight {
+
+        private final String key;
+        private final Sinks.One<SharedResponse> sink;
+        private final boolean leader;
+
+        private Flight(String key, Sinks.One<SharedResponse> sink, boolean leader) {
+            this.key = key;
+            this.sink = sink;
+            this.leader = leader;
+        }
+
+        public boolean isLeader() {
+            return leader;
+        }
+
+        /**
+         * Respuesta del líder, para los seguidores
+         *
+         * @return Mono con la respuesta compartida, {@link #NOT_SHARED} o el error del líder
+         */
+        public Mono<SharedResponse> response() {
+            return sink.asMono();
+        }
+
+        /**
+         * Entrega la respuesta del servicio a los seguidores y cierra el vuelo
+         *
+         * @param response Respuesta a compartir
+         */
+        public void complete(SharedResponse response) {
+            inFlight.remove(key, sink);
+            sink.tryEmitValue(response);
+        }
+
+        /**
+         * Propaga a los seguidores el error de la llamada al servicio
+         *
+         * @param error Error del líder
+         */
+        public void fail(Throwable error) {
+            inFlight.remove(key, sink);
+            sink.tryEmitError(error);
+        }
+
+        /**
+         * Cierra el vuelo sin respuesta compartida; no tiene efecto si ya se
+         * completó
+         */
+        public void release() {
+            complete(NOT_SHARED);
+        }
+    }
+
+    /**
+     * Respuesta de un servicio compartida por las requests de un vuelo;
+     * inmutable, el cuerpo no se modifica nunca
+     */
+    public static final class SharedResponse {
+
+        private final int status;
+        private final HttpHeaders headers;
+        private final byte[] body;
+
+        public SharedResponse(int status, HttpHeaders headers, byte[] body) {
+            this.status = status;
+            this.headers = HttpHeaders.readOnlyHttpHeaders(headers);
+            this.body = body;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+    }
+}
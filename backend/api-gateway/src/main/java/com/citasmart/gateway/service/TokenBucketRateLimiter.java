@@ -0,0 +1,316 @@
+package com.citasmart.gateway.service;
+
+import com.citasmart.gateway.config.RateLimitProperties;
+import com.citasmart.gateway.config.RateLimitProperties.Quota;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Rate limiter en memoria basado en token buckets
+ *
+ * Cada clave (ruta + usuario o IP) tiene un bucket cuyo estado es un único
+ * {@link AtomicLong}: el instante en que el bucket volvería a estar lleno.
+ * La reposición es perezosa, se calcula al consumir a partir del tiempo
+ * transcurrido, y el consumo es un compare-and-set, sin locks ni llamadas a
+ * Redis en el camino de la request. Los buckets se reparten en particiones
+ * para acotar la memoria y repartir la contención de la tabla.
+ *
+ * @author CitaSmart Development Team
+ * @version 1.0.0
+ */
+@Service
+public class TokenBucketRateLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenBucketRateLimiter.class);
+
+    private final RateLimitProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    private ConcurrentHashMap<String, Bucket>[] stripes;
+    private int stripeMask;
+    private int maxKeysPerStripe;
+    private ScheduledExecutorService sweeper;
+
+    public TokenBucketRateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Crea las particiones y programa el barrido de buckets inactivos
+     */
+    @PostConstruct
+    @SuppressWarnings("unchecked")
+    void init() {
+        int count = properties.getStripes() <= 1 ? 1 : Integer.highestOneBit((properties.getStripes() - 1) << 1);
+        stripes = new ConcurrentHashMap[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new ConcurrentHashMap<>();
+        }
+        stripeMask = count - 1;
+        maxKeysPerStripe = Math.max(1, properties.getMaxKeys() / count);
+
+        sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "gateway-ratelimit-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweeper.scheduleWithFixedDelay(this::sweep, properties.getSweepInterval(),
+            properties.getSweepInterval(), TimeUnit.MILLISECONDS);
+
+        Gauge.builder("gateway.ratelimit.buckets", this, TokenBucketRateLimiter::size)
+            .description("Token buckets held in memory")
+            .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        sweeper.shutdownNow();
+    }
+
+    /**
+     * Intenta consumir los tokens de una request
+     *
+     * @param routeId Id de la ruta del gateway
+     * @param key Identidad limitada: usuario o IP
+     * @return Resultado con los tokens restantes o la espera necesaria
+     */
+    public Decision tryConsume(String routeId, String key) {
+        Quota quota = properties.quotaFor(routeId);
+        if (!properties.isEnabled() || quota.isUnlimited()) {
+            return Decision.UNLIMITED;
+        }
+        long now = System.nanoTime();
+        return bucket((routeId != null ? routeId : "") + '|' + key, quota, now)
+            .tryConsume(quota.getRequestedTokens(), now);
+    }
+
+    /**
+     * Recorre los buckets vivos; lo usa la sincronización con Redis
+     *
+     * @param action Acción a aplicar a cada bucket
+     */
+    public void forEachBucket(Consumer<Bucket> action) {
+        for (ConcurrentHashMap<String, Bucket> stripe : stripes) {
+            stripe.values().forEach(action);
+        }
+    }
+
+    /**
+     * Número de buckets en memoria
+     *
+     * @return Total entre todas las particiones
+     */
+    public int size() {
+        int size = 0;
+        for (ConcurrentHashMap<String, Bucket> stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    private Bucket bucket(String key, Quota quota, long now) {
+        ConcurrentHashMap<String, Bucket> stripe = stripes[spread(key.hashCode()) & stripeMask];
+        Bucket bucket = stripe.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (stripe.size() >= maxKeysPerStripe) {
+            evict(stripe, now);
+        }
+        return stripe.computeIfAbsent(key, k -> new Bucket(k, quota, now));
+    }
+
+    /**
+     * Libera espacio en una partición llena: primero los buckets llenos, que
+     * se recrearían idénticos; si no hay ninguno, uno cualquiera
+     */
+    private void evict(ConcurrentHashMap<String, Bucket> stripe, long now) {
+        if (stripe.values().removeIf(bucket -> bucket.isIdle(now))) {
+            return;
+        }
+        Iterator<Bucket> iterator = stripe.values().iterator();
+        if (iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private void sweep() {
+        try {
+            long now = System.nanoTime();
+            int before = size();
+            for (ConcurrentHashMap<String, Bucket> stripe : stripes) {
+                stripe.values().removeIf(bucket -> bucket.isIdle(now));
+            }
+            logger.debug("Rate limit sweep released {} idle buckets", before - size());
+        } catch (RuntimeException e) {
+            logger.warn("Rate limit sweep failed", e);
+        }
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Token bucket de una clave
+     *
+     * {@code fullAt} es el instante (nanoTime) en que el bucket estaría lleno;
+     * los tokens disponibles son {@code (tolerancia - (fullAt - ahora)) / intervalo}.
+     * Consumir adelanta {@code fullAt} un intervalo por token y el paso del
+     * tiempo lo repone sin ninguna escritura.
+     */
+    public static final class Bucket {
+
+        private final String key;
+        private final long intervalNanos;
+        private final long toleranceNanos;
+        private final AtomicLong fullAt;
+        private final AtomicLong unsynced = new AtomicLong();
+        private long syncedTotal = -1;
+
+        Bucket(String key, Quota quota, long now) {
+            this.key = key;
+            this.intervalNanos = Math.max(1L, TimeUnit.SECONDS.toNanos(1) / quota.getReplenishRate());
+            this.toleranceNanos = intervalNanos * Math.max(1, quota.getBurstCapacity());
+            this.fullAt = new AtomicLong(now);
+        }
+
+        Decision tryConsume(int tokens, long now) {
+            long cost = intervalNanos * tokens;
+            while (true) {
+                long current = fullAt.get();
+                long next = Math.max(current, now) + cost;
+                long debt = next - now;
+                if (debt > toleranceNanos) {
+                    return Decision.rejected(TimeUnit.NANOSECONDS.toMillis(debt - toleranceNanos) + 1);
+                }
+                if (fullAt.compareAndSet(current, next)) {
+                    unsynced.addAndGet(tokens);
+                    return Decision.allowed((toleranceNanos - debt) / intervalNanos);
+                }
+            }
+        }
+
+        /**
+         * Descuenta tokens consumidos en otras instancias, sin dejar el bucket
+         * por debajo de vacío
+         *
+         * @param tokens Tokens consumidos fuera de esta instancia
+         */
+        void debit(long tokens) {
+            long now = System.nanoTime();
+            long cost = intervalNanos * tokens;
+            while (true) {
+                long current = fullAt.get();
+                long next = Math.min(Math.max(current, now) + cost, now + toleranceNanos);
+                if (next <= current || fullAt.compareAndSet(current, next)) {
+                    return;
+                }
+            }
+        }
+
+        boolean isIdle(long now) {
+            return fullAt.get() - now <= 0 && unsynced.get() == 0;
+        }
+
+        /**
+         * Toma el consumo local pendiente de publicar
+         *
+         * @return Tokens consumidos desde la última sincronización
+         */
+        public long drainUnsynced() {
+            return unsynced.getAndSet(0);
+        }
+
+        /**
+         * Devuelve consumo que no se pudo publicar
+         *
+         * @param tokens Tokens a publicar en la siguiente sincronización
+         */
+        public void restoreUnsynced(long tokens) {
+            unsynced.addAndGet(tokens);
+        }
+
+        /**
+         * Aplica el total global tras publicar el consumo local
+         *
+         * La diferencia con el total anterior, menos lo publicado por esta
+         * instancia, es lo consumido por las demás. La primera vez solo se
+         * toma la referencia. Lo invoca un único hilo de sincronización.
+         *
+         * @param total Contador global tras el incremento
+         * @param published Tokens publicados por esta instancia en el incremento
+         */
+        public void applyGlobal(long total, long published) {
+            long previous = syncedTotal;
+            syncedTotal = total;
+            if (previous >= 0) {
+                long remote = total - previous - published;
+                if (remote > 0) {
+                    debit(remote);
+                }
+            }
+        }
+
+        public String getKey() {
+            return key;
+        }
+    }
+
+    /**
+     * Resultado de consumir tokens de un bucket
+     */
+    public static final class Decision {
+
+        static final Decision UNLIMITED = new Decision(true, -1, 0);
+
+        private final boolean allowed;
+        private final long remaining;
+        private final long retryAfterMillis;
+
+        private Decision(boolean allowed, long remaining, long retryAfterMillis) {
+            this.allowed = allowed;
+            this.remaining = remaining;
+            this.retryAfterMillis = retryAfterMillis;
+        }
+
+        static Decision allowed(long remaining) {
+            return new Decision(true, remaining, 0);
+        }
+
+        static Decision rejected(long retryAfterMillis) {
+            return new Decision(false, 0, retryAfterMillis);
+        }
+
+        public boolean isAllowed() {
+            return allowed;
+        }
+
+        public boolean isUnlimited() {
+            return this == UNLIMITED;
+        }
+
+        public long getRemaining() {
+            return remaining;
+        }
+
+        public long getRetryAfterMillis() {
+            return retryAfterMillis;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.citasmart.gateway.filter;
+
+import com.citasmart.gateway.config.RateLimitProperties;
+import com.citasmart.gateway.config.RateLimitProperties.Quota;
+import com.citasmart.gateway.service.JwtPrincipal;
+import com.citasmart.gateway.service.TokenBucketRateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitFilterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private RateLimitProperties properties;
+    private TokenBucketRateLimiter rateLimiter;
+    private RateLimitFilter filter;
+    private AtomicInteger upstreamCalls;
+    private GatewayFilterChain chain;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        properties = new RateLimitProperties();
+        Quota quota = new Quota();
+        quota.setReplenishRate(1);
+        quota.setBurstCapacity(2);
+        properties.setDefaultQuota(quota);
+        rateLimiter = new TokenBucketRateLimiter(properties, meterRegistry);
+        ReflectionTestUtils.invokeMethod(rateLimiter, "init");
+        filter = new RateLimitFilter(rateLimiter, properties, meterRegistry);
+        upstreamCalls = new AtomicInteger();
+        chain = exchange -> {
+            upstreamCalls.incrementAndGet();
+            return Mono.empty();
+        };
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.invokeMethod(rateLimiter, "shutdown");
+    }
+
+    @Test
+    void filter_WithinBurst_ForwardsWithRateLimitHeaders() {
+        // When
+        MockServerWebExchange exchange = call("10.0.0.1", null);
+
+        // Then
+        assertEquals(1, upstreamCalls.get());
+        HttpHeaders headers = exchange.getResponse().getHeaders();
+        assertEquals("1", headers.getFirst("X-RateLimit-Remaining"));
+        assertEquals("1", headers.getFirst("X-RateLimit-Replenish-Rate"));
+        assertEquals("2", headers.getFirst("X-RateLimit-Burst-Capacity"));
+        assertEquals("1", headers.getFirst("X-RateLimit-Requested-Tokens"));
+    }
+
+    @Test
+    void filter_BurstExhausted_Returns429WithRetryAfter() {
+        // Given
+        call("10.0.0.1", null);
+        call("10.0.0.1", null);
+
+        // When
+        MockServerWebExchange rejected = call("10.0.0.1", null);
+
+        // Then
+        assertEquals(2, upstreamCalls.get());
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, rejected.getResponse().getStatusCode());
+        assertEquals("1", rejected.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals(1.0, meterRegistry.counter("gateway.ratelimit.rejected", "route", "none").count());
+    }
+
+    @Test
+    void filter_AuthenticatedUser_LimitedPerUserNotPerAddress() {
+        // Given
+        call("10.0.0.1", 7L);
+        call("10.0.0.2", 7L);
+
+        // When
+        MockServerWebExchange sameUser = call("10.0.0.3", 7L);
+        MockServerWebExchange otherUser = call("10.0.0.3", 8L);
+
+        // Then
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, sameUser.getResponse().getStatusCode());
+        assertNull(otherUser.getResponse().getStatusCode());
+        assertEquals(3, upstreamCalls.get());
+    }
+
+    @Test
+    void filter_RateLimitDisabled_ForwardsWithoutHeaders() {
+        // Given
+        properties.setEnabled(false);
+
+        // When
+        MockServerWebExchange exchange = call("10.0.0.1", null);
+
+        // Then
+        assertEquals(1, upstreamCalls.get());
+        assertFalse(exchange.getResponse().getHeaders().containsKey("X-RateLimit-Remaining"));
+    }
+
+    private MockServerWebExchange call(String address, Long userId) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/v1/doctors")
+            .remoteAddress(new InetSocketAddress(address, 40000)));
+        if (userId != null) {
+            exchange.getAttributes().put(JwtPrincipal.EXCHANGE_ATTRIBUTE, new JwtPrincipal(userId, "user" + userId,
+                Collections.singletonList("PATIENT"), Instant.now().plusSeconds(3600)));
+        }
+        filter.filter(exchange, chain).block(Duration.ofSeconds(5));
+        return exchange;
+    }
+}
@@ -0,0 +1,203 @@
+package com.citasmart.gateway.filter;
+
+import com.citasmart.gateway.config.ResponseCacheProperties;
+import com.citasmart.gateway.config.ResponseCacheProperties.Rule;
+import com.citasmart.gateway.config.ResponseCacheProperties.Scope;
+import com.citasmart.gateway.service.JwtPrincipal;
+import com.citasmart.gateway.service.ResponseCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResponseCacheFilterTest {
+
+    private static final String SLOTS_PATH = "/api/v1/appointments/doctor/42/available-slots?date=2025-03-10";
+    private static final String PATIENT_PATH = "/api/v1/appointments/patient/7";
+    private static final String ETAG = "\"v1\"";
+
+    private ResponseCache responseCache;
+    private ResponseCacheFilter filter;
+    private AtomicInteger upstreamCalls;
+    private String cacheControl;
+    private String backendSurrogateKeys;
+
+    @BeforeEach
+    void setUp() {
+        ResponseCacheProperties properties = new ResponseCacheProperties();
+        properties.setRules(Arrays.asList(
+            rule("/api/v1/appointments/doctor/{doctorId}/available-slots", Scope.SHARED, "doctor:{doctorId}"),
+            rule("/api/v1/appointments/patient/{patientId}", Scope.USER, "patient:{patientId}")));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        responseCache = new ResponseCache(properties, meterRegistry);
+        ReflectionTestUtils.invokeMethod(responseCache, "init");
+        filter = new ResponseCacheFilter(responseCache, meterRegistry);
+        upstreamCalls = new AtomicInteger();
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.invokeMethod(responseCache, "shutdown");
+    }
+
+    @Test
+    void filter_RepeatedGet_MissThenHitWithoutCallingUpstream() {
+        // Given
+        backendSurrogateKeys = "schedule:9";
+        MockServerWebExchange first = get(SLOTS_PATH, user(1L));
+
+        // When
+        MockServerWebExchange second = get(SLOTS_PATH, user(1L));
+
+        // Then
+        assertEquals(1, upstreamCalls.get());
+        assertEquals("MISS", first.getResponse().getHeaders().getFirst("X-Cache"));
+        assertEquals("HIT", second.getResponse().getHeaders().getFirst("X-Cache"));
+        assertEquals("body-1", second.getResponse().getBodyAsString().block());
+        assertEquals(ETAG, second.getResponse().getHeaders().getETag());
+        assertFalse(first.getResponse().getHeaders().containsKey(ResponseCacheFilter.SURROGATE_KEY_HEADER));
+    }
+
+    @Test
+    void filter_SharedScope_ServesOneEntryToDifferentUsers() {
+        // Given
+        get(SLOTS_PATH, user(1L));
+
+        // When
+        MockServerWebExchange otherUser = get(SLOTS_PATH, user(2L));
+
+        // Then
+        assertEquals(1, upstreamCalls.get());
+        assertEquals("body-1", otherUser.getResponse().getBodyAsString().block());
+    }
+
+    @Test
+    void filter_UserScope_KeepsEntriesPerUserAndSkipsAnonymous() {
+        // Given
+        get(PATIENT_PATH, user(1L));
+
+        // When
+        MockServerWebExchange sameUser = get(PATIENT_PATH, user(1L));
+        MockServerWebExchange otherUser = get(PATIENT_PATH, user(2L));
+        MockServerWebExchange anonymous = get(PATIENT_PATH, null);
+
+        // Then
+        assertEquals(3, upstreamCalls.get());
+        assertEquals("body-1", sameUser.getResponse().getBodyAsString().block());
+        assertEquals("body-2", otherUser.getResponse().getBodyAsString().block());
+        assertNull(anonymous.getResponse().getHeaders().getFirst("X-Cache"));
+    }
+
+    @Test
+    void filter_IfNoneMatchEqualsCachedETag_Returns304() {
+        // Given
+        get(SLOTS_PATH, user(1L));
+        MockServerWebExchange exchange = MockServerWebExchange.from(
+            MockServerHttpRequest.get(SLOTS_PATH).header(HttpHeaders.IF_NONE_MATCH, ETAG));
+        exchange.getAttributes().put(JwtPrincipal.EXCHANGE_ATTRIBUTE, user(1L));
+
+        // When
+        filter.filter(exchange, upstream()).block(Duration.ofSeconds(5));
+
+        // Then
+        assertEquals(1, upstreamCalls.get());
+        assertEquals(HttpStatus.NOT_MODIFIED, exchange.getResponse().getStatusCode());
+        assertEquals(ETAG, exchange.getResponse().getHeaders().getETag());
+    }
+
+    @Test
+    void filter_SurrogateKeyPurged_CallsUpstreamAgain() {
+        // Given
+        backendSurrogateKeys = "schedule:9";
+        get(SLOTS_PATH, user(1L));
+        get(PATIENT_PATH, user(1L));
+
+        // When
+        responseCache.purge(Collections.singletonList("doctor:42"));
+        MockServerWebExchange purged = get(SLOTS_PATH, user(1L));
+        MockServerWebExchange untouched = get(PATIENT_PATH, user(1L));
+        responseCache.purge(Collections.singletonList("schedule:9"));
+        MockServerWebExchange purgedByBackendKey = get(SLOTS_PATH, user(1L));
+
+        // Then
+        assertEquals(4, upstreamCalls.get());
+        assertEquals("MISS", purged.getResponse().getHeaders().getFirst("X-Cache"));
+        assertEquals("HIT", untouched.getResponse().getHeaders().getFirst("X-Cache"));
+        assertEquals("body-4", purgedByBackendKey.getResponse().getBodyAsString().block());
+    }
+
+    @Test
+    void filter_BackendSendsNoStore_DoesNotCache() {
+        // Given
+        cacheControl = "no-store";
+        get(SLOTS_PATH, user(1L));
+
+        // When
+        MockServerWebExchange second = get(SLOTS_PATH, user(1L));
+
+        // Then
+        assertEquals(2, upstreamCalls.get());
+        assertEquals("MISS", second.getResponse().getHeaders().getFirst("X-Cache"));
+    }
+
+    private MockServerWebExchange get(String path, JwtPrincipal principal) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get(path));
+        if (principal != null) {
+            exchange.getAttributes().put(JwtPrincipal.EXCHANGE_ATTRIBUTE, principal);
+        }
+        filter.filter(exchange, upstream()).block(Duration.ofSeconds(5));
+        return exchange;
+    }
+
+    /** Servicio que numera sus respuestas para distinguir las servidas desde caché */
+    private GatewayFilterChain upstream() {
+        return exchange -> {
+            int call = upstreamCalls.incrementAndGet();
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.OK);
+            HttpHeaders headers = response.getHeaders();
+            headers.setContentType(MediaType.APPLICATION_JSON);
+            headers.setETag(ETAG);
+            if (cacheControl != null) {
+                headers.setCacheControl(cacheControl);
+            }
+            if (backendSurrogateKeys != null) {
+                headers.set(ResponseCacheFilter.SURROGATE_KEY_HEADER, backendSurrogateKeys);
+            }
+            byte[] body = ("body-" + call).getBytes(StandardCharsets.UTF_8);
+            return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+        };
+    }
+
+    private static JwtPrincipal user(Long userId) {
+        return new JwtPrincipal(userId, "user" + userId, Collections.singletonList("PATIENT"),
+            Instant.now().plusSeconds(3600));
+    }
+
+    private static Rule rule(String path, Scope scope, String surrogateKey) {
+        Rule rule = new Rule();
+        rule.setPath(path);
+        rule.setScope(scope);
+        rule.setTtl(60000);
+        rule.setSurrogateKeys(Collections.singletonList(surrogateKey));
+        return rule;
+    }
+}
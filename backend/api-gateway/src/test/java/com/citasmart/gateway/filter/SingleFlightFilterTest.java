@@ -0,0 +1,142 @@
+package com.citasmart.gateway.filter;
+
+import com.citasmart.gateway.config.ResponseCacheProperties;
+import com.citasmart.gateway.config.ResponseCacheProperties.Scope;
+import com.citasmart.gateway.config.SingleFlightProperties;
+import com.citasmart.gateway.service.ResponseCache;
+import com.citasmart.gateway.service.SingleFlightRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightFilterTest {
+
+    private static final String PATH = "/api/v1/appointments/doctor/42/available-slots?date=2025-03-10";
+
+    private SimpleMeterRegistry meterRegistry;
+    private SingleFlightProperties properties;
+    private SingleFlightFilter filter;
+    private AtomicInteger upstreamCalls;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        properties = new SingleFlightProperties();
+        properties.setDefaultScope(Scope.SHARED);
+        properties.setMaxBodySize(16);
+        ResponseCache responseCache = new ResponseCache(new ResponseCacheProperties(), meterRegistry);
+        filter = new SingleFlightFilter(new SingleFlightRegistry(meterRegistry), properties, responseCache);
+        upstreamCalls = new AtomicInteger();
+    }
+
+    @Test
+    void filter_ConcurrentIdenticalGets_CallUpstreamOnceAndShareTheBody() {
+        // Given
+        GatewayFilterChain chain = upstream(MediaType.APPLICATION_JSON, "[\"09:00\"]");
+
+        // When
+        List<MockServerWebExchange> exchanges = runConcurrently(5, chain);
+
+        // Then
+        assertEquals(1, upstreamCalls.get());
+        assertEquals(4.0, meterRegistry.counter("gateway.singleflight.saved", "route", "none").count());
+        for (MockServerWebExchange exchange : exchanges) {
+            assertEquals(HttpStatus.OK, exchange.getResponse().getStatusCode());
+            assertEquals("[\"09:00\"]", exchange.getResponse().getBodyAsString().block());
+        }
+    }
+
+    @Test
+    void filter_BodyLargerThanMaxBodySize_StreamsThroughAndFollowersCallUpstream() {
+        // Given
+        GatewayFilterChain chain = upstream(MediaType.APPLICATION_JSON, "[\"09:00\",", "\"09:30\",", "\"10:00\"]");
+
+        // When
+        List<MockServerWebExchange> exchanges = runConcurrently(3, chain);
+
+        // Then
+        assertEquals(3, upstreamCalls.get());
+        assertEquals(0.0, meterRegistry.counter("gateway.singleflight.saved", "route", "none").count());
+        for (MockServerWebExchange exchange : exchanges) {
+            assertEquals("[\"09:00\",\"09:30\",\"10:00\"]", exchange.getResponse().getBodyAsString().block());
+        }
+    }
+
+    @Test
+    void filter_LeaderBodyStillStreaming_ReleasesFollowersOncePastMaxBodySize() {
+        // Given
+        GatewayFilterChain chain = exchange -> {
+            ServerHttpResponse response = exchange.getResponse();
+            response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            if (upstreamCalls.getAndIncrement() == 0) {
+                // El líder manda más de max-body-size y el servicio no termina nunca
+                return response.writeWith(Flux.concat(
+                    Flux.just(response.bufferFactory().wrap(new byte[32])), Flux.never()));
+            }
+            return response.writeWith(Mono.just(response.bufferFactory().wrap("[]".getBytes(StandardCharsets.UTF_8))));
+        };
+        filter.filter(MockServerWebExchange.from(MockServerHttpRequest.get(PATH)), chain).subscribe();
+
+        // When
+        MockServerWebExchange follower = MockServerWebExchange.from(MockServerHttpRequest.get(PATH));
+        filter.filter(follower, chain).block(Duration.ofSeconds(5));
+
+        // Then
+        assertEquals(2, upstreamCalls.get());
+        assertEquals("[]", follower.getResponse().getBodyAsString().block());
+    }
+
+    @Test
+    void filter_StreamingMediaType_IsNeverShared() {
+        // Given
+        properties.setMaxBodySize(1024);
+        GatewayFilterChain chain = upstream(MediaType.APPLICATION_NDJSON, "{\"id\":1}\n", "{\"id\":2}\n");
+
+        // When
+        List<MockServerWebExchange> exchanges = runConcurrently(3, chain);
+
+        // Then
+        assertEquals(3, upstreamCalls.get());
+        assertEquals("{\"id\":1}\n{\"id\":2}\n", exchanges.get(2).getResponse().getBodyAsString().block());
+    }
+
+    private List<MockServerWebExchange> runConcurrently(int requests, GatewayFilterChain chain) {
+        List<MockServerWebExchange> exchanges = new ArrayList<>();
+        List<Mono<Void>> calls = new ArrayList<>();
+        for (int i = 0; i < requests; i++) {
+            MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get(PATH));
+            exchanges.add(exchange);
+            calls.add(filter.filter(exchange, chain));
+        }
+        Flux.merge(calls).blockLast(Duration.ofSeconds(5));
+        return exchanges;
+    }
+
+    /** Servicio lento que escribe el cuerpo en los trozos indicados */
+    private GatewayFilterChain upstream(MediaType contentType, String... chunks) {
+        return exchange -> Mono.delay(Duration.ofMillis(100)).then(Mono.defer(() -> {
+            upstreamCalls.incrementAndGet();
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.OK);
+            response.getHeaders().setContentType(contentType);
+            return response.writeWith(Flux.fromArray(chunks)
+                .map(chunk -> response.bufferFactory().wrap(chunk.getBytes(StandardCharsets.UTF_8))));
+        }));
+    }
+}
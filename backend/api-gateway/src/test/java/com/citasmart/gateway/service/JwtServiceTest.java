@@ -0,0 +1,147 @@
+package com.citasmart.gateway.service;
+
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.SecretKey;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtServiceTest {
+
+    private static final String SECRET = "dGhpc0lzQVZlcnlTZWNyZXRLZXlGb3JDaXRhU21hcnRBcHBsaWNhdGlvbjIwMjU=";
+
+    private final SecretKey key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+    private JwtService jwtService;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = newService(10000, 300000);
+    }
+
+    @Test
+    void parseToken_ValidToken_ReturnsPrincipalFromClaims() {
+        // Given
+        String token = token("ana", 7L, Instant.now().plusSeconds(3600));
+
+        // When
+        JwtPrincipal principal = jwtService.parseToken(token);
+
+        // Then
+        assertEquals("ana", principal.getUsername());
+        assertEquals(7L, principal.getUserId());
+        assertEquals(Arrays.asList("PATIENT", "ADMIN"), principal.getRoles());
+        assertEquals(2, principal.getAuthorities().size());
+    }
+
+    @Test
+    void parseToken_SameTokenTwice_ServesCachedPrincipal() {
+        // Given
+        String token = token("ana", 7L, Instant.now().plusSeconds(3600));
+        JwtPrincipal first = jwtService.parseToken(token);
+
+        // When
+        JwtPrincipal second = jwtService.parseToken(token);
+
+        // Then
+        assertSame(first, second);
+        assertEquals(1, jwtService.cachedTokens());
+    }
+
+    @Test
+    void parseToken_CacheTtlElapsed_VerifiesTokenAgain() {
+        // Given
+        jwtService = newService(10000, 0);
+        String token = token("ana", 7L, Instant.now().plusSeconds(3600));
+        JwtPrincipal first = jwtService.parseToken(token);
+
+        // When
+        JwtPrincipal second = jwtService.parseToken(token);
+
+        // Then
+        assertNotSame(first, second);
+        assertEquals(first.getUsername(), second.getUsername());
+    }
+
+    @Test
+    void parseToken_CachedTokenExpired_IsRejectedAndEvicted() throws InterruptedException {
+        // Given
+        Instant expiresAt = Instant.now().plusSeconds(1);
+        String token = token("ana", 7L, expiresAt);
+        jwtService.parseToken(token);
+        while (!Instant.now().isAfter(expiresAt.plusMillis(100))) {
+            Thread.sleep(50);
+        }
+
+        // When / Then
+        assertThrows(JwtException.class, () -> jwtService.parseToken(token));
+        assertEquals(0, jwtService.cachedTokens());
+    }
+
+    @Test
+    void authenticate_ExpiredOrTamperedToken_ReturnsEmpty() {
+        // Given
+        String expired = token("ana", 7L, Instant.now().minusSeconds(60));
+        String valid = token("ana", 7L, Instant.now().plusSeconds(3600));
+        String tampered = valid.substring(0, valid.length() - 2) + (valid.endsWith("AA") ? "BB" : "AA");
+
+        // When / Then
+        assertFalse(jwtService.authenticate(expired).isPresent());
+        assertFalse(jwtService.authenticate(tampered).isPresent());
+        assertEquals(0, jwtService.cachedTokens());
+    }
+
+    @Test
+    void parseToken_CacheFull_EvictsLeastRecentlyUsedEntry() {
+        // Given
+        jwtService = newService(3, 300000);
+        String[] tokens = new String[4];
+        JwtPrincipal[] principals = new JwtPrincipal[4];
+        for (int i = 0; i < 4; i++) {
+            tokens[i] = token("user" + i, (long) i, Instant.now().plusSeconds(3600));
+        }
+        for (int i = 0; i < 3; i++) {
+            principals[i] = jwtService.parseToken(tokens[i]);
+        }
+        jwtService.parseToken(tokens[0]);
+
+        // When
+        JwtPrincipal principal = jwtService.parseToken(tokens[3]);
+
+        // Then
+        assertEquals("user3", principal.getUsername());
+        assertEquals(3, jwtService.cachedTokens());
+        assertSame(principals[0], jwtService.parseToken(tokens[0]));
+        assertSame(principals[2], jwtService.parseToken(tokens[2]));
+        assertNotSame(principals[1], jwtService.parseToken(tokens[1]));
+    }
+
+    private JwtService newService(int maxEntries, long ttlMillis) {
+        JwtService service = new JwtService();
+        ReflectionTestUtils.setField(service, "secretKey", SECRET);
+        ReflectionTestUtils.setField(service, "cacheMaxEntries", maxEntries);
+        ReflectionTestUtils.setField(service, "cacheTtlMillis", ttlMillis);
+        ReflectionTestUtils.setField(service, "cacheStripes", 1);
+        service.init();
+        return service;
+    }
+
+    private String token(String username, Long userId, Instant expiresAt) {
+        return Jwts.builder()
+            .subject(username)
+            .claim("userId", userId)
+            .claim("roles", Arrays.asList("PATIENT", "ADMIN"))
+            .issuedAt(Date.from(expiresAt.minusSeconds(7200)))
+            .expiration(Date.from(expiresAt))
+            .signWith(key)
+            .compact();
+    }
+}
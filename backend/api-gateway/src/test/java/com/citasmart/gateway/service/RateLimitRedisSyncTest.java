@@ -0,0 +1,95 @@
+package com.citasmart.gateway.service;
+
+import com.citasmart.gateway.config.RateLimitProperties;
+import com.citasmart.gateway.service.TokenBucketRateLimiter.Decision;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ReactiveValueOperations;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RateLimitRedisSyncTest {
+
+    private static final String KEY = "citasmart:ratelimit:doctors|ana";
+
+    @Mock
+    private ReactiveStringRedisTemplate redisTemplate;
+
+    @Mock
+    private ReactiveValueOperations<String, String> valueOperations;
+
+    private TokenBucketRateLimiter rateLimiter;
+    private RateLimitRedisSync sync;
+
+    @BeforeEach
+    void setUp() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.getDefaultQuota().setReplenishRate(1);
+        properties.getDefaultQuota().setBurstCapacity(10);
+        rateLimiter = new TokenBucketRateLimiter(properties, new SimpleMeterRegistry());
+        rateLimiter.init();
+        sync = new RateLimitRedisSync(rateLimiter, redisTemplate, properties);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+    }
+
+    @AfterEach
+    void tearDown() {
+        rateLimiter.shutdown();
+    }
+
+    @Test
+    void syncOnce_RemoteConsumption_IsDebitedFromLocalBucket() {
+        // Given
+        when(redisTemplate.expire(anyString(), any(Duration.class))).thenReturn(Mono.just(true));
+        when(valueOperations.increment(KEY, 2L)).thenReturn(Mono.just(2L));
+        when(valueOperations.increment(KEY, 1L)).thenReturn(Mono.just(8L));
+        rateLimiter.tryConsume("doctors", "ana");
+        rateLimiter.tryConsume("doctors", "ana");
+        sync.syncOnce().block();
+
+        // When
+        rateLimiter.tryConsume("doctors", "ana");
+        sync.syncOnce().block();
+        Decision decision = rateLimiter.tryConsume("doctors", "ana");
+
+        // Then
+        verify(valueOperations).increment(KEY, 2L);
+        verify(valueOperations).increment(KEY, 1L);
+        verify(redisTemplate, times(2)).expire(eq(KEY), eq(Duration.ofMinutes(1)));
+        assertEquals(1, decision.getRemaining());
+    }
+
+    @Test
+    void syncOnce_RedisUnavailable_KeepsConsumptionForNextSync() {
+        // Given
+        when(valueOperations.increment(anyString(), anyLong()))
+            .thenReturn(Mono.error(new RedisConnectionFailureException("down")));
+        rateLimiter.tryConsume("doctors", "ana");
+        rateLimiter.tryConsume("doctors", "ana");
+
+        // When
+        sync.syncOnce().block();
+
+        // Then
+        long[] unsynced = new long[1];
+        rateLimiter.forEachBucket(bucket -> unsynced[0] += bucket.drainUnsynced());
+        assertEquals(2, unsynced[0]);
+        verify(redisTemplate, never()).expire(anyString(), any(Duration.class));
+    }
+}
@@ -0,0 +1,211 @@
+package com.citasmart.gateway.service;
+
+import com.citasmart.gateway.config.RateLimitProperties;
+import com.citasmart.gateway.config.RateLimitProperties.Quota;
+import com.citasmart.gateway.service.TokenBucketRateLimiter.Bucket;
+import com.citasmart.gateway.service.TokenBucketRateLimiter.Decision;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketRateLimiterTest {
+
+    private RateLimitProperties properties;
+    private TokenBucketRateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        properties = new RateLimitProperties();
+        properties.setStripes(1);
+        properties.setMaxKeys(2);
+        rateLimiter = new TokenBucketRateLimiter(properties, new SimpleMeterRegistry());
+        rateLimiter.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        rateLimiter.shutdown();
+    }
+
+    @Test
+    void tryConsume_BurstExhausted_RejectsWithRetryAfterOneInterval() {
+        // Given
+        long now = System.nanoTime();
+        Bucket bucket = new Bucket("doctors|ana", quota(10, 3), now);
+
+        // When
+        Decision first = bucket.tryConsume(1, now);
+        Decision second = bucket.tryConsume(1, now);
+        Decision third = bucket.tryConsume(1, now);
+        Decision fourth = bucket.tryConsume(1, now);
+
+        // Then
+        assertEquals(2, first.getRemaining());
+        assertEquals(1, second.getRemaining());
+        assertEquals(0, third.getRemaining());
+        assertFalse(fourth.isAllowed());
+        assertEquals(101, fourth.getRetryAfterMillis());
+        assertEquals(3, bucket.drainUnsynced());
+    }
+
+    @Test
+    void tryConsume_TimeElapsed_RefillsLazily() {
+        // Given
+        long now = System.nanoTime();
+        Bucket bucket = new Bucket("doctors|ana", quota(10, 3), now);
+        for (int i = 0; i < 3; i++) {
+            bucket.tryConsume(1, now);
+        }
+
+        // When
+        Decision afterOneInterval = bucket.tryConsume(1, now + TimeUnit.MILLISECONDS.toNanos(100));
+        Decision rightAfter = bucket.tryConsume(1, now + TimeUnit.MILLISECONDS.toNanos(100));
+        Decision afterFullRefill = bucket.tryConsume(1, now + TimeUnit.SECONDS.toNanos(10));
+
+        // Then
+        assertTrue(afterOneInterval.isAllowed());
+        assertEquals(0, afterOneInterval.getRemaining());
+        assertFalse(rightAfter.isAllowed());
+        assertEquals(2, afterFullRefill.getRemaining());
+    }
+
+    @Test
+    void tryConsume_ConcurrentRequests_NeverExceedBurst() throws Exception {
+        // Given
+        long now = System.nanoTime();
+        Bucket bucket = new Bucket("doctors|ana", quota(1, 50), now);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+
+        // When
+        for (int thread = 0; thread < 8; thread++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                int allowed = 0;
+                for (int i = 0; i < 100; i++) {
+                    if (bucket.tryConsume(1, now).isAllowed()) {
+                        allowed++;
+                    }
+                }
+                return allowed;
+            }));
+        }
+        start.countDown();
+        int allowed = 0;
+        for (Future<Integer> result : results) {
+            allowed += result.get(10, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // Then
+        assertEquals(50, allowed);
+        assertEquals(50, bucket.drainUnsynced());
+    }
+
+    @Test
+    void debit_RemoteConsumption_NeverLeavesBucketBelowEmpty() {
+        // Given
+        Bucket bucket = new Bucket("doctors|ana", quota(10, 5), System.nanoTime());
+
+        // When
+        bucket.debit(3);
+        Decision afterDebit = bucket.tryConsume(1, System.nanoTime());
+        bucket.debit(1000);
+        Decision afterOverDebit = bucket.tryConsume(1, System.nanoTime());
+
+        // Then
+        assertTrue(afterDebit.isAllowed());
+        assertEquals(1, afterDebit.getRemaining());
+        assertFalse(afterOverDebit.isAllowed());
+        assertTrue(afterOverDebit.getRetryAfterMillis() <= 101);
+        assertEquals(1, bucket.drainUnsynced());
+    }
+
+    @Test
+    void applyGlobal_SecondSync_DebitsOnlyWhatOtherInstancesConsumed() {
+        // Given
+        Bucket bucket = new Bucket("doctors|ana", quota(10, 10), System.nanoTime());
+        bucket.applyGlobal(40, 2);
+
+        // When
+        bucket.applyGlobal(49, 3);
+        Decision decision = bucket.tryConsume(1, System.nanoTime());
+
+        // Then
+        assertEquals(3, decision.getRemaining());
+    }
+
+    @Test
+    void tryConsume_DisabledOrUnlimitedRoute_ReturnsUnlimited() {
+        // Given
+        Quota unlimited = quota(0, 0);
+        properties.getRoutes().put("public", unlimited);
+
+        // When
+        Decision publicRoute = rateLimiter.tryConsume("public", "1.2.3.4");
+        properties.setEnabled(false);
+        Decision disabled = rateLimiter.tryConsume("doctors", "ana");
+
+        // Then
+        assertTrue(publicRoute.isUnlimited());
+        assertTrue(disabled.isUnlimited());
+        assertEquals(0, rateLimiter.size());
+    }
+
+    @Test
+    void tryConsume_StripeFull_EvictsToStayWithinMaxKeys() {
+        // Given
+        rateLimiter.tryConsume("doctors", "ana");
+        rateLimiter.tryConsume("doctors", "luis");
+
+        // When
+        Decision decision = rateLimiter.tryConsume("doctors", "marta");
+
+        // Then
+        assertTrue(decision.isAllowed());
+        assertEquals(2, rateLimiter.size());
+    }
+
+    @Test
+    void sweep_RefilledAndSyncedBuckets_AreReleased() throws InterruptedException {
+        // Given
+        properties.getRoutes().put("doctors", quota(1000, 1));
+        rateLimiter.tryConsume("doctors", "ana");
+        rateLimiter.tryConsume("doctors", "luis");
+        rateLimiter.forEachBucket(bucket -> {
+            if (bucket.getKey().endsWith("ana")) {
+                bucket.drainUnsynced();
+            }
+        });
+        Thread.sleep(10);
+
+        // When
+        ReflectionTestUtils.invokeMethod(rateLimiter, "sweep");
+
+        // Then
+        List<String> keys = new ArrayList<>();
+        rateLimiter.forEachBucket(bucket -> keys.add(bucket.getKey()));
+        assertEquals(1, keys.size());
+        assertEquals("doctors|luis", keys.get(0));
+    }
+
+    private static Quota quota(int replenishRate, int burstCapacity) {
+        Quota quota = new Quota();
+        quota.setReplenishRate(replenishRate);
+        quota.setBurstCapacity(burstCapacity);
+        return quota;
+    }
+}
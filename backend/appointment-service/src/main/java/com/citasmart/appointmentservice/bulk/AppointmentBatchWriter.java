@@ -0,0 +1,125 @@
+package com.citasmart.appointmentservice.bulk;
+
+import com.citasmart.appointmentservice.model.Appointment;
+import com.citasmart.appointmentservice.model.AppointmentHistory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Inserts appointments and history rows with plain JDBC batches.
+ *
+ * {@link Appointment} uses IDENTITY keys, which makes Hibernate execute one
+ * INSERT round trip per entity; here a whole list goes out as a single
+ * {@code executeBatch} and the generated IDs are read back from the batch.
+ * Both methods join the caller's transaction and do not touch the
+ * persistence context, so the written rows are not managed entities.
+ */
+@Component
+@RequiredArgsConstructor
+public class AppointmentBatchWriter {
+
+    private static final String INSERT_APPOINTMENT =
+            "INSERT INTO appointments (patient_id, doctor_id, medical_center_id, speciality_id, " +
+            "appointment_date, duration_minutes, status, type, reason, notes, patient_phone, patient_email, " +
+            "reminder_sent, confirmation_token, series_id, created_at, updated_at, created_by, updated_by, version) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+
+    private static final String INSERT_HISTORY =
+            "INSERT INTO appointment_history (appointment_id, action, description, performed_by, performed_at, " +
+            "previous_status, new_status, previous_date, new_date, change_reason, notes) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Inserts the appointments in one batch and assigns their generated IDs.
+     */
+    public void insertAppointments(List<Appointment> appointments) {
+        if (appointments.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_APPOINTMENT, new String[]{"id"})) {
+                for (Appointment appointment : appointments) {
+                    int i = 1;
+                    statement.setLong(i++, appointment.getPatientId());
+                    statement.setLong(i++, appointment.getDoctorId());
+                    statement.setLong(i++, appointment.getMedicalCenterId());
+                    statement.setLong(i++, appointment.getSpecialityId());
+                    statement.setTimestamp(i++, Timestamp.valueOf(appointment.getAppointmentDate()));
+                    statement.setInt(i++, appointment.getDurationMinutes());
+                    statement.setString(i++, appointment.getStatus().name());
+                    statement.setString(i++, appointment.getType().name());
+                    statement.setString(i++, appointment.getReason());
+                    statement.setString(i++, appointment.getNotes());
+                    statement.setString(i++, appointment.getPatientPhone());
+                    statement.setString(i++, appointment.getPatientEmail());
+                    statement.setBoolean(i++, Boolean.TRUE.equals(appointment.getReminderSent()));
+                    statement.setString(i++, appointment.getConfirmationToken());
+                    statement.setString(i++, appointment.getSeriesId());
+                    statement.setTimestamp(i++, Timestamp.valueOf(appointment.getCreatedAt()));
+                    statement.setTimestamp(i++, Timestamp.valueOf(appointment.getUpdatedAt()));
+                    statement.setString(i++, appointment.getCreatedBy());
+                    statement.setString(i, appointment.getUpdatedBy());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                try (ResultSet keys = statement.getGeneratedKeys()) {
+                    int index = 0;
+                    while (keys.next() && index < appointments.size()) {
+                        Appointment appointment = appointments.get(index++);
+                        appointment.setId(keys.getLong(1));
+                        appointment.setVersion(0L);
+                    }
+                    if (index != appointments.size()) {
+                        throw new IllegalStateException("Expected " + appointments.size()
+                                + " generated appointment IDs but the driver returned " + index);
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Inserts history rows in one batch; their appointments must already have IDs.
+     */
+    public void insertHistory(List<AppointmentHistory> history) {
+        if (history.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_HISTORY, history, history.size(), (statement, record) -> {
+            int i = 1;
+            statement.setLong(i++, record.getAppointment().getId());
+            statement.setString(i++, record.getAction());
+            statement.setString(i++, record.getDescription());
+            statement.setString(i++, record.getPerformedBy());
+            statement.setTimestamp(i++, Timestamp.valueOf(record.getPerformedAt()));
+            statement.setString(i++, record.getPreviousStatus() != null ? record.getPreviousStatus().name() : null);
+            statement.setString(i++, record.getNewStatus() != null ? record.getNewStatus().name() : null);
+            setTimestamp(statement, i++, record.getPreviousDate());
+            setTimestamp(statement, i++, record.getNewDate());
+            statement.setString(i++, record.getChangeReason());
+            statement.setString(i, record.getNotes());
+        });
+    }
+
+    private static void setTimestamp(PreparedStatement statement, int index, LocalDateTime value)
+            throws SQLException {
+        if (value != null) {
+            statement.setTimestamp(index, Timestamp.valueOf(value));
+        } else {
+            statement.setNull(index, Types.TIMESTAMP);
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package com.citasmart.appointmentservice.bulk;
+
+import com.citasmart.appointmentservice.dto.BulkAppointmentRequest;
+import com.citasmart.appointmentservice.dto.BulkOperationResult;
+import com.citasmart.appointmentservice.event.AppointmentChangedEvent;
+import com.citasmart.appointmentservice.exception.AppointmentConflictException;
+import com.citasmart.appointmentservice.exception.InvalidAppointmentDataException;
+import com.citasmart.appointmentservice.exception.OverlapConstraint;
+import com.citasmart.appointmentservice.history.AppointmentHistoryWriter;
+import com.citasmart.appointmentservice.hold.SlotHold;
+import com.citasmart.appointmentservice.hold.SlotHoldService;
+import com.citasmart.appointmentservice.model.Appointment;
+import com.citasmart.appointmentservice.model.AppointmentHistory;
+import com.citasmart.appointmentservice.model.AppointmentStatus;
+import com.citasmart.appointmentservice.model.AppointmentType;
+import com.citasmart.appointmentservice.model.OutboxEventType;
+import com.citasmart.appointmentservice.outbox.NotificationOutbox;
+import com.citasmart.appointmentservice.schedule.DoctorScheduleIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Cancels, completes, marks as no-show or shifts every eligible appointment
+ * of a doctor in a time range.
+ *
+ * The change is a single set-based {@code UPDATE ... RETURNING} that locks
+ * the matching rows, applies the new state and hands back both the new and
+ * the previous state, so no appointment is loaded or saved one by one. The
+ * returned rows feed the batched history writer, the usual
+ * {@link AppointmentChangedEvent}s and one outbox batch that skips patients
+ * who already have the same notification pending.
+ *
+ * A shift defers the {@code appointments_no_overlap} constraint for the
+ * statement, because back-to-back appointments overlap their not yet moved
+ * neighbours while the UPDATE runs, and checks it as soon as the statement
+ * has finished.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional
+public class AppointmentBulkUpdateService {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AppointmentHistoryWriter historyWriter;
+    private final NotificationOutbox notificationOutbox;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DoctorScheduleIndex scheduleIndex;
+    private final SlotHoldService slotHoldService;
+
+    @Value("${app.bulk.max-range-days:31}")
+    private int maxRangeDays;
+
+    public BulkOperationResult apply(BulkAppointmentRequest request, String performedBy) {
+        BulkAction action = request.getAction();
+        validate(request);
+        log.info("Bulk {} of doctor {} appointments in {} - {} by {}", action, request.getDoctorId(),
+                request.getFrom(), request.getTo(), performedBy);
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Object> params = new ArrayList<>();
+        String sql = buildUpdate(request, performedBy, now, params);
+
+        List<UpdatedRow> rows;
+        if (action == BulkAction.SHIFT) {
+            rows = shift(request, sql, params);
+        } else {
+            rows = jdbcTemplate.query(sql, UpdatedRow::map, params.toArray());
+        }
+
+        List<Appointment> appointments = new ArrayList<>(rows.size());
+        for (UpdatedRow row : rows) {
+            AppointmentChangedEvent change = AppointmentChangedEvent.of(action.getChangeType(), row.appointment,
+                    row.previousDate, row.appointment.getDurationMinutes(), row.previousStatus);
+            historyWriter.write(AppointmentHistory.builder()
+                    .appointment(row.appointment)
+                    .action(action.getHistoryAction())
+                    .description(describe(request))
+                    .performedBy(performedBy)
+                    .performedAt(now)
+                    .previousStatus(change.getPreviousStatus())
+                    .newStatus(change.getStatus())
+                    .previousDate(change.getPreviousDate())
+                    .newDate(change.getAppointmentDate())
+                    .changeReason(request.getReason())
+                    .build());
+            eventPublisher.publishEvent(change);
+            appointments.add(row.appointment);
+        }
+
+        // Completing or marking a no-show does not notify the patient, as for single appointments
+        int notified = 0;
+        if (action == BulkAction.CANCEL) {
+            notified = notificationOutbox.enqueueAll(appointments, OutboxEventType.APPOINTMENT_CANCELLED);
+        } else if (action == BulkAction.SHIFT) {
+            notified = notificationOutbox.enqueueAll(appointments, OutboxEventType.APPOINTMENT_UPDATED);
+        }
+
+        log.info("Bulk {} updated {} appointments of doctor {}, {} notifications queued",
+                action, appointments.size(), request.getDoctorId(), notified);
+        return BulkOperationResult.builder()
+                .action(action)
+                .doctorId(request.getDoctorId())
+                .from(request.getFrom())
+                .to(request.getTo())
+                .updated(appointments.size())
+                .notified(notified)
+                .appointmentIds(appointments.stream().map(Appointment::getId).collect(Collectors.toList()))
+                .build();
+    }
+
+    private void validate(BulkAppointmentRequest request) {
+        if (!request.getFrom().isBefore(request.getTo())) {
+            throw new InvalidAppointmentDataException("Range start must be before range end");
+        }
+        if (Duration.between(request.getFrom(), request.getTo()).toDays() >= maxRangeDays) {
+            throw new InvalidAppointmentDataException("Bulk operations cover at most " + maxRangeDays + " days");
+        }
+        if (request.getAction() == BulkAction.SHIFT
+                && (request.getShiftMinutes() == null || request.getShiftMinutes() == 0)) {
+            throw new InvalidAppointmentDataException("Shift minutes are required to shift appointments");
+        }
+        if (request.getAction() == BulkAction.CANCEL
+                && (request.getReason() == null || request.getReason().trim().isEmpty())) {
+            throw new InvalidAppointmentDataException("Cancellation reason is required");
+        }
+    }
+
+    private List<UpdatedRow> shift(BulkAppointmentRequest request, String sql, List<Object> params) {
+        List<UpdatedRow> rows;
+        try {
+            jdbcTemplate.execute("SET CONSTRAINTS " + OverlapConstraint.NAME + " DEFERRED");
+            rows = jdbcTemplate.query(sql, UpdatedRow::map, params.toArray());
+            jdbcTemplate.execute("SET CONSTRAINTS " + OverlapConstraint.NAME + " IMMEDIATE");
+        } catch (DataIntegrityViolationException e) {
+            if (!OverlapConstraint.isViolatedBy(e)) {
+                throw e;
+            }
+            // The shift ran into appointments outside the range or booked meanwhile
+            invalidateRange(request);
+            throw new AppointmentConflictException("Shifted appointments would overlap other appointments of the doctor", e);
+        }
+
+        // Holds live outside the database; check them once per affected day
+        Map<LocalDate, List<SlotHold>> holds = new TreeMap<>();
+        for (UpdatedRow row : rows) {
+            Appointment appointment = row.appointment;
+            List<SlotHold> dayHolds = holds.computeIfAbsent(appointment.getAppointmentDate().toLocalDate(),
+                    day -> slotHoldService.holdsOn(request.getDoctorId(), day));
+            for (SlotHold hold : dayHolds) {
+                if (hold.overlaps(appointment.getAppointmentDate(), appointment.getEndTime())) {
+                    throw new AppointmentConflictException("Shifted appointment " + appointment.getId()
+                            + " would overlap a slot held for booking");
+                }
+            }
+        }
+        return rows;
+    }
+
+    private void invalidateRange(BulkAppointmentRequest request) {
+        int shift = Math.abs(request.getShiftMinutes());
+        LocalDate last = request.getTo().plusMinutes(shift).toLocalDate();
+        for (LocalDate day = request.getFrom().minusMinutes(shift).toLocalDate(); !day.isAfter(last); day = day.plusDays(1)) {
+            scheduleIndex.invalidate(request.getDoctorId(), day);
+        }
+    }
+
+    private static String buildUpdate(BulkAppointmentRequest request, String performedBy,
+                                      LocalDateTime now, List<Object> params) {
+        BulkAction action = request.getAction();
+        StringBuilder sql = new StringBuilder("UPDATE appointments a SET updated_at = ?, updated_by = ?, version = a.version + 1");
+        params.add(Timestamp.valueOf(now));
+        params.add(performedBy);
+        if (action == BulkAction.SHIFT) {
+            sql.append(", appointment_date = a.appointment_date + ? * INTERVAL '1 minute'");
+            params.add(request.getShiftMinutes());
+        } else {
+            sql.append(", status = ?");
+            params.add(action.getTargetStatus().name());
+        }
+        if (action == BulkAction.CANCEL) {
+            sql.append(", cancellation_reason = ?, cancelled_by = ?, cancelled_at = ?");
+            params.add(request.getReason());
+            params.add(performedBy);
+            params.add(Timestamp.valueOf(now));
+        }
+
+        // The subquery locks the rows in id order, so concurrent bulk operations cannot deadlock
+        sql.append(" FROM (SELECT id, status, appointment_date FROM appointments")
+                .append(" WHERE doctor_id = ? AND appointment_date >= ? AND appointment_date < ? AND status IN (")
+                .append(String.join(", ", Collections.nCopies(action.getAppliesTo().size(), "?")))
+                .append(") ORDER BY id FOR UPDATE) prev")
+                .append(" WHERE a.id = prev.id")
+                .append(" RETURNING a.id, a.patient_id, a.doctor_id, a.medical_center_id, a.speciality_id,")
+                .append(" a.appointment_date, a.duration_minutes, a.status, a.type, a.patient_email, a.series_id,")
+                .append(" a.version, prev.status AS previous_status, prev.appointment_date AS previous_date");
+        params.add(request.getDoctorId());
+        params.add(Timestamp.valueOf(request.getFrom()));
+        params.add(Timestamp.valueOf(request.getTo()));
+        for (AppointmentStatus status : action.getAppliesTo()) {
+            params.add(status.name());
+        }
+        return sql.toString();
+    }
+
+    private static String describe(BulkAppointmentRequest request) {
+        switch (request.getAction()) {
+            case CANCEL:
+                return "Appointment cancelled in bulk: " + request.getReason();
+            case COMPLETE:
+                return "Appointment completed in bulk";
+            case NO_SHOW:
+                return "Patient did not attend (bulk)";
+            default:
+                return "Appointment shifted by " + request.getShiftMinutes() + " minutes in bulk";
+        }
+    }
+
+    /**
+     * An appointment as left by the UPDATE, with the state it had before.
+     */
+    static final class UpdatedRow {
+        final Appointment appointment;
+        final AppointmentStatus previousStatus;
+        final LocalDateTime previousDate;
+
+        UpdatedRow(Appointment appointment, AppointmentStatus previousStatus, LocalDateTime previousDate) {
+            this.appointment = appointment;
+            this.previousStatus = previousStatus;
+            this.previousDate = previousDate;
+        }
+
+        static UpdatedRow map(ResultSet row, int rowNum) throws SQLException {
+            Appointment appointment = Appointment.builder()
+                    .id(row.getLong("id"))
+                    .patientId(row.getLong("patient_id"))
+                    .doctorId(row.getLong("doctor_id"))
+                    .medicalCenterId(row.getLong("medical_center_id"))
+                    .specialityId(row.getLong("speciality_id"))
+                    .appointmentDate(row.getTimestamp("appointment_date").toLocalDateTime())
+                    .durationMinutes(row.getInt("duration_minutes"))
+                    .status(AppointmentStatus.valueOf(row.getString("status")))
+                    .type(AppointmentType.valueOf(row.getString("type")))
+                    .patientEmail(row.getString("patient_email"))
+                    .seriesId(row.getString("series_id"))
+                    .version(row.getLong("version"))
+                    .build();
+            return new UpdatedRow(appointment, AppointmentStatus.valueOf(row.getString("previous_status")),
+                    row.getTimestamp("previous_date").toLocalDateTime());
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package com.citasmart.appointmentservice.bulk;
+
+import com.citasmart.appointmentservice.model.AppointmentStatus;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams appointments as NDJSON or CSV straight from a JDBC cursor.
+ *
+ * The query runs inside a read-only transaction with a forward-only,
+ * read-only statement and a large fetch size, so the driver pulls rows in
+ * blocks (PostgreSQL only uses a server-side cursor when auto-commit is off)
+ * and each row is written to the response as soon as it is read. Memory use
+ * is independent of the number of rows and no count query is issued.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AppointmentExportService {
+
+    private static final String[] COLUMNS = {
+            "id", "patient_id", "doctor_id", "medical_center_id", "speciality_id", "appointment_date",
+            "duration_minutes", "status", "type", "reason", "notes", "reminder_sent", "cancellation_reason",
+            "cancelled_at", "created_at", "updated_at", "version"
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.export.fetch-size:5000}")
+    private int fetchSize;
+
+    /**
+     * Writes every appointment matching the filter to {@code output}; null filter values are ignored.
+     *
+     * @return number of rows written
+     */
+    public long export(ExportFilter filter, ImportFormat format, OutputStream output) {
+        long startedAt = System.currentTimeMillis();
+        List<Object> params = new ArrayList<>();
+        String sql = buildQuery(filter, params);
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        Long written = transaction.execute(status -> {
+            RowWriter writer = format == ImportFormat.CSV ? new CsvRowWriter(output) : new NdjsonRowWriter(output);
+            long[] count = {0};
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(sql,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(fetchSize);
+                for (int i = 0; i < params.size(); i++) {
+                    statement.setObject(i + 1, params.get(i));
+                }
+                return statement;
+            }, (RowCallbackHandler) resultSet -> {
+                writer.write(resultSet);
+                count[0]++;
+            });
+            writer.finish();
+            return count[0];
+        });
+
+        log.info("Exported {} appointments as {} in {} ms", written, format, System.currentTimeMillis() - startedAt);
+        return written != null ? written : 0;
+    }
+
+    private static String buildQuery(ExportFilter filter, List<Object> params) {
+        StringBuilder sql = new StringBuilder("SELECT ")
+                .append(String.join(", ", COLUMNS))
+                .append(" FROM appointments WHERE 1 = 1");
+        if (filter.getDoctorId() != null) {
+            sql.append(" AND doctor_id = ?");
+            params.add(filter.getDoctorId());
+        }
+        if (filter.getMedicalCenterId() != null) {
+            sql.append(" AND medical_center_id = ?");
+            params.add(filter.getMedicalCenterId());
+        }
+        if (filter.getStatus() != null) {
+            sql.append(" AND status = ?");
+            params.add(filter.getStatus().name());
+        }
+        if (filter.getFrom() != null) {
+            sql.append(" AND appointment_date >= ?");
+            params.add(Timestamp.valueOf(filter.getFrom()));
+        }
+        if (filter.getTo() != null) {
+            sql.append(" AND appointment_date < ?");
+            params.add(Timestamp.valueOf(filter.getTo()));
+        }
+        if (filter.getUpdatedSince() != null) {
+            // Incremental pulls resume from the last updated_at they saw
+            sql.append(" AND updated_at >= ? ORDER BY updated_at, id");
+            params.add(Timestamp.valueOf(filter.getUpdatedSince()));
+        } else {
+            sql.append(" ORDER BY appointment_date, id");
+        }
+        return sql.toString();
+    }
+
+    private interface RowWriter {
+        void write(ResultSet row) throws SQLException;
+
+        void finish();
+    }
+
+    private final class NdjsonRowWriter implements RowWriter {
+        private final JsonGenerator generator;
+
+        private NdjsonRowWriter(OutputStream output) {
+            try {
+                generator = objectMapper.getFactory().createGenerator(output);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void write(ResultSet row) throws SQLException {
+            try {
+                generator.writeStartObject();
+                for (String column : COLUMNS) {
+                    Object value = row.getObject(column);
+                    generator.writeFieldName(column);
+                    if (value == null) {
+                        generator.writeNull();
+                    } else if (value instanceof Number) {
+                        generator.writeNumber(value.toString());
+                    } else if (value instanceof Boolean) {
+                        generator.writeBoolean((Boolean) value);
+                    } else if (value instanceof Timestamp) {
+                        generator.writeString(((Timestamp) value).toLocalDateTime().toString());
+                    } else {
+                        generator.writeString(value.toString());
+                    }
+                }
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void finish() {
+            try {
+                generator.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private static final class CsvRowWriter implements RowWriter {
+        private final Writer writer;
+
+        private CsvRowWriter(OutputStream output) {
+            writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), 64 * 1024);
+            try {
+                writer.write(String.join(",", COLUMNS));
+                writer.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void write(ResultSet row) throws SQLException {
+            try {
+                for (int i = 0; i < COLUMNS.length; i++) {
+                    if (i > 0) {
+                        writer.write(',');
+                    }
+                    Object value = row.getObject(COLUMNS[i]);
+                    if (value instanceof Timestamp) {
+                        writer.write(((Timestamp) value).toLocalDateTime().toString());
+                    } else if (value != null) {
+                        writer.write(escape(value.toString()));
+                    }
+                }
+                writer.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void finish() {
+            try {
+                writer.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private static String escape(String value) {
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+    }
+
+    /**
+     * Optional filters of an export; {@code from}/{@code to} apply to the appointment date.
+     */
+    @lombok.Value
+    @lombok.Builder
+    public static class ExportFilter {
+        Long doctorId;
+        Long medicalCenterId;
+        AppointmentStatus status;
+        LocalDateTime from;
+        LocalDateTime to;
+        LocalDateTime updatedSince;
+    }
+}
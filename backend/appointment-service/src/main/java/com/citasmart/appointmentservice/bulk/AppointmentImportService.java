@@ -0,0 +1,293 @@
+package com.citasmart.appointmentservice.bulk;
+
+import com.citasmart.appointmentservice.dto.AppointmentImportReport;
+import com.citasmart.appointmentservice.dto.AppointmentImportReport.RowError;
+import com.citasmart.appointmentservice.dto.AppointmentImportRow;
+import com.citasmart.appointmentservice.event.AppointmentChangedEvent;
+import com.citasmart.appointmentservice.model.Appointment;
+import com.citasmart.appointmentservice.model.AppointmentHistory;
+import com.citasmart.appointmentservice.model.AppointmentStatus;
+import com.citasmart.appointmentservice.repository.AppointmentRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk import of appointments from an NDJSON or CSV stream.
+ *
+ * Rows are read and validated one at a time and committed in chunks of
+ * {@code batch-size}: each chunk loads the existing agenda of its doctors with
+ * one query, checks every row against an in-memory per-doctor interval map
+ * (which also holds the rows accepted earlier in the same load), and writes
+ * the accepted appointments and their history through JDBC batches in its own
+ * transaction. Invalid or conflicting rows are reported by line number and do
+ * not stop the load.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AppointmentImportService {
+
+    private static final int MAX_DURATION_MINUTES = 240;
+
+    private final AppointmentRepository appointmentRepository;
+    private final AppointmentBatchWriter batchWriter;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+
+    @Value("${app.import.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${app.import.max-rows:200000}")
+    private long maxRows;
+
+    @Value("${app.import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    public AppointmentImportReport importAppointments(InputStream input, ImportFormat format, String importedBy) {
+        long startedAt = System.currentTimeMillis();
+        ImportRun run = new ImportRun(importedBy);
+        ImportRowReader reader = new ImportRowReader(input, format, objectMapper);
+
+        List<ImportRowReader.ParsedRow> chunk = new ArrayList<>(batchSize);
+        ImportRowReader.ParsedRow parsed;
+        while ((parsed = reader.next()) != null) {
+            if (run.report.getTotalRows() >= maxRows) {
+                run.reject(parsed.line, "Row limit of " + maxRows + " reached; remaining rows were not read");
+                break;
+            }
+            run.report.setTotalRows(run.report.getTotalRows() + 1);
+            if (parsed.error != null) {
+                run.reject(parsed.line, parsed.error);
+                continue;
+            }
+            String violation = validate(parsed.row);
+            if (violation != null) {
+                run.reject(parsed.line, violation);
+                continue;
+            }
+            chunk.add(parsed);
+            if (chunk.size() >= batchSize) {
+                importChunk(chunk, run);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, run);
+        }
+
+        // Conflicts are detected per chunk, after parse errors of later lines
+        run.report.getErrors().sort(Comparator.comparingLong(RowError::getLine));
+        log.info("Imported {} of {} appointments ({} rejected) for {} in {} ms",
+                run.report.getImported(), run.report.getTotalRows(), run.report.getFailed(),
+                importedBy, System.currentTimeMillis() - startedAt);
+        return run.report;
+    }
+
+    private String validate(AppointmentImportRow row) {
+        Set<ConstraintViolation<AppointmentImportRow>> violations = validator.validate(row);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private void importChunk(List<ImportRowReader.ParsedRow> chunk, ImportRun run) {
+        loadExistingAgenda(chunk, run);
+
+        List<Appointment> accepted = new ArrayList<>(chunk.size());
+        List<Long> acceptedLines = new ArrayList<>(chunk.size());
+        List<Interval> reserved = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (ImportRowReader.ParsedRow parsed : chunk) {
+            AppointmentImportRow row = parsed.row;
+            AppointmentStatus status = row.getStatus() != null ? row.getStatus() : AppointmentStatus.SCHEDULED;
+            LocalDateTime start = row.getAppointmentDate();
+            LocalDateTime end = start.plusMinutes(row.getDurationMinutes());
+
+            if (status.occupiesSlot()) {
+                if (run.overlaps(row.getDoctorId(), start, end)) {
+                    run.reject(parsed.line, "Doctor " + row.getDoctorId() + " already has an appointment overlapping " + start);
+                    continue;
+                }
+                Interval interval = new Interval(row.getDoctorId(), start, end);
+                run.reserve(interval);
+                reserved.add(interval);
+            }
+            accepted.add(toAppointment(row, status, run.importedBy, now));
+            acceptedLines.add(parsed.line);
+        }
+        if (accepted.isEmpty()) {
+            return;
+        }
+
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(tx -> {
+                batchWriter.insertAppointments(accepted);
+                List<AppointmentHistory> history = new ArrayList<>(accepted.size());
+                for (Appointment appointment : accepted) {
+                    history.add(AppointmentHistory.builder()
+                            .appointment(appointment)
+                            .action("IMPORTED")
+                            .description("Appointment imported")
+                            .performedBy(run.importedBy)
+                            .performedAt(now)
+                            .newStatus(appointment.getStatus())
+                            .newDate(appointment.getAppointmentDate())
+                            .build());
+                }
+                batchWriter.insertHistory(history);
+                // Delivered after commit, so in-memory agenda views pick up the new bookings
+                for (Appointment appointment : accepted) {
+                    eventPublisher.publishEvent(AppointmentChangedEvent.created(appointment));
+                }
+            });
+            run.report.setImported(run.report.getImported() + accepted.size());
+        } catch (RuntimeException e) {
+            log.error("Import chunk of {} appointments failed", accepted.size(), e);
+            reserved.forEach(run::release);
+            String message = "Batch insert failed: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            for (Long line : acceptedLines) {
+                run.reject(line, message);
+            }
+        }
+    }
+
+    /**
+     * Loads, with one query, the active appointments of the chunk's doctors
+     * that could overlap any row of the chunk.
+     */
+    private void loadExistingAgenda(List<ImportRowReader.ParsedRow> chunk, ImportRun run) {
+        Set<Long> doctorIds = new HashSet<>();
+        LocalDateTime from = null;
+        LocalDateTime to = null;
+        for (ImportRowReader.ParsedRow parsed : chunk) {
+            AppointmentImportRow row = parsed.row;
+            doctorIds.add(row.getDoctorId());
+            LocalDateTime start = row.getAppointmentDate();
+            LocalDateTime end = start.plusMinutes(row.getDurationMinutes());
+            from = from == null || start.isBefore(from) ? start : from;
+            to = to == null || end.isAfter(to) ? end : to;
+        }
+        List<Appointment> existing = appointmentRepository.findByDoctorIdInAndAppointmentDateBetween(
+                doctorIds, from.minusMinutes(MAX_DURATION_MINUTES), to);
+        for (Appointment appointment : existing) {
+            if (appointment.getStatus().occupiesSlot() && run.knownIds.add(appointment.getId())) {
+                run.reserve(new Interval(appointment.getDoctorId(), appointment.getAppointmentDate(),
+                        appointment.getEndTime()));
+            }
+        }
+    }
+
+    private Appointment toAppointment(AppointmentImportRow row, AppointmentStatus status,
+                                      String importedBy, LocalDateTime now) {
+        return Appointment.builder()
+                .patientId(row.getPatientId())
+                .doctorId(row.getDoctorId())
+                .medicalCenterId(row.getMedicalCenterId())
+                .specialityId(row.getSpecialityId())
+                .appointmentDate(row.getAppointmentDate())
+                .durationMinutes(row.getDurationMinutes())
+                .status(status)
+                .type(row.getType())
+                .reason(row.getReason())
+                .notes(row.getNotes())
+                .patientPhone(row.getPatientPhone())
+                .patientEmail(row.getPatientEmail())
+                .confirmationToken(status == AppointmentStatus.SCHEDULED ? UUID.randomUUID().toString() : null)
+                .createdAt(now)
+                .updatedAt(now)
+                .createdBy(importedBy)
+                .updatedBy(importedBy)
+                .build();
+    }
+
+    /**
+     * State of one import request: report plus the per-doctor agenda seen so far.
+     */
+    private final class ImportRun {
+        private final String importedBy;
+        private final AppointmentImportReport report = new AppointmentImportReport();
+        // doctorId -> start -> latest end among intervals starting there
+        private final Map<Long, NavigableMap<LocalDateTime, LocalDateTime>> agenda = new HashMap<>();
+        private final Set<Long> knownIds = new HashSet<>();
+
+        private ImportRun(String importedBy) {
+            this.importedBy = importedBy;
+        }
+
+        boolean overlaps(Long doctorId, LocalDateTime start, LocalDateTime end) {
+            NavigableMap<LocalDateTime, LocalDateTime> intervals = agenda.get(doctorId);
+            if (intervals == null) {
+                return false;
+            }
+            // Nothing longer than the maximum duration can start earlier and still overlap
+            for (LocalDateTime otherEnd : intervals.subMap(start.minusMinutes(MAX_DURATION_MINUTES), false, end, false).values()) {
+                if (otherEnd.isAfter(start)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void reserve(Interval interval) {
+            agenda.computeIfAbsent(interval.doctorId, id -> new TreeMap<>())
+                    .merge(interval.start, interval.end, (a, b) -> a.isAfter(b) ? a : b);
+        }
+
+        void release(Interval interval) {
+            NavigableMap<LocalDateTime, LocalDateTime> intervals = agenda.get(interval.doctorId);
+            if (intervals != null) {
+                intervals.remove(interval.start, interval.end);
+            }
+        }
+
+        void reject(long line, String message) {
+            report.setFailed(report.getFailed() + 1);
+            if (report.getErrors().size() < maxReportedErrors) {
+                report.getErrors().add(new RowError(line, message));
+            } else {
+                report.setErrorsTruncated(true);
+            }
+        }
+    }
+
+    private static final class Interval {
+        private final Long doctorId;
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+
+        private Interval(Long doctorId, LocalDateTime start, LocalDateTime end) {
+            this.doctorId = doctorId;
+            this.start = start;
+            this.end = end;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.citasmart.appointmentservice.bulk;
+
+import com.citasmart.appointmentservice.event.AppointmentChangedEvent.ChangeType;
+import com.citasmart.appointmentservice.model.AppointmentStatus;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Change applied by a bulk operation to every matching appointment of a doctor's range.
+ */
+public enum BulkAction {
+    CANCEL(AppointmentStatus.CANCELLED, ChangeType.CANCELLED, "CANCELLED",     // Cancelar todas
+            AppointmentStatus.SCHEDULED, AppointmentStatus.CONFIRMED, AppointmentStatus.IN_PROGRESS,
+            AppointmentStatus.RESCHEDULED),
+    COMPLETE(AppointmentStatus.COMPLETED, ChangeType.COMPLETED, "COMPLETED",   // Marcar como completadas
+            AppointmentStatus.SCHEDULED, AppointmentStatus.CONFIRMED, AppointmentStatus.IN_PROGRESS,
+            AppointmentStatus.RESCHEDULED),
+    NO_SHOW(AppointmentStatus.NO_SHOW, ChangeType.NO_SHOW, "NO_SHOW",          // Paciente no se presentó
+            AppointmentStatus.SCHEDULED, AppointmentStatus.CONFIRMED),
+    SHIFT(null, ChangeType.UPDATED, "UPDATED",                                 // Desplazar N minutos
+            AppointmentStatus.SCHEDULED, AppointmentStatus.CONFIRMED, AppointmentStatus.RESCHEDULED);
+
+    private final AppointmentStatus targetStatus;
+    private final ChangeType changeType;
+    private final String historyAction;
+    private final List<AppointmentStatus> appliesTo;
+
+    BulkAction(AppointmentStatus targetStatus, ChangeType changeType, String historyAction,
+               AppointmentStatus... appliesTo) {
+        this.targetStatus = targetStatus;
+        this.changeType = changeType;
+        this.historyAction = historyAction;
+        this.appliesTo = Collections.unmodifiableList(Arrays.asList(appliesTo));
+    }
+
+    /**
+     * Status the appointments end in; null when the action keeps their status.
+     */
+    public AppointmentStatus getTargetStatus() {
+        return targetStatus;
+    }
+
+    public ChangeType getChangeType() {
+        return changeType;
+    }
+
+    public String getHistoryAction() {
+        return historyAction;
+    }
+
+    /**
+     * Statuses of the appointments the action touches; any other appointment in the range is left alone.
+     */
+    public List<AppointmentStatus> getAppliesTo() {
+        return appliesTo;
+    }
+}
@@ -0,0 +1,28 @@
+package com.citasmart.appointmentservice.bulk;
+
+import org.springframework.http.MediaType;
+
+/**
+ * Wire formats accepted by the bulk import and produced by the export.
+ */
+public enum ImportFormat {
+    NDJSON("application/x-ndjson"),
+    CSV("text/csv");
+
+    private final String mediaType;
+
+    ImportFormat(String mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    public static ImportFormat fromContentType(String contentType) {
+        if (contentType != null && MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.parseMediaType(CSV.mediaType))) {
+            return CSV;
+        }
+        return NDJSON;
+    }
+}
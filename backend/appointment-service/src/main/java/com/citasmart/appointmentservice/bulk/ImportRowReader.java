@@ -0,0 +1,131 @@
+package com.citasmart.appointmentservice.bulk;
+
+import com.citasmart.appointmentservice.dto.AppointmentImportRow;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads import rows one line at a time from an NDJSON or CSV stream, so the
+ * request body is never held in memory. CSV input needs a header line naming
+ * the {@link AppointmentImportRow} properties; quoted fields may contain
+ * commas and doubled quotes but not line breaks.
+ */
+class ImportRowReader {
+
+    private final BufferedReader reader;
+    private final ImportFormat format;
+    private final ObjectMapper objectMapper;
+    private List<String> header;
+    private long line;
+
+    ImportRowReader(InputStream input, ImportFormat format, ObjectMapper objectMapper) {
+        this.reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        this.format = format;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Next parsed row, or null at end of input. Rows that cannot be parsed are
+     * returned with an error message instead of a value.
+     */
+    ParsedRow next() {
+        try {
+            String text;
+            while ((text = reader.readLine()) != null) {
+                line++;
+                if (text.trim().isEmpty()) {
+                    continue;
+                }
+                if (format == ImportFormat.CSV && header == null) {
+                    header = splitCsv(text.startsWith("\uFEFF") ? text.substring(1) : text);
+                    continue;
+                }
+                return parse(text);
+            }
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private ParsedRow parse(String text) {
+        try {
+            if (format == ImportFormat.NDJSON) {
+                return new ParsedRow(line, objectMapper.readValue(text, AppointmentImportRow.class), null);
+            }
+            List<String> values = splitCsv(text);
+            if (values.size() != header.size()) {
+                return new ParsedRow(line, null, "Expected " + header.size() + " columns but found " + values.size());
+            }
+            Map<String, String> fields = new LinkedHashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                if (!values.get(i).isEmpty()) {
+                    fields.put(header.get(i).trim(), values.get(i));
+                }
+            }
+            return new ParsedRow(line, objectMapper.convertValue(fields, AppointmentImportRow.class), null);
+        } catch (Exception e) {
+            return new ParsedRow(line, null, "Malformed row: " + rootMessage(e));
+        }
+    }
+
+    static List<String> splitCsv(String text) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        values.add(current.toString());
+        return values;
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable cause = e;
+        while (cause.getCause() != null && cause.getCause() != cause) {
+            cause = cause.getCause();
+        }
+        String message = cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+        int newline = message.indexOf('\n');
+        return newline > 0 ? message.substring(0, newline) : message;
+    }
+
+    static final class ParsedRow {
+        final long line;
+        final AppointmentImportRow row;
+        final String error;
+
+        ParsedRow(long line, AppointmentImportRow row, String error) {
+            this.line = line;
+            this.row = row;
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,391 @@
+package com.citasmart.appointmentservice.client;
+
+import com.citasmart.appointmentservice.dto.UserBatchRequest;
+import com.citasmart.appointmentservice.dto.UserResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import feign.FeignException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Two-level near cache in front of {@link UserServiceClient}.
+ *
+ * L1 is a bounded in-process LRU map, L2 is Redis shared by all instances.
+ * An entry is served as-is while fresh; between {@code fresh-ttl} and
+ * {@code stale-ttl} it is still served but refreshed in the background
+ * (stale-while-revalidate). Older entries are only used when user-service
+ * cannot be reached, up to {@code fallback-ttl}, so a user-service outage
+ * does not block appointment reads or notifications for users seen recently.
+ * Redis errors degrade to L1 + origin.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class UserNearCache {
+
+    private static final String KEY_PREFIX = "citasmart:users:";
+
+    private final UserServiceClient userServiceClient;
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.services.user-service.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.services.user-service.cache.max-entries:10000}")
+    private int maxEntries;
+
+    @Value("${app.services.user-service.cache.fresh-ttl:5m}")
+    private Duration freshTtl;
+
+    @Value("${app.services.user-service.cache.stale-ttl:30m}")
+    private Duration staleTtl;
+
+    @Value("${app.services.user-service.cache.fallback-ttl:24h}")
+    private Duration fallbackTtl;
+
+    @Value("${app.services.user-service.cache.redis-enabled:true}")
+    private boolean redisEnabled;
+
+    @Value("${app.services.user-service.cache.refresh-threads:2}")
+    private int refreshThreads;
+
+    private Map<Long, CachedUser> local;
+    private final Set<Long> refreshing = ConcurrentHashMap.newKeySet();
+    private ExecutorService refreshExecutor;
+
+    private Counter l1Hits;
+    private Counter l2Hits;
+    private Counter staleHits;
+    private Counter misses;
+    private Counter fallbacks;
+    private Counter refreshSuccesses;
+    private Counter refreshFailures;
+
+    @PostConstruct
+    void init() {
+        final int capacity = maxEntries;
+        local = Collections.synchronizedMap(new LinkedHashMap<Long, CachedUser>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, CachedUser> eldest) {
+                return size() > capacity;
+            }
+        });
+
+        AtomicInteger threadCount = new AtomicInteger();
+        refreshExecutor = new ThreadPoolExecutor(refreshThreads, refreshThreads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(1000), runnable -> {
+                    Thread thread = new Thread(runnable, "user-cache-refresh-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        l1Hits = requests("l1_hit");
+        l2Hits = requests("l2_hit");
+        staleHits = requests("stale_hit");
+        misses = requests("miss");
+        fallbacks = requests("fallback");
+        refreshSuccesses = meterRegistry.counter("user.cache.refreshes", "outcome", "success");
+        refreshFailures = meterRegistry.counter("user.cache.refreshes", "outcome", "failure");
+        meterRegistry.gauge("user.cache.l1.size", local, Map::size);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    /**
+     * Returns the user, from cache when possible. Propagates the user-service
+     * error only when no cached copy at all is available.
+     */
+    public UserResponse getUser(Long id) {
+        long now = System.currentTimeMillis();
+        CachedUser cached = local.get(id);
+        if (cached != null && isFresh(cached, now)) {
+            l1Hits.increment();
+            return cached.getUser();
+        }
+        if (cached == null || !isServable(cached, now)) {
+            CachedUser shared = remoteGet(id);
+            if (shared != null && (cached == null || shared.getFetchedAt() > cached.getFetchedAt())) {
+                local.put(id, shared);
+                cached = shared;
+                if (isFresh(cached, now)) {
+                    l2Hits.increment();
+                    return cached.getUser();
+                }
+            }
+        }
+        if (cached != null && isServable(cached, now)) {
+            staleHits.increment();
+            refreshAsync(Collections.singleton(id));
+            return cached.getUser();
+        }
+
+        misses.increment();
+        try {
+            UserResponse user = userServiceClient.getUserById(id);
+            store(user, System.currentTimeMillis());
+            return user;
+        } catch (RuntimeException e) {
+            if (isNotFound(e)) {
+                evict(id);
+                throw e;
+            }
+            if (cached != null && isUsableFallback(cached, now)) {
+                fallbacks.increment();
+                log.warn("user-service unavailable, serving cached user {} from {} ms ago: {}",
+                        id, now - cached.getFetchedAt(), e.getMessage());
+                return cached.getUser();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Resolves many users with at most one L2 round trip and one batch call per
+     * {@code batch-size} misses. Users that cannot be resolved are absent from
+     * the result; this method does not throw on user-service errors.
+     */
+    public Map<Long, UserResponse> getUsers(Collection<Long> ids) {
+        long now = System.currentTimeMillis();
+        Map<Long, UserResponse> users = new HashMap<>(ids.size() * 2);
+        Map<Long, CachedUser> fallbackCandidates = new HashMap<>();
+        Set<Long> stale = new LinkedHashSet<>();
+        List<Long> missing = new ArrayList<>();
+
+        for (Long id : ids) {
+            CachedUser cached = local.get(id);
+            if (cached != null && isFresh(cached, now)) {
+                l1Hits.increment();
+                users.put(id, cached.getUser());
+            } else if (cached != null && isServable(cached, now)) {
+                stale.add(id);
+                users.put(id, cached.getUser());
+            } else {
+                if (cached != null) {
+                    fallbackCandidates.put(id, cached);
+                }
+                missing.add(id);
+            }
+        }
+
+        List<Long> toFetch = new ArrayList<>();
+        Map<Long, CachedUser> shared = remoteGetAll(missing);
+        for (Long id : missing) {
+            CachedUser cached = shared.get(id);
+            if (cached == null) {
+                toFetch.add(id);
+                continue;
+            }
+            local.put(id, cached);
+            if (isFresh(cached, now)) {
+                l2Hits.increment();
+                users.put(id, cached.getUser());
+            } else if (isServable(cached, now)) {
+                stale.add(id);
+                users.put(id, cached.getUser());
+            } else {
+                fallbackCandidates.put(id, cached);
+                toFetch.add(id);
+            }
+        }
+
+        if (!stale.isEmpty()) {
+            staleHits.increment(stale.size());
+            refreshAsync(stale);
+        }
+        if (!toFetch.isEmpty()) {
+            misses.increment(toFetch.size());
+            fetchBatch(toFetch, users, fallbackCandidates, now);
+        }
+        return users;
+    }
+
+    public void evict(Long id) {
+        local.remove(id);
+        if (redisEnabled) {
+            try {
+                redisTemplate.delete(KEY_PREFIX + id);
+            } catch (RuntimeException e) {
+                log.debug("Could not evict user {} from Redis: {}", id, e.getMessage());
+            }
+        }
+    }
+
+    private void fetchBatch(List<Long> ids, Map<Long, UserResponse> users,
+                            Map<Long, CachedUser> fallbackCandidates, long now) {
+        int size = Math.max(1, batchSize);
+        for (int from = 0; from < ids.size(); from += size) {
+            List<Long> chunk = ids.subList(from, Math.min(from + size, ids.size()));
+            try {
+                List<UserResponse> found = userServiceClient.getUsersByIds(new UserBatchRequest(new LinkedHashSet<>(chunk)));
+                storeAll(found, System.currentTimeMillis());
+                if (found != null) {
+                    for (UserResponse user : found) {
+                        users.put(user.getId(), user);
+                    }
+                }
+            } catch (RuntimeException e) {
+                int served = 0;
+                for (Long id : chunk) {
+                    CachedUser cached = fallbackCandidates.get(id);
+                    if (cached != null && isUsableFallback(cached, now)) {
+                        users.put(id, cached.getUser());
+                        served++;
+                    }
+                }
+                fallbacks.increment(served);
+                log.warn("Could not resolve {} users from user-service ({} served from cache): {}",
+                        chunk.size(), served, e.getMessage());
+            }
+        }
+    }
+
+    private void refreshAsync(Collection<Long> ids) {
+        List<Long> claimed = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            if (refreshing.add(id)) {
+                claimed.add(id);
+            }
+        }
+        if (claimed.isEmpty()) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> refresh(claimed));
+        } catch (RejectedExecutionException e) {
+            refreshing.removeAll(claimed);
+            log.debug("User cache refresh queue full, skipping {} users", claimed.size());
+        }
+    }
+
+    private void refresh(List<Long> ids) {
+        try {
+            int size = Math.max(1, batchSize);
+            for (int from = 0; from < ids.size(); from += size) {
+                List<Long> chunk = ids.subList(from, Math.min(from + size, ids.size()));
+                storeAll(userServiceClient.getUsersByIds(new UserBatchRequest(new LinkedHashSet<>(chunk))),
+                        System.currentTimeMillis());
+            }
+            refreshSuccesses.increment();
+        } catch (RuntimeException e) {
+            refreshFailures.increment();
+            log.debug("Background refresh of {} users failed: {}", ids.size(), e.getMessage());
+        } finally {
+            refreshing.removeAll(ids);
+        }
+    }
+
+    private void storeAll(List<UserResponse> users, long fetchedAt) {
+        if (users != null) {
+            for (UserResponse user : users) {
+                store(user, fetchedAt);
+            }
+        }
+    }
+
+    private void store(UserResponse user, long fetchedAt) {
+        if (user == null || user.getId() == null) {
+            return;
+        }
+        CachedUser cached = new CachedUser(user, fetchedAt);
+        local.put(user.getId(), cached);
+        if (redisEnabled) {
+            try {
+                redisTemplate.opsForValue().set(KEY_PREFIX + user.getId(),
+                        objectMapper.writeValueAsString(cached), fallbackTtl);
+            } catch (Exception e) {
+                log.debug("Could not write user {} to Redis: {}", user.getId(), e.getMessage());
+            }
+        }
+    }
+
+    private CachedUser remoteGet(Long id) {
+        return remoteGetAll(Collections.singletonList(id)).get(id);
+    }
+
+    private Map<Long, CachedUser> remoteGetAll(List<Long> ids) {
+        if (!redisEnabled || ids.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        List<String> keys = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            keys.add(KEY_PREFIX + id);
+        }
+        Map<Long, CachedUser> found = new HashMap<>();
+        try {
+            List<String> values = redisTemplate.opsForValue().multiGet(keys);
+            if (values == null) {
+                return found;
+            }
+            for (int i = 0; i < ids.size(); i++) {
+                String json = values.get(i);
+                if (json != null) {
+                    found.put(ids.get(i), objectMapper.readValue(json, CachedUser.class));
+                }
+            }
+        } catch (Exception e) {
+            log.debug("Could not read {} users from Redis: {}", ids.size(), e.getMessage());
+        }
+        return found;
+    }
+
+    private boolean isFresh(CachedUser cached, long now) {
+        return now - cached.getFetchedAt() < freshTtl.toMillis();
+    }
+
+    private boolean isServable(CachedUser cached, long now) {
+        return now - cached.getFetchedAt() < staleTtl.toMillis();
+    }
+
+    private boolean isUsableFallback(CachedUser cached, long now) {
+        return now - cached.getFetchedAt() < fallbackTtl.toMillis();
+    }
+
+    private static boolean isNotFound(RuntimeException e) {
+        return e instanceof FeignException && ((FeignException) e).status() == 404;
+    }
+
+    private Counter requests(String result) {
+        return meterRegistry.counter("user.cache.requests", "result", result);
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class CachedUser {
+        private UserResponse user;
+        private long fetchedAt;
+    }
+}
@@ -1,9 +1,14 @@
 package com.citasmart.appointmentservice.client;
 
+import com.citasmart.appointmentservice.dto.UserBatchRequest;
 import com.citasmart.appointmentservice.dto.UserResponse;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+
+import java.util.List;
 
 @FeignClient(name = "user-service", url = "${app.services.user-service.url:http://localhost:8081}")
 public interface UserServiceClient {
@@ -13,4 +18,7 @@ public interface UserServiceClient {
     
     @GetMapping("/api/v1/users/email/{email}")
     UserResponse getUserByEmail(@PathVariable("email") String email);
+    
+    @PostMapping("/api/v1/users/batch")
+    List<UserResponse> getUsersByIds(@RequestBody UserBatchRequest request);
 }
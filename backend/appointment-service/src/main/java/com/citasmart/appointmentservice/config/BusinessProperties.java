@@ -0,0 +1,39 @@
+package com.citasmart.appointmentservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Business rules bound from {@code app.business.*}.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.business")
+public class BusinessProperties {
+
+    private WorkingHours workingHours = new WorkingHours();
+
+    private Set<DayOfWeek> workingDays = EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.FRIDAY);
+
+    private Integer appointmentDuration = 30;
+
+    private Integer advanceBookingDays = 30;
+
+    private Integer cancellationHours = 24;
+
+    public boolean isWorkingDay(DayOfWeek dayOfWeek) {
+        return workingDays.contains(dayOfWeek);
+    }
+
+    @Data
+    public static class WorkingHours {
+        private LocalTime start = LocalTime.of(8, 0);
+        private LocalTime end = LocalTime.of(18, 0);
+    }
+}
@@ -0,0 +1,58 @@
+package com.citasmart.appointmentservice.config;
+
+import com.citasmart.shared.security.GatewayIdentityFilter;
+import com.citasmart.shared.security.GatewayIdentityVerifier;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+
+import java.util.List;
+
+/**
+ * Requests reach the service through the API gateway, which has already
+ * verified the caller's JWT; the caller is taken from the gateway's signed
+ * identity header and authorised with the {@code @PreAuthorize} rules on
+ * the controllers.
+ */
+@Configuration
+@EnableWebSecurity
+@EnableMethodSecurity(prePostEnabled = true)
+@Import(GatewayIdentityVerifier.class)
+@RequiredArgsConstructor
+public class SecurityConfig {
+
+    private final GatewayIdentityVerifier gatewayIdentityVerifier;
+
+    @Value("${app.security.gateway.trusted-addresses:127.0.0.1,::1}")
+    private List<String> trustedGatewayAddresses;
+
+    @Bean
+    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+        http
+            .csrf(csrf -> csrf.disable())
+            .httpBasic(httpBasic -> httpBasic.disable())
+            .formLogin(formLogin -> formLogin.disable())
+            .sessionManagement(session ->
+                session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+            .authorizeHttpRequests(authz -> authz
+                // Link in the confirmation email; the token is the credential
+                .antMatchers(HttpMethod.PUT, "/api/v1/appointments/confirm/**").permitAll()
+                .antMatchers("/actuator/**").permitAll()
+                .antMatchers("/v3/api-docs/**", "/swagger-ui/**", "/swagger-ui.html").permitAll()
+                .anyRequest().authenticated()
+            )
+            .addFilterBefore(new GatewayIdentityFilter(gatewayIdentityVerifier, trustedGatewayAddresses),
+                UsernamePasswordAuthenticationFilter.class);
+
+        return http.build();
+    }
+}
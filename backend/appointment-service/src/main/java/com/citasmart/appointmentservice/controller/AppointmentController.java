@@ -1,6 +1,15 @@
 package com.citasmart.appointmentservice.controller;
 
+import com.citasmart.appointmentservice.bulk.AppointmentBulkUpdateService;
+import com.citasmart.appointmentservice.bulk.AppointmentExportService;
+import com.citasmart.appointmentservice.bulk.AppointmentImportService;
+import com.citasmart.appointmentservice.bulk.ImportFormat;
 import com.citasmart.appointmentservice.dto.*;
+import com.citasmart.appointmentservice.hold.SlotHoldService;
+import com.citasmart.appointmentservice.push.PushTopic;
+import com.citasmart.appointmentservice.push.SchedulePushHub;
+import com.citasmart.appointmentservice.push.SurrogateKeys;
+import com.citasmart.appointmentservice.waitlist.WaitlistService;
 import com.citasmart.appointmentservice.model.AppointmentStatus;
 import com.citasmart.appointmentservice.service.AppointmentService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -15,15 +24,25 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
+import java.io.InputStream;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/v1/appointments")
@@ -33,7 +52,16 @@ import java.util.List;
 @SecurityRequirement(name = "bearerAuth")
 public class AppointmentController {
     
+    // Hot availability reads may be served by the gateway's cache for a few seconds; browsers do not cache them
+    private static final CacheControl GATEWAY_CACHEABLE = CacheControl.empty().sMaxAge(5, TimeUnit.SECONDS);
+
     private final AppointmentService appointmentService;
+    private final AppointmentImportService appointmentImportService;
+    private final AppointmentExportService appointmentExportService;
+    private final AppointmentBulkUpdateService appointmentBulkUpdateService;
+    private final SlotHoldService slotHoldService;
+    private final WaitlistService waitlistService;
+    private final SchedulePushHub schedulePushHub;
 
     @PostMapping
     @Operation(summary = "Create a new appointment", 
@@ -55,19 +83,131 @@ public class AppointmentController {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
+    @PostMapping("/series")
+    @Operation(summary = "Create a recurring appointment series",
+               description = "Books a weekly series of follow-up or treatment visits; either every visit is booked or none")
+    @ApiResponse(responseCode = "201", description = "Series created successfully")
+    @ApiResponse(responseCode = "400", description = "Invalid series data")
+    @ApiResponse(responseCode = "409", description = "One or more visits of the series are not available")
+    @PreAuthorize("hasAnyRole('DOCTOR', 'RECEPTIONIST', 'ADMIN')")
+    public ResponseEntity<List<AppointmentResponseDto>> createAppointmentSeries(
+            @Valid @RequestBody AppointmentSeriesRequest request,
+            Authentication authentication) {
+
+        log.info("Creating {}-visit series for patient {} with doctor {}",
+                request.getOccurrences(), request.getPatientId(), request.getDoctorId());
+
+        List<AppointmentResponseDto> response = appointmentService.createAppointmentSeries(
+                request, authentication.getName()).stream()
+                .map(AppointmentResponseDto::from)
+                .collect(Collectors.toList());
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
+    @PostMapping("/holds")
+    @Operation(summary = "Hold a time slot",
+               description = "Reserves a doctor's slot for a few minutes; pass the returned token as holdToken when creating the appointment")
+    @ApiResponse(responseCode = "201", description = "Slot held")
+    @ApiResponse(responseCode = "409", description = "Time slot not available or already held")
+    @PreAuthorize("hasAnyRole('PATIENT', 'RECEPTIONIST', 'ADMIN')")
+    public ResponseEntity<SlotHoldDto> holdSlot(
+            @Valid @RequestBody SlotHoldRequest request,
+            Authentication authentication) {
+        
+        log.info("Holding slot {} of doctor {} for {}", 
+                request.getAppointmentDate(), request.getDoctorId(), authentication.getName());
+        
+        SlotHoldDto response = SlotHoldDto.from(slotHoldService.hold(request.getDoctorId(),
+                request.getAppointmentDate(), request.getDurationMinutes(), authentication.getName()));
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
+    @DeleteMapping("/holds/{token}")
+    @Operation(summary = "Release a slot hold", 
+               description = "Releases a hold placed by the current user before it expires")
+    @ApiResponse(responseCode = "204", description = "Hold released")
+    @PreAuthorize("hasAnyRole('PATIENT', 'RECEPTIONIST', 'ADMIN')")
+    public ResponseEntity<Void> releaseSlotHold(
+            @Parameter(description = "Hold token") @PathVariable String token,
+            Authentication authentication) {
+        
+        log.info("Releasing slot hold for {}", authentication.getName());
+        
+        slotHoldService.release(token, authentication.getName());
+        return ResponseEntity.noContent().build();
+    }
+
+    @PostMapping("/waitlist")
+    @Operation(summary = "Join the waitlist", 
+               description = "Registers interest in a doctor or speciality for a time window; freed slots that fit are held for the patient")
+    @ApiResponse(responseCode = "201", description = "Waitlist entry created")
+    @ApiResponse(responseCode = "400", description = "Invalid waitlist window")
+    @PreAuthorize("hasAnyRole('PATIENT', 'RECEPTIONIST', 'ADMIN')")
+    public ResponseEntity<WaitlistEntryDto> joinWaitlist(
+            @Valid @RequestBody WaitlistRequest request,
+            Authentication authentication) {
+        
+        log.info("Patient {} joining the waitlist", request.getPatientId());
+        
+        WaitlistEntryDto response = WaitlistEntryDto.from(
+                waitlistService.register(request, authentication.getName()));
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
+    @GetMapping("/waitlist/patient/{patientId}")
+    @Operation(summary = "Get waitlist entries by patient", 
+               description = "Lists a patient's waitlist entries, including slots currently offered to them")
+    @PreAuthorize("hasAnyRole('PATIENT', 'RECEPTIONIST', 'ADMIN')")
+    public ResponseEntity<List<WaitlistEntryDto>> getWaitlistByPatient(
+            @Parameter(description = "Patient ID") @PathVariable Long patientId) {
+        
+        log.debug("Fetching waitlist entries for patient {}", patientId);
+        
+        List<WaitlistEntryDto> entries = waitlistService.getEntriesByPatientId(patientId).stream()
+                .map(WaitlistEntryDto::from)
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(entries);
+    }
+
+    @DeleteMapping("/waitlist/{id}")
+    @Operation(summary = "Leave the waitlist", 
+               description = "Withdraws a waitlist entry and releases any slot held for it")
+    @ApiResponse(responseCode = "204", description = "Waitlist entry withdrawn")
+    @ApiResponse(responseCode = "403", description = "Waitlist entry belongs to another patient")
+    @PreAuthorize("hasAnyRole('RECEPTIONIST', 'ADMIN') or " +
+                  "(hasRole('PATIENT') and @waitlistService.isOwnedBy(#id, authentication.principal.id))")
+    public ResponseEntity<Void> leaveWaitlist(
+            @Parameter(description = "Waitlist entry ID") @PathVariable Long id) {
+        
+        log.info("Withdrawing waitlist entry {}", id);
+        
+        waitlistService.cancel(id);
+        return ResponseEntity.noContent().build();
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Get appointment by ID", 
                description = "Retrieves a specific appointment by its ID")
     @ApiResponse(responseCode = "200", description = "Appointment found")
+    @ApiResponse(responseCode = "304", description = "Appointment unchanged since the If-None-Match ETag")
     @ApiResponse(responseCode = "404", description = "Appointment not found")
     @PreAuthorize("hasAnyRole('PATIENT', 'DOCTOR', 'RECEPTIONIST', 'ADMIN')")
     public ResponseEntity<AppointmentResponseDto> getAppointment(
-            @Parameter(description = "Appointment ID") @PathVariable Long id) {
+            @Parameter(description = "Appointment ID") @PathVariable Long id,
+            WebRequest webRequest) {
         
         log.debug("Fetching appointment with ID: {}", id);
         
+        // Only the version is read to answer a matching If-None-Match
+        Optional<Long> version = appointmentService.getAppointmentVersion(id);
+        if (version.isPresent() && webRequest.checkNotModified(appointmentTag(id, version.get()))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(appointmentTag(id, version.get())).build();
+        }
+        
         AppointmentResponseDto response = appointmentService.getAppointmentById(id);
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok()
+                .eTag(appointmentTag(id, response.getVersion()))
+                .body(response);
     }
 
     @PutMapping("/{id}")
@@ -247,6 +387,100 @@ public class AppointmentController {
         return ResponseEntity.ok(appointments);
     }
 
+    @GetMapping("/patient/{patientId}/cursor")
+    @Operation(summary = "Get appointments by patient (keyset)", 
+               description = "Newest first; pass the returned nextCursor to fetch the following page")
+    @PreAuthorize("hasAnyRole('PATIENT', 'DOCTOR', 'RECEPTIONIST', 'ADMIN') or #patientId == authentication.principal.id")
+    public ResponseEntity<CursorPage<AppointmentResponseDto>> getAppointmentsByPatientCursor(
+            @Parameter(description = "Patient ID") @PathVariable Long patientId,
+            @Parameter(description = "Continuation token") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size") @RequestParam(defaultValue = "20") int size,
+            @Parameter(description = "Include total count") @RequestParam(defaultValue = "false") boolean includeTotal) {
+        
+        log.debug("Fetching appointment page for patient {}", patientId);
+        
+        CursorPage<AppointmentResponseDto> appointments = appointmentService
+                .getAppointmentsByPatientId(patientId, cursor, size, includeTotal)
+                .map(AppointmentResponseDto::from);
+        
+        return ResponseEntity.ok(appointments);
+    }
+
+    @GetMapping("/doctor/{doctorId}/cursor")
+    @Operation(summary = "Get appointments by doctor (keyset)", 
+               description = "Newest first; pass the returned nextCursor to fetch the following page")
+    @PreAuthorize("hasAnyRole('DOCTOR', 'RECEPTIONIST', 'ADMIN') or #doctorId == authentication.principal.id")
+    public ResponseEntity<CursorPage<AppointmentResponseDto>> getAppointmentsByDoctorCursor(
+            @Parameter(description = "Doctor ID") @PathVariable Long doctorId,
+            @Parameter(description = "Continuation token") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size") @RequestParam(defaultValue = "20") int size,
+            @Parameter(description = "Include total count") @RequestParam(defaultValue = "false") boolean includeTotal) {
+        
+        log.debug("Fetching appointment page for doctor {}", doctorId);
+        
+        CursorPage<AppointmentResponseDto> appointments = appointmentService
+                .getAppointmentsByDoctorId(doctorId, cursor, size, includeTotal)
+                .map(AppointmentResponseDto::from);
+        
+        return ResponseEntity.ok(appointments);
+    }
+
+    @GetMapping("/medical-center/{medicalCenterId}/cursor")
+    @Operation(summary = "Get appointments by medical center (keyset)", 
+               description = "Newest first; pass the returned nextCursor to fetch the following page")
+    @PreAuthorize("hasAnyRole('RECEPTIONIST', 'ADMIN')")
+    public ResponseEntity<CursorPage<AppointmentResponseDto>> getAppointmentsByMedicalCenterCursor(
+            @Parameter(description = "Medical Center ID") @PathVariable Long medicalCenterId,
+            @Parameter(description = "Continuation token") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size") @RequestParam(defaultValue = "20") int size,
+            @Parameter(description = "Include total count") @RequestParam(defaultValue = "false") boolean includeTotal) {
+        
+        log.debug("Fetching appointment page for medical center {}", medicalCenterId);
+        
+        CursorPage<AppointmentResponseDto> appointments = appointmentService
+                .getAppointmentsByMedicalCenterId(medicalCenterId, cursor, size, includeTotal)
+                .map(AppointmentResponseDto::from);
+        
+        return ResponseEntity.ok(appointments);
+    }
+
+    // Live change streams
+    @GetMapping(value = "/stream/doctor/{doctorId}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream a doctor's appointment changes", 
+               description = "Server-Sent Events with a compact delta per created, updated or cancelled appointment of the doctor")
+    @ApiResponse(responseCode = "503", description = "Subscriber limit reached")
+    @PreAuthorize("hasAnyRole('DOCTOR', 'RECEPTIONIST', 'ADMIN') or #doctorId == authentication.principal.id")
+    public SseEmitter streamDoctorChanges(
+            @Parameter(description = "Doctor ID") @PathVariable Long doctorId) {
+        
+        log.debug("Opening change stream for doctor {}", doctorId);
+        return schedulePushHub.subscribe(PushTopic.DOCTOR, doctorId);
+    }
+
+    @GetMapping(value = "/stream/medical-center/{medicalCenterId}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream a medical center's appointment changes", 
+               description = "Server-Sent Events with a compact delta per created, updated or cancelled appointment of the center")
+    @ApiResponse(responseCode = "503", description = "Subscriber limit reached")
+    @PreAuthorize("hasAnyRole('RECEPTIONIST', 'ADMIN')")
+    public SseEmitter streamMedicalCenterChanges(
+            @Parameter(description = "Medical Center ID") @PathVariable Long medicalCenterId) {
+        
+        log.debug("Opening change stream for medical center {}", medicalCenterId);
+        return schedulePushHub.subscribe(PushTopic.MEDICAL_CENTER, medicalCenterId);
+    }
+
+    @GetMapping(value = "/stream/patient/{patientId}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream a patient's appointment changes", 
+               description = "Server-Sent Events with a compact delta per created, updated or cancelled appointment of the patient")
+    @ApiResponse(responseCode = "503", description = "Subscriber limit reached")
+    @PreAuthorize("hasAnyRole('PATIENT', 'DOCTOR', 'RECEPTIONIST', 'ADMIN') or #patientId == authentication.principal.id")
+    public SseEmitter streamPatientChanges(
+            @Parameter(description = "Patient ID") @PathVariable Long patientId) {
+        
+        log.debug("Opening change stream for patient {}", patientId);
+        return schedulePushHub.subscribe(PushTopic.PATIENT, patientId);
+    }
+
     @GetMapping("/status/{status}")
     @Operation(summary = "Get appointments by status", 
                description = "Retrieves all appointments with a specific status")
@@ -285,25 +519,35 @@ public class AppointmentController {
     @GetMapping("/doctor/{doctorId}/schedule")
     @Operation(summary = "Get doctor schedule", 
                description = "Retrieves the schedule for a specific doctor within a date range")
+    @ApiResponse(responseCode = "200", description = "Schedule found")
+    @ApiResponse(responseCode = "304", description = "Schedule unchanged since the If-None-Match ETag")
     @PreAuthorize("hasAnyRole('DOCTOR', 'RECEPTIONIST', 'ADMIN') or #doctorId == authentication.principal.id")
     public ResponseEntity<List<AppointmentResponseDto>> getDoctorSchedule(
             @Parameter(description = "Doctor ID") @PathVariable Long doctorId,
             @Parameter(description = "Start date") 
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
             @Parameter(description = "End date") 
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            WebRequest webRequest) {
         
         log.debug("Fetching schedule for doctor {} between {} and {}", doctorId, startDate, endDate);
         
+        // Read before the schedule so a concurrent write can only make the tag older, never newer
+        String etag = scheduleTag(appointmentService.getDoctorScheduleVersion(doctorId, startDate, endDate));
+        if (webRequest.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        
         List<AppointmentResponseDto> schedule = appointmentService
                 .getDoctorSchedule(doctorId, startDate, endDate);
         
-        return ResponseEntity.ok(schedule);
+        return ResponseEntity.ok().eTag(etag).body(schedule);
     }
 
     @GetMapping("/doctor/{doctorId}/availability")
     @Operation(summary = "Check time slot availability", 
                description = "Checks if a specific time slot is available for a doctor")
+    @PreAuthorize("hasAnyRole('PATIENT', 'DOCTOR', 'RECEPTIONIST', 'ADMIN')")
     public ResponseEntity<Boolean> checkTimeSlotAvailability(
             @Parameter(description = "Doctor ID") @PathVariable Long doctorId,
             @Parameter(description = "Start time") 
@@ -314,12 +558,16 @@ public class AppointmentController {
         log.debug("Checking availability for doctor {} from {} to {}", doctorId, startTime, endTime);
         
         boolean available = appointmentService.isTimeSlotAvailable(doctorId, startTime, endTime);
-        return ResponseEntity.ok(available);
+        return ResponseEntity.ok()
+                .cacheControl(GATEWAY_CACHEABLE)
+                .header(SurrogateKeys.HEADER, SurrogateKeys.doctor(doctorId))
+                .body(available);
     }
 
     @GetMapping("/doctor/{doctorId}/available-slots")
     @Operation(summary = "Get available time slots", 
                description = "Returns available time slots for a doctor on a specific date")
+    @PreAuthorize("hasAnyRole('PATIENT', 'DOCTOR', 'RECEPTIONIST', 'ADMIN')")
     public ResponseEntity<List<LocalDateTime>> getAvailableTimeSlots(
             @Parameter(description = "Doctor ID") @PathVariable Long doctorId,
             @Parameter(description = "Date") 
@@ -332,7 +580,35 @@ public class AppointmentController {
         List<LocalDateTime> availableSlots = appointmentService
                 .getAvailableTimeSlots(doctorId, date, durationMinutes);
         
-        return ResponseEntity.ok(availableSlots);
+        return ResponseEntity.ok()
+                .cacheControl(GATEWAY_CACHEABLE)
+                .header(SurrogateKeys.HEADER, SurrogateKeys.doctor(doctorId))
+                .body(availableSlots);
+    }
+
+    @GetMapping("/first-available")
+    @Operation(summary = "Find earliest available slots", 
+               description = "Returns the earliest free slots across all doctors of a speciality at a medical center")
+    @PreAuthorize("hasAnyRole('PATIENT', 'DOCTOR', 'RECEPTIONIST', 'ADMIN')")
+    public ResponseEntity<List<AvailableSlotDto>> findFirstAvailableSlots(
+            @Parameter(description = "Speciality ID") @RequestParam Long specialityId,
+            @Parameter(description = "Medical Center ID") @RequestParam Long medicalCenterId,
+            @Parameter(description = "Search window start") 
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "Search window end") 
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @Parameter(description = "Duration in minutes") 
+            @RequestParam(defaultValue = "30") Integer durationMinutes,
+            @Parameter(description = "Maximum number of slots") 
+            @RequestParam(defaultValue = "10") Integer limit) {
+        
+        log.debug("Searching first available slots for speciality {} at center {} between {} and {}", 
+                specialityId, medicalCenterId, from, to);
+        
+        List<AvailableSlotDto> slots = appointmentService.findFirstAvailableSlots(
+                specialityId, medicalCenterId, from, to, durationMinutes, limit);
+        
+        return ResponseEntity.ok(slots);
     }
 
     // Statistics endpoints
@@ -360,7 +636,10 @@ public class AppointmentController {
         log.debug("Fetching today's appointments");
         
         List<AppointmentResponseDto> appointments = appointmentService.getTodaysAppointments();
-        return ResponseEntity.ok(appointments);
+        return ResponseEntity.ok()
+                .cacheControl(GATEWAY_CACHEABLE)
+                .header(SurrogateKeys.HEADER, SurrogateKeys.TODAY)
+                .body(appointments);
     }
 
     // Management endpoints
@@ -376,6 +655,76 @@ public class AppointmentController {
         return ResponseEntity.ok().build();
     }
 
+    @PostMapping("/bulk")
+    @Operation(summary = "Bulk update a doctor's appointments", 
+               description = "Cancels, completes, marks as no-show or shifts by N minutes every eligible appointment of a doctor in [from, to) with one set-based update")
+    @ApiResponse(responseCode = "200", description = "Appointments updated")
+    @ApiResponse(responseCode = "400", description = "Invalid range or action")
+    @ApiResponse(responseCode = "409", description = "Shifted appointments would overlap other bookings")
+    @PreAuthorize("hasAnyRole('RECEPTIONIST', 'ADMIN')")
+    public ResponseEntity<BulkOperationResult> bulkUpdateAppointments(
+            @Valid @RequestBody BulkAppointmentRequest request,
+            Authentication authentication) {
+        
+        log.info("Bulk {} of doctor {} appointments requested by {}", 
+                request.getAction(), request.getDoctorId(), authentication.getName());
+        
+        BulkOperationResult result = appointmentBulkUpdateService.apply(request, authentication.getName());
+        return ResponseEntity.ok(result);
+    }
+
+    @PostMapping(value = "/import", consumes = {"application/x-ndjson", "text/csv"})
+    @Operation(summary = "Bulk import appointments", 
+               description = "Streams appointments as NDJSON or CSV (with header), validates each row and checks doctor conflicts; invalid rows are reported without aborting the load")
+    @ApiResponse(responseCode = "200", description = "Import finished, see per-row error report")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<AppointmentImportReport> importAppointments(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body,
+            Authentication authentication) {
+        
+        ImportFormat format = ImportFormat.fromContentType(contentType);
+        log.info("Bulk appointment import ({}) requested by {}", format, authentication.getName());
+        
+        AppointmentImportReport report = appointmentImportService.importAppointments(
+                body, format, authentication.getName());
+        return ResponseEntity.ok(report);
+    }
+
+    @GetMapping(value = "/export", produces = {"application/x-ndjson", "text/csv"})
+    @Operation(summary = "Bulk export appointments", 
+               description = "Streams appointments as NDJSON or CSV straight from a database cursor; use updatedSince for incremental pulls")
+    @ApiResponse(responseCode = "200", description = "Export streamed")
+    @PreAuthorize("hasAnyRole('RECEPTIONIST', 'ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportAppointments(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) Long doctorId,
+            @RequestParam(required = false) Long medicalCenterId,
+            @RequestParam(required = false) AppointmentStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime updatedSince,
+            Authentication authentication) {
+        
+        ImportFormat exportFormat = "csv".equalsIgnoreCase(format) ? ImportFormat.CSV : ImportFormat.NDJSON;
+        log.info("Bulk appointment export ({}) requested by {}", exportFormat, authentication.getName());
+        
+        AppointmentExportService.ExportFilter filter = AppointmentExportService.ExportFilter.builder()
+                .doctorId(doctorId)
+                .medicalCenterId(medicalCenterId)
+                .status(status)
+                .from(from)
+                .to(to)
+                .updatedSince(updatedSince)
+                .build();
+        StreamingResponseBody body = output -> appointmentExportService.export(filter, exportFormat, output);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_TYPE, exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"appointments." + exportFormat.name().toLowerCase() + "\"")
+                .body(body);
+    }
+
     @PostMapping("/{id}/send-confirmation")
     @Operation(summary = "Send appointment confirmation", 
                description = "Sends confirmation email for a specific appointment")
@@ -388,4 +737,13 @@ public class AppointmentController {
         appointmentService.sendAppointmentConfirmation(id);
         return ResponseEntity.ok().build();
     }
+
+    // Strong validators: the appointment's @Version and the doctor's summed day versions
+    private static String appointmentTag(Long id, Long version) {
+        return "\"" + id + "-" + version + "\"";
+    }
+
+    private static String scheduleTag(long version) {
+        return "\"s" + version + "\"";
+    }
 }
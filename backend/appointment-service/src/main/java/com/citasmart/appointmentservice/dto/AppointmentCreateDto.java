@@ -51,4 +51,7 @@ public class AppointmentCreateDto {
     
     @Email(message = "Invalid email format")
     private String patientEmail;
+    
+    // Token of a slot hold covering this doctor, date and duration, if any
+    private String holdToken;
 }
@@ -50,4 +50,7 @@ public class AppointmentCreateRequest {
     
     @Email(message = "Invalid email format")
     private String patientEmail;
+    
+    // Token of a slot hold covering this doctor, date and duration, if any
+    private String holdToken;
 }
@@ -0,0 +1,34 @@
+package com.citasmart.appointmentservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppointmentImportReport {
+    
+    private long totalRows;
+    private long imported;
+    private long failed;
+    
+    // Only the first errors are listed when the load has many failures
+    private boolean errorsTruncated;
+    
+    @Builder.Default
+    private List<RowError> errors = new ArrayList<>();
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        private long line;
+        private String message;
+    }
+}
@@ -0,0 +1,61 @@
+package com.citasmart.appointmentservice.dto;
+
+import com.citasmart.appointmentservice.model.AppointmentStatus;
+import com.citasmart.appointmentservice.model.AppointmentType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.*;
+import java.time.LocalDateTime;
+
+/**
+ * One appointment of a bulk import. Unlike {@link AppointmentCreateRequest},
+ * past dates and terminal statuses are allowed so that existing agendas can
+ * be migrated.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppointmentImportRow {
+    
+    @NotNull(message = "Patient ID is required")
+    private Long patientId;
+    
+    @NotNull(message = "Doctor ID is required")
+    private Long doctorId;
+    
+    @NotNull(message = "Medical center ID is required")
+    private Long medicalCenterId;
+    
+    @NotNull(message = "Speciality ID is required")
+    private Long specialityId;
+    
+    @NotNull(message = "Appointment date is required")
+    private LocalDateTime appointmentDate;
+    
+    @NotNull(message = "Duration is required")
+    @Min(value = 15, message = "Minimum duration is 15 minutes")
+    @Max(value = 240, message = "Maximum duration is 240 minutes")
+    private Integer durationMinutes;
+    
+    @NotNull(message = "Appointment type is required")
+    private AppointmentType type;
+    
+    // Defaults to SCHEDULED
+    private AppointmentStatus status;
+    
+    @Size(max = 500, message = "Reason cannot exceed 500 characters")
+    private String reason;
+    
+    @Size(max = 1000, message = "Notes cannot exceed 1000 characters")
+    private String notes;
+    
+    @Pattern(regexp = "^[+]?[0-9]{10,15}$", message = "Invalid phone number format")
+    private String patientPhone;
+    
+    @Email(message = "Invalid email format")
+    private String patientEmail;
+}
@@ -1,5 +1,6 @@
 package com.citasmart.appointmentservice.dto;
 
+import com.citasmart.appointmentservice.model.Appointment;
 import com.citasmart.appointmentservice.model.AppointmentStatus;
 import com.citasmart.appointmentservice.model.AppointmentType;
 import lombok.AllArgsConstructor;
@@ -38,6 +39,7 @@ public class AppointmentResponseDto {
     private String doctorNotes;
     private Boolean reminderSent;
     private String confirmationToken;
+    private String seriesId;
     private String cancellationReason;
     private String cancelledBy;
     private LocalDateTime cancelledAt;
@@ -51,4 +53,44 @@ public class AppointmentResponseDto {
     private Boolean canBeCancelled;
     private Boolean canBeRescheduled;
     private Boolean isUpcoming;
+    
+    public static AppointmentResponseDto from(Appointment appointment) {
+        return AppointmentResponseDto.builder()
+                .id(appointment.getId())
+                .patientId(appointment.getPatientId())
+                .patientName(appointment.getPatientName())
+                .patientPhone(appointment.getPatientPhone())
+                .patientEmail(appointment.getPatientEmail())
+                .doctorId(appointment.getDoctorId())
+                .doctorName(appointment.getDoctorName())
+                .doctorSpeciality(appointment.getDoctorSpeciality())
+                .medicalCenterId(appointment.getMedicalCenterId())
+                .medicalCenterName(appointment.getMedicalCenterName())
+                .medicalCenterAddress(appointment.getMedicalCenterAddress())
+                .specialityId(appointment.getSpecialityId())
+                .specialityName(appointment.getSpecialityName())
+                .appointmentDate(appointment.getAppointmentDate())
+                .endTime(appointment.getEndTime())
+                .durationMinutes(appointment.getDurationMinutes())
+                .status(appointment.getStatus())
+                .type(appointment.getType())
+                .reason(appointment.getReason())
+                .notes(appointment.getNotes())
+                .doctorNotes(appointment.getDoctorNotes())
+                .reminderSent(appointment.getReminderSent())
+                .confirmationToken(appointment.getConfirmationToken())
+                .seriesId(appointment.getSeriesId())
+                .cancellationReason(appointment.getCancellationReason())
+                .cancelledBy(appointment.getCancelledBy())
+                .cancelledAt(appointment.getCancelledAt())
+                .createdAt(appointment.getCreatedAt())
+                .updatedAt(appointment.getUpdatedAt())
+                .createdBy(appointment.getCreatedBy())
+                .updatedBy(appointment.getUpdatedBy())
+                .version(appointment.getVersion())
+                .canBeCancelled(appointment.canBeCancelled())
+                .canBeRescheduled(appointment.canBeRescheduled())
+                .isUpcoming(appointment.isUpcoming())
+                .build();
+    }
 }
@@ -0,0 +1,68 @@
+package com.citasmart.appointmentservice.dto;
+
+import com.citasmart.appointmentservice.model.AppointmentType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.*;
+import java.time.LocalDateTime;
+
+/**
+ * A weekly series of follow-up or treatment visits: {@code occurrences}
+ * appointments starting at {@code firstAppointmentDate}, every
+ * {@code intervalWeeks} weeks at the same time.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppointmentSeriesRequest {
+    
+    @NotNull(message = "Patient ID is required")
+    private Long patientId;
+    
+    @NotNull(message = "Doctor ID is required")
+    private Long doctorId;
+    
+    @NotNull(message = "Medical center ID is required")
+    private Long medicalCenterId;
+    
+    @NotNull(message = "Speciality ID is required")
+    private Long specialityId;
+    
+    @NotNull(message = "First appointment date is required")
+    @Future(message = "First appointment date must be in the future")
+    private LocalDateTime firstAppointmentDate;
+    
+    @NotNull(message = "Duration is required")
+    @Min(value = 15, message = "Minimum duration is 15 minutes")
+    @Max(value = 240, message = "Maximum duration is 240 minutes")
+    private Integer durationMinutes;
+    
+    @NotNull(message = "Appointment type is required")
+    private AppointmentType type;
+    
+    @NotNull(message = "Number of occurrences is required")
+    @Min(value = 2, message = "A series has at least 2 occurrences")
+    @Max(value = 30, message = "A series has at most 30 occurrences")
+    private Integer occurrences;
+    
+    @Min(value = 1, message = "Minimum interval is 1 week")
+    @Max(value = 4, message = "Maximum interval is 4 weeks")
+    @Builder.Default
+    private Integer intervalWeeks = 1;
+    
+    @Size(max = 500, message = "Reason cannot exceed 500 characters")
+    private String reason;
+    
+    @Size(max = 1000, message = "Notes cannot exceed 1000 characters")
+    private String notes;
+    
+    @Pattern(regexp = "^[+]?[0-9]{10,15}$", message = "Invalid phone number format")
+    private String patientPhone;
+    
+    @Email(message = "Invalid email format")
+    private String patientEmail;
+}
@@ -0,0 +1,21 @@
+package com.citasmart.appointmentservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailableSlotDto {
+    
+    private Long doctorId;
+    private Long medicalCenterId;
+    private Long specialityId;
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+}
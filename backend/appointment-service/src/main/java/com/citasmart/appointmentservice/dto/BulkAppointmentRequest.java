@@ -0,0 +1,41 @@
+package com.citasmart.appointmentservice.dto;
+
+import com.citasmart.appointmentservice.bulk.BulkAction;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.*;
+import java.time.LocalDateTime;
+
+/**
+ * Applies {@code action} to every eligible appointment of a doctor that
+ * starts in [from, to).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkAppointmentRequest {
+    
+    @NotNull(message = "Doctor ID is required")
+    private Long doctorId;
+    
+    @NotNull(message = "Range start is required")
+    private LocalDateTime from;
+    
+    @NotNull(message = "Range end is required")
+    private LocalDateTime to;
+    
+    @NotNull(message = "Action is required")
+    private BulkAction action;
+    
+    // Only for SHIFT; negative values move appointments earlier
+    @Min(value = -1440, message = "Appointments can be shifted by at most one day")
+    @Max(value = 1440, message = "Appointments can be shifted by at most one day")
+    private Integer shiftMinutes;
+    
+    @Size(max = 500, message = "Reason cannot exceed 500 characters")
+    private String reason;
+}
@@ -0,0 +1,28 @@
+package com.citasmart.appointmentservice.dto;
+
+import com.citasmart.appointmentservice.bulk.BulkAction;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkOperationResult {
+    
+    private BulkAction action;
+    private Long doctorId;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private int updated;
+    private int notified;
+    
+    @Builder.Default
+    private List<Long> appointmentIds = new ArrayList<>();
+}
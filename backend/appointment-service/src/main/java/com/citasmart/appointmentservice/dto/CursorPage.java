@@ -0,0 +1,32 @@
+package com.citasmart.appointmentservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+    
+    private List<T> content;
+    private int size;
+    private boolean hasNext;
+    
+    // Opaque token for the next page, null on the last page
+    private String nextCursor;
+    
+    // Only filled when the caller asks for it, counting is not free
+    private Long totalElements;
+    
+    public <R> CursorPage<R> map(Function<? super T, ? extends R> converter) {
+        return new CursorPage<>(content.stream().map(converter).collect(Collectors.toList()),
+                size, hasNext, nextCursor, totalElements);
+    }
+}
@@ -0,0 +1,32 @@
+package com.citasmart.appointmentservice.dto;
+
+import com.citasmart.appointmentservice.hold.SlotHold;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SlotHoldDto {
+    
+    private String token;
+    private Long doctorId;
+    private LocalDateTime appointmentDate;
+    private Integer durationMinutes;
+    private LocalDateTime expiresAt;
+    
+    public static SlotHoldDto from(SlotHold hold) {
+        return SlotHoldDto.builder()
+                .token(hold.getToken())
+                .doctorId(hold.getDoctorId())
+                .appointmentDate(hold.getAppointmentDate())
+                .durationMinutes(hold.getDurationMinutes())
+                .expiresAt(hold.getExpiresAt())
+                .build();
+    }
+}
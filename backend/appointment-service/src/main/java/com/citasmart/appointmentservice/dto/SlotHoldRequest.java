@@ -0,0 +1,28 @@
+package com.citasmart.appointmentservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.*;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SlotHoldRequest {
+    
+    @NotNull(message = "Doctor ID is required")
+    private Long doctorId;
+    
+    @NotNull(message = "Appointment date is required")
+    @Future(message = "Appointment date must be in the future")
+    private LocalDateTime appointmentDate;
+    
+    @NotNull(message = "Duration is required")
+    @Min(value = 15, message = "Minimum duration is 15 minutes")
+    @Max(value = 240, message = "Maximum duration is 240 minutes")
+    private Integer durationMinutes;
+}
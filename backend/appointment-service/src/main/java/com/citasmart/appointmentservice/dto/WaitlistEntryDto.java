@@ -0,0 +1,54 @@
+package com.citasmart.appointmentservice.dto;
+
+import com.citasmart.appointmentservice.model.WaitlistEntry;
+import com.citasmart.appointmentservice.model.WaitlistStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WaitlistEntryDto {
+    
+    private Long id;
+    private Long patientId;
+    private Long doctorId;
+    private Long specialityId;
+    private Long medicalCenterId;
+    private LocalDateTime windowStart;
+    private LocalDateTime windowEnd;
+    private Integer durationMinutes;
+    private WaitlistStatus status;
+    
+    // Set while a freed slot is held for the patient
+    private Long offeredDoctorId;
+    private LocalDateTime offeredDate;
+    private String holdToken;
+    private LocalDateTime offerExpiresAt;
+    
+    private LocalDateTime createdAt;
+    
+    public static WaitlistEntryDto from(WaitlistEntry entry) {
+        return WaitlistEntryDto.builder()
+                .id(entry.getId())
+                .patientId(entry.getPatientId())
+                .doctorId(entry.getDoctorId())
+                .specialityId(entry.getSpecialityId())
+                .medicalCenterId(entry.getMedicalCenterId())
+                .windowStart(entry.getWindowStart())
+                .windowEnd(entry.getWindowEnd())
+                .durationMinutes(entry.getDurationMinutes())
+                .status(entry.getStatus())
+                .offeredDoctorId(entry.getOfferedDoctorId())
+                .offeredDate(entry.getOfferedDate())
+                .holdToken(entry.getStatus() == WaitlistStatus.OFFERED ? entry.getHoldToken() : null)
+                .offerExpiresAt(entry.getOfferExpiresAt())
+                .createdAt(entry.getCreatedAt())
+                .build();
+    }
+}
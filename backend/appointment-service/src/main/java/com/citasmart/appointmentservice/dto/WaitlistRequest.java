@@ -0,0 +1,38 @@
+package com.citasmart.appointmentservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.*;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WaitlistRequest {
+    
+    @NotNull(message = "Patient ID is required")
+    private Long patientId;
+    
+    // Either a doctor, or a speciality (optionally at one medical center)
+    private Long doctorId;
+    
+    private Long specialityId;
+    
+    private Long medicalCenterId;
+    
+    @NotNull(message = "Window start is required")
+    private LocalDateTime windowStart;
+    
+    @NotNull(message = "Window end is required")
+    @Future(message = "Window end must be in the future")
+    private LocalDateTime windowEnd;
+    
+    @NotNull(message = "Duration is required")
+    @Min(value = 15, message = "Minimum duration is 15 minutes")
+    @Max(value = 240, message = "Maximum duration is 240 minutes")
+    private Integer durationMinutes;
+}
@@ -0,0 +1,75 @@
+package com.citasmart.appointmentservice.event;
+
+import com.citasmart.appointmentservice.model.Appointment;
+import com.citasmart.appointmentservice.model.AppointmentStatus;
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published by the appointment service whenever an appointment is created or
+ * changes date, duration or status. Listeners that keep in-memory views of the
+ * agenda consume it after the surrounding transaction commits.
+ */
+@Value
+@Builder
+public class AppointmentChangedEvent {
+
+    public enum ChangeType {
+        CREATED,
+        UPDATED,
+        CONFIRMED,
+        CANCELLED,
+        COMPLETED,
+        NO_SHOW
+    }
+
+    ChangeType changeType;
+    Long appointmentId;
+    Long doctorId;
+    Long patientId;
+    Long medicalCenterId;
+    Long specialityId;
+
+    // State before the change (null for CREATED)
+    LocalDateTime previousDate;
+    Integer previousDurationMinutes;
+    AppointmentStatus previousStatus;
+
+    // State after the change
+    LocalDateTime appointmentDate;
+    Integer durationMinutes;
+    AppointmentStatus status;
+
+    public static AppointmentChangedEvent created(Appointment appointment) {
+        return of(ChangeType.CREATED, appointment, null, null, null);
+    }
+
+    public static AppointmentChangedEvent of(ChangeType changeType, Appointment appointment,
+                                             LocalDateTime previousDate, Integer previousDurationMinutes,
+                                             AppointmentStatus previousStatus) {
+        return AppointmentChangedEvent.builder()
+                .changeType(changeType)
+                .appointmentId(appointment.getId())
+                .doctorId(appointment.getDoctorId())
+                .patientId(appointment.getPatientId())
+                .medicalCenterId(appointment.getMedicalCenterId())
+                .specialityId(appointment.getSpecialityId())
+                .previousDate(previousDate)
+                .previousDurationMinutes(previousDurationMinutes)
+                .previousStatus(previousStatus)
+                .appointmentDate(appointment.getAppointmentDate())
+                .durationMinutes(appointment.getDurationMinutes())
+                .status(appointment.getStatus())
+                .build();
+    }
+
+    public boolean hadSlot() {
+        return previousDate != null && previousStatus != null && previousStatus.occupiesSlot();
+    }
+
+    public boolean hasSlot() {
+        return status != null && status.occupiesSlot();
+    }
+}
@@ -0,0 +1,33 @@
+package com.citasmart.appointmentservice.exception;
+
+import java.sql.SQLException;
+
+/**
+ * Recognises violations of the {@code appointments_no_overlap} exclusion
+ * constraint, which rejects overlapping active appointments of a doctor.
+ */
+public final class OverlapConstraint {
+
+    public static final String NAME = "appointments_no_overlap";
+
+    // PostgreSQL exclusion_violation
+    private static final String EXCLUSION_VIOLATION = "23P01";
+
+    private OverlapConstraint() {
+    }
+
+    public static boolean isViolatedBy(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException && EXCLUSION_VIOLATION.equals(((SQLException) cause).getSQLState())) {
+                return true;
+            }
+            if (cause.getMessage() != null && cause.getMessage().contains(NAME)) {
+                return true;
+            }
+            if (cause.getCause() == cause) {
+                break;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,175 @@
+package com.citasmart.appointmentservice.history;
+
+import com.citasmart.appointmentservice.bulk.AppointmentBatchWriter;
+import com.citasmart.appointmentservice.model.AppointmentHistory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Buffers {@link AppointmentHistory} rows and writes them in JDBC batches
+ * instead of one {@code save} round trip per state transition.
+ *
+ * <ul>
+ *   <li>{@code TRANSACTIONAL} (default): rows are collected for the current
+ *   transaction and inserted in one batch right before it commits, so history
+ *   is exactly as durable as the change it records.</li>
+ *   <li>{@code ASYNC}: rows are handed to a background flusher once the
+ *   transaction has committed and written in batches of up to
+ *   {@code batch-size}. Bookings no longer wait for the insert, at the cost of
+ *   losing queued rows if the instance dies before they are flushed.</li>
+ * </ul>
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AppointmentHistoryWriter {
+
+    public enum WriteMode {
+        TRANSACTIONAL,
+        ASYNC
+    }
+
+    private final AppointmentBatchWriter batchWriter;
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.history.write-mode:TRANSACTIONAL}")
+    private WriteMode writeMode;
+
+    @Value("${app.history.batch-size:200}")
+    private int batchSize;
+
+    @Value("${app.history.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${app.history.flush-interval:200}")
+    private long flushIntervalMillis;
+
+    private BlockingQueue<AppointmentHistory> queue;
+    private Thread flusher;
+    private volatile boolean running;
+    private Counter failedCounter;
+
+    @PostConstruct
+    void init() {
+        failedCounter = meterRegistry.counter("appointment.history.write.failures");
+        if (writeMode != WriteMode.ASYNC) {
+            return;
+        }
+        queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        meterRegistry.gaugeCollectionSize("appointment.history.queue.size", Collections.emptyList(), queue);
+        running = true;
+        flusher = new Thread(this::runFlusher, "history-writer");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        if (flusher == null) {
+            return;
+        }
+        running = false;
+        flusher.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    public void write(AppointmentHistory history) {
+        boolean inTransaction = TransactionSynchronizationManager.isSynchronizationActive();
+        if (writeMode == WriteMode.ASYNC) {
+            if (inTransaction) {
+                // Enqueue only once the appointment row is committed and visible to the flusher
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        enqueue(history);
+                    }
+                });
+            } else {
+                enqueue(history);
+            }
+            return;
+        }
+
+        if (!inTransaction) {
+            batchWriter.insertHistory(Collections.singletonList(history));
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        List<AppointmentHistory> pending = (List<AppointmentHistory>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            List<AppointmentHistory> rows = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, rows);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    batchWriter.insertHistory(rows);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(AppointmentHistoryWriter.this);
+                }
+            });
+            pending = rows;
+        }
+        pending.add(history);
+    }
+
+    private void enqueue(AppointmentHistory history) {
+        if (!queue.offer(history)) {
+            // Queue full: fall back to writing on the caller's thread rather than dropping the row
+            log.warn("History queue full ({} rows), writing synchronously", queueCapacity);
+            flush(Collections.singletonList(history));
+        }
+    }
+
+    private void runFlusher() {
+        List<AppointmentHistory> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                AppointmentHistory first = queue.poll(flushIntervalMillis, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<AppointmentHistory> batch) {
+        try {
+            // REQUIRES_NEW: the fallback path runs in afterCommit, where the finished transaction is still bound
+            TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+            transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+            transaction.executeWithoutResult(tx -> batchWriter.insertHistory(batch));
+        } catch (RuntimeException e) {
+            failedCounter.increment(batch.size());
+            log.error("Failed to write {} appointment history rows", batch.size(), e);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.citasmart.appointmentservice.hold;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Single-node hold store. Holds are grouped per doctor; placing a hold locks
+ * only that doctor's (short) list, and expired holds are dropped lazily on
+ * access and by a periodic sweep.
+ */
+@Component
+@ConditionalOnProperty(name = "app.holds.store", havingValue = "memory", matchIfMissing = true)
+@Slf4j
+public class InMemorySlotHoldStore implements SlotHoldStore {
+
+    private final ConcurrentMap<String, SlotHold> byToken = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, List<SlotHold>> byDoctor = new ConcurrentHashMap<>();
+
+    @Override
+    public boolean tryHold(SlotHold hold) {
+        List<SlotHold> holds = byDoctor.computeIfAbsent(hold.getDoctorId(), id -> new ArrayList<>());
+        LocalDateTime now = LocalDateTime.now();
+        synchronized (holds) {
+            dropExpired(holds, now);
+            for (SlotHold other : holds) {
+                if (other.overlaps(hold.getAppointmentDate(), hold.getEndTime())) {
+                    return false;
+                }
+            }
+            holds.add(hold);
+            byToken.put(hold.getToken(), hold);
+        }
+        return true;
+    }
+
+    @Override
+    public Optional<SlotHold> find(String token) {
+        SlotHold hold = byToken.get(token);
+        if (hold != null && hold.isExpired(LocalDateTime.now())) {
+            release(token);
+            return Optional.empty();
+        }
+        return Optional.ofNullable(hold);
+    }
+
+    @Override
+    public void release(String token) {
+        SlotHold hold = byToken.remove(token);
+        if (hold == null) {
+            return;
+        }
+        List<SlotHold> holds = byDoctor.get(hold.getDoctorId());
+        if (holds != null) {
+            synchronized (holds) {
+                holds.remove(hold);
+            }
+        }
+    }
+
+    @Override
+    public List<SlotHold> holdsFor(Long doctorId, LocalDateTime from, LocalDateTime to) {
+        List<SlotHold> holds = byDoctor.get(doctorId);
+        if (holds == null) {
+            return new ArrayList<>();
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<SlotHold> result = new ArrayList<>();
+        synchronized (holds) {
+            for (SlotHold hold : holds) {
+                if (!hold.isExpired(now) && hold.overlaps(from, to)) {
+                    result.add(hold);
+                }
+            }
+        }
+        return result;
+    }
+
+    @Scheduled(fixedDelayString = "${app.holds.sweep-interval:60000}")
+    public void sweep() {
+        LocalDateTime now = LocalDateTime.now();
+        for (List<SlotHold> holds : byDoctor.values()) {
+            synchronized (holds) {
+                dropExpired(holds, now);
+            }
+        }
+        byDoctor.values().removeIf(List::isEmpty);
+    }
+
+    private void dropExpired(List<SlotHold> holds, LocalDateTime now) {
+        holds.removeIf(hold -> {
+            if (hold.isExpired(now)) {
+                byToken.remove(hold.getToken());
+                return true;
+            }
+            return false;
+        });
+    }
+}
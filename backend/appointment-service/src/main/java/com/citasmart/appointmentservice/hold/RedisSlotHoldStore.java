@@ -0,0 +1,200 @@
+package com.citasmart.appointmentservice.hold;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Hold store shared by all instances through Redis.
+ *
+ * Each doctor has a sorted set of hold ids scored by start time, and every
+ * hold is a string key expiring with the hold itself. The overlap check and
+ * the insert run in one Lua script, which also drops set members whose key
+ * has already expired. Keys of a doctor share a hash tag, so the script stays
+ * on one slot in a cluster.
+ */
+@Component
+@ConditionalOnProperty(name = "app.holds.store", havingValue = "redis")
+@RequiredArgsConstructor
+@Slf4j
+public class RedisSlotHoldStore implements SlotHoldStore {
+
+    private static final String KEY_PREFIX = "citasmart:holds:";
+    private static final long MAX_DURATION_SECONDS = 240 * 60;
+    private static final int MAX_ATTEMPTS = 5;
+
+    // KEYS[1] = doctor set, KEYS[2] = new hold, KEYS[3..] = holds read from the set;
+    // ARGV = start, end, value, ttl millis, max duration seconds, new hold id, ids of KEYS[3..]
+    // Returns 1 if stored, 0 on overlap, -1 if the set changed since the ids were read
+    private static final RedisScript<Long> TRY_HOLD = new DefaultRedisScript<>(
+            "local ids = redis.call('ZRANGEBYSCORE', KEYS[1], tonumber(ARGV[1]) - tonumber(ARGV[5]), '(' .. ARGV[2])\n"
+                    + "if #ids ~= #KEYS - 2 then return -1 end\n"
+                    + "local read = {}\n"
+                    + "for i = 7, #ARGV do read[ARGV[i]] = true end\n"
+                    + "for _, id in ipairs(ids) do\n"
+                    + "  if not read[id] then return -1 end\n"
+                    + "end\n"
+                    + "for i = 3, #KEYS do\n"
+                    + "  local value = redis.call('GET', KEYS[i])\n"
+                    + "  if not value then\n"
+                    + "    redis.call('ZREM', KEYS[1], ARGV[i + 4])\n"
+                    + "  elseif tonumber(string.match(value, '^[^|]+|([^|]+)')) > tonumber(ARGV[1]) then\n"
+                    + "    return 0\n"
+                    + "  end\n"
+                    + "end\n"
+                    + "redis.call('SET', KEYS[2], ARGV[3], 'PX', ARGV[4])\n"
+                    + "redis.call('ZADD', KEYS[1], ARGV[1], ARGV[6])\n"
+                    // The set must outlive its longest hold, so its expiry only ever moves forward
+                    + "if redis.call('PTTL', KEYS[1]) < tonumber(ARGV[4]) then\n"
+                    + "  redis.call('PEXPIRE', KEYS[1], ARGV[4])\n"
+                    + "end\n"
+                    + "return 1",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    /**
+     * The script only touches keys it is given, so the holds that may overlap
+     * are read from the set first; if the set changes before the script runs,
+     * the read is repeated.
+     */
+    @Override
+    public boolean tryHold(SlotHold hold) {
+        long ttlMillis = Duration.between(LocalDateTime.now(), hold.getExpiresAt()).toMillis();
+        if (ttlMillis <= 0) {
+            return false;
+        }
+        String doctorKey = doctorKey(hold.getDoctorId());
+        long start = epochSecond(hold.getAppointmentDate());
+        long end = epochSecond(hold.getEndTime());
+        String holdId = holdId(hold.getToken());
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            Set<String> ids = redisTemplate.opsForZSet().rangeByScore(doctorKey, start - MAX_DURATION_SECONDS, end - 1);
+            List<String> keys = new ArrayList<>();
+            keys.add(doctorKey);
+            keys.add(doctorKey + ":" + holdId);
+            List<String> args = new ArrayList<>();
+            Collections.addAll(args, String.valueOf(start), String.valueOf(end), encode(hold),
+                    String.valueOf(ttlMillis), String.valueOf(MAX_DURATION_SECONDS), holdId);
+            if (ids != null) {
+                for (String id : ids) {
+                    keys.add(doctorKey + ":" + id);
+                    args.add(id);
+                }
+            }
+            Long stored = redisTemplate.execute(TRY_HOLD, keys, args.toArray());
+            if (stored == null || stored != -1L) {
+                return stored != null && stored == 1L;
+            }
+        }
+        log.warn("Holds of doctor {} kept changing, giving up on hold {}", hold.getDoctorId(), holdId);
+        return false;
+    }
+
+    @Override
+    public Optional<SlotHold> find(String token) {
+        Long doctorId = doctorId(token);
+        if (doctorId == null) {
+            return Optional.empty();
+        }
+        String value = redisTemplate.opsForValue().get(doctorKey(doctorId) + ":" + holdId(token));
+        return Optional.ofNullable(decode(token, doctorId, value));
+    }
+
+    @Override
+    public void release(String token) {
+        Long doctorId = doctorId(token);
+        if (doctorId == null) {
+            return;
+        }
+        String doctorKey = doctorKey(doctorId);
+        redisTemplate.delete(doctorKey + ":" + holdId(token));
+        redisTemplate.opsForZSet().remove(doctorKey, holdId(token));
+    }
+
+    @Override
+    public List<SlotHold> holdsFor(Long doctorId, LocalDateTime from, LocalDateTime to) {
+        String doctorKey = doctorKey(doctorId);
+        long start = epochSecond(from);
+        Set<String> ids = redisTemplate.opsForZSet().rangeByScore(doctorKey,
+                start - MAX_DURATION_SECONDS, epochSecond(to) - 1);
+        List<SlotHold> holds = new ArrayList<>();
+        if (ids == null || ids.isEmpty()) {
+            return holds;
+        }
+        List<String> keys = new ArrayList<>(ids.size());
+        List<String> tokens = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            keys.add(doctorKey + ":" + id);
+            tokens.add(doctorId + "." + id);
+        }
+        List<String> values = redisTemplate.opsForValue().multiGet(keys);
+        for (int i = 0; values != null && i < values.size(); i++) {
+            SlotHold hold = decode(tokens.get(i), doctorId, values.get(i));
+            if (hold != null && hold.overlaps(from, to)) {
+                holds.add(hold);
+            }
+        }
+        return holds;
+    }
+
+    private static String doctorKey(Long doctorId) {
+        return KEY_PREFIX + "{" + doctorId + "}";
+    }
+
+    private static String holdId(String token) {
+        return token.substring(token.indexOf('.') + 1);
+    }
+
+    private static Long doctorId(String token) {
+        int dot = token.indexOf('.');
+        try {
+            return dot > 0 ? Long.valueOf(token.substring(0, dot)) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // start|end|expiresAt|heldBy, times as UTC epoch seconds
+    private static String encode(SlotHold hold) {
+        return epochSecond(hold.getAppointmentDate()) + "|" + epochSecond(hold.getEndTime()) + "|"
+                + epochSecond(hold.getExpiresAt()) + "|" + hold.getHeldBy();
+    }
+
+    private static SlotHold decode(String token, Long doctorId, String value) {
+        if (value == null) {
+            return null;
+        }
+        String[] parts = value.split("\\|", 4);
+        LocalDateTime start = fromEpochSecond(Long.parseLong(parts[0]));
+        return SlotHold.builder()
+                .token(token)
+                .doctorId(doctorId)
+                .appointmentDate(start)
+                .durationMinutes((int) ((Long.parseLong(parts[1]) - Long.parseLong(parts[0])) / 60))
+                .expiresAt(fromEpochSecond(Long.parseLong(parts[2])))
+                .heldBy(parts[3])
+                .build();
+    }
+
+    private static long epochSecond(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static LocalDateTime fromEpochSecond(long epochSecond) {
+        return LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+    }
+}
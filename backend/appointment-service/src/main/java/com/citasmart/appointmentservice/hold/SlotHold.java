@@ -0,0 +1,51 @@
+package com.citasmart.appointmentservice.hold;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * A doctor's time slot reserved for a short while during checkout.
+ */
+@Value
+@Builder
+public class SlotHold {
+
+    String token;
+    Long doctorId;
+    LocalDateTime appointmentDate;
+    Integer durationMinutes;
+    String heldBy;
+    LocalDateTime expiresAt;
+
+    /**
+     * Owner of a hold placed on a patient's behalf rather than by a user,
+     * e.g. a waitlist offer; whoever books for that patient may redeem it.
+     */
+    public static String onBehalfOf(Long patientId) {
+        return "patient:" + patientId;
+    }
+
+    public LocalDateTime getEndTime() {
+        return appointmentDate.plusMinutes(durationMinutes);
+    }
+
+    public boolean isExpired(LocalDateTime now) {
+        return !expiresAt.isAfter(now);
+    }
+
+    public boolean overlaps(LocalDateTime start, LocalDateTime end) {
+        return appointmentDate.isBefore(end) && getEndTime().isAfter(start);
+    }
+
+    public boolean isRedeemableBy(String user, Long patientId) {
+        return heldBy.equals(user) || heldBy.equals(onBehalfOf(patientId));
+    }
+
+    public boolean matches(Long doctorId, LocalDateTime appointmentDate, Integer durationMinutes) {
+        return this.doctorId.equals(doctorId)
+                && this.appointmentDate.equals(appointmentDate)
+                && this.durationMinutes.equals(durationMinutes);
+    }
+}
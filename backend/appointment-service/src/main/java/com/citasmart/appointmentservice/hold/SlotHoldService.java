@@ -0,0 +1,167 @@
+package com.citasmart.appointmentservice.hold;
+
+import com.citasmart.appointmentservice.exception.AppointmentConflictException;
+import com.citasmart.appointmentservice.exception.InvalidAppointmentDataException;
+import com.citasmart.appointmentservice.schedule.DoctorScheduleIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Short-lived reservations of a doctor's slot while a patient completes a booking.
+ *
+ * A hold is placed only if the slot is free in the {@link DoctorScheduleIndex}
+ * and not covered by another live hold; the store guarantees the latter
+ * atomically. Held slots are left out of availability answers, and a booking
+ * that presents the matching token skips revalidation (the database overlap
+ * constraint still guards it) and releases the hold once it commits.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SlotHoldService {
+
+    private final SlotHoldStore store;
+    private final DoctorScheduleIndex scheduleIndex;
+
+    @Value("${app.holds.ttl-minutes:5}")
+    private long ttlMinutes;
+
+    // Local hold changes per doctor, for readers that memoise availability
+    private final ConcurrentMap<Long, AtomicLong> versions = new ConcurrentHashMap<>();
+    // Expiry instants of holds placed here, earliest first
+    private final ConcurrentMap<Long, Queue<LocalDateTime>> expiries = new ConcurrentHashMap<>();
+
+    /**
+     * Holds [start, start + duration) of the doctor for the configured TTL.
+     *
+     * @throws AppointmentConflictException if the slot is booked or already held
+     */
+    public SlotHold hold(Long doctorId, LocalDateTime start, int durationMinutes, String heldBy) {
+        return hold(doctorId, start, durationMinutes, heldBy, ttlMinutes);
+    }
+
+    /**
+     * Same as {@link #hold(Long, LocalDateTime, int, String)} with an explicit TTL.
+     */
+    public SlotHold hold(Long doctorId, LocalDateTime start, int durationMinutes, String heldBy, long ttlMinutes) {
+        LocalDateTime now = LocalDateTime.now();
+        if (!start.isAfter(now)) {
+            throw new InvalidAppointmentDataException("Appointment date must be in the future");
+        }
+        LocalDateTime end = start.plusMinutes(durationMinutes);
+        if (!scheduleIndex.isAvailable(doctorId, start, end)) {
+            throw new AppointmentConflictException("Doctor is not available at the requested time");
+        }
+
+        SlotHold hold = SlotHold.builder()
+                .token(doctorId + "." + UUID.randomUUID())
+                .doctorId(doctorId)
+                .appointmentDate(start)
+                .durationMinutes(durationMinutes)
+                .heldBy(heldBy)
+                .expiresAt(now.plusMinutes(ttlMinutes))
+                .build();
+        if (!store.tryHold(hold)) {
+            throw new AppointmentConflictException("The requested time is being booked by someone else");
+        }
+        expiries.computeIfAbsent(doctorId, id -> new PriorityBlockingQueue<>()).add(hold.getExpiresAt());
+        versions.computeIfAbsent(doctorId, id -> new AtomicLong()).incrementAndGet();
+        log.debug("Held {} - {} of doctor {} for {} until {}", start, end, doctorId, heldBy, hold.getExpiresAt());
+        return hold;
+    }
+
+    public Optional<SlotHold> find(String token) {
+        return token == null ? Optional.empty() : store.find(token);
+    }
+
+    /**
+     * Releases a hold placed by {@code user}; unknown or expired tokens are ignored.
+     */
+    public void release(String token, String user) {
+        Optional<SlotHold> hold = find(token);
+        if (!hold.isPresent()) {
+            return;
+        }
+        if (!hold.get().getHeldBy().equals(user)) {
+            throw new InvalidAppointmentDataException("Hold belongs to another user");
+        }
+        release(hold.get());
+    }
+
+    /**
+     * Releases the hold when the current transaction commits, or right away without one.
+     * The slot stays protected until the booking that consumed it is visible.
+     */
+    public void releaseAfterCommit(SlotHold hold) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            release(hold);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                release(hold);
+            }
+        });
+    }
+
+    /**
+     * Whether a live hold other than {@code exceptToken} overlaps [start, end).
+     */
+    public boolean isHeld(Long doctorId, LocalDateTime start, LocalDateTime end, String exceptToken) {
+        for (SlotHold hold : store.holdsFor(doctorId, start, end)) {
+            if (!hold.getToken().equals(exceptToken)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Live holds of the doctor touching the given day.
+     */
+    public List<SlotHold> holdsOn(Long doctorId, LocalDate date) {
+        return store.holdsFor(doctorId, date.atStartOfDay(), date.plusDays(1).atStartOfDay());
+    }
+
+    /**
+     * Counter bumped whenever a hold of the doctor is placed, released or
+     * expires on this node. Holds placed by other nodes are not reflected, so
+     * memoised answers may offer a slot that a booking attempt then finds held.
+     */
+    public long version(Long doctorId) {
+        AtomicLong version = versions.computeIfAbsent(doctorId, id -> new AtomicLong());
+        Queue<LocalDateTime> pending = expiries.get(doctorId);
+        if (pending != null) {
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime head;
+            while ((head = pending.peek()) != null && !head.isAfter(now)) {
+                if (pending.remove(head)) {
+                    version.incrementAndGet();
+                }
+            }
+        }
+        return version.get();
+    }
+
+    private void release(SlotHold hold) {
+        store.release(hold.getToken());
+        versions.computeIfAbsent(hold.getDoctorId(), id -> new AtomicLong()).incrementAndGet();
+        log.debug("Released hold {} of doctor {}", hold.getToken(), hold.getDoctorId());
+    }
+}
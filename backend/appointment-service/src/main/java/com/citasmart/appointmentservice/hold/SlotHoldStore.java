@@ -0,0 +1,31 @@
+package com.citasmart.appointmentservice.hold;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Expiring storage of slot holds. Implementations must make {@link #tryHold}
+ * atomic per doctor, so two overlapping holds can never both succeed.
+ */
+public interface SlotHoldStore {
+
+    /**
+     * Stores the hold unless a live hold of the same doctor overlaps it.
+     *
+     * @return true if the hold was stored
+     */
+    boolean tryHold(SlotHold hold);
+
+    /**
+     * The live hold with this token, if any.
+     */
+    Optional<SlotHold> find(String token);
+
+    void release(String token);
+
+    /**
+     * Live holds of the doctor overlapping [from, to).
+     */
+    List<SlotHold> holdsFor(Long doctorId, LocalDateTime from, LocalDateTime to);
+}
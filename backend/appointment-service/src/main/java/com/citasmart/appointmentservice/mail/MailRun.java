@@ -0,0 +1,65 @@
+package com.citasmart.appointmentservice.mail;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Throughput of a batch of sends, from {@link PooledMailSender#startRun}.
+ *
+ * Counts everything the sender delivered while the run was open, including
+ * mail sent by other callers at the same time, which is what the SMTP
+ * server saw. On close the totals are logged and recorded under
+ * {@code mail.run.*}, tagged with the run name.
+ */
+@Slf4j
+public class MailRun implements AutoCloseable {
+
+    private final String name;
+    private final PooledMailSender sender;
+    private final long startedAt = System.nanoTime();
+    private final long sentAtStart;
+    private final long failedAtStart;
+    private final long connectionsAtStart;
+
+    private long sent;
+    private long failed;
+    private long connections;
+    private double messagesPerSecond;
+
+    MailRun(String name, PooledMailSender sender) {
+        this.name = name;
+        this.sender = sender;
+        this.sentAtStart = sender.sentCount();
+        this.failedAtStart = sender.failedCount();
+        this.connectionsAtStart = sender.connectionsOpened();
+    }
+
+    @Override
+    public void close() {
+        double seconds = Math.max(1e-3, (System.nanoTime() - startedAt) / 1e9);
+        sent = sender.sentCount() - sentAtStart;
+        failed = sender.failedCount() - failedAtStart;
+        connections = sender.connectionsOpened() - connectionsAtStart;
+        messagesPerSecond = sent / seconds;
+
+        sender.meterRegistry().summary("mail.run.messages", "run", name).record(sent);
+        sender.meterRegistry().summary("mail.run.throughput", "run", name).record(messagesPerSecond);
+        log.info("Mail run {}: {} sent, {} failed, {} new SMTP connections in {} s ({} mails/s)",
+                name, sent, failed, connections, String.format("%.1f", seconds), String.format("%.1f", messagesPerSecond));
+    }
+
+    public long getSent() {
+        return sent;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public long getConnections() {
+        return connections;
+    }
+
+    public double getMessagesPerSecond() {
+        return messagesPerSecond;
+    }
+}
@@ -0,0 +1,23 @@
+package com.citasmart.appointmentservice.mail;
+
+/**
+ * Plain-text templates under {@code templates/mail/}.
+ */
+public enum MailTemplate {
+    CONFIRMATION("confirmation"),               // Cita confirmada
+    REMINDER("reminder"),                       // Recordatorio del día anterior
+    CANCELLATION("cancellation"),               // Cita cancelada
+    UPDATE("update"),                           // Cita actualizada
+    RESCHEDULE("reschedule"),                   // Cita reprogramada
+    SERIES_CONFIRMATION("series-confirmation"); // Serie de citas programada
+
+    private final String templateName;
+
+    MailTemplate(String templateName) {
+        this.templateName = templateName;
+    }
+
+    public String getTemplateName() {
+        return templateName;
+    }
+}
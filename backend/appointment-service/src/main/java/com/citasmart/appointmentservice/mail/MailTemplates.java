@@ -0,0 +1,113 @@
+package com.citasmart.appointmentservice.mail;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring5.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import javax.annotation.PostConstruct;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Renders the mail templates.
+ *
+ * The templates have their own engine: text mode, cached without expiry and
+ * with SpEL compilation on, so each template is parsed once and its
+ * expressions run as bytecode after a few renders. All of them are rendered
+ * once at startup, which fills the cache and fails the boot on a broken
+ * template instead of on the first reminder. Each thread renders into its
+ * own reusable buffer, so a reminder blast does not grow a new one per mail.
+ */
+@Component
+@Slf4j
+public class MailTemplates {
+
+    private static final Locale LOCALE = new Locale("es", "ES");
+
+    // Buffers that grew past this are dropped instead of being kept for the thread
+    private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+
+    private final SpringTemplateEngine templateEngine = new SpringTemplateEngine();
+
+    private final ThreadLocal<ReusableWriter> buffers = ThreadLocal.withInitial(ReusableWriter::new);
+
+    @PostConstruct
+    void init() {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/mail/");
+        resolver.setSuffix(".txt");
+        resolver.setTemplateMode(TemplateMode.TEXT);
+        resolver.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        resolver.setCacheable(true);
+        resolver.setCacheTTLMs(null);
+        templateEngine.setTemplateResolver(resolver);
+        templateEngine.setEnableSpringELCompiler(true);
+
+        for (MailTemplate template : MailTemplate.values()) {
+            render(template, new Context(LOCALE));
+        }
+        log.info("Compiled {} mail templates", MailTemplate.values().length);
+    }
+
+    public String render(MailTemplate template, Map<String, Object> variables) {
+        Context context = new Context(LOCALE);
+        context.setVariables(variables);
+        return render(template, context);
+    }
+
+    private String render(MailTemplate template, Context context) {
+        ReusableWriter buffer = buffers.get();
+        buffer.reset();
+        templateEngine.process(template.getTemplateName(), context, buffer);
+        String content = buffer.toString();
+        if (buffer.capacity() > MAX_RETAINED_CAPACITY) {
+            buffers.remove();
+        }
+        return content;
+    }
+
+    private static final class ReusableWriter extends Writer {
+        private final StringBuilder builder = new StringBuilder(4096);
+
+        void reset() {
+            builder.setLength(0);
+        }
+
+        int capacity() {
+            return builder.capacity();
+        }
+
+        @Override
+        public void write(char[] chars, int offset, int length) {
+            builder.append(chars, offset, length);
+        }
+
+        @Override
+        public void write(String str, int offset, int length) {
+            builder.append(str, offset, offset + length);
+        }
+
+        @Override
+        public void write(int c) {
+            builder.append((char) c);
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public String toString() {
+            return builder.toString();
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.citasmart.appointmentservice.mail;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailPreparationException;
+import org.springframework.mail.MailSendException;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.mail.Message;
+import javax.mail.MessagingException;
+import javax.mail.SendFailedException;
+import javax.mail.internet.InternetAddress;
+import javax.mail.internet.MimeMessage;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+/**
+ * Sends plain-text mail over the pooled SMTP connections.
+ *
+ * A message that fails on a connection which had already carried mail is
+ * retried once on another one, since the server may have dropped the idle
+ * session; a failure on a fresh connection or a refused recipient is
+ * reported straight away.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PooledMailSender {
+
+    private final SmtpConnectionPool connectionPool;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${spring.mail.username:noreply@citasmart.com}")
+    private String fromEmail;
+
+    private Counter sentCounter;
+    private Counter failedCounter;
+    private Timer sendTimer;
+
+    @PostConstruct
+    void init() {
+        sentCounter = meterRegistry.counter("mail.messages", "outcome", "sent");
+        failedCounter = meterRegistry.counter("mail.messages", "outcome", "failed");
+        sendTimer = meterRegistry.timer("mail.send");
+    }
+
+    public void send(String to, String subject, String text) {
+        MimeMessage message = new MimeMessage(connectionPool.getSession());
+        try {
+            message.setFrom(new InternetAddress(fromEmail));
+            message.setRecipients(Message.RecipientType.TO, InternetAddress.parse(to));
+            message.setSubject(subject, StandardCharsets.UTF_8.name());
+            message.setText(text, StandardCharsets.UTF_8.name());
+            message.setSentDate(new Date());
+            message.saveChanges();
+        } catch (MessagingException e) {
+            throw new MailPreparationException("Could not build message to " + to, e);
+        }
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            deliver(message);
+            sentCounter.increment();
+            log.debug("Email sent to: {}", to);
+        } catch (MessagingException e) {
+            failedCounter.increment();
+            throw new MailSendException("Could not send message to " + to, e);
+        } catch (RuntimeException e) {
+            failedCounter.increment();
+            throw e;
+        } finally {
+            sample.stop(sendTimer);
+        }
+    }
+
+    /**
+     * Starts collecting the throughput of a batch of sends, such as a
+     * reminder run; close it when the batch is done.
+     */
+    public MailRun startRun(String name) {
+        return new MailRun(name, this);
+    }
+
+    long sentCount() {
+        return (long) sentCounter.count();
+    }
+
+    long failedCount() {
+        return (long) failedCounter.count();
+    }
+
+    long connectionsOpened() {
+        return connectionPool.openedCount();
+    }
+
+    MeterRegistry meterRegistry() {
+        return meterRegistry;
+    }
+
+    private void deliver(MimeMessage message) throws MessagingException {
+        SmtpConnectionPool.SmtpConnection connection = connectionPool.borrow();
+        boolean reused = connection.getMessages() > 0;
+        try {
+            connection.send(message);
+            connectionPool.release(connection, true);
+            return;
+        } catch (MessagingException e) {
+            // Refused addresses leave the session usable and would be refused again anywhere
+            boolean refused = e instanceof SendFailedException
+                    && ((SendFailedException) e).getInvalidAddresses() != null
+                    && ((SendFailedException) e).getInvalidAddresses().length > 0;
+            connectionPool.release(connection, refused);
+            if (refused || !reused) {
+                throw e;
+            }
+            log.debug("Pooled SMTP connection failed, retrying on another: {}", e.getMessage());
+        } catch (RuntimeException e) {
+            connectionPool.release(connection, false);
+            throw e;
+        }
+
+        connection = connectionPool.borrow();
+        boolean delivered = false;
+        try {
+            connection.send(message);
+            delivered = true;
+        } finally {
+            connectionPool.release(connection, delivered);
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.citasmart.appointmentservice.mail;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.mail.MailProperties;
+import org.springframework.mail.MailSendException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.mail.MessagingException;
+import javax.mail.Session;
+import javax.mail.Transport;
+import javax.mail.internet.MimeMessage;
+import java.util.Iterator;
+import java.util.Properties;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps a bounded set of connected, authenticated SMTP transports for the
+ * {@code spring.mail.*} server, so messages reuse a session instead of paying
+ * the connect, STARTTLS and AUTH round trips each time.
+ *
+ * Idle connections are handed out most recently used first; one idle for
+ * longer than {@code validate-after} is checked with a NOOP before reuse,
+ * and the sweep closes those idle past {@code idle-timeout}. A connection is
+ * retired after {@code max-messages-per-connection} messages, as servers
+ * commonly cap messages per session.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SmtpConnectionPool {
+
+    private final MailProperties mailProperties;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.mail.pool.size:4}")
+    private int size;
+
+    @Value("${app.mail.pool.max-messages-per-connection:500}")
+    private int maxMessagesPerConnection;
+
+    @Value("${app.mail.pool.borrow-timeout:10000}")
+    private long borrowTimeoutMillis;
+
+    @Value("${app.mail.pool.validate-after:2000}")
+    private long validateAfterMillis;
+
+    @Value("${app.mail.pool.idle-timeout:30000}")
+    private long idleTimeoutMillis;
+
+    private final BlockingDeque<SmtpConnection> idle = new LinkedBlockingDeque<>();
+    private final AtomicInteger open = new AtomicInteger();
+
+    private Session session;
+    private Semaphore permits;
+    private Counter openedCounter;
+
+    @PostConstruct
+    void init() {
+        Properties properties = new Properties();
+        properties.putAll(mailProperties.getProperties());
+        session = Session.getInstance(properties);
+        permits = new Semaphore(Math.max(1, size), true);
+        openedCounter = meterRegistry.counter("mail.smtp.connections.opened");
+        meterRegistry.gauge("mail.smtp.connections.open", open);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        SmtpConnection connection;
+        while ((connection = idle.pollFirst()) != null) {
+            connection.close();
+        }
+    }
+
+    public Session getSession() {
+        return session;
+    }
+
+    /**
+     * Connections opened since startup, for per-run statistics.
+     */
+    public long openedCount() {
+        return (long) openedCounter.count();
+    }
+
+    /**
+     * Takes a connection, waiting up to {@code borrow-timeout} when all of
+     * them are in use. Must be handed back with {@link #release}.
+     */
+    SmtpConnection borrow() throws MessagingException {
+        try {
+            if (!permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new MailSendException("No SMTP connection free within " + borrowTimeoutMillis + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MailSendException("Interrupted while waiting for an SMTP connection", e);
+        }
+        try {
+            long now = System.currentTimeMillis();
+            SmtpConnection connection;
+            while ((connection = idle.pollFirst()) != null) {
+                if (now - connection.lastUsed < validateAfterMillis || connection.transport.isConnected()) {
+                    return connection;
+                }
+                connection.close();
+            }
+            return connect();
+        } catch (MessagingException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Hands a connection back; one that failed or reached its message limit is closed.
+     */
+    void release(SmtpConnection connection, boolean reusable) {
+        try {
+            if (reusable && connection.messages < maxMessagesPerConnection) {
+                connection.lastUsed = System.currentTimeMillis();
+                idle.offerFirst(connection);
+            } else {
+                connection.close();
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.mail.pool.sweep-interval:15000}")
+    public void closeIdle() {
+        long cutoff = System.currentTimeMillis() - idleTimeoutMillis;
+        // Oldest at the tail
+        Iterator<SmtpConnection> connections = idle.descendingIterator();
+        while (connections.hasNext()) {
+            SmtpConnection connection = connections.next();
+            if (connection.lastUsed >= cutoff) {
+                break;
+            }
+            if (idle.remove(connection)) {
+                connection.close();
+            }
+        }
+    }
+
+    private SmtpConnection connect() throws MessagingException {
+        Transport transport = session.getTransport(mailProperties.getProtocol());
+        transport.connect(mailProperties.getHost(),
+                mailProperties.getPort() != null ? mailProperties.getPort() : -1,
+                mailProperties.getUsername(), mailProperties.getPassword());
+        open.incrementAndGet();
+        openedCounter.increment();
+        log.debug("Opened SMTP connection to {} ({} open)", mailProperties.getHost(), open.get());
+        return new SmtpConnection(transport);
+    }
+
+    final class SmtpConnection {
+        private final Transport transport;
+        private int messages;
+        private long lastUsed = System.currentTimeMillis();
+
+        private SmtpConnection(Transport transport) {
+            this.transport = transport;
+        }
+
+        int getMessages() {
+            return messages;
+        }
+
+        void send(MimeMessage message) throws MessagingException {
+            messages++;
+            transport.sendMessage(message, message.getAllRecipients());
+        }
+
+        private void close() {
+            try {
+                transport.close();
+            } catch (MessagingException e) {
+                log.debug("Closing SMTP connection failed: {}", e.getMessage());
+            }
+            open.decrementAndGet();
+        }
+    }
+}
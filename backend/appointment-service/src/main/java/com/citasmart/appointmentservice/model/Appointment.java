@@ -105,6 +105,9 @@ public class Appointment {
     @Column(name = "confirmation_token")
     private String confirmationToken;
     
+    @Column(name = "series_id")
+    private String seriesId;
+    
     @Column(name = "cancellation_reason")
     @Size(max = 500, message = "Cancellation reason cannot exceed 500 characters")
     private String cancellationReason;
@@ -7,5 +7,12 @@ public enum AppointmentStatus {
     COMPLETED,    // Cita completada
     CANCELLED,    // Cita cancelada
     NO_SHOW,      // Paciente no se presentó
-    RESCHEDULED   // Cita reprogramada
+    RESCHEDULED;  // Cita reprogramada
+
+    /**
+     * Whether an appointment in this status still blocks the doctor's agenda.
+     */
+    public boolean occupiesSlot() {
+        return this != CANCELLED && this != COMPLETED && this != NO_SHOW;
+    }
 }
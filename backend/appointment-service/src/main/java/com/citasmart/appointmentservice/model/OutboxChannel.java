@@ -0,0 +1,6 @@
+package com.citasmart.appointmentservice.model;
+
+public enum OutboxChannel {
+    EMAIL,  // Correo electrónico al paciente y al médico
+    PUSH    // Notificación push / in-app
+}
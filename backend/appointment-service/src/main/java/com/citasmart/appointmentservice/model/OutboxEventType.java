@@ -0,0 +1,8 @@
+package com.citasmart.appointmentservice.model;
+
+public enum OutboxEventType {
+    APPOINTMENT_CREATED,
+    APPOINTMENT_UPDATED,
+    APPOINTMENT_CANCELLED,
+    APPOINTMENT_SERIES_CREATED
+}
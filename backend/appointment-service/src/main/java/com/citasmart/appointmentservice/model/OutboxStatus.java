@@ -0,0 +1,8 @@
+package com.citasmart.appointmentservice.model;
+
+public enum OutboxStatus {
+    PENDING,     // Pendiente de envío (o de reintento)
+    PROCESSING,  // Reclamado por un relay
+    SENT,        // Entregado
+    FAILED       // Reintentos agotados
+}
@@ -0,0 +1,89 @@
+package com.citasmart.appointmentservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import javax.validation.constraints.*;
+import java.time.LocalDateTime;
+
+/**
+ * A patient's interest in a doctor, or in any doctor of a speciality, for a
+ * time window. When a matching slot is freed it is held for the patient and
+ * the entry records the offer.
+ */
+@Entity
+@Table(name = "waitlist_entries")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WaitlistEntry {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "patient_id", nullable = false)
+    @NotNull(message = "Patient ID is required")
+    private Long patientId;
+    
+    @Column(name = "doctor_id")
+    private Long doctorId;
+    
+    @Column(name = "speciality_id")
+    private Long specialityId;
+    
+    @Column(name = "medical_center_id")
+    private Long medicalCenterId;
+    
+    @Column(name = "window_start", nullable = false)
+    @NotNull(message = "Window start is required")
+    private LocalDateTime windowStart;
+    
+    @Column(name = "window_end", nullable = false)
+    @NotNull(message = "Window end is required")
+    private LocalDateTime windowEnd;
+    
+    @Column(name = "duration_minutes", nullable = false)
+    @NotNull(message = "Duration is required")
+    @Min(value = 15, message = "Minimum duration is 15 minutes")
+    @Max(value = 240, message = "Maximum duration is 240 minutes")
+    private Integer durationMinutes;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    @Builder.Default
+    private WaitlistStatus status = WaitlistStatus.WAITING;
+    
+    @Column(name = "offered_doctor_id")
+    private Long offeredDoctorId;
+    
+    @Column(name = "offered_medical_center_id")
+    private Long offeredMedicalCenterId;
+    
+    @Column(name = "offered_speciality_id")
+    private Long offeredSpecialityId;
+    
+    @Column(name = "offered_date")
+    private LocalDateTime offeredDate;
+    
+    @Column(name = "hold_token")
+    private String holdToken;
+    
+    @Column(name = "offer_expires_at")
+    private LocalDateTime offerExpiresAt;
+    
+    @Column(name = "created_by", nullable = false, updatable = false)
+    private String createdBy;
+    
+    @Column(name = "created_at", nullable = false, updatable = false)
+    @Builder.Default
+    private LocalDateTime createdAt = LocalDateTime.now();
+    
+    @Column(name = "updated_at", nullable = false)
+    @Builder.Default
+    private LocalDateTime updatedAt = LocalDateTime.now();
+}
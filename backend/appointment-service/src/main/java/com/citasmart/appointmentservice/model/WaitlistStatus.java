@@ -0,0 +1,9 @@
+package com.citasmart.appointmentservice.model;
+
+public enum WaitlistStatus {
+    WAITING,     // Esperando un hueco
+    OFFERED,     // Hueco retenido y ofrecido al paciente
+    FULFILLED,   // El paciente reservó el hueco ofrecido
+    EXPIRED,     // Venció la ventana o la oferta
+    CANCELLED    // Retirado por el paciente
+}
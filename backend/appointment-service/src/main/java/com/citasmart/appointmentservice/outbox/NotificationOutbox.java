@@ -0,0 +1,105 @@
+package com.citasmart.appointmentservice.outbox;
+
+import com.citasmart.appointmentservice.model.Appointment;
+import com.citasmart.appointmentservice.model.AppointmentOutbox;
+import com.citasmart.appointmentservice.model.OutboxChannel;
+import com.citasmart.appointmentservice.model.OutboxEventType;
+import com.citasmart.appointmentservice.repository.AppointmentOutboxRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Records notifications in {@code appointment_outbox} as part of the caller's
+ * transaction. Nothing is sent here: if the transaction rolls back the rows
+ * disappear with it, and once it commits {@link OutboxRelay} delivers them.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationOutbox {
+
+    private static final String INSERT_ROW =
+            "INSERT INTO appointment_outbox (appointment_id, event_type, channel, status, attempts, " +
+            "next_attempt_at, created_at) VALUES (?, ?, ?, 'PENDING', 0, ?, ?)";
+
+    private final AppointmentOutboxRepository outboxRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.notification.email.enabled:true}")
+    private boolean emailEnabled;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(Appointment appointment, OutboxEventType eventType) {
+        LocalDateTime now = LocalDateTime.now();
+        List<AppointmentOutbox> rows = new ArrayList<>(2);
+        if (emailEnabled) {
+            rows.add(row(appointment, eventType, OutboxChannel.EMAIL, now));
+        }
+        rows.add(row(appointment, eventType, OutboxChannel.PUSH, now));
+        outboxRepository.saveAll(rows);
+        log.debug("Queued {} notification for appointment {} on {} channels", eventType, appointment.getId(), rows.size());
+    }
+
+    /**
+     * Queues {@code eventType} for many appointments with one JDBC batch.
+     * Appointments listed twice, or that still have an undelivered
+     * notification of the same type, are queued once: the relay reads the
+     * appointment when it delivers, so a single pending row already reports
+     * the latest state.
+     *
+     * @return number of appointments a notification was queued for
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public int enqueueAll(Collection<Appointment> appointments, OutboxEventType eventType) {
+        Map<Long, Appointment> byId = new LinkedHashMap<>();
+        for (Appointment appointment : appointments) {
+            byId.putIfAbsent(appointment.getId(), appointment);
+        }
+        if (byId.isEmpty()) {
+            return 0;
+        }
+        Set<Long> pending = new HashSet<>(outboxRepository.findPendingAppointmentIds(byId.keySet(), eventType));
+        byId.keySet().removeAll(pending);
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(byId.size() * 2);
+        for (Long appointmentId : byId.keySet()) {
+            if (emailEnabled) {
+                rows.add(new Object[]{appointmentId, eventType.name(), OutboxChannel.EMAIL.name(), now, now});
+            }
+            rows.add(new Object[]{appointmentId, eventType.name(), OutboxChannel.PUSH.name(), now, now});
+        }
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_ROW, rows);
+        }
+        log.debug("Queued {} notifications for {} appointments ({} already pending)",
+                eventType, byId.size(), pending.size());
+        return byId.size();
+    }
+
+    private static AppointmentOutbox row(Appointment appointment, OutboxEventType eventType,
+                                         OutboxChannel channel, LocalDateTime now) {
+        return AppointmentOutbox.builder()
+                .appointmentId(appointment.getId())
+                .eventType(eventType)
+                .channel(channel)
+                .nextAttemptAt(now)
+                .createdAt(now)
+                .build();
+    }
+}
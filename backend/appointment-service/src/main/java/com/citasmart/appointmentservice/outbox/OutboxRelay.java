@@ -0,0 +1,321 @@
+package com.citasmart.appointmentservice.outbox;
+
+import com.citasmart.appointmentservice.client.UserNearCache;
+import com.citasmart.appointmentservice.dto.UserResponse;
+import com.citasmart.appointmentservice.model.Appointment;
+import com.citasmart.appointmentservice.model.AppointmentOutbox;
+import com.citasmart.appointmentservice.model.OutboxChannel;
+import com.citasmart.appointmentservice.model.OutboxStatus;
+import com.citasmart.appointmentservice.repository.AppointmentOutboxRepository;
+import com.citasmart.appointmentservice.repository.AppointmentRepository;
+import com.citasmart.appointmentservice.service.EmailService;
+import com.citasmart.appointmentservice.service.NotificationService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Delivers {@code appointment_outbox} rows outside of any booking transaction.
+ *
+ * Each run drains every channel concurrently, each on its own bounded pool so
+ * a slow SMTP server does not hold back push notifications. Rows are claimed
+ * in batches with a per-run token: the claim only succeeds on rows still
+ * PENDING, and only the claiming run may mark them SENT or reschedule them, so
+ * two relay instances never deliver the same row. Claims expire after
+ * {@code claim-timeout}, returning the rows of a crashed run to the queue.
+ * Failed deliveries are retried with exponential backoff and jitter until
+ * {@code max-attempts}, after which the row is parked as FAILED.
+ *
+ * The scheduler thread only starts a run: the drains complete on the relay's
+ * own pools, and a tick that finds the previous run still draining is skipped,
+ * so a slow channel never holds up the application's other scheduled jobs.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxRelay {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final AppointmentOutboxRepository outboxRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final UserNearCache userNearCache;
+    private final EmailService emailService;
+    private final NotificationService notificationService;
+
+    @Value("${app.notification.outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${app.notification.outbox.max-batches-per-run:20}")
+    private int maxBatchesPerRun;
+
+    @Value("${app.notification.outbox.email-threads:4}")
+    private int emailThreads;
+
+    @Value("${app.notification.outbox.push-threads:2}")
+    private int pushThreads;
+
+    @Value("${app.notification.outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${app.notification.outbox.initial-backoff:10s}")
+    private Duration initialBackoff;
+
+    @Value("${app.notification.outbox.max-backoff:30m}")
+    private Duration maxBackoff;
+
+    @Value("${app.notification.outbox.claim-timeout:5m}")
+    private Duration claimTimeout;
+
+    @Value("${app.notification.outbox.retention:7d}")
+    private Duration retention;
+
+    private final Map<OutboxChannel, ExecutorService> channelExecutors = new EnumMap<>(OutboxChannel.class);
+    private final AtomicReference<CompletableFuture<Void>> currentRun =
+            new AtomicReference<>(CompletableFuture.completedFuture(null));
+    private ExecutorService drainExecutor;
+
+    @PostConstruct
+    void init() {
+        drainExecutor = Executors.newFixedThreadPool(OutboxChannel.values().length);
+        channelExecutors.put(OutboxChannel.EMAIL, Executors.newFixedThreadPool(Math.max(1, emailThreads)));
+        channelExecutors.put(OutboxChannel.PUSH, Executors.newFixedThreadPool(Math.max(1, pushThreads)));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        drainExecutor.shutdown();
+        channelExecutors.values().forEach(ExecutorService::shutdown);
+    }
+
+    @Scheduled(fixedDelayString = "${app.notification.outbox.poll-interval:1000}")
+    public void relay() {
+        if (!currentRun.get().isDone()) {
+            log.debug("Previous outbox relay run still draining, skipping this tick");
+            return;
+        }
+        currentRun.set(start());
+    }
+
+    /**
+     * Starts a run on the relay's pools; the returned future completes when every channel is drained.
+     */
+    CompletableFuture<Void> start() {
+        return CompletableFuture.runAsync(() -> {
+            int released = outboxRepository.releaseExpiredClaims(LocalDateTime.now());
+            if (released > 0) {
+                log.warn("Released {} outbox rows whose relay claim expired", released);
+            }
+        }, drainExecutor).thenCompose(ignored -> {
+            List<CompletableFuture<Integer>> channels = new ArrayList<>();
+            for (OutboxChannel channel : OutboxChannel.values()) {
+                channels.add(CompletableFuture.supplyAsync(() -> drain(channel), drainExecutor));
+            }
+            return CompletableFuture.allOf(channels.toArray(new CompletableFuture<?>[0]));
+        }).exceptionally(e -> {
+            log.error("Outbox relay run failed", e);
+            return null;
+        });
+    }
+
+    @Scheduled(cron = "${app.notification.outbox.cleanup-cron:0 0 3 * * ?}")
+    public void purgeSent() {
+        int deleted = outboxRepository.deleteSentBefore(LocalDateTime.now().minus(retention));
+        log.info("Purged {} delivered outbox rows", deleted);
+    }
+
+    /**
+     * Drains due rows of one channel, batch after batch, and returns how many were delivered.
+     */
+    int drain(OutboxChannel channel) {
+        int delivered = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            List<Long> ready = outboxRepository.findReadyIds(channel, LocalDateTime.now(), PageRequest.of(0, batchSize));
+            if (ready.isEmpty()) {
+                break;
+            }
+            String claimToken = UUID.randomUUID().toString();
+            if (outboxRepository.claim(ready, claimToken, LocalDateTime.now().plus(claimTimeout)) == 0) {
+                continue; // another instance got there first
+            }
+            delivered += deliver(channel, claimToken, outboxRepository.findByClaimToken(claimToken));
+            if (ready.size() < batchSize) {
+                break;
+            }
+        }
+        if (delivered > 0) {
+            log.info("Outbox relay delivered {} {} notifications", delivered, channel);
+        }
+        return delivered;
+    }
+
+    private int deliver(OutboxChannel channel, String claimToken, List<AppointmentOutbox> rows) {
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        Set<Long> appointmentIds = rows.stream().map(AppointmentOutbox::getAppointmentId).collect(Collectors.toSet());
+        Map<Long, Appointment> appointments = appointmentRepository.findAllById(appointmentIds).stream()
+                .collect(Collectors.toMap(Appointment::getId, Function.identity()));
+
+        Map<Long, UserResponse> users = channel == OutboxChannel.EMAIL
+                ? userNearCache.getUsers(participantIds(appointments.values()))
+                : Collections.<Long, UserResponse>emptyMap();
+
+        ConcurrentLinkedQueue<Long> sent = new ConcurrentLinkedQueue<>();
+        ConcurrentLinkedQueue<Failure> failed = new ConcurrentLinkedQueue<>();
+        ExecutorService executor = channelExecutors.get(channel);
+        List<CompletableFuture<Void>> deliveries = new ArrayList<>(rows.size());
+        for (AppointmentOutbox row : rows) {
+            deliveries.add(CompletableFuture.runAsync(() -> {
+                try {
+                    dispatch(row, appointments.get(row.getAppointmentId()), users);
+                    sent.add(row.getId());
+                } catch (Exception e) {
+                    failed.add(new Failure(row, e));
+                }
+            }, executor));
+        }
+        CompletableFuture.allOf(deliveries.toArray(new CompletableFuture<?>[0])).join();
+
+        if (!sent.isEmpty()) {
+            outboxRepository.markSent(new ArrayList<>(sent), claimToken, LocalDateTime.now());
+        }
+        for (Failure failure : failed) {
+            reschedule(failure.row, claimToken, failure.error);
+        }
+        return sent.size();
+    }
+
+    private static Set<Long> participantIds(Collection<Appointment> appointments) {
+        Set<Long> userIds = new HashSet<>();
+        for (Appointment appointment : appointments) {
+            userIds.add(appointment.getPatientId());
+            userIds.add(appointment.getDoctorId());
+        }
+        return userIds;
+    }
+
+    private void dispatch(AppointmentOutbox row, Appointment appointment, Map<Long, UserResponse> users) {
+        if (appointment == null) {
+            log.warn("Dropping {} notification for missing appointment {}", row.getEventType(), row.getAppointmentId());
+            return;
+        }
+        if (row.getChannel() == OutboxChannel.PUSH) {
+            switch (row.getEventType()) {
+                case APPOINTMENT_CREATED:
+                    notificationService.sendAppointmentCreatedNotification(appointment);
+                    break;
+                case APPOINTMENT_UPDATED:
+                    notificationService.sendAppointmentUpdatedNotification(appointment);
+                    break;
+                case APPOINTMENT_CANCELLED:
+                    notificationService.sendAppointmentCancelledNotification(appointment);
+                    break;
+                case APPOINTMENT_SERIES_CREATED:
+                    notificationService.sendAppointmentSeriesCreatedNotification(seriesOf(appointment));
+                    break;
+                default:
+                    throw new IllegalStateException("Unsupported outbox event " + row.getEventType());
+            }
+            return;
+        }
+
+        UserResponse patient = users.get(appointment.getPatientId());
+        UserResponse doctor = users.get(appointment.getDoctorId());
+        if (patient == null || doctor == null) {
+            throw new IllegalStateException("Patient or doctor details unavailable for appointment " + appointment.getId());
+        }
+        switch (row.getEventType()) {
+            case APPOINTMENT_CREATED:
+                emailService.sendAppointmentConfirmationEmail(appointment, patient, doctor);
+                break;
+            case APPOINTMENT_UPDATED:
+                emailService.sendAppointmentUpdateEmail(appointment, patient, doctor);
+                break;
+            case APPOINTMENT_CANCELLED:
+                emailService.sendAppointmentCancellationEmail(appointment, patient, doctor);
+                break;
+            case APPOINTMENT_SERIES_CREATED:
+                emailService.sendAppointmentSeriesConfirmationEmail(seriesOf(appointment), patient, doctor);
+                break;
+            default:
+                throw new IllegalStateException("Unsupported outbox event " + row.getEventType());
+        }
+    }
+
+    /**
+     * Visits of the series a summary row was enqueued for, in date order.
+     */
+    private List<Appointment> seriesOf(Appointment appointment) {
+        if (appointment.getSeriesId() == null) {
+            return Collections.singletonList(appointment);
+        }
+        return appointmentRepository.findBySeriesIdOrderByAppointmentDateAsc(appointment.getSeriesId());
+    }
+
+    private void reschedule(AppointmentOutbox row, String claimToken, Exception error) {
+        int attempts = row.getAttempts() + 1;
+        String message = String.valueOf(error.getMessage());
+        if (message.length() > MAX_ERROR_LENGTH) {
+            message = message.substring(0, MAX_ERROR_LENGTH);
+        }
+        if (attempts >= maxAttempts) {
+            log.error("Giving up on {} {} notification {} for appointment {} after {} attempts",
+                    row.getChannel(), row.getEventType(), row.getId(), row.getAppointmentId(), attempts, error);
+            outboxRepository.markFailed(row.getId(), claimToken, OutboxStatus.FAILED, attempts,
+                    LocalDateTime.now(), message);
+            return;
+        }
+        Duration backoff = backoff(attempts);
+        log.warn("{} notification {} for appointment {} failed (attempt {}), retrying in {}s: {}",
+                row.getChannel(), row.getId(), row.getAppointmentId(), attempts, backoff.getSeconds(), message);
+        outboxRepository.markFailed(row.getId(), claimToken, OutboxStatus.PENDING, attempts,
+                LocalDateTime.now().plus(backoff), message);
+    }
+
+    /**
+     * Exponential backoff capped at {@code max-backoff}, with up to 20% jitter
+     * so rows that failed together do not retry together.
+     */
+    Duration backoff(int attempts) {
+        long delay = Math.min(maxBackoff.toMillis(),
+                initialBackoff.toMillis() * (1L << Math.min(Math.max(0, attempts - 1), 20)));
+        long jitter = (long) (delay * 0.2 * ThreadLocalRandom.current().nextDouble());
+        return Duration.ofMillis(delay + jitter);
+    }
+
+    private static final class Failure {
+        private final AppointmentOutbox row;
+        private final Exception error;
+
+        private Failure(AppointmentOutbox row, Exception error) {
+            this.row = row;
+            this.error = error;
+        }
+    }
+}
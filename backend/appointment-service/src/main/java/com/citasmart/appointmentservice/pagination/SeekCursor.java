@@ -0,0 +1,64 @@
+package com.citasmart.appointmentservice.pagination;
+
+import com.citasmart.appointmentservice.exception.InvalidAppointmentDataException;
+import com.citasmart.appointmentservice.model.Appointment;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position of the last appointment returned by a keyset page.
+ *
+ * Listings are ordered by {@code (appointment_date DESC, id DESC)}, so the
+ * next page starts strictly after this pair. Clients only see the encoded,
+ * opaque token and send it back unchanged.
+ */
+public final class SeekCursor {
+
+    private final LocalDateTime appointmentDate;
+    private final Long id;
+
+    private SeekCursor(LocalDateTime appointmentDate, Long id) {
+        this.appointmentDate = appointmentDate;
+        this.id = id;
+    }
+
+    public static SeekCursor after(Appointment appointment) {
+        return new SeekCursor(appointment.getAppointmentDate(), appointment.getId());
+    }
+
+    /**
+     * Decodes a token produced by {@link #encode()}; a null or blank token means the first page.
+     */
+    public static SeekCursor decode(String token) {
+        if (token == null || token.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            if (separator <= 0) {
+                throw new InvalidAppointmentDataException("Invalid page cursor");
+            }
+            return new SeekCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.valueOf(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidAppointmentDataException("Invalid page cursor", e);
+        }
+    }
+
+    public String encode() {
+        String raw = appointmentDate + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public LocalDateTime getAppointmentDate() {
+        return appointmentDate;
+    }
+
+    public Long getId() {
+        return id;
+    }
+}
@@ -0,0 +1,76 @@
+package com.citasmart.appointmentservice.push;
+
+import com.citasmart.appointmentservice.event.AppointmentChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Tells the gateway which cached responses a committed change makes stale,
+ * as a space-separated list of {@link SurrogateKeys} on a Redis channel.
+ *
+ * Keys are gathered per transaction and published once after commit, so a
+ * bulk update of a doctor's day sends one message rather than one per row;
+ * a rolled-back transaction sends nothing.
+ */
+@Component
+@ConditionalOnProperty(name = "app.gateway-cache.purge", havingValue = "redis", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class CachePurgePublisher {
+
+    private final StringRedisTemplate redisTemplate;
+
+    @Value("${app.gateway-cache.channel:citasmart:cache-purge}")
+    private String channel;
+
+    @EventListener
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        Set<String> keys = SurrogateKeys.affectedBy(event, LocalDate.now());
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(keys);
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Set<String> pending = (Set<String>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Set<String> collected = new LinkedHashSet<>();
+            TransactionSynchronizationManager.bindResource(this, collected);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish(collected);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(CachePurgePublisher.this);
+                }
+            });
+            pending = collected;
+        }
+        pending.addAll(keys);
+    }
+
+    void publish(Set<String> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        try {
+            redisTemplate.convertAndSend(channel, String.join(" ", keys));
+        } catch (Exception e) {
+            // The gateway keeps serving these entries until their TTL, a few seconds at most
+            log.warn("Could not publish cache purge for {}: {}", keys, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.citasmart.appointmentservice.push;
+
+/**
+ * What a schedule stream subscribes to; the id is the doctor, center or patient ID.
+ */
+public enum PushTopic {
+    DOCTOR,          // Agenda de un médico
+    MEDICAL_CENTER,  // Todas las citas de un centro
+    PATIENT          // Citas de un paciente
+}
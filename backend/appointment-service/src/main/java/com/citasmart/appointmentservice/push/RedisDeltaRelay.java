@@ -0,0 +1,100 @@
+package com.citasmart.appointmentservice.push;
+
+import com.citasmart.appointmentservice.event.AppointmentChangedEvent;
+import com.citasmart.appointmentservice.schedule.DoctorScheduleIndex;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Shares committed changes between instances over a Redis channel, so a
+ * stream sees every change to its topic whichever instance committed it.
+ *
+ * Each instance publishes its own changes tagged with a random instance id
+ * and hands the others' to the local {@link SchedulePushHub} and
+ * {@link DoctorScheduleIndex}; its own come back on the channel too and are
+ * skipped, since both have already applied them.
+ */
+@Component
+@ConditionalOnProperty(name = "app.push.relay", havingValue = "redis")
+@RequiredArgsConstructor
+@Slf4j
+public class RedisDeltaRelay implements MessageListener {
+
+    private static final String CHANNEL = "citasmart:schedule-deltas";
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisConnectionFactory connectionFactory;
+    private final ObjectMapper objectMapper;
+    private final SchedulePushHub pushHub;
+    private final DoctorScheduleIndex scheduleIndex;
+
+    private final String instanceId = UUID.randomUUID().toString();
+    private RedisMessageListenerContainer container;
+
+    @PostConstruct
+    void start() {
+        container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(this, new ChannelTopic(CHANNEL));
+        container.afterPropertiesSet();
+        container.start();
+    }
+
+    @PreDestroy
+    void stop() throws Exception {
+        container.destroy();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        try {
+            redisTemplate.convertAndSend(CHANNEL,
+                    objectMapper.writeValueAsString(new Envelope(instanceId, ScheduleDelta.from(event))));
+        } catch (Exception e) {
+            // Streams on other instances miss this change; they still get the next ones
+            log.warn("Could not relay change of appointment {}: {}", event.getAppointmentId(), e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            Envelope envelope = objectMapper.readValue(new String(message.getBody(), StandardCharsets.UTF_8), Envelope.class);
+            if (!instanceId.equals(envelope.getOrigin())) {
+                ScheduleDelta delta = envelope.getDelta();
+                scheduleIndex.onRemoteChange(delta.getDoctorId(), delta.getAppointmentDate(),
+                        delta.getDurationMinutes(), delta.getPreviousDate());
+                pushHub.publish(delta);
+            }
+        } catch (Exception e) {
+            log.warn("Ignoring unreadable schedule delta: {}", e.getMessage());
+        }
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class Envelope {
+        private String origin;
+        private ScheduleDelta delta;
+    }
+}
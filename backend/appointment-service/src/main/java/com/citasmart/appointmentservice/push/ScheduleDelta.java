@@ -0,0 +1,48 @@
+package com.citasmart.appointmentservice.push;
+
+import com.citasmart.appointmentservice.event.AppointmentChangedEvent;
+import com.citasmart.appointmentservice.model.AppointmentStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Compact change notice pushed to schedule streams; clients patch their view
+ * with it and only refetch an appointment when they need its full details.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScheduleDelta {
+
+    private long sequence;
+    private AppointmentChangedEvent.ChangeType type;
+    private Long appointmentId;
+    private Long doctorId;
+    private Long patientId;
+    private Long medicalCenterId;
+    private LocalDateTime appointmentDate;
+    private Integer durationMinutes;
+    private AppointmentStatus status;
+    private LocalDateTime previousDate;
+    private AppointmentStatus previousStatus;
+
+    public static ScheduleDelta from(AppointmentChangedEvent event) {
+        return ScheduleDelta.builder()
+                .type(event.getChangeType())
+                .appointmentId(event.getAppointmentId())
+                .doctorId(event.getDoctorId())
+                .patientId(event.getPatientId())
+                .medicalCenterId(event.getMedicalCenterId())
+                .appointmentDate(event.getAppointmentDate())
+                .durationMinutes(event.getDurationMinutes())
+                .status(event.getStatus())
+                .previousDate(event.getPreviousDate())
+                .previousStatus(event.getPreviousStatus())
+                .build();
+    }
+}
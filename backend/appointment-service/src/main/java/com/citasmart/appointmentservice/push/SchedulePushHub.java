@@ -0,0 +1,301 @@
+package com.citasmart.appointmentservice.push;
+
+import com.citasmart.appointmentservice.event.AppointmentChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fans committed appointment changes out to Server-Sent Event streams
+ * subscribed to a doctor, a medical center or a patient.
+ *
+ * Publishing never touches a connection: each change is offered to the
+ * bounded queue of every subscriber of the affected topics, and a small
+ * sender pool drains each queue with at most one task per subscriber, so
+ * events stay in order and one slow client cannot hold up the committing
+ * thread or the other subscribers. A subscriber whose queue is full has
+ * fallen too far behind and is evicted; its stream is closed and the client
+ * reconnects and refetches. Heartbeat comments keep idle streams open
+ * through proxies and flush out dead connections.
+ *
+ * Only changes committed on this instance are seen here; with several
+ * instances, {@link RedisDeltaRelay} forwards the others' changes.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SchedulePushHub {
+
+    private static final Object HEARTBEAT = new Object();
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.push.buffer-size:64}")
+    private int bufferSize;
+
+    @Value("${app.push.max-subscribers:10000}")
+    private int maxSubscribers;
+
+    @Value("${app.push.timeout:1800000}")
+    private long timeoutMillis;
+
+    @Value("${app.push.threads:16}")
+    private int threads;
+
+    private final ConcurrentMap<TopicKey, Set<Subscriber>> topics = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final AtomicLong sequence = new AtomicLong();
+
+    private ExecutorService senders;
+    private Counter deliveredCounter;
+    private Counter evictedCounter;
+
+    @PostConstruct
+    void init() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "schedule-push-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        senders = Executors.newFixedThreadPool(Math.max(1, threads), threadFactory);
+        deliveredCounter = meterRegistry.counter("appointment.push.delivered");
+        evictedCounter = meterRegistry.counter("appointment.push.evicted");
+        meterRegistry.gauge("appointment.push.subscribers", subscriberCount);
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        topics.values().forEach(subscribers -> subscribers.forEach(subscriber -> evict(subscriber, false)));
+        senders.shutdown();
+        senders.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Opens a stream of the changes to {@code topic}/{@code id}. The first
+     * event, {@code ready}, carries the current sequence number.
+     */
+    public SseEmitter subscribe(PushTopic topic, Long id) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many schedule subscribers");
+        }
+        Subscriber subscriber = new Subscriber(new TopicKey(topic, id), newEmitter(), bufferSize);
+        topics.compute(subscriber.key, (key, subscribers) -> {
+            Set<Subscriber> set = subscribers != null ? subscribers : ConcurrentHashMap.<Subscriber>newKeySet();
+            set.add(subscriber);
+            return set;
+        });
+        subscriber.emitter.onCompletion(() -> remove(subscriber));
+        subscriber.emitter.onTimeout(() -> remove(subscriber));
+        subscriber.emitter.onError(error -> remove(subscriber));
+
+        subscriber.queue.offer(new Ready(sequence.get()));
+        schedule(subscriber);
+        log.debug("Schedule stream opened for {} {}", topic, id);
+        return subscriber.emitter;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        publish(ScheduleDelta.from(event));
+    }
+
+    /**
+     * Queues {@code delta} for every stream of its doctor, center and patient.
+     */
+    public void publish(ScheduleDelta delta) {
+        delta.setSequence(sequence.incrementAndGet());
+        fanOut(new TopicKey(PushTopic.DOCTOR, delta.getDoctorId()), delta);
+        fanOut(new TopicKey(PushTopic.MEDICAL_CENTER, delta.getMedicalCenterId()), delta);
+        fanOut(new TopicKey(PushTopic.PATIENT, delta.getPatientId()), delta);
+    }
+
+    @Scheduled(fixedDelayString = "${app.push.heartbeat-interval:25000}")
+    public void heartbeat() {
+        for (Set<Subscriber> subscribers : topics.values()) {
+            for (Subscriber subscriber : subscribers) {
+                enqueue(subscriber, HEARTBEAT);
+            }
+        }
+    }
+
+    public int subscriberCount() {
+        return subscriberCount.get();
+    }
+
+    SseEmitter newEmitter() {
+        return new SseEmitter(timeoutMillis);
+    }
+
+    private void fanOut(TopicKey key, ScheduleDelta delta) {
+        if (key.id == null) {
+            return;
+        }
+        Set<Subscriber> subscribers = topics.get(key);
+        if (subscribers == null) {
+            return;
+        }
+        for (Subscriber subscriber : subscribers) {
+            enqueue(subscriber, delta);
+        }
+    }
+
+    private void enqueue(Subscriber subscriber, Object frame) {
+        if (subscriber.queue.offer(frame)) {
+            schedule(subscriber);
+        } else {
+            log.info("Evicting slow schedule subscriber of {} {} ({} events behind)",
+                    subscriber.key.topic, subscriber.key.id, subscriber.queue.size());
+            evict(subscriber, true);
+        }
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.draining.compareAndSet(false, true)) {
+            senders.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        while (true) {
+            Object frame;
+            while (!subscriber.evicted.get() && (frame = subscriber.queue.poll()) != null) {
+                if (!send(subscriber, frame)) {
+                    subscriber.evicted.set(true);
+                }
+            }
+            if (subscriber.evicted.get()) {
+                // Completed here rather than by the evicting thread: emitter calls may block behind a send
+                subscriber.queue.clear();
+                subscriber.emitter.complete();
+                remove(subscriber);
+                return;
+            }
+            subscriber.draining.set(false);
+            // A frame queued after the last poll but before the flag was cleared has no task yet
+            if (subscriber.queue.isEmpty() || !subscriber.draining.compareAndSet(false, true)) {
+                return;
+            }
+        }
+    }
+
+    private boolean send(Subscriber subscriber, Object frame) {
+        try {
+            if (frame == HEARTBEAT) {
+                subscriber.emitter.send(SseEmitter.event().comment("keep-alive"));
+            } else if (frame instanceof Ready) {
+                subscriber.emitter.send(SseEmitter.event().name("ready").data(((Ready) frame).sequence));
+            } else {
+                ScheduleDelta delta = (ScheduleDelta) frame;
+                subscriber.emitter.send(SseEmitter.event()
+                        .id(String.valueOf(delta.getSequence()))
+                        .name(delta.getType().name().toLowerCase(Locale.ROOT))
+                        .data(delta, MediaType.APPLICATION_JSON));
+                deliveredCounter.increment();
+            }
+            return true;
+        } catch (Exception e) {
+            log.debug("Schedule stream of {} {} closed: {}", subscriber.key.topic, subscriber.key.id, e.getMessage());
+            return false;
+        }
+    }
+
+    private void evict(Subscriber subscriber, boolean slow) {
+        if (subscriber.evicted.compareAndSet(false, true)) {
+            if (slow) {
+                evictedCounter.increment();
+            }
+            remove(subscriber);
+            schedule(subscriber);
+        }
+    }
+
+    private void remove(Subscriber subscriber) {
+        if (!subscriber.removed.compareAndSet(false, true)) {
+            return;
+        }
+        topics.computeIfPresent(subscriber.key, (key, subscribers) -> {
+            subscribers.remove(subscriber);
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+        subscriberCount.decrementAndGet();
+    }
+
+    private static final class Subscriber {
+        private final TopicKey key;
+        private final SseEmitter emitter;
+        private final BlockingQueue<Object> queue;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean evicted = new AtomicBoolean();
+        private final AtomicBoolean removed = new AtomicBoolean();
+
+        private Subscriber(TopicKey key, SseEmitter emitter, int bufferSize) {
+            this.key = key;
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(Math.max(2, bufferSize));
+        }
+    }
+
+    private static final class Ready {
+        private final long sequence;
+
+        private Ready(long sequence) {
+            this.sequence = sequence;
+        }
+    }
+
+    private static final class TopicKey {
+        private final PushTopic topic;
+        private final Long id;
+
+        private TopicKey(PushTopic topic, Long id) {
+            this.topic = topic;
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof TopicKey)) {
+                return false;
+            }
+            TopicKey other = (TopicKey) o;
+            return topic == other.topic && Objects.equals(id, other.id);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(topic, id);
+        }
+    }
+}
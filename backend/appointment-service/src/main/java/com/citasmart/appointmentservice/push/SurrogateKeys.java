@@ -0,0 +1,60 @@
+package com.citasmart.appointmentservice.push;
+
+import com.citasmart.appointmentservice.event.AppointmentChangedEvent;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Tags the gateway's response cache uses to group entries. Read endpoints
+ * send them in the {@code Surrogate-Key} header and {@link CachePurgePublisher}
+ * publishes the ones a committed change affects, so the gateway drops those
+ * entries before their TTL runs out.
+ */
+public final class SurrogateKeys {
+
+    public static final String HEADER = "Surrogate-Key";
+
+    public static final String TODAY = "appointments:today";
+
+    private SurrogateKeys() {
+    }
+
+    public static String doctor(Long doctorId) {
+        return "doctor:" + doctorId;
+    }
+
+    public static String medicalCenter(Long medicalCenterId) {
+        return "medical-center:" + medicalCenterId;
+    }
+
+    public static String patient(Long patientId) {
+        return "patient:" + patientId;
+    }
+
+    /**
+     * Keys whose cached reads may show the appointment before the change.
+     */
+    static Set<String> affectedBy(AppointmentChangedEvent event, LocalDate today) {
+        Set<String> keys = new LinkedHashSet<>();
+        if (event.getDoctorId() != null) {
+            keys.add(doctor(event.getDoctorId()));
+        }
+        if (event.getMedicalCenterId() != null) {
+            keys.add(medicalCenter(event.getMedicalCenterId()));
+        }
+        if (event.getPatientId() != null) {
+            keys.add(patient(event.getPatientId()));
+        }
+        if (isOn(event.getAppointmentDate(), today) || isOn(event.getPreviousDate(), today)) {
+            keys.add(TODAY);
+        }
+        return keys;
+    }
+
+    private static boolean isOn(LocalDateTime dateTime, LocalDate day) {
+        return dateTime != null && dateTime.toLocalDate().equals(day);
+    }
+}
@@ -0,0 +1,265 @@
+package com.citasmart.appointmentservice.reminder;
+
+import com.citasmart.appointmentservice.client.UserNearCache;
+import com.citasmart.appointmentservice.dto.UserResponse;
+import com.citasmart.appointmentservice.mail.MailRun;
+import com.citasmart.appointmentservice.mail.PooledMailSender;
+import com.citasmart.appointmentservice.model.Appointment;
+import com.citasmart.appointmentservice.repository.AppointmentRepository;
+import com.citasmart.appointmentservice.schedule.ScheduleVersions;
+import com.citasmart.appointmentservice.service.EmailService;
+import com.citasmart.appointmentservice.service.NotificationService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Sends the day-ahead appointment reminders as a streaming pipeline.
+ *
+ * Due appointments are read in keyset pages ordered by id, so memory stays
+ * bounded by the page size. Each page resolves its patients and doctors with
+ * one batch lookup and dispatches email + push in parallel on a bounded pool.
+ *
+ * Before sending, a page is claimed with a single {@code UPDATE ... RETURNING}
+ * that flags only the rows still unflagged, so instances running the cron at
+ * the same time split the appointments instead of reminding them twice.
+ * Failed sends are unflagged again for the next run; a crash mid-page loses
+ * that page's reminders rather than duplicating them. Because every page
+ * commits its own flags, a run that is interrupted can simply be started
+ * again: the next run covers the unfinished window up to its own end, and
+ * already reminded appointments drop out of the query.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ReminderPipeline {
+
+    private static final String CLAIM_SQL =
+            "UPDATE appointments SET reminder_sent = true, version = version + 1 " +
+            "WHERE reminder_sent = false AND id IN (%s) RETURNING id";
+
+    private final AppointmentRepository appointmentRepository;
+    private final UserNearCache userNearCache;
+    private final EmailService emailService;
+    private final NotificationService notificationService;
+    private final MeterRegistry meterRegistry;
+    private final ScheduleVersions scheduleVersions;
+    private final PooledMailSender mailSender;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.scheduling.appointment-reminder.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.scheduling.appointment-reminder.hours-before:24}")
+    private int hoursBefore;
+
+    @Value("${app.scheduling.appointment-reminder.page-size:500}")
+    private int pageSize;
+
+    @Value("${app.scheduling.appointment-reminder.threads:8}")
+    private int threads;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong processed = new AtomicLong();
+
+    // Window of a run that did not reach the end of its cursor, covered again by the next run
+    private volatile LocalDateTime[] unfinishedWindow;
+
+    private ExecutorService dispatchExecutor;
+    private Counter sentCounter;
+    private Counter failedCounter;
+    private Timer runTimer;
+
+    @PostConstruct
+    void init() {
+        dispatchExecutor = Executors.newFixedThreadPool(Math.max(1, threads));
+        sentCounter = meterRegistry.counter("appointment.reminders", "outcome", "sent");
+        failedCounter = meterRegistry.counter("appointment.reminders", "outcome", "failed");
+        runTimer = meterRegistry.timer("appointment.reminders.run");
+        meterRegistry.gauge("appointment.reminders.run.processed", processed);
+        meterRegistry.gauge("appointment.reminders.run.in-progress", running, flag -> flag.get() ? 1 : 0);
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        dispatchExecutor.shutdown();
+        dispatchExecutor.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    @Scheduled(cron = "${app.scheduling.appointment-reminder.cron:0 0 9 * * ?}")
+    public void scheduledRun() {
+        if (enabled) {
+            run();
+        }
+    }
+
+    /**
+     * Runs the pipeline unless a run is already in progress on this instance.
+     * Runs on other instances are safe: each page is claimed atomically.
+     *
+     * @return number of reminders sent by this run
+     */
+    public long run() {
+        if (!running.compareAndSet(false, true)) {
+            log.info("Reminder run already in progress, skipping trigger");
+            return 0;
+        }
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime start = now.plusHours(hoursBefore);
+            LocalDateTime[] window = {start, start.plusDays(1)};
+            LocalDateTime[] unfinished = unfinishedWindow;
+            if (unfinished != null) {
+                // Resume from where the failed run started, without skipping this run's own day
+                window[0] = unfinished[0].isBefore(now) ? now : unfinished[0];
+                log.info("Resuming unfinished reminder run from {}, extended to {}", window[0], window[1]);
+            }
+            unfinishedWindow = window;
+            Timer.Sample sample = Timer.start(meterRegistry);
+            MailRun mailRun = mailSender.startRun("reminders");
+            long sent;
+            try {
+                sent = stream(window[0], window[1]);
+            } finally {
+                mailRun.close();
+            }
+            sample.stop(runTimer);
+            unfinishedWindow = null;
+            // The run totals are only known once it is closed, and also count mail sent by others meanwhile
+            if (mailRun.getFailed() > 0) {
+                log.warn("SMTP server rejected {} mails during the reminder run ({} accepted)",
+                        mailRun.getFailed(), mailRun.getSent());
+            }
+            return sent;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private long stream(LocalDateTime start, LocalDateTime end) {
+        long startedAt = System.nanoTime();
+        processed.set(0);
+        long sent = 0;
+        long failed = 0;
+        long afterId = 0;
+        int pages = 0;
+
+        while (true) {
+            List<Appointment> page = appointmentRepository.findReminderPage(
+                    start, end, afterId, PageRequest.of(0, pageSize));
+            if (page.isEmpty()) {
+                break;
+            }
+            afterId = page.get(page.size() - 1).getId();
+            pages++;
+
+            List<Appointment> claimed = claim(page);
+            List<Long> delivered = dispatch(claimed);
+            if (delivered.size() < claimed.size()) {
+                Set<Long> deliveredIds = new HashSet<>(delivered);
+                appointmentRepository.releaseReminders(claimed.stream()
+                        .map(Appointment::getId)
+                        .filter(id -> !deliveredIds.contains(id))
+                        .collect(Collectors.toList()));
+            }
+            if (!claimed.isEmpty()) {
+                // The reminder flag is part of the schedule responses
+                scheduleVersions.touch(claimed);
+            }
+            sent += delivered.size();
+            failed += claimed.size() - delivered.size();
+            processed.addAndGet(claimed.size());
+
+            double seconds = Math.max(1e-3, (System.nanoTime() - startedAt) / 1e9);
+            log.info("Reminder run page {}: {} processed, {} sent, {} failed ({} reminders/s)",
+                    pages, processed.get(), sent, failed, String.format("%.1f", sent / seconds));
+
+            if (page.size() < pageSize) {
+                break;
+            }
+        }
+
+        log.info("Reminder run for {} - {} finished: {} sent, {} failed in {} pages",
+                start, end, sent, failed, pages);
+        return sent;
+    }
+
+    /**
+     * Flags the page's appointments as reminded and returns those this run
+     * flagged; the others were claimed by a run on another instance.
+     */
+    private List<Appointment> claim(List<Appointment> page) {
+        String sql = String.format(CLAIM_SQL, String.join(", ", Collections.nCopies(page.size(), "?")));
+        Set<Long> claimedIds = new HashSet<>(jdbcTemplate.queryForList(sql, Long.class,
+                page.stream().map(Appointment::getId).toArray()));
+        if (claimedIds.size() < page.size()) {
+            log.debug("{} reminders of the page were claimed by another run", page.size() - claimedIds.size());
+        }
+        return page.stream()
+                .filter(appointment -> claimedIds.contains(appointment.getId()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Sends the reminders of one page in parallel and returns the IDs that were delivered.
+     */
+    private List<Long> dispatch(List<Appointment> page) {
+        if (page.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Set<Long> userIds = new HashSet<>();
+        for (Appointment appointment : page) {
+            userIds.add(appointment.getPatientId());
+            userIds.add(appointment.getDoctorId());
+        }
+        Map<Long, UserResponse> users = userNearCache.getUsers(userIds);
+
+        ConcurrentLinkedQueue<Long> delivered = new ConcurrentLinkedQueue<>();
+        List<CompletableFuture<Void>> sends = new ArrayList<>(page.size());
+        for (Appointment appointment : page) {
+            sends.add(CompletableFuture.runAsync(() -> {
+                try {
+                    UserResponse patient = users.get(appointment.getPatientId());
+                    UserResponse doctor = users.get(appointment.getDoctorId());
+                    if (patient == null || doctor == null) {
+                        throw new IllegalStateException("Patient or doctor details unavailable");
+                    }
+                    emailService.sendAppointmentReminderEmail(appointment, patient, doctor);
+                    notificationService.sendAppointmentReminderNotification(appointment);
+                    delivered.add(appointment.getId());
+                    sentCounter.increment();
+                } catch (Exception e) {
+                    failedCounter.increment();
+                    log.error("Failed to send reminder for appointment ID: {}", appointment.getId(), e);
+                }
+            }, dispatchExecutor));
+        }
+        CompletableFuture.allOf(sends.toArray(new CompletableFuture<?>[0])).join();
+        return new ArrayList<>(delivered);
+    }
+}
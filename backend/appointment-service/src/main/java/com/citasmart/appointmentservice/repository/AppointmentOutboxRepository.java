@@ -0,0 +1,86 @@
+package com.citasmart.appointmentservice.repository;
+
+import com.citasmart.appointmentservice.model.AppointmentOutbox;
+import com.citasmart.appointmentservice.model.OutboxChannel;
+import com.citasmart.appointmentservice.model.OutboxEventType;
+import com.citasmart.appointmentservice.model.OutboxStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface AppointmentOutboxRepository extends JpaRepository<AppointmentOutbox, Long> {
+    
+    // Oldest rows of a channel that are due for (re)delivery
+    @Query("SELECT o.id FROM AppointmentOutbox o WHERE o.channel = :channel " +
+           "AND o.status = 'PENDING' AND o.nextAttemptAt <= :now ORDER BY o.id")
+    List<Long> findReadyIds(
+        @Param("channel") OutboxChannel channel,
+        @Param("now") LocalDateTime now,
+        Pageable pageable);
+    
+    // Claim rows for one relay run; rows already claimed by another node are skipped
+    @Modifying
+    @Transactional
+    @Query("UPDATE AppointmentOutbox o SET o.status = 'PROCESSING', o.claimToken = :claimToken, " +
+           "o.claimedUntil = :claimedUntil WHERE o.id IN (:ids) AND o.status = 'PENDING'")
+    int claim(
+        @Param("ids") Collection<Long> ids,
+        @Param("claimToken") String claimToken,
+        @Param("claimedUntil") LocalDateTime claimedUntil);
+    
+    List<AppointmentOutbox> findByClaimToken(String claimToken);
+    
+    // Appointments that already have an undelivered notification of this type
+    @Query("SELECT DISTINCT o.appointmentId FROM AppointmentOutbox o WHERE o.appointmentId IN (:appointmentIds) " +
+           "AND o.eventType = :eventType AND o.status = 'PENDING'")
+    List<Long> findPendingAppointmentIds(
+        @Param("appointmentIds") Collection<Long> appointmentIds,
+        @Param("eventType") OutboxEventType eventType);
+    
+    @Modifying
+    @Transactional
+    @Query("UPDATE AppointmentOutbox o SET o.status = 'SENT', o.processedAt = :processedAt, " +
+           "o.attempts = o.attempts + 1, o.claimToken = NULL, o.claimedUntil = NULL " +
+           "WHERE o.id IN (:ids) AND o.claimToken = :claimToken")
+    int markSent(
+        @Param("ids") Collection<Long> ids,
+        @Param("claimToken") String claimToken,
+        @Param("processedAt") LocalDateTime processedAt);
+    
+    @Modifying
+    @Transactional
+    @Query("UPDATE AppointmentOutbox o SET o.status = :status, o.attempts = :attempts, " +
+           "o.nextAttemptAt = :nextAttemptAt, o.lastError = :lastError, " +
+           "o.claimToken = NULL, o.claimedUntil = NULL " +
+           "WHERE o.id = :id AND o.claimToken = :claimToken")
+    int markFailed(
+        @Param("id") Long id,
+        @Param("claimToken") String claimToken,
+        @Param("status") OutboxStatus status,
+        @Param("attempts") Integer attempts,
+        @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+        @Param("lastError") String lastError);
+    
+    // Return rows of relays that died mid-run to the queue
+    @Modifying
+    @Transactional
+    @Query("UPDATE AppointmentOutbox o SET o.status = 'PENDING', o.claimToken = NULL, o.claimedUntil = NULL " +
+           "WHERE o.status = 'PROCESSING' AND o.claimedUntil < :now")
+    int releaseExpiredClaims(@Param("now") LocalDateTime now);
+    
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM AppointmentOutbox o WHERE o.status = 'SENT' AND o.processedAt < :cutoff")
+    int deleteSentBefore(@Param("cutoff") LocalDateTime cutoff);
+    
+    long countByStatus(OutboxStatus status);
+}
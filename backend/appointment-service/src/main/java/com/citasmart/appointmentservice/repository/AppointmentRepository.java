@@ -5,11 +5,14 @@ import com.citasmart.appointmentservice.model.AppointmentStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -27,9 +30,61 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
     List<Appointment> findByDoctorIdAndAppointmentDateBetween(
         Long doctorId, LocalDateTime startDate, LocalDateTime endDate);
     
+    List<Appointment> findBySeriesIdOrderByAppointmentDateAsc(String seriesId);
+    
+    List<Appointment> findByDoctorIdInAndAppointmentDateBetween(
+        Collection<Long> doctorIds, LocalDateTime startDate, LocalDateTime endDate);
+    
+    // Doctors seen attending a speciality at a medical center
+    @Query("SELECT DISTINCT a.doctorId FROM Appointment a " +
+           "WHERE a.specialityId = :specialityId AND a.medicalCenterId = :medicalCenterId")
+    List<Long> findDoctorIdsBySpecialityAndMedicalCenter(
+        @Param("specialityId") Long specialityId,
+        @Param("medicalCenterId") Long medicalCenterId);
+    
     // Find appointments by medical center
     Page<Appointment> findByMedicalCenterIdOrderByAppointmentDateDesc(Long medicalCenterId, Pageable pageable);
     
+    // Keyset listings on (appointmentDate DESC, id DESC): first page, then seek past the last row
+    List<Appointment> findByPatientIdOrderByAppointmentDateDescIdDesc(Long patientId, Pageable pageable);
+    
+    @Query("SELECT a FROM Appointment a WHERE a.patientId = :patientId " +
+           "AND (a.appointmentDate < :afterDate OR (a.appointmentDate = :afterDate AND a.id < :afterId)) " +
+           "ORDER BY a.appointmentDate DESC, a.id DESC")
+    List<Appointment> findPatientPageAfter(
+        @Param("patientId") Long patientId,
+        @Param("afterDate") LocalDateTime afterDate,
+        @Param("afterId") Long afterId,
+        Pageable pageable);
+    
+    List<Appointment> findByDoctorIdOrderByAppointmentDateDescIdDesc(Long doctorId, Pageable pageable);
+    
+    @Query("SELECT a FROM Appointment a WHERE a.doctorId = :doctorId " +
+           "AND (a.appointmentDate < :afterDate OR (a.appointmentDate = :afterDate AND a.id < :afterId)) " +
+           "ORDER BY a.appointmentDate DESC, a.id DESC")
+    List<Appointment> findDoctorPageAfter(
+        @Param("doctorId") Long doctorId,
+        @Param("afterDate") LocalDateTime afterDate,
+        @Param("afterId") Long afterId,
+        Pageable pageable);
+    
+    List<Appointment> findByMedicalCenterIdOrderByAppointmentDateDescIdDesc(Long medicalCenterId, Pageable pageable);
+    
+    @Query("SELECT a FROM Appointment a WHERE a.medicalCenterId = :medicalCenterId " +
+           "AND (a.appointmentDate < :afterDate OR (a.appointmentDate = :afterDate AND a.id < :afterId)) " +
+           "ORDER BY a.appointmentDate DESC, a.id DESC")
+    List<Appointment> findMedicalCenterPageAfter(
+        @Param("medicalCenterId") Long medicalCenterId,
+        @Param("afterDate") LocalDateTime afterDate,
+        @Param("afterId") Long afterId,
+        Pageable pageable);
+    
+    long countByPatientId(Long patientId);
+    
+    long countByDoctorId(Long doctorId);
+    
+    long countByMedicalCenterId(Long medicalCenterId);
+    
     // Find appointments by status
     Page<Appointment> findByStatusOrderByAppointmentDateDesc(AppointmentStatus status, Pageable pageable);
     
@@ -60,16 +115,6 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
         @Param("startTime") LocalDateTime startTime,
         @Param("endTime") LocalDateTime endTime);
     
-    // Simplified version using method names
-    @Query("SELECT a FROM Appointment a WHERE a.doctorId = :doctorId " +
-           "AND a.status NOT IN ('CANCELLED', 'COMPLETED') " +
-           "AND a.appointmentDate < :endTime " +
-           "AND DATEADD(MINUTE, a.durationMinutes, a.appointmentDate) > :startTime")
-    List<Appointment> findConflictingAppointmentsSimple(
-        @Param("doctorId") Long doctorId,
-        @Param("startTime") LocalDateTime startTime,
-        @Param("endTime") LocalDateTime endTime);
-    
     // Find upcoming appointments
     @Query("SELECT a FROM Appointment a WHERE a.appointmentDate >= :now " +
            "AND a.status IN ('SCHEDULED', 'CONFIRMED')")
@@ -82,6 +127,22 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
         @Param("startTime") LocalDateTime startTime,
         @Param("endTime") LocalDateTime endTime);
     
+    // Keyset page of appointments due for a reminder, ordered by id
+    @Query("SELECT a FROM Appointment a WHERE a.appointmentDate BETWEEN :startTime AND :endTime " +
+           "AND a.status IN ('SCHEDULED', 'CONFIRMED') AND a.reminderSent = false " +
+           "AND a.id > :afterId ORDER BY a.id")
+    List<Appointment> findReminderPage(
+        @Param("startTime") LocalDateTime startTime,
+        @Param("endTime") LocalDateTime endTime,
+        @Param("afterId") Long afterId,
+        Pageable pageable);
+    
+    // Unflag reminders that were claimed but could not be delivered
+    @Modifying
+    @Transactional
+    @Query("UPDATE Appointment a SET a.reminderSent = false, a.version = a.version + 1 WHERE a.id IN (:ids)")
+    int releaseReminders(@Param("ids") Collection<Long> ids);
+    
     // Statistics queries
     @Query("SELECT COUNT(a) FROM Appointment a WHERE a.status = :status " +
            "AND a.appointmentDate BETWEEN :startDate AND :endDate")
@@ -109,6 +170,10 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
     // Find by confirmation token
     Optional<Appointment> findByConfirmationToken(String confirmationToken);
     
+    // Version only, for conditional GETs that should not hydrate the entity
+    @Query("SELECT a.version FROM Appointment a WHERE a.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+    
     // Dashboard queries
     @Query("SELECT a FROM Appointment a WHERE a.status = 'SCHEDULED' " +
            "AND a.appointmentDate BETWEEN :today AND :tomorrow")
@@ -0,0 +1,55 @@
+package com.citasmart.appointmentservice.repository;
+
+import com.citasmart.appointmentservice.model.WaitlistEntry;
+import com.citasmart.appointmentservice.model.WaitlistStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface WaitlistEntryRepository extends JpaRepository<WaitlistEntry, Long> {
+    
+    List<WaitlistEntry> findByPatientIdOrderByCreatedAtDesc(Long patientId);
+    
+    // Entries that can still be matched, for rebuilding the in-memory index
+    @Query("SELECT w FROM WaitlistEntry w WHERE w.status = 'WAITING' AND w.windowEnd > :now")
+    List<WaitlistEntry> findWaiting(@Param("now") LocalDateTime now);
+    
+    @Query("SELECT w FROM WaitlistEntry w WHERE w.status = 'OFFERED' AND w.offerExpiresAt <= :now ORDER BY w.id")
+    List<WaitlistEntry> findExpiredOffers(@Param("now") LocalDateTime now, Pageable pageable);
+    
+    // Expired offers the patient did book: an active appointment at the offered slot
+    @Query("SELECT w.id FROM WaitlistEntry w, Appointment a WHERE w.id IN (:ids) " +
+           "AND a.patientId = w.patientId AND a.doctorId = w.offeredDoctorId " +
+           "AND a.appointmentDate = w.offeredDate AND a.status NOT IN ('CANCELLED', 'NO_SHOW')")
+    List<Long> findBookedOfferIds(@Param("ids") Collection<Long> ids);
+    
+    @Modifying
+    @Transactional
+    @Query("UPDATE WaitlistEntry w SET w.status = :status, w.updatedAt = :now " +
+           "WHERE w.id IN (:ids) AND w.status = 'OFFERED'")
+    int closeOffers(
+        @Param("ids") Collection<Long> ids,
+        @Param("status") WaitlistStatus status,
+        @Param("now") LocalDateTime now);
+    
+    @Modifying
+    @Transactional
+    @Query("UPDATE WaitlistEntry w SET w.status = 'EXPIRED', w.updatedAt = :now " +
+           "WHERE w.status = 'WAITING' AND w.windowEnd <= :now")
+    int expireWaiting(@Param("now") LocalDateTime now);
+    
+    @Modifying
+    @Transactional
+    @Query("UPDATE WaitlistEntry w SET w.status = 'CANCELLED', w.updatedAt = :now " +
+           "WHERE w.id = :id AND w.status IN ('WAITING', 'OFFERED')")
+    int cancel(@Param("id") Long id, @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,88 @@
+package com.citasmart.appointmentservice.schedule;
+
+import com.citasmart.appointmentservice.event.AppointmentChangedEvent;
+import com.citasmart.appointmentservice.repository.AppointmentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collections;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Doctors known to attend a speciality at a medical center, derived from the
+ * appointments table (there is no doctor catalogue in this service). Each
+ * (speciality, center) pair is loaded with one DISTINCT query and then grows
+ * as new appointments are created.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DoctorDirectory {
+
+    private final AppointmentRepository appointmentRepository;
+    private final ConcurrentMap<Key, Set<Long>> doctors = new ConcurrentHashMap<>();
+
+    public Set<Long> doctorsFor(Long specialityId, Long medicalCenterId) {
+        return Collections.unmodifiableSet(doctors.computeIfAbsent(new Key(specialityId, medicalCenterId), key -> {
+            Set<Long> ids = ConcurrentHashMap.newKeySet();
+            ids.addAll(appointmentRepository.findDoctorIdsBySpecialityAndMedicalCenter(
+                    key.specialityId, key.medicalCenterId));
+            return ids;
+        }));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        if (event.getChangeType() != AppointmentChangedEvent.ChangeType.CREATED) {
+            return;
+        }
+        Set<Long> ids = doctors.get(new Key(event.getSpecialityId(), event.getMedicalCenterId()));
+        if (ids != null) {
+            ids.add(event.getDoctorId());
+        }
+    }
+
+    /**
+     * Periodically forgets the directory so doctors who stopped attending drop out.
+     */
+    @Scheduled(cron = "${app.scheduling.doctor-directory.refresh-cron:0 30 0 * * ?}")
+    public void refresh() {
+        log.debug("Clearing doctor directory with {} entries", doctors.size());
+        doctors.clear();
+    }
+
+    private static final class Key {
+        private final Long specialityId;
+        private final Long medicalCenterId;
+
+        private Key(Long specialityId, Long medicalCenterId) {
+            this.specialityId = specialityId;
+            this.medicalCenterId = medicalCenterId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return Objects.equals(specialityId, other.specialityId)
+                    && Objects.equals(medicalCenterId, other.medicalCenterId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(specialityId, medicalCenterId);
+        }
+    }
+}
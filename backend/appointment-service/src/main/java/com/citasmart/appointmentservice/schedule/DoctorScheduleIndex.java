@@ -0,0 +1,517 @@
+package com.citasmart.appointmentservice.schedule;
+
+import com.citasmart.appointmentservice.event.AppointmentChangedEvent;
+import com.citasmart.appointmentservice.model.Appointment;
+import com.citasmart.appointmentservice.repository.AppointmentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+/**
+ * In-process occupancy index of the doctors' agendas.
+ *
+ * Each (doctor, day) bucket is an immutable array of busy intervals sorted by
+ * start time, with a running maximum of end times so that an overlap query is a
+ * binary search plus a short backwards walk. Buckets are loaded lazily from the
+ * database the first time a doctor/day is queried and are then kept current by
+ * {@link AppointmentChangedEvent}s applied after commit.
+ *
+ * Changes committed on other instances only arrive through the schedule delta
+ * relay, when it is enabled, so every bucket is also reloaded once it is older
+ * than the configured TTL. A conflict found in memory is confirmed against a
+ * fresh read before it is reported, so a slot freed elsewhere is never refused
+ * for long. A slot booked elsewhere may still look free here; the
+ * {@code appointments_no_overlap} exclusion constraint rejects that write.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DoctorScheduleIndex {
+
+    private static final int MAX_DURATION_MINUTES = 240;
+
+    private final AppointmentRepository appointmentRepository;
+    private final ConcurrentMap<DayKey, DaySchedule> days = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, AtomicLong> doctorVersions = new ConcurrentHashMap<>();
+
+    @Value("${app.scheduling.schedule-index.max-days:100000}")
+    private int maxDays;
+
+    @Value("${app.scheduling.schedule-index.ttl:60000}")
+    private long ttlMillis;
+
+    public boolean isAvailable(Long doctorId, LocalDateTime startTime, LocalDateTime endTime) {
+        return !hasConflict(doctorId, startTime, endTime, null);
+    }
+
+    /**
+     * Checks whether any active appointment of the doctor overlaps [startTime, endTime).
+     * A conflict seen in memory is only reported if it is still there after
+     * reloading the involved days from the database.
+     *
+     * @param excludeAppointmentId appointment to ignore (the one being rescheduled), may be null
+     */
+    public boolean hasConflict(Long doctorId, LocalDateTime startTime, LocalDateTime endTime, Long excludeAppointmentId) {
+        if (!endTime.isAfter(startTime)) {
+            return false;
+        }
+        long checkedAt = System.nanoTime();
+        if (!overlaps(doctorId, startTime, endTime, excludeAppointmentId)) {
+            return false;
+        }
+        // The busy interval may come from a change another instance has since undone
+        for (LocalDate date = startTime.toLocalDate(); !date.isAfter(lastDay(endTime)); date = date.plusDays(1)) {
+            reload(new DayKey(doctorId, date), checkedAt);
+        }
+        return overlaps(doctorId, startTime, endTime, excludeAppointmentId);
+    }
+
+    /**
+     * Busy 5-minute ticks of the doctor's day (see {@link Ticks}). The returned
+     * bitmap is shared with the index and must not be modified.
+     */
+    public long[] busyTicks(Long doctorId, LocalDate date) {
+        return getOrLoad(new DayKey(doctorId, date)).busyTicks(toEpochSecond(date.atStartOfDay()));
+    }
+
+    // Applied before other after-commit listeners, which may read the index right away
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        // Bumped before patching so concurrent preloads back off, and again after
+        // so readers that memoise on the version never pair it with the old buckets
+        AtomicLong version = doctorVersion(event.getDoctorId());
+        version.incrementAndGet();
+        long id = event.getAppointmentId();
+        if (event.getPreviousDate() != null && event.getPreviousDurationMinutes() != null) {
+            update(event.getDoctorId(), event.getPreviousDate(), event.getPreviousDurationMinutes(),
+                    schedule -> schedule.without(id));
+        }
+        update(event.getDoctorId(), event.getAppointmentDate(), event.getDurationMinutes(),
+                schedule -> schedule.without(id));
+
+        if (event.hasSlot()) {
+            LocalDateTime start = event.getAppointmentDate();
+            LocalDateTime end = start.plusMinutes(event.getDurationMinutes());
+            long from = toEpochSecond(start);
+            long to = toEpochSecond(end);
+            update(event.getDoctorId(), start, event.getDurationMinutes(), schedule -> schedule.with(id, from, to));
+        }
+        version.incrementAndGet();
+    }
+
+    /**
+     * Drops the buckets a change committed on another instance touched; they
+     * reload from the database on next use.
+     *
+     * @param durationMinutes duration of the appointment, null if unknown
+     * @param previousDate    slot the appointment held before the change, may be null
+     */
+    public void onRemoteChange(Long doctorId, LocalDateTime appointmentDate, Integer durationMinutes,
+                               LocalDateTime previousDate) {
+        AtomicLong version = doctorVersion(doctorId);
+        version.incrementAndGet();
+        if (previousDate != null) {
+            // The previous duration is not relayed; cover the longest an appointment can last
+            remove(doctorId, previousDate, MAX_DURATION_MINUTES);
+        }
+        if (appointmentDate != null) {
+            remove(doctorId, appointmentDate, durationMinutes != null ? durationMinutes : MAX_DURATION_MINUTES);
+        }
+        version.incrementAndGet();
+    }
+
+    /**
+     * Drops buckets for past days, which are never queried for new bookings,
+     * and buckets older than the TTL, which would be reloaded on next use anyway.
+     */
+    @Scheduled(cron = "${app.scheduling.schedule-index.eviction-cron:0 15 0 * * ?}")
+    public void evictPastDays() {
+        LocalDate today = LocalDate.now();
+        long now = System.nanoTime();
+        int before = days.size();
+        days.keySet().removeIf(key -> key.date.isBefore(today));
+        days.values().removeIf(schedule -> !isFresh(schedule, now));
+        log.debug("Schedule index eviction removed {} day buckets", before - days.size());
+    }
+
+    /**
+     * Loads every missing bucket for the given doctors and days with a single
+     * range query on (doctor_id, appointment_date), instead of one query per
+     * doctor/day on first access.
+     */
+    public void preload(Collection<Long> doctorIds, LocalDate from, LocalDate to) {
+        Map<Long, Long> versions = new HashMap<>();
+        for (Long doctorId : doctorIds) {
+            for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+                if (!days.containsKey(new DayKey(doctorId, date))) {
+                    versions.put(doctorId, doctorVersion(doctorId).get());
+                    break;
+                }
+            }
+        }
+        if (versions.isEmpty()) {
+            return;
+        }
+
+        long loadedAt = System.nanoTime();
+        LocalDateTime rangeStart = from.atStartOfDay();
+        LocalDateTime rangeEnd = to.plusDays(1).atStartOfDay();
+        List<Appointment> appointments = appointmentRepository.findByDoctorIdInAndAppointmentDateBetween(
+                versions.keySet(), rangeStart.minusMinutes(MAX_DURATION_MINUTES), rangeEnd);
+
+        Map<Long, List<Appointment>> byDoctor = appointments.stream()
+                .collect(Collectors.groupingBy(Appointment::getDoctorId));
+        for (Map.Entry<Long, Long> entry : versions.entrySet()) {
+            Long doctorId = entry.getKey();
+            // A change committed while we were reading may be missing from the result;
+            // leave that doctor to the regular per-day load
+            if (doctorVersion(doctorId).get() != entry.getValue()) {
+                continue;
+            }
+            List<Appointment> doctorAppointments = byDoctor.getOrDefault(doctorId, Collections.emptyList());
+            for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+                LocalDateTime dayStart = date.atStartOfDay();
+                DaySchedule schedule = DaySchedule.of(
+                        toIntervals(doctorAppointments, dayStart, dayStart.plusDays(1)), loadedAt);
+                days.putIfAbsent(new DayKey(doctorId, date), schedule);
+            }
+        }
+        log.debug("Preloaded schedules of {} doctors from {} to {}", versions.size(), from, to);
+    }
+
+    public void invalidate(Long doctorId, LocalDate date) {
+        doctorVersion(doctorId).incrementAndGet();
+        days.remove(new DayKey(doctorId, date));
+        doctorVersion(doctorId).incrementAndGet();
+    }
+
+    /**
+     * Monotonic counter bumped on every change applied to the doctor's agenda.
+     */
+    public long version(Long doctorId) {
+        return doctorVersion(doctorId).get();
+    }
+
+    int size() {
+        return days.size();
+    }
+
+    private boolean overlaps(Long doctorId, LocalDateTime startTime, LocalDateTime endTime, Long excludeAppointmentId) {
+        long from = toEpochSecond(startTime);
+        long to = toEpochSecond(endTime);
+        for (LocalDate date = startTime.toLocalDate(); !date.isAfter(lastDay(endTime)); date = date.plusDays(1)) {
+            if (getOrLoad(new DayKey(doctorId, date)).overlaps(from, to, excludeAppointmentId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private DaySchedule getOrLoad(DayKey key) {
+        long now = System.nanoTime();
+        DaySchedule schedule = days.get(key);
+        if (schedule != null) {
+            return isFresh(schedule, now) ? schedule : reload(key, now - TimeUnit.MILLISECONDS.toNanos(ttlMillis));
+        }
+        if (days.size() >= maxDays) {
+            makeRoom(now);
+        }
+        return days.computeIfAbsent(key, this::load);
+    }
+
+    /**
+     * Replaces the bucket with a fresh read unless it was loaded at or after {@code staleBefore}.
+     */
+    private DaySchedule reload(DayKey key, long staleBefore) {
+        // Bumped around the swap like a local change, so preloads and memoised views notice it
+        AtomicLong version = doctorVersion(key.doctorId);
+        version.incrementAndGet();
+        DaySchedule schedule = days.compute(key, (k, current) ->
+                current != null && current.loadedAt - staleBefore >= 0 ? current : load(k));
+        version.incrementAndGet();
+        return schedule;
+    }
+
+    /**
+     * Brings the index back under {@code maxDays}: past and expired days go
+     * first, then the least recently loaded buckets down to 90% of the cap.
+     */
+    private void makeRoom(long now) {
+        log.warn("Schedule index reached {} day buckets, evicting", maxDays);
+        evictPastDays();
+        int excess = days.size() - maxDays / 10 * 9;
+        if (excess <= 0) {
+            return;
+        }
+        List<DayKey> oldest = days.entrySet().stream()
+                .sorted(Comparator.comparingLong(entry -> entry.getValue().loadedAt - now))
+                .limit(excess)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+        for (DayKey key : oldest) {
+            AtomicLong version = doctorVersion(key.doctorId);
+            version.incrementAndGet();
+            days.remove(key);
+            version.incrementAndGet();
+        }
+        log.debug("Schedule index evicted {} least recently loaded day buckets", oldest.size());
+    }
+
+    private boolean isFresh(DaySchedule schedule, long now) {
+        return ttlMillis <= 0 || now - schedule.loadedAt < TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+    }
+
+    private DaySchedule load(DayKey key) {
+        long loadedAt = System.nanoTime();
+        LocalDateTime dayStart = key.date.atStartOfDay();
+        LocalDateTime dayEnd = dayStart.plusDays(1);
+
+        // Appointments starting late the previous day may spill over midnight
+        List<Appointment> appointments = appointmentRepository.findByDoctorIdAndAppointmentDateBetween(
+                key.doctorId, dayStart.minusMinutes(MAX_DURATION_MINUTES), dayEnd);
+        return DaySchedule.of(toIntervals(appointments, dayStart, dayEnd), loadedAt);
+    }
+
+    private static List<long[]> toIntervals(List<Appointment> appointments, LocalDateTime dayStart,
+                                            LocalDateTime dayEnd) {
+        List<long[]> intervals = new ArrayList<>();
+        for (Appointment appointment : appointments) {
+            if (appointment.getStatus() == null || !appointment.getStatus().occupiesSlot()) {
+                continue;
+            }
+            LocalDateTime end = appointment.getEndTime();
+            if (end.isAfter(dayStart) && appointment.getAppointmentDate().isBefore(dayEnd)) {
+                intervals.add(new long[] {
+                        toEpochSecond(appointment.getAppointmentDate()), toEpochSecond(end), appointment.getId()});
+            }
+        }
+        return intervals;
+    }
+
+    private AtomicLong doctorVersion(Long doctorId) {
+        return doctorVersions.computeIfAbsent(doctorId, id -> new AtomicLong());
+    }
+
+    private void update(Long doctorId, LocalDateTime start, int durationMinutes,
+                        UnaryOperator<DaySchedule> change) {
+        LocalDateTime end = start.plusMinutes(durationMinutes);
+        for (LocalDate date = start.toLocalDate(); !date.isAfter(lastDay(end)); date = date.plusDays(1)) {
+            // Only buckets already in memory are patched; missing ones load fresh from the DB
+            days.computeIfPresent(new DayKey(doctorId, date), (key, schedule) -> change.apply(schedule));
+        }
+    }
+
+    private void remove(Long doctorId, LocalDateTime start, int durationMinutes) {
+        LocalDateTime end = start.plusMinutes(durationMinutes);
+        for (LocalDate date = start.toLocalDate(); !date.isAfter(lastDay(end)); date = date.plusDays(1)) {
+            days.remove(new DayKey(doctorId, date));
+        }
+    }
+
+    private static LocalDate lastDay(LocalDateTime endExclusive) {
+        return endExclusive.minusNanos(1).toLocalDate();
+    }
+
+    static long toEpochSecond(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static final class DayKey {
+        private final Long doctorId;
+        private final LocalDate date;
+
+        private DayKey(Long doctorId, LocalDate date) {
+            this.doctorId = doctorId;
+            this.date = date;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof DayKey)) {
+                return false;
+            }
+            DayKey other = (DayKey) o;
+            return doctorId.equals(other.doctorId) && date.equals(other.date);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(doctorId, date);
+        }
+    }
+
+    /**
+     * Immutable, start-sorted interval array for one doctor and day. Writers
+     * replace the whole array (copy-on-write), readers never lock.
+     */
+    static final class DaySchedule {
+
+        private static final long[] NONE = new long[0];
+        private static final long[] NO_TICKS = Ticks.newBitmap();
+
+        final long[] starts;
+        final long[] ends;
+        final long[] ids;
+        final long[] maxEnds;
+        // System.nanoTime() of the database read; local patches keep it, so the TTL still applies
+        final long loadedAt;
+
+        // Derived lazily from the immutable arrays; a racy double computation is harmless
+        private volatile long[] busyTicks;
+
+        private DaySchedule(long[] starts, long[] ends, long[] ids, long loadedAt) {
+            this.starts = starts;
+            this.ends = ends;
+            this.ids = ids;
+            this.loadedAt = loadedAt;
+            this.maxEnds = new long[ends.length];
+            long max = Long.MIN_VALUE;
+            for (int i = 0; i < ends.length; i++) {
+                max = Math.max(max, ends[i]);
+                maxEnds[i] = max;
+            }
+        }
+
+        static DaySchedule of(List<long[]> intervals, long loadedAt) {
+            if (intervals.isEmpty()) {
+                return new DaySchedule(NONE, NONE, NONE, loadedAt);
+            }
+            intervals.sort(Comparator.<long[]>comparingLong(interval -> interval[0])
+                    .thenComparingLong(interval -> interval[2]));
+            int n = intervals.size();
+            long[] starts = new long[n];
+            long[] ends = new long[n];
+            long[] ids = new long[n];
+            for (int i = 0; i < n; i++) {
+                long[] interval = intervals.get(i);
+                starts[i] = interval[0];
+                ends[i] = interval[1];
+                ids[i] = interval[2];
+            }
+            return new DaySchedule(starts, ends, ids, loadedAt);
+        }
+
+        int size() {
+            return starts.length;
+        }
+
+        boolean overlaps(long from, long to, Long excludeId) {
+            // Walk back from the last interval starting before 'to' while some earlier
+            // interval may still end after 'from'
+            for (int i = lastStartBefore(to); i >= 0 && maxEnds[i] > from; i--) {
+                if (ends[i] > from && (excludeId == null || ids[i] != excludeId)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        long[] busyTicks(long dayStart) {
+            if (starts.length == 0) {
+                return NO_TICKS;
+            }
+            long[] bits = busyTicks;
+            if (bits == null) {
+                bits = Ticks.newBitmap();
+                long dayEnd = dayStart + 24 * 60 * 60;
+                for (int i = 0; i < starts.length; i++) {
+                    long from = Math.max(starts[i], dayStart);
+                    long to = Math.min(ends[i], dayEnd);
+                    if (from < to) {
+                        Ticks.set(bits, Ticks.floor(from - dayStart), Ticks.ceil(to - dayStart));
+                    }
+                }
+                busyTicks = bits;
+            }
+            return bits;
+        }
+
+        DaySchedule with(long id, long start, long end) {
+            DaySchedule base = without(id);
+            int n = base.size();
+            int pos = base.lastStartBefore(start + 1) + 1;
+            long[] starts = new long[n + 1];
+            long[] ends = new long[n + 1];
+            long[] ids = new long[n + 1];
+            System.arraycopy(base.starts, 0, starts, 0, pos);
+            System.arraycopy(base.ends, 0, ends, 0, pos);
+            System.arraycopy(base.ids, 0, ids, 0, pos);
+            starts[pos] = start;
+            ends[pos] = end;
+            ids[pos] = id;
+            System.arraycopy(base.starts, pos, starts, pos + 1, n - pos);
+            System.arraycopy(base.ends, pos, ends, pos + 1, n - pos);
+            System.arraycopy(base.ids, pos, ids, pos + 1, n - pos);
+            return new DaySchedule(starts, ends, ids, loadedAt);
+        }
+
+        DaySchedule without(long id) {
+            int n = size();
+            for (int i = 0; i < n; i++) {
+                if (ids[i] == id) {
+                    if (n == 1) {
+                        return new DaySchedule(NONE, NONE, NONE, loadedAt);
+                    }
+                    long[] starts = new long[n - 1];
+                    long[] ends = new long[n - 1];
+                    long[] newIds = new long[n - 1];
+                    System.arraycopy(this.starts, 0, starts, 0, i);
+                    System.arraycopy(this.ends, 0, ends, 0, i);
+                    System.arraycopy(this.ids, 0, newIds, 0, i);
+                    System.arraycopy(this.starts, i + 1, starts, i, n - i - 1);
+                    System.arraycopy(this.ends, i + 1, ends, i, n - i - 1);
+                    System.arraycopy(this.ids, i + 1, newIds, i, n - i - 1);
+                    return new DaySchedule(starts, ends, newIds, loadedAt);
+                }
+            }
+            return this;
+        }
+
+        /**
+         * Index of the last interval whose start is strictly before {@code time}, or -1.
+         */
+        private int lastStartBefore(long time) {
+            int low = 0;
+            int high = starts.length - 1;
+            int result = -1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (starts[mid] < time) {
+                    result = mid;
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.citasmart.appointmentservice.schedule;
+
+import com.citasmart.appointmentservice.dto.AvailableSlotDto;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * "Earliest slot with any doctor" search for a speciality at a medical center.
+ *
+ * Every candidate doctor contributes a cursor positioned on its next free
+ * start; cursors are merged through a priority queue ordered by start time, so
+ * the K earliest (doctor, start) pairs cost O((D + K) log D) bitmap probes.
+ * The first free slot of each doctor is memoised per duration together with
+ * the doctor's availability version, so repeated searches do not re-probe
+ * fully booked days until that doctor's agenda or holds change.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class FirstAvailableSearch {
+
+    private final DoctorDirectory doctorDirectory;
+    private final DoctorScheduleIndex scheduleIndex;
+    private final SlotEngine slotEngine;
+
+    // doctorId -> durationMinutes -> earliest free slot found from a given start
+    private final ConcurrentMap<Long, ConcurrentMap<Integer, NextFree>> nextFree = new ConcurrentHashMap<>();
+
+    public List<AvailableSlotDto> search(Long specialityId, Long medicalCenterId, LocalDateTime from,
+                                         LocalDateTime to, int durationMinutes, int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime start = from.isBefore(now) ? now : from;
+        List<AvailableSlotDto> results = new ArrayList<>(limit);
+        if (!start.isBefore(to)) {
+            return results;
+        }
+
+        Set<Long> doctorIds = doctorDirectory.doctorsFor(specialityId, medicalCenterId);
+        if (doctorIds.isEmpty()) {
+            return results;
+        }
+        scheduleIndex.preload(doctorIds, start.toLocalDate(), to.toLocalDate());
+
+        PriorityQueue<Cursor> queue = new PriorityQueue<>(doctorIds.size(),
+                Comparator.comparing((Cursor cursor) -> cursor.start).thenComparing(cursor -> cursor.doctorId));
+        for (Long doctorId : doctorIds) {
+            LocalDateTime first = firstFreeSlot(doctorId, start, to, durationMinutes);
+            if (first != null) {
+                queue.add(new Cursor(doctorId, first));
+            }
+        }
+
+        while (!queue.isEmpty() && results.size() < limit) {
+            Cursor cursor = queue.poll();
+            LocalDateTime end = cursor.start.plusMinutes(durationMinutes);
+            results.add(AvailableSlotDto.builder()
+                    .doctorId(cursor.doctorId)
+                    .medicalCenterId(medicalCenterId)
+                    .specialityId(specialityId)
+                    .startTime(cursor.start)
+                    .endTime(end)
+                    .build());
+
+            // Offer the doctor's next non-overlapping slot
+            LocalDateTime next = slotEngine.nextFreeSlot(cursor.doctorId, end, to, durationMinutes);
+            if (next != null) {
+                queue.add(new Cursor(cursor.doctorId, next));
+            }
+        }
+
+        log.debug("First-available search for speciality {} at center {} merged {} doctors into {} slots",
+                specialityId, medicalCenterId, doctorIds.size(), results.size());
+        return results;
+    }
+
+    private LocalDateTime firstFreeSlot(Long doctorId, LocalDateTime from, LocalDateTime to, int durationMinutes) {
+        ConcurrentMap<Integer, NextFree> byDuration = nextFree.computeIfAbsent(doctorId, id -> new ConcurrentHashMap<>());
+        NextFree cached = byDuration.get(durationMinutes);
+        long version = slotEngine.availabilityVersion(doctorId);
+        // The earliest slot at or after cached.from is also the earliest at or after
+        // any later start that does not pass it
+        if (cached != null && cached.version == version
+                && !from.isBefore(cached.from) && !from.isAfter(cached.slot)) {
+            return cached.slot.plusMinutes(durationMinutes).isAfter(to) ? null : cached.slot;
+        }
+
+        LocalDateTime slot = slotEngine.nextFreeSlot(doctorId, from, to, durationMinutes);
+        if (slot != null) {
+            byDuration.put(durationMinutes, new NextFree(version, from, slot));
+        }
+        return slot;
+    }
+
+    private static final class NextFree {
+        private final long version;
+        private final LocalDateTime from;
+        private final LocalDateTime slot;
+
+        private NextFree(long version, LocalDateTime from, LocalDateTime slot) {
+            this.version = version;
+            this.from = from;
+            this.slot = slot;
+        }
+    }
+
+    private static final class Cursor {
+        private final Long doctorId;
+        private final LocalDateTime start;
+
+        private Cursor(Long doctorId, LocalDateTime start) {
+            this.doctorId = doctorId;
+            this.start = start;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.citasmart.appointmentservice.schedule;
+
+import com.citasmart.appointmentservice.event.AppointmentChangedEvent;
+import com.citasmart.appointmentservice.model.Appointment;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Per doctor and day change counters behind the schedule ETags.
+ *
+ * Every {@link AppointmentChangedEvent} marks the days it leaves and enters;
+ * the marks of a transaction are de-duplicated and upserted into
+ * {@code doctor_schedule_versions} in one batch just before it commits, so a
+ * counter never moves without the change it stands for and every instance
+ * sees the same value. Because counters only grow, the sum over the days of
+ * a range changes whenever anything in the range does, and answering a
+ * conditional GET is one indexed aggregate instead of loading the schedule.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ScheduleVersions {
+
+    private static final String BUMP =
+            "INSERT INTO doctor_schedule_versions (doctor_id, schedule_date, version) VALUES (?, ?, 1) " +
+            "ON CONFLICT (doctor_id, schedule_date) DO UPDATE SET version = doctor_schedule_versions.version + 1";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Version of the doctor's schedule over the days [from, to].
+     */
+    public long version(Long doctorId, LocalDate from, LocalDate to) {
+        Long sum = jdbcTemplate.queryForObject("SELECT COALESCE(SUM(version), 0) FROM doctor_schedule_versions " +
+                "WHERE doctor_id = ? AND schedule_date BETWEEN ? AND ?", Long.class,
+                doctorId, Date.valueOf(from), Date.valueOf(to));
+        return sum != null ? sum : 0;
+    }
+
+    @EventListener
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        Set<DayKey> days = pending();
+        if (event.getPreviousDate() != null) {
+            days.add(new DayKey(event.getDoctorId(), event.getPreviousDate().toLocalDate()));
+        }
+        days.add(new DayKey(event.getDoctorId(), event.getAppointmentDate().toLocalDate()));
+        flushIfUnbound(days);
+    }
+
+    /**
+     * Marks the days of appointments changed outside the service's events,
+     * such as the reminder flag set by a bulk update.
+     */
+    public void touch(Collection<Appointment> appointments) {
+        Set<DayKey> days = pending();
+        for (Appointment appointment : appointments) {
+            days.add(new DayKey(appointment.getDoctorId(), appointment.getAppointmentDate().toLocalDate()));
+        }
+        flushIfUnbound(days);
+    }
+
+    private Set<DayKey> pending() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return new TreeSet<>();
+        }
+        @SuppressWarnings("unchecked")
+        Set<DayKey> days = (Set<DayKey>) TransactionSynchronizationManager.getResource(this);
+        if (days == null) {
+            Set<DayKey> marked = new TreeSet<>();
+            TransactionSynchronizationManager.bindResource(this, marked);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    bump(marked);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(ScheduleVersions.this);
+                }
+            });
+            days = marked;
+        }
+        return days;
+    }
+
+    private void flushIfUnbound(Set<DayKey> days) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            bump(days);
+        }
+    }
+
+    // Sorted keys make concurrent transactions lock the counter rows in the same order
+    private void bump(Set<DayKey> days) {
+        if (days.isEmpty()) {
+            return;
+        }
+        List<Object[]> args = new ArrayList<>(days.size());
+        for (DayKey day : days) {
+            args.add(new Object[]{day.doctorId, Date.valueOf(day.date)});
+        }
+        jdbcTemplate.batchUpdate(BUMP, args);
+        log.debug("Bumped {} doctor schedule versions", args.size());
+    }
+
+    private static final class DayKey implements Comparable<DayKey> {
+        private static final Comparator<DayKey> ORDER = Comparator.<DayKey, Long>comparing(key -> key.doctorId)
+                .thenComparing(key -> key.date);
+
+        private final Long doctorId;
+        private final LocalDate date;
+
+        private DayKey(Long doctorId, LocalDate date) {
+            this.doctorId = doctorId;
+            this.date = date;
+        }
+
+        @Override
+        public int compareTo(DayKey other) {
+            return ORDER.compare(this, other);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof DayKey)) {
+                return false;
+            }
+            DayKey other = (DayKey) o;
+            return doctorId.equals(other.doctorId) && date.equals(other.date);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(doctorId, date);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.citasmart.appointmentservice.schedule;
+
+import com.citasmart.appointmentservice.config.BusinessProperties;
+import com.citasmart.appointmentservice.hold.SlotHold;
+import com.citasmart.appointmentservice.hold.SlotHoldService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Computes free appointment start times from 5-minute tick bitmaps.
+ *
+ * The free bitmap of a doctor's day is the configured working hours minus the
+ * busy ticks held by {@link DoctorScheduleIndex} and the ticks covered by live
+ * slot holds, so a slot request touches no database once the doctor/day bucket
+ * is in memory. All starts that fit the requested duration are collected in a
+ * single scan of the bitmap.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SlotEngine {
+
+    private final DoctorScheduleIndex scheduleIndex;
+    private final BusinessProperties businessProperties;
+    private final SlotHoldService slotHolds;
+
+    private volatile long[] workingTicks;
+
+    public List<LocalDateTime> findFreeSlots(Long doctorId, LocalDate date, int durationMinutes) {
+        LocalDateTime now = LocalDateTime.now();
+        if (!isBookable(date, now)) {
+            return Collections.emptyList();
+        }
+        return fittingStarts(freeTicks(doctorId, date, now), date, durationMinutes);
+    }
+
+    /**
+     * Whether the date is a working day inside the advance booking window.
+     */
+    public boolean isBookable(LocalDate date, LocalDateTime now) {
+        LocalDate today = now.toLocalDate();
+        return !date.isBefore(today)
+                && !date.isAfter(today.plusDays(businessProperties.getAdvanceBookingDays()))
+                && businessProperties.isWorkingDay(date.getDayOfWeek());
+    }
+
+    /**
+     * Free ticks of the doctor's day: working hours, minus booked and held ticks, minus the past.
+     * The returned bitmap is a fresh copy owned by the caller.
+     */
+    public long[] freeTicks(Long doctorId, LocalDate date, LocalDateTime now) {
+        long[] free = workingTicks().clone();
+        long[] busy = scheduleIndex.busyTicks(doctorId, date);
+        for (int word = 0; word < free.length; word++) {
+            free[word] &= ~busy[word];
+        }
+        LocalDateTime midnight = date.atStartOfDay();
+        for (SlotHold hold : slotHolds.holdsOn(doctorId, date)) {
+            int from = hold.getAppointmentDate().isAfter(midnight)
+                    ? Ticks.floor(hold.getAppointmentDate().toLocalTime().toSecondOfDay()) : 0;
+            int to = hold.getEndTime().isBefore(midnight.plusDays(1))
+                    ? Ticks.ceil(hold.getEndTime().toLocalTime().toSecondOfDay()) : Ticks.TICKS_PER_DAY;
+            Ticks.clear(free, from, to);
+        }
+        if (date.equals(now.toLocalDate())) {
+            Ticks.clear(free, 0, Ticks.ceil(now.toLocalTime().toSecondOfDay()));
+        }
+        return free;
+    }
+
+    /**
+     * Start times whose following {@code durationMinutes} are all free, in order.
+     */
+    public static List<LocalDateTime> fittingStarts(long[] free, LocalDate date, int durationMinutes) {
+        int needed = ticksFor(durationMinutes);
+        LocalDateTime midnight = date.atStartOfDay();
+        List<LocalDateTime> slots = new ArrayList<>();
+
+        int run = 0;
+        for (int tick = 0; tick < Ticks.TICKS_PER_DAY; tick++) {
+            if (!Ticks.isSet(free, tick)) {
+                run = 0;
+            } else if (++run >= needed) {
+                slots.add(midnight.plusMinutes((long) (tick - needed + 1) * Ticks.TICK_MINUTES));
+            }
+        }
+        return slots;
+    }
+
+    /**
+     * First tick at or after {@code fromTick} that starts a free run of the given duration, or -1.
+     */
+    public static int firstFittingTick(long[] free, int fromTick, int durationMinutes) {
+        int needed = ticksFor(durationMinutes);
+        int run = 0;
+        for (int tick = Math.max(fromTick, 0); tick < Ticks.TICKS_PER_DAY; tick++) {
+            if (!Ticks.isSet(free, tick)) {
+                run = 0;
+            } else if (++run >= needed) {
+                return tick - needed + 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Earliest start in [from, to) where the doctor is free for the whole duration, or null.
+     */
+    public LocalDateTime nextFreeSlot(Long doctorId, LocalDateTime from, LocalDateTime to, int durationMinutes) {
+        LocalDateTime now = LocalDateTime.now();
+        for (LocalDate date = from.toLocalDate(); date.isBefore(to.toLocalDate().plusDays(1)); date = date.plusDays(1)) {
+            if (!isBookable(date, now)) {
+                continue;
+            }
+            int fromTick = date.equals(from.toLocalDate()) ? Ticks.ceil(from.toLocalTime().toSecondOfDay()) : 0;
+            int tick = firstFittingTick(freeTicks(doctorId, date, now), fromTick, durationMinutes);
+            if (tick >= 0) {
+                LocalDateTime start = date.atStartOfDay().plusMinutes((long) tick * Ticks.TICK_MINUTES);
+                return start.plusMinutes(durationMinutes).isAfter(to) ? null : start;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Changes whenever the doctor's free ticks may have changed on this node:
+     * a booking was applied to the index or a hold was placed, released or expired.
+     */
+    public long availabilityVersion(Long doctorId) {
+        // Both counters only grow, so their sum changes whenever either does
+        return scheduleIndex.version(doctorId) + slotHolds.version(doctorId);
+    }
+
+    static int ticksFor(int durationMinutes) {
+        return Math.max(1, (durationMinutes + Ticks.TICK_MINUTES - 1) / Ticks.TICK_MINUTES);
+    }
+
+    private long[] workingTicks() {
+        long[] ticks = workingTicks;
+        if (ticks == null) {
+            BusinessProperties.WorkingHours hours = businessProperties.getWorkingHours();
+            ticks = Ticks.newBitmap();
+            Ticks.set(ticks, Ticks.ceil(hours.getStart().toSecondOfDay()), Ticks.floor(hours.getEnd().toSecondOfDay()));
+            log.debug("Working hours {} - {} mapped to {}-minute ticks", hours.getStart(), hours.getEnd(),
+                    Ticks.TICK_MINUTES);
+            workingTicks = ticks;
+        }
+        return ticks;
+    }
+}
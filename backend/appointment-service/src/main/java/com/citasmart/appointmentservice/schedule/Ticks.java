@@ -0,0 +1,55 @@
+package com.citasmart.appointmentservice.schedule;
+
+/**
+ * Bitmap helpers for a day split into 5-minute ticks (288 ticks, 5 words).
+ */
+final class Ticks {
+
+    static final int TICK_MINUTES = 5;
+    static final int TICK_SECONDS = TICK_MINUTES * 60;
+    static final int TICKS_PER_DAY = 24 * 60 / TICK_MINUTES;
+    static final int WORDS = (TICKS_PER_DAY + 63) / 64;
+
+    private Ticks() {
+    }
+
+    static long[] newBitmap() {
+        return new long[WORDS];
+    }
+
+    /**
+     * Sets ticks [from, to).
+     */
+    static void set(long[] bits, int from, int to) {
+        for (int tick = Math.max(from, 0); tick < Math.min(to, TICKS_PER_DAY); tick++) {
+            bits[tick >>> 6] |= 1L << (tick & 63);
+        }
+    }
+
+    /**
+     * Clears ticks [from, to).
+     */
+    static void clear(long[] bits, int from, int to) {
+        for (int tick = Math.max(from, 0); tick < Math.min(to, TICKS_PER_DAY); tick++) {
+            bits[tick >>> 6] &= ~(1L << (tick & 63));
+        }
+    }
+
+    static boolean isSet(long[] bits, int tick) {
+        return (bits[tick >>> 6] & (1L << (tick & 63))) != 0;
+    }
+
+    /**
+     * Tick index containing the given second of the day, rounded down.
+     */
+    static int floor(long secondOfDay) {
+        return (int) (secondOfDay / TICK_SECONDS);
+    }
+
+    /**
+     * First tick boundary at or after the given second of the day.
+     */
+    static int ceil(long secondOfDay) {
+        return (int) ((secondOfDay + TICK_SECONDS - 1) / TICK_SECONDS);
+    }
+}
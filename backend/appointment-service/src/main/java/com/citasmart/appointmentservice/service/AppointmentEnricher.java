@@ -0,0 +1,69 @@
+package com.citasmart.appointmentservice.service;
+
+import com.citasmart.appointmentservice.client.UserNearCache;
+import com.citasmart.appointmentservice.dto.UserResponse;
+import com.citasmart.appointmentservice.model.Appointment;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Fills the transient patient/doctor names of a page of appointments.
+ *
+ * The distinct patient and doctor IDs of the whole page are resolved together
+ * through {@link UserNearCache}, so a page costs at most one user-service batch
+ * call (one per {@code batch-size} uncached IDs) instead of two calls per row.
+ * Enrichment is best effort: users that cannot be resolved are left unnamed.
+ */
+@Service
+@RequiredArgsConstructor
+public class AppointmentEnricher {
+
+    private final UserNearCache userNearCache;
+
+    public Page<Appointment> enrich(Page<Appointment> page) {
+        enrich(page.getContent());
+        return page;
+    }
+
+    public <T extends Collection<Appointment>> T enrich(T appointments) {
+        if (appointments == null || appointments.isEmpty()) {
+            return appointments;
+        }
+
+        Set<Long> userIds = new LinkedHashSet<>();
+        for (Appointment appointment : appointments) {
+            addIfPresent(userIds, appointment.getPatientId());
+            addIfPresent(userIds, appointment.getDoctorId());
+        }
+
+        Map<Long, UserResponse> users = userNearCache.getUsers(userIds);
+        if (users.isEmpty()) {
+            return appointments;
+        }
+
+        for (Appointment appointment : appointments) {
+            UserResponse patient = users.get(appointment.getPatientId());
+            if (patient != null) {
+                appointment.setPatientName(patient.getFullName());
+            }
+            UserResponse doctor = users.get(appointment.getDoctorId());
+            if (doctor != null) {
+                appointment.setDoctorName(doctor.getFullName());
+                appointment.setDoctorSpeciality(doctor.getSpeciality());
+            }
+        }
+        return appointments;
+    }
+
+    private static void addIfPresent(Set<Long> ids, Long id) {
+        if (id != null) {
+            ids.add(id);
+        }
+    }
+}
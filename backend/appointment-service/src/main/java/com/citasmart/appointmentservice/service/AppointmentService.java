@@ -1,7 +1,10 @@
 package com.citasmart.appointmentservice.service;
 
 import com.citasmart.appointmentservice.dto.AppointmentCreateRequest;
+import com.citasmart.appointmentservice.dto.AppointmentSeriesRequest;
 import com.citasmart.appointmentservice.dto.AppointmentUpdateRequest;
+import com.citasmart.appointmentservice.dto.AvailableSlotDto;
+import com.citasmart.appointmentservice.dto.CursorPage;
 import com.citasmart.appointmentservice.model.Appointment;
 import com.citasmart.appointmentservice.model.AppointmentStatus;
 import org.springframework.data.domain.Page;
@@ -9,20 +12,32 @@ import org.springframework.data.domain.Pageable;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 public interface AppointmentService {
     
     // CRUD Operations
     Appointment createAppointment(AppointmentCreateRequest request, String createdBy);
     
+    List<Appointment> createAppointmentSeries(AppointmentSeriesRequest request, String createdBy);
+    
     Appointment updateAppointment(Long id, AppointmentUpdateRequest request, String updatedBy);
     
     Appointment cancelAppointment(Long id, String reason, String cancelledBy);
     
     Appointment confirmAppointment(String confirmationToken);
     
+    Appointment completeAppointment(Long id, String doctorNotes, String completedBy);
+    
+    Appointment markAsNoShow(Long id, String markedBy);
+    
     Appointment getAppointmentById(Long id);
     
+    // Conditional GET support
+    Optional<Long> getAppointmentVersion(Long id);
+    
+    long getDoctorScheduleVersion(Long doctorId, LocalDateTime startDate, LocalDateTime endDate);
+    
     // Query Operations
     Page<Appointment> getAppointmentsByPatientId(Long patientId, Pageable pageable);
     
@@ -34,9 +49,25 @@ public interface AppointmentService {
     
     List<Appointment> getUpcomingAppointments();
     
+    // Keyset listings, newest first; pass the nextCursor of the previous page to continue
+    CursorPage<Appointment> getAppointmentsByPatientId(Long patientId, String cursor, int size, boolean includeTotal);
+    
+    CursorPage<Appointment> getAppointmentsByDoctorId(Long doctorId, String cursor, int size, boolean includeTotal);
+    
+    CursorPage<Appointment> getAppointmentsByMedicalCenterId(Long medicalCenterId, String cursor, int size, boolean includeTotal);
+    
     // Availability and Scheduling
     boolean checkDoctorAvailability(Long doctorId, LocalDateTime startTime, LocalDateTime endTime);
     
+    List<LocalDateTime> getAvailableTimeSlots(Long doctorId, LocalDateTime date, Integer durationMinutes);
+    
+    List<AvailableSlotDto> findFirstAvailableSlots(Long specialityId, Long medicalCenterId,
+                                                   LocalDateTime from, LocalDateTime to,
+                                                   Integer durationMinutes, Integer limit);
+    
+    // Statistics
+    Long getAppointmentCountByStatus(AppointmentStatus status, LocalDateTime startDate, LocalDateTime endDate);
+    
     // Background Operations
     void sendAppointmentReminders();
 }
@@ -3,6 +3,8 @@ package com.citasmart.appointmentservice.service;
 import com.citasmart.appointmentservice.dto.UserResponse;
 import com.citasmart.appointmentservice.model.Appointment;
 
+import java.util.List;
+
 public interface EmailService {
     
     void sendAppointmentConfirmationEmail(Appointment appointment, UserResponse patient, UserResponse doctor);
@@ -14,4 +16,6 @@ public interface EmailService {
     void sendAppointmentUpdateEmail(Appointment appointment, UserResponse patient, UserResponse doctor);
     
     void sendAppointmentRescheduleEmail(Appointment appointment, UserResponse patient, UserResponse doctor);
+    
+    void sendAppointmentSeriesConfirmationEmail(List<Appointment> series, UserResponse patient, UserResponse doctor);
 }
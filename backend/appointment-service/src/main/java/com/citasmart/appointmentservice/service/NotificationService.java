@@ -2,6 +2,8 @@ package com.citasmart.appointmentservice.service;
 
 import com.citasmart.appointmentservice.model.Appointment;
 
+import java.util.List;
+
 public interface NotificationService {
     
     void sendAppointmentCreatedNotification(Appointment appointment);
@@ -12,6 +14,8 @@ public interface NotificationService {
     
     void sendAppointmentReminderNotification(Appointment appointment);
     
+    void sendAppointmentSeriesCreatedNotification(List<Appointment> series);
+    
     void sendSmsNotification(String phoneNumber, String message);
     
     void sendPushNotification(Long userId, String title, String message);
@@ -1,31 +1,61 @@
 package com.citasmart.appointmentservice.service.impl;
 
-import com.citasmart.appointmentservice.client.UserServiceClient;
+import com.citasmart.appointmentservice.bulk.AppointmentBatchWriter;
+import com.citasmart.appointmentservice.client.UserNearCache;
+import com.citasmart.appointmentservice.config.BusinessProperties;
 import com.citasmart.appointmentservice.dto.AppointmentCreateRequest;
+import com.citasmart.appointmentservice.dto.AppointmentSeriesRequest;
 import com.citasmart.appointmentservice.dto.AppointmentUpdateRequest;
+import com.citasmart.appointmentservice.dto.AvailableSlotDto;
+import com.citasmart.appointmentservice.dto.CursorPage;
 import com.citasmart.appointmentservice.dto.UserResponse;
+import com.citasmart.appointmentservice.event.AppointmentChangedEvent;
+import com.citasmart.appointmentservice.event.AppointmentChangedEvent.ChangeType;
 import com.citasmart.appointmentservice.exception.AppointmentConflictException;
 import com.citasmart.appointmentservice.exception.AppointmentNotFoundException;
 import com.citasmart.appointmentservice.exception.InvalidAppointmentDataException;
+import com.citasmart.appointmentservice.exception.OverlapConstraint;
+import com.citasmart.appointmentservice.history.AppointmentHistoryWriter;
+import com.citasmart.appointmentservice.hold.SlotHold;
+import com.citasmart.appointmentservice.hold.SlotHoldService;
 import com.citasmart.appointmentservice.model.Appointment;
 import com.citasmart.appointmentservice.model.AppointmentHistory;
 import com.citasmart.appointmentservice.model.AppointmentStatus;
-import com.citasmart.appointmentservice.repository.AppointmentHistoryRepository;
+import com.citasmart.appointmentservice.model.AppointmentType;
+import com.citasmart.appointmentservice.model.OutboxEventType;
+import com.citasmart.appointmentservice.outbox.NotificationOutbox;
+import com.citasmart.appointmentservice.pagination.SeekCursor;
+import com.citasmart.appointmentservice.reminder.ReminderPipeline;
 import com.citasmart.appointmentservice.repository.AppointmentRepository;
+import com.citasmart.appointmentservice.schedule.DoctorScheduleIndex;
+import com.citasmart.appointmentservice.schedule.FirstAvailableSearch;
+import com.citasmart.appointmentservice.schedule.ScheduleVersions;
+import com.citasmart.appointmentservice.schedule.SlotEngine;
+import com.citasmart.appointmentservice.service.AppointmentEnricher;
 import com.citasmart.appointmentservice.service.AppointmentService;
-import com.citasmart.appointmentservice.service.EmailService;
-import com.citasmart.appointmentservice.service.NotificationService;
+import com.citasmart.appointmentservice.statistics.AppointmentStatistics;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
 
 @Service
 @RequiredArgsConstructor
@@ -33,11 +63,26 @@ import java.util.UUID;
 @Transactional
 public class AppointmentServiceImpl implements AppointmentService {
 
+    private static final int DEFAULT_SEARCH_RESULTS = 10;
+    private static final int MAX_SEARCH_RESULTS = 50;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_DURATION_MINUTES = 240;
+
     private final AppointmentRepository appointmentRepository;
-    private final AppointmentHistoryRepository historyRepository;
-    private final UserServiceClient userServiceClient;
-    private final EmailService emailService;
-    private final NotificationService notificationService;
+    private final AppointmentHistoryWriter historyWriter;
+    private final UserNearCache userNearCache;
+    private final DoctorScheduleIndex scheduleIndex;
+    private final SlotEngine slotEngine;
+    private final FirstAvailableSearch firstAvailableSearch;
+    private final BusinessProperties businessProperties;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AppointmentEnricher appointmentEnricher;
+    private final NotificationOutbox notificationOutbox;
+    private final ReminderPipeline reminderPipeline;
+    private final AppointmentStatistics appointmentStatistics;
+    private final SlotHoldService slotHoldService;
+    private final AppointmentBatchWriter batchWriter;
+    private final ScheduleVersions scheduleVersions;
 
     @Override
     public Appointment createAppointment(AppointmentCreateRequest request, String createdBy) {
@@ -48,18 +93,18 @@ public class AppointmentServiceImpl implements AppointmentService {
             throw new InvalidAppointmentDataException("Appointment date must be in the future");
         }
         
-        // Check for conflicts
+        // A matching hold was validated when it was placed; otherwise check the
+        // in-memory schedule and other users' holds before any remote call
+        SlotHold hold = findMatchingHold(request, createdBy);
         LocalDateTime endTime = request.getAppointmentDate().plusMinutes(request.getDurationMinutes());
-        List<Appointment> conflicts = appointmentRepository.findConflictingAppointmentsSimple(
-                request.getDoctorId(), request.getAppointmentDate(), endTime);
-        
-        if (!conflicts.isEmpty()) {
+        if (hold == null && (!scheduleIndex.isAvailable(request.getDoctorId(), request.getAppointmentDate(), endTime)
+                || slotHoldService.isHeld(request.getDoctorId(), request.getAppointmentDate(), endTime, null))) {
             throw new AppointmentConflictException("Doctor is not available at the requested time");
         }
         
         // Get patient and doctor details
-        UserResponse patient = userServiceClient.getUserById(request.getPatientId());
-        UserResponse doctor = userServiceClient.getUserById(request.getDoctorId());
+        UserResponse patient = userNearCache.getUser(request.getPatientId());
+        UserResponse doctor = userNearCache.getUser(request.getDoctorId());
         
         // Create appointment
         Appointment appointment = Appointment.builder()
@@ -83,18 +128,104 @@ public class AppointmentServiceImpl implements AppointmentService {
         appointment.setPatientName(patient.getFirstName() + " " + patient.getLastName());
         appointment.setDoctorName(doctor.getFirstName() + " " + doctor.getLastName());
         
-        appointment = appointmentRepository.save(appointment);
+        // The overlap constraint is the final guard for bookings the index has not seen yet
+        appointment = saveCheckingOverlap(appointment);
         
         // Create history record
-        createHistoryRecord(appointment, "CREATED", "Appointment created", createdBy);
-        
-        // Send notifications asynchronously
-        sendAppointmentNotifications(appointment, patient, doctor);
+        AppointmentChangedEvent change = AppointmentChangedEvent.created(appointment);
+        createHistoryRecord(appointment, change, "CREATED", "Appointment created", createdBy);
+        eventPublisher.publishEvent(change);
+        
+        // Notifications are delivered by the outbox relay once this transaction commits
+        notificationOutbox.enqueue(appointment, OutboxEventType.APPOINTMENT_CREATED);
+        if (hold != null) {
+            slotHoldService.releaseAfterCommit(hold);
+        }
         
         log.info("Appointment created successfully with ID: {}", appointment.getId());
         return appointment;
     }
 
+    @Override
+    public List<Appointment> createAppointmentSeries(AppointmentSeriesRequest request, String createdBy) {
+        log.info("Creating {}-visit series for patient {} with doctor {}", request.getOccurrences(),
+                request.getPatientId(), request.getDoctorId());
+        
+        if (request.getType() != AppointmentType.FOLLOW_UP && request.getType() != AppointmentType.TREATMENT) {
+            throw new InvalidAppointmentDataException("Only follow-up and treatment visits can be booked as a series");
+        }
+        if (request.getFirstAppointmentDate().isBefore(LocalDateTime.now())) {
+            throw new InvalidAppointmentDataException("Appointment date must be in the future");
+        }
+        
+        List<LocalDateTime> dates = expandSeries(request);
+        List<LocalDateTime> conflicts = findSeriesConflicts(request.getDoctorId(), dates, request.getDurationMinutes());
+        if (!conflicts.isEmpty()) {
+            throw new AppointmentConflictException("Doctor is not available for " + conflicts.size()
+                    + " visits of the series: " + conflicts);
+        }
+        
+        // One batch lookup for both participants instead of two calls per visit
+        Map<Long, UserResponse> users = userNearCache.getUsers(Arrays.asList(request.getPatientId(), request.getDoctorId()));
+        UserResponse patient = users.get(request.getPatientId());
+        UserResponse doctor = users.get(request.getDoctorId());
+        if (patient == null || doctor == null) {
+            throw new InvalidAppointmentDataException("Patient or doctor not found");
+        }
+        
+        String seriesId = UUID.randomUUID().toString();
+        LocalDateTime now = LocalDateTime.now();
+        List<Appointment> series = new ArrayList<>(dates.size());
+        for (LocalDateTime date : dates) {
+            Appointment appointment = Appointment.builder()
+                    .patientId(request.getPatientId())
+                    .doctorId(request.getDoctorId())
+                    .medicalCenterId(request.getMedicalCenterId())
+                    .specialityId(request.getSpecialityId())
+                    .appointmentDate(date)
+                    .durationMinutes(request.getDurationMinutes())
+                    .status(AppointmentStatus.SCHEDULED)
+                    .type(request.getType())
+                    .reason(request.getReason())
+                    .notes(request.getNotes())
+                    .patientPhone(request.getPatientPhone() != null ? request.getPatientPhone() : patient.getPhone())
+                    .patientEmail(request.getPatientEmail() != null ? request.getPatientEmail() : patient.getEmail())
+                    .confirmationToken(generateConfirmationToken())
+                    .seriesId(seriesId)
+                    .createdAt(now)
+                    .updatedAt(now)
+                    .createdBy(createdBy)
+                    .updatedBy(createdBy)
+                    .build();
+            appointment.setPatientName(patient.getFirstName() + " " + patient.getLastName());
+            appointment.setDoctorName(doctor.getFirstName() + " " + doctor.getLastName());
+            series.add(appointment);
+        }
+        
+        try {
+            batchWriter.insertAppointments(series);
+        } catch (DataIntegrityViolationException e) {
+            if (!OverlapConstraint.isViolatedBy(e)) {
+                throw e;
+            }
+            // Booked concurrently on another node; reload the affected days
+            dates.forEach(date -> scheduleIndex.invalidate(request.getDoctorId(), date.toLocalDate()));
+            throw new AppointmentConflictException("Doctor is not available for every visit of the series", e);
+        }
+        
+        for (Appointment appointment : series) {
+            AppointmentChangedEvent change = AppointmentChangedEvent.created(appointment);
+            createHistoryRecord(appointment, change, "CREATED", "Appointment created in series " + seriesId, createdBy);
+            eventPublisher.publishEvent(change);
+        }
+        
+        // One summary notification for the whole series
+        notificationOutbox.enqueue(series.get(0), OutboxEventType.APPOINTMENT_SERIES_CREATED);
+        
+        log.info("Series {} created with {} appointments", seriesId, series.size());
+        return series;
+    }
+
     @Override
     public Appointment updateAppointment(Long id, AppointmentUpdateRequest request, String updatedBy) {
         log.info("Updating appointment with ID: {}", id);
@@ -107,6 +238,9 @@ public class AppointmentServiceImpl implements AppointmentService {
             throw new InvalidAppointmentDataException("Cannot update cancelled or completed appointment");
         }
         
+        LocalDateTime previousDate = appointment.getAppointmentDate();
+        Integer previousDuration = appointment.getDurationMinutes();
+        
         // Check for conflicts if date/time is being changed
         if (request.getAppointmentDate() != null && 
             !request.getAppointmentDate().equals(appointment.getAppointmentDate())) {
@@ -114,13 +248,9 @@ public class AppointmentServiceImpl implements AppointmentService {
             LocalDateTime endTime = request.getAppointmentDate().plusMinutes(
                 request.getDurationMinutes() != null ? request.getDurationMinutes() : appointment.getDurationMinutes());
             
-            List<Appointment> conflicts = appointmentRepository.findConflictingAppointmentsSimple(
-                    appointment.getDoctorId(), request.getAppointmentDate(), endTime);
-            
-            // Remove current appointment from conflicts
-            conflicts.removeIf(conflict -> conflict.getId().equals(appointment.getId()));
-            
-            if (!conflicts.isEmpty()) {
+            if (scheduleIndex.hasConflict(appointment.getDoctorId(), request.getAppointmentDate(), endTime,
+                    appointment.getId())
+                    || slotHoldService.isHeld(appointment.getDoctorId(), request.getAppointmentDate(), endTime, null)) {
                 throw new AppointmentConflictException("Doctor is not available at the requested time");
             }
         }
@@ -146,15 +276,16 @@ public class AppointmentServiceImpl implements AppointmentService {
         }
         
         appointment.setUpdatedBy(updatedBy);
-        Appointment savedAppointment = appointmentRepository.save(appointment);
+        Appointment savedAppointment = saveCheckingOverlap(appointment);
         
         // Create history record
-        createHistoryRecord(savedAppointment, "UPDATED", "Appointment updated", updatedBy);
+        AppointmentChangedEvent change = AppointmentChangedEvent.of(ChangeType.UPDATED, savedAppointment,
+                previousDate, previousDuration, savedAppointment.getStatus());
+        createHistoryRecord(savedAppointment, change, "UPDATED", "Appointment updated", updatedBy);
+        eventPublisher.publishEvent(change);
         
-        // Send update notifications
-        UserResponse patient = userServiceClient.getUserById(savedAppointment.getPatientId());
-        UserResponse doctor = userServiceClient.getUserById(savedAppointment.getDoctorId());
-        sendUpdateNotifications(savedAppointment, patient, doctor);
+        // Queue update notifications
+        notificationOutbox.enqueue(savedAppointment, OutboxEventType.APPOINTMENT_UPDATED);
         
         log.info("Appointment updated successfully with ID: {}", savedAppointment.getId());
         return savedAppointment;
@@ -174,6 +305,7 @@ public class AppointmentServiceImpl implements AppointmentService {
             throw new InvalidAppointmentDataException("Cannot cancel completed appointment");
         }
         
+        AppointmentStatus previousStatus = appointment.getStatus();
         appointment.setStatus(AppointmentStatus.CANCELLED);
         appointment.setCancellationReason(reason);
         appointment.setCancelledBy(cancelledBy);
@@ -183,12 +315,13 @@ public class AppointmentServiceImpl implements AppointmentService {
         Appointment savedAppointment = appointmentRepository.save(appointment);
         
         // Create history record
-        createHistoryRecord(savedAppointment, "CANCELLED", "Appointment cancelled: " + reason, cancelledBy);
+        AppointmentChangedEvent change = AppointmentChangedEvent.of(ChangeType.CANCELLED, savedAppointment,
+                savedAppointment.getAppointmentDate(), savedAppointment.getDurationMinutes(), previousStatus);
+        createHistoryRecord(savedAppointment, change, "CANCELLED", "Appointment cancelled: " + reason, cancelledBy);
+        eventPublisher.publishEvent(change);
         
-        // Send cancellation notifications
-        UserResponse patient = userServiceClient.getUserById(savedAppointment.getPatientId());
-        UserResponse doctor = userServiceClient.getUserById(savedAppointment.getDoctorId());
-        sendCancellationNotifications(savedAppointment, patient, doctor);
+        // Queue cancellation notifications
+        notificationOutbox.enqueue(savedAppointment, OutboxEventType.APPOINTMENT_CANCELLED);
         
         log.info("Appointment cancelled successfully with ID: {}", savedAppointment.getId());
         return savedAppointment;
@@ -212,12 +345,70 @@ public class AppointmentServiceImpl implements AppointmentService {
         Appointment savedAppointment = appointmentRepository.save(appointment);
         
         // Create history record
-        createHistoryRecord(savedAppointment, "CONFIRMED", "Appointment confirmed by patient", "PATIENT_CONFIRMATION");
+        AppointmentChangedEvent change = AppointmentChangedEvent.of(ChangeType.CONFIRMED, savedAppointment,
+                savedAppointment.getAppointmentDate(), savedAppointment.getDurationMinutes(), AppointmentStatus.SCHEDULED);
+        createHistoryRecord(savedAppointment, change, "CONFIRMED", "Appointment confirmed by patient", "PATIENT_CONFIRMATION");
+        eventPublisher.publishEvent(change);
         
         log.info("Appointment confirmed successfully with ID: {}", savedAppointment.getId());
         return savedAppointment;
     }
 
+    @Override
+    public Appointment completeAppointment(Long id, String doctorNotes, String completedBy) {
+        log.info("Completing appointment with ID: {}", id);
+        
+        Appointment appointment = getAppointmentById(id);
+        
+        if (appointment.getStatus() == AppointmentStatus.CANCELLED || 
+            appointment.getStatus() == AppointmentStatus.COMPLETED) {
+            throw new InvalidAppointmentDataException("Cannot complete cancelled or completed appointment");
+        }
+        
+        AppointmentStatus previousStatus = appointment.getStatus();
+        appointment.setStatus(AppointmentStatus.COMPLETED);
+        if (doctorNotes != null) {
+            appointment.setDoctorNotes(doctorNotes);
+        }
+        appointment.setUpdatedBy(completedBy);
+        
+        Appointment savedAppointment = appointmentRepository.save(appointment);
+        
+        AppointmentChangedEvent change = AppointmentChangedEvent.of(ChangeType.COMPLETED, savedAppointment,
+                savedAppointment.getAppointmentDate(), savedAppointment.getDurationMinutes(), previousStatus);
+        createHistoryRecord(savedAppointment, change, "COMPLETED", "Appointment completed", completedBy);
+        eventPublisher.publishEvent(change);
+        
+        log.info("Appointment completed successfully with ID: {}", savedAppointment.getId());
+        return savedAppointment;
+    }
+
+    @Override
+    public Appointment markAsNoShow(Long id, String markedBy) {
+        log.info("Marking appointment with ID: {} as no-show", id);
+        
+        Appointment appointment = getAppointmentById(id);
+        
+        if (appointment.getStatus() != AppointmentStatus.SCHEDULED && 
+            appointment.getStatus() != AppointmentStatus.CONFIRMED) {
+            throw new InvalidAppointmentDataException("Only scheduled or confirmed appointments can be marked as no-show");
+        }
+        
+        AppointmentStatus previousStatus = appointment.getStatus();
+        appointment.setStatus(AppointmentStatus.NO_SHOW);
+        appointment.setUpdatedBy(markedBy);
+        
+        Appointment savedAppointment = appointmentRepository.save(appointment);
+        
+        AppointmentChangedEvent change = AppointmentChangedEvent.of(ChangeType.NO_SHOW, savedAppointment,
+                savedAppointment.getAppointmentDate(), savedAppointment.getDurationMinutes(), previousStatus);
+        createHistoryRecord(savedAppointment, change, "NO_SHOW", "Patient did not attend", markedBy);
+        eventPublisher.publishEvent(change);
+        
+        log.info("Appointment marked as no-show with ID: {}", savedAppointment.getId());
+        return savedAppointment;
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Appointment getAppointmentById(Long id) {
@@ -225,111 +416,253 @@ public class AppointmentServiceImpl implements AppointmentService {
                 .orElseThrow(() -> new AppointmentNotFoundException("Appointment not found with ID: " + id));
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Long> getAppointmentVersion(Long id) {
+        return appointmentRepository.findVersionById(id);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long getDoctorScheduleVersion(Long doctorId, LocalDateTime startDate, LocalDateTime endDate) {
+        return scheduleVersions.version(doctorId, startDate.toLocalDate(), endDate.toLocalDate());
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Page<Appointment> getAppointmentsByPatientId(Long patientId, Pageable pageable) {
-        return appointmentRepository.findByPatientIdOrderByAppointmentDateDesc(patientId, pageable);
+        return appointmentEnricher.enrich(appointmentRepository.findByPatientIdOrderByAppointmentDateDesc(patientId, pageable));
     }
 
     @Override
     @Transactional(readOnly = true)
     public Page<Appointment> getAppointmentsByDoctorId(Long doctorId, Pageable pageable) {
-        return appointmentRepository.findByDoctorIdOrderByAppointmentDateDesc(doctorId, pageable);
+        return appointmentEnricher.enrich(appointmentRepository.findByDoctorIdOrderByAppointmentDateDesc(doctorId, pageable));
     }
 
     @Override
     @Transactional(readOnly = true)
     public Page<Appointment> getAppointmentsByDateRange(LocalDateTime startDate, LocalDateTime endDate, Pageable pageable) {
-        return appointmentRepository.findByAppointmentDateBetweenOrderByAppointmentDate(startDate, endDate, pageable);
+        return appointmentEnricher.enrich(appointmentRepository.findByAppointmentDateBetweenOrderByAppointmentDate(startDate, endDate, pageable));
     }
 
     @Override
     @Transactional(readOnly = true)
     public Page<Appointment> getAppointmentsByStatus(AppointmentStatus status, Pageable pageable) {
-        return appointmentRepository.findByStatusOrderByAppointmentDateDesc(status, pageable);
+        return appointmentEnricher.enrich(appointmentRepository.findByStatusOrderByAppointmentDateDesc(status, pageable));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<Appointment> getAppointmentsByPatientId(Long patientId, String cursor, int size, boolean includeTotal) {
+        return seek(cursor, size, includeTotal,
+                limit -> appointmentRepository.findByPatientIdOrderByAppointmentDateDescIdDesc(patientId, limit),
+                (after, limit) -> appointmentRepository.findPatientPageAfter(
+                        patientId, after.getAppointmentDate(), after.getId(), limit),
+                () -> appointmentRepository.countByPatientId(patientId));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<Appointment> getAppointmentsByDoctorId(Long doctorId, String cursor, int size, boolean includeTotal) {
+        return seek(cursor, size, includeTotal,
+                limit -> appointmentRepository.findByDoctorIdOrderByAppointmentDateDescIdDesc(doctorId, limit),
+                (after, limit) -> appointmentRepository.findDoctorPageAfter(
+                        doctorId, after.getAppointmentDate(), after.getId(), limit),
+                () -> appointmentRepository.countByDoctorId(doctorId));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<Appointment> getAppointmentsByMedicalCenterId(Long medicalCenterId, String cursor, int size, boolean includeTotal) {
+        return seek(cursor, size, includeTotal,
+                limit -> appointmentRepository.findByMedicalCenterIdOrderByAppointmentDateDescIdDesc(medicalCenterId, limit),
+                (after, limit) -> appointmentRepository.findMedicalCenterPageAfter(
+                        medicalCenterId, after.getAppointmentDate(), after.getId(), limit),
+                () -> appointmentRepository.countByMedicalCenterId(medicalCenterId));
+    }
+
+    /**
+     * Reads one keyset page. Fetches one row more than requested to know
+     * whether another page follows, and only counts when asked to.
+     */
+    private CursorPage<Appointment> seek(String cursor, int size, boolean includeTotal,
+                                         Function<Pageable, List<Appointment>> firstPage,
+                                         BiFunction<SeekCursor, Pageable, List<Appointment>> pageAfter,
+                                         LongSupplier total) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        SeekCursor after = SeekCursor.decode(cursor);
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        List<Appointment> rows = after == null ? firstPage.apply(limit) : pageAfter.apply(after, limit);
+
+        boolean hasNext = rows.size() > pageSize;
+        List<Appointment> content = hasNext ? new ArrayList<>(rows.subList(0, pageSize)) : rows;
+        return CursorPage.<Appointment>builder()
+                .content(appointmentEnricher.enrich(content))
+                .size(pageSize)
+                .hasNext(hasNext)
+                .nextCursor(hasNext ? SeekCursor.after(content.get(content.size() - 1)).encode() : null)
+                .totalElements(includeTotal ? total.getAsLong() : null)
+                .build();
     }
 
     @Override
     @Transactional(readOnly = true)
     public boolean checkDoctorAvailability(Long doctorId, LocalDateTime startTime, LocalDateTime endTime) {
-        List<Appointment> conflicts = appointmentRepository.findConflictingAppointmentsSimple(doctorId, startTime, endTime);
-        return conflicts.isEmpty();
+        return scheduleIndex.isAvailable(doctorId, startTime, endTime)
+                && !slotHoldService.isHeld(doctorId, startTime, endTime, null);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<LocalDateTime> getAvailableTimeSlots(Long doctorId, LocalDateTime date, Integer durationMinutes) {
+        int duration = durationMinutes != null ? durationMinutes : businessProperties.getAppointmentDuration();
+        if (duration <= 0) {
+            throw new InvalidAppointmentDataException("Duration must be positive");
+        }
+        return slotEngine.findFreeSlots(doctorId, date.toLocalDate(), duration);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<AvailableSlotDto> findFirstAvailableSlots(Long specialityId, Long medicalCenterId,
+                                                          LocalDateTime from, LocalDateTime to,
+                                                          Integer durationMinutes, Integer limit) {
+        if (!to.isAfter(from)) {
+            throw new InvalidAppointmentDataException("End of the search window must be after its start");
+        }
+        LocalDateTime horizon = LocalDateTime.now().plusDays(businessProperties.getAdvanceBookingDays() + 1L);
+        int duration = durationMinutes != null ? durationMinutes : businessProperties.getAppointmentDuration();
+        if (duration <= 0) {
+            throw new InvalidAppointmentDataException("Duration must be positive");
+        }
+        int maxResults = limit != null ? limit : DEFAULT_SEARCH_RESULTS;
+        if (maxResults <= 0 || maxResults > MAX_SEARCH_RESULTS) {
+            throw new InvalidAppointmentDataException("Limit must be between 1 and " + MAX_SEARCH_RESULTS);
+        }
+        
+        return firstAvailableSearch.search(specialityId, medicalCenterId, from,
+                to.isAfter(horizon) ? horizon : to, duration, maxResults);
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<Appointment> getUpcomingAppointments() {
-        return appointmentRepository.findUpcomingAppointments(LocalDateTime.now());
+        return appointmentEnricher.enrich(appointmentRepository.findUpcomingAppointments(LocalDateTime.now()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Long getAppointmentCountByStatus(AppointmentStatus status, LocalDateTime startDate, LocalDateTime endDate) {
+        return appointmentStatistics.count(status, null, null, startDate, endDate);
     }
 
     @Override
     @Async
     public void sendAppointmentReminders() {
         log.info("Sending appointment reminders");
-        
-        LocalDateTime tomorrow = LocalDateTime.now().plusDays(1);
-        LocalDateTime tomorrowEnd = tomorrow.plusDays(1);
-        
-        List<Appointment> appointmentsForReminder = appointmentRepository
-                .findAppointmentsForReminder(tomorrow, tomorrowEnd);
-        
-        for (Appointment appointment : appointmentsForReminder) {
-            try {
-                UserResponse patient = userServiceClient.getUserById(appointment.getPatientId());
-                UserResponse doctor = userServiceClient.getUserById(appointment.getDoctorId());
-                
-                emailService.sendAppointmentReminderEmail(appointment, patient, doctor);
-                notificationService.sendAppointmentReminderNotification(appointment);
-                
-                appointment.setReminderSent(true);
-                appointmentRepository.save(appointment);
-                
-                log.info("Reminder sent for appointment ID: {}", appointment.getId());
-            } catch (Exception e) {
-                log.error("Failed to send reminder for appointment ID: {}", appointment.getId(), e);
-            }
-        }
+        long sent = reminderPipeline.run();
+        log.info("Appointment reminders sent: {}", sent);
     }
 
-    private void createHistoryRecord(Appointment appointment, String action, String description, String performedBy) {
-        AppointmentHistory history = AppointmentHistory.builder()
-                .appointment(appointment)
-                .action(action)
-                .description(description)
-                .performedBy(performedBy)
-                .performedAt(LocalDateTime.now())
-                .build();
-        
-        historyRepository.save(history);
+    private static List<LocalDateTime> expandSeries(AppointmentSeriesRequest request) {
+        int intervalWeeks = request.getIntervalWeeks() != null ? request.getIntervalWeeks() : 1;
+        List<LocalDateTime> dates = new ArrayList<>(request.getOccurrences());
+        for (int i = 0; i < request.getOccurrences(); i++) {
+            dates.add(request.getFirstAppointmentDate().plusWeeks((long) i * intervalWeeks));
+        }
+        return dates;
     }
 
-    private void sendAppointmentNotifications(Appointment appointment, UserResponse patient, UserResponse doctor) {
-        try {
-            emailService.sendAppointmentConfirmationEmail(appointment, patient, doctor);
-            notificationService.sendAppointmentCreatedNotification(appointment);
-        } catch (Exception e) {
-            log.error("Failed to send appointment notifications for ID: {}", appointment.getId(), e);
+    /**
+     * Dates of the series that overlap the doctor's active appointments or
+     * someone else's hold. The doctor's agenda over the whole series is read
+     * with one range query and merged with the (ordered) visit dates in a
+     * single pass.
+     */
+    private List<LocalDateTime> findSeriesConflicts(Long doctorId, List<LocalDateTime> dates, int durationMinutes) {
+        LocalDateTime first = dates.get(0);
+        LocalDateTime last = dates.get(dates.size() - 1).plusMinutes(durationMinutes);
+        List<Appointment> agenda = new ArrayList<>(appointmentRepository.findByDoctorIdAndAppointmentDateBetween(
+                doctorId, first.minusMinutes(MAX_DURATION_MINUTES), last));
+        agenda.removeIf(appointment -> !appointment.getStatus().occupiesSlot());
+        agenda.sort(Comparator.comparing(Appointment::getAppointmentDate));
+
+        List<LocalDateTime> conflicts = new ArrayList<>();
+        int cursor = 0;
+        for (LocalDateTime start : dates) {
+            LocalDateTime end = start.plusMinutes(durationMinutes);
+            // Nothing starting more than the maximum duration earlier can still overlap
+            while (cursor < agenda.size()
+                    && agenda.get(cursor).getAppointmentDate().isBefore(start.minusMinutes(MAX_DURATION_MINUTES))) {
+                cursor++;
+            }
+            boolean conflict = false;
+            for (int i = cursor; i < agenda.size() && agenda.get(i).getAppointmentDate().isBefore(end); i++) {
+                if (agenda.get(i).getEndTime().isAfter(start)) {
+                    conflict = true;
+                    break;
+                }
+            }
+            if (conflict || slotHoldService.isHeld(doctorId, start, end, null)) {
+                conflicts.add(start);
+            }
         }
+        return conflicts;
     }
 
-    private void sendUpdateNotifications(Appointment appointment, UserResponse patient, UserResponse doctor) {
-        try {
-            emailService.sendAppointmentUpdateEmail(appointment, patient, doctor);
-            notificationService.sendAppointmentUpdatedNotification(appointment);
-        } catch (Exception e) {
-            log.error("Failed to send update notifications for appointment ID: {}", appointment.getId(), e);
+    /**
+     * The live hold named by the request, provided it was placed by the same
+     * user or on behalf of the request's patient, for exactly the requested
+     * doctor, start and duration.
+     */
+    private SlotHold findMatchingHold(AppointmentCreateRequest request, String createdBy) {
+        if (request.getHoldToken() == null) {
+            return null;
         }
+        SlotHold hold = slotHoldService.find(request.getHoldToken())
+                .orElseThrow(() -> new AppointmentConflictException("Slot hold has expired"));
+        if (!hold.isRedeemableBy(createdBy, request.getPatientId())
+                || !hold.matches(request.getDoctorId(), request.getAppointmentDate(), request.getDurationMinutes())) {
+            throw new InvalidAppointmentDataException("Slot hold does not match the requested appointment");
+        }
+        return hold;
     }
 
-    private void sendCancellationNotifications(Appointment appointment, UserResponse patient, UserResponse doctor) {
+    /**
+     * Saves and flushes so the {@code appointments_no_overlap} constraint is
+     * checked right here; a violation means a concurrent booking took the slot.
+     */
+    private Appointment saveCheckingOverlap(Appointment appointment) {
         try {
-            emailService.sendAppointmentCancellationEmail(appointment, patient, doctor);
-            notificationService.sendAppointmentCancelledNotification(appointment);
-        } catch (Exception e) {
-            log.error("Failed to send cancellation notifications for appointment ID: {}", appointment.getId(), e);
+            return appointmentRepository.saveAndFlush(appointment);
+        } catch (DataIntegrityViolationException e) {
+            if (!OverlapConstraint.isViolatedBy(e)) {
+                throw e;
+            }
+            // Another node booked the slot; reload the bucket so the index catches up
+            scheduleIndex.invalidate(appointment.getDoctorId(), appointment.getAppointmentDate().toLocalDate());
+            throw new AppointmentConflictException("Doctor is not available at the requested time", e);
         }
     }
 
+    private void createHistoryRecord(Appointment appointment, AppointmentChangedEvent change,
+                                     String action, String description, String performedBy) {
+        AppointmentHistory history = AppointmentHistory.builder()
+                .appointment(appointment)
+                .action(action)
+                .description(description)
+                .performedBy(performedBy)
+                .performedAt(LocalDateTime.now())
+                .previousStatus(change.getPreviousStatus())
+                .newStatus(change.getStatus())
+                .previousDate(change.getPreviousDate())
+                .newDate(change.getAppointmentDate())
+                .build();
+        
+        historyWriter.write(history);
+    }
+
     private String generateConfirmationToken() {
         return UUID.randomUUID().toString();
     }
@@ -1,47 +1,52 @@
 package com.citasmart.appointmentservice.service.impl;
 
+import com.citasmart.appointmentservice.dto.UserResponse;
+import com.citasmart.appointmentservice.mail.MailTemplate;
+import com.citasmart.appointmentservice.mail.MailTemplates;
+import com.citasmart.appointmentservice.mail.PooledMailSender;
 import com.citasmart.appointmentservice.model.Appointment;
 import com.citasmart.appointmentservice.service.EmailService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
-import org.thymeleaf.TemplateEngine;
-import org.thymeleaf.context.Context;
 
 import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class EmailServiceImpl implements EmailService {
     
-    private final JavaMailSender mailSender;
-    private final TemplateEngine templateEngine;
-    
-    @Value("${spring.mail.username:noreply@citasmart.com}")
-    private String fromEmail;
+    private final MailTemplates mailTemplates;
+    private final PooledMailSender mailSender;
     
     @Value("${app.name:CitaSmart}")
     private String appName;
     
+    @Value("${app.mail.confirm-url:http://localhost:4200/appointments/confirm/}")
+    private String confirmUrl;
+    
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
 
     @Override
-    @Async
-    public void sendAppointmentConfirmation(Appointment appointment) {
+    public void sendAppointmentConfirmationEmail(Appointment appointment, UserResponse patient, UserResponse doctor) {
         log.info("Sending confirmation email for appointment {}", appointment.getId());
         
         try {
             String subject = String.format("[%s] Confirmación de Cita - %s", 
                     appName, appointment.getAppointmentDate().format(DATE_FORMATTER));
             
-            String content = buildConfirmationEmailContent(appointment);
+            Map<String, Object> model = model(appointment, patient, doctor);
+            if (appointment.getConfirmationToken() != null) {
+                model.put("confirmUrl", confirmUrl + appointment.getConfirmationToken());
+            }
             
-            sendEmail(appointment.getPatientEmail(), subject, content);
+            sendEmail(recipient(appointment, patient), subject, mailTemplates.render(MailTemplate.CONFIRMATION, model));
             log.info("Confirmation email sent successfully for appointment {}", appointment.getId());
             
         } catch (Exception e) {
@@ -51,17 +56,15 @@ public class EmailServiceImpl implements EmailService {
     }
 
     @Override
-    @Async
-    public void sendAppointmentReminder(Appointment appointment) {
+    public void sendAppointmentReminderEmail(Appointment appointment, UserResponse patient, UserResponse doctor) {
         log.info("Sending reminder email for appointment {}", appointment.getId());
         
         try {
             String subject = String.format("[%s] Recordatorio de Cita - Mañana %s", 
                     appName, appointment.getAppointmentDate().format(DATE_FORMATTER));
             
-            String content = buildReminderEmailContent(appointment);
-            
-            sendEmail(appointment.getPatientEmail(), subject, content);
+            sendEmail(recipient(appointment, patient), subject,
+                    mailTemplates.render(MailTemplate.REMINDER, model(appointment, patient, doctor)));
             log.info("Reminder email sent successfully for appointment {}", appointment.getId());
             
         } catch (Exception e) {
@@ -71,17 +74,17 @@ public class EmailServiceImpl implements EmailService {
     }
 
     @Override
-    @Async
-    public void sendAppointmentCancellation(Appointment appointment) {
+    public void sendAppointmentCancellationEmail(Appointment appointment, UserResponse patient, UserResponse doctor) {
         log.info("Sending cancellation email for appointment {}", appointment.getId());
         
         try {
             String subject = String.format("[%s] Cita Cancelada - %s", 
                     appName, appointment.getAppointmentDate().format(DATE_FORMATTER));
             
-            String content = buildCancellationEmailContent(appointment);
+            Map<String, Object> model = model(appointment, patient, doctor);
+            model.put("cancellationReason", appointment.getCancellationReason());
             
-            sendEmail(appointment.getPatientEmail(), subject, content);
+            sendEmail(recipient(appointment, patient), subject, mailTemplates.render(MailTemplate.CANCELLATION, model));
             log.info("Cancellation email sent successfully for appointment {}", appointment.getId());
             
         } catch (Exception e) {
@@ -91,17 +94,33 @@ public class EmailServiceImpl implements EmailService {
     }
 
     @Override
-    @Async
-    public void sendAppointmentRescheduled(Appointment appointment) {
+    public void sendAppointmentUpdateEmail(Appointment appointment, UserResponse patient, UserResponse doctor) {
+        log.info("Sending update email for appointment {}", appointment.getId());
+        
+        try {
+            String subject = String.format("[%s] Cita Actualizada - %s", 
+                    appName, appointment.getAppointmentDate().format(DATE_FORMATTER));
+            
+            sendEmail(recipient(appointment, patient), subject,
+                    mailTemplates.render(MailTemplate.UPDATE, model(appointment, patient, doctor)));
+            log.info("Update email sent successfully for appointment {}", appointment.getId());
+            
+        } catch (Exception e) {
+            log.error("Failed to send update email for appointment {}", appointment.getId(), e);
+            throw new RuntimeException("Failed to send update email", e);
+        }
+    }
+
+    @Override
+    public void sendAppointmentRescheduleEmail(Appointment appointment, UserResponse patient, UserResponse doctor) {
         log.info("Sending rescheduled email for appointment {}", appointment.getId());
         
         try {
             String subject = String.format("[%s] Cita Reprogramada - Nueva Fecha: %s", 
                     appName, appointment.getAppointmentDate().format(DATE_FORMATTER));
             
-            String content = buildRescheduledEmailContent(appointment);
-            
-            sendEmail(appointment.getPatientEmail(), subject, content);
+            sendEmail(recipient(appointment, patient), subject,
+                    mailTemplates.render(MailTemplate.RESCHEDULE, model(appointment, patient, doctor)));
             log.info("Rescheduled email sent successfully for appointment {}", appointment.getId());
             
         } catch (Exception e) {
@@ -109,24 +128,28 @@ public class EmailServiceImpl implements EmailService {
             throw new RuntimeException("Failed to send rescheduled email", e);
         }
     }
-
+    
     @Override
-    @Async
-    public void sendAppointmentUpdated(Appointment appointment) {
-        log.info("Sending update email for appointment {}", appointment.getId());
+    public void sendAppointmentSeriesConfirmationEmail(List<Appointment> series, UserResponse patient, UserResponse doctor) {
+        Appointment first = series.get(0);
+        log.info("Sending series confirmation email for series {}", first.getSeriesId());
         
         try {
-            String subject = String.format("[%s] Cita Actualizada - %s", 
-                    appName, appointment.getAppointmentDate().format(DATE_FORMATTER));
+            String subject = String.format("[%s] Confirmación de %d Citas - Desde %s", 
+                    appName, series.size(), first.getAppointmentDate().format(DATE_FORMATTER));
             
-            String content = buildUpdatedEmailContent(appointment);
+            Map<String, Object> model = model(first, patient, doctor);
+            model.put("count", series.size());
+            model.put("dates", series.stream()
+                    .map(appointment -> appointment.getAppointmentDate().format(DATE_FORMATTER))
+                    .collect(Collectors.toList()));
             
-            sendEmail(appointment.getPatientEmail(), subject, content);
-            log.info("Update email sent successfully for appointment {}", appointment.getId());
+            sendEmail(recipient(first, patient), subject, mailTemplates.render(MailTemplate.SERIES_CONFIRMATION, model));
+            log.info("Series confirmation email sent successfully for series {}", first.getSeriesId());
             
         } catch (Exception e) {
-            log.error("Failed to send update email for appointment {}", appointment.getId(), e);
-            throw new RuntimeException("Failed to send update email", e);
+            log.error("Failed to send series confirmation email for series {}", first.getSeriesId(), e);
+            throw new RuntimeException("Failed to send series confirmation email", e);
         }
     }
     
@@ -136,145 +159,34 @@ public class EmailServiceImpl implements EmailService {
             return;
         }
         
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setFrom(fromEmail);
-        message.setTo(to);
-        message.setSubject(subject);
-        message.setText(content);
-        
-        mailSender.send(message);
-        log.debug("Email sent to: {}", to);
+        mailSender.send(to, subject, content);
     }
     
-    private String buildConfirmationEmailContent(Appointment appointment) {
-        StringBuilder content = new StringBuilder();
-        content.append("Estimado/a ").append(appointment.getPatientName()).append(",\n\n");
-        content.append("Su cita ha sido confirmada con los siguientes detalles:\n\n");
-        content.append("📅 Fecha y Hora: ").append(appointment.getAppointmentDate().format(DATE_FORMATTER)).append("\n");
-        content.append("👨‍⚕️ Doctor: ").append(appointment.getDoctorName()).append("\n");
-        content.append("🏥 Centro Médico: ").append(appointment.getMedicalCenterName()).append("\n");
-        
-        if (appointment.getMedicalCenterAddress() != null) {
-            content.append("📍 Dirección: ").append(appointment.getMedicalCenterAddress()).append("\n");
-        }
-        
-        content.append("🩺 Especialidad: ").append(appointment.getSpecialityName()).append("\n");
-        content.append("⏱️ Duración: ").append(appointment.getDurationMinutes()).append(" minutos\n");
-        
-        if (appointment.getReason() != null) {
-            content.append("📝 Motivo: ").append(appointment.getReason()).append("\n");
-        }
-        
-        content.append("\n");
-        
-        if (appointment.getConfirmationToken() != null) {
-            content.append("Para confirmar su asistencia, haga clic en el siguiente enlace:\n");
-            content.append("🔗 Confirmar Cita: http://localhost:4200/appointments/confirm/").append(appointment.getConfirmationToken()).append("\n\n");
-        }
-        
-        content.append("⚠️ IMPORTANTE:\n");
-        content.append("- Llegue 15 minutos antes de su cita\n");
-        content.append("- Traiga su documento de identidad\n");
-        content.append("- Si necesita cancelar, hágalo con al menos 24 horas de anticipación\n\n");
-        content.append("¡Gracias por confiar en ").append(appName).append("!\n\n");
-        content.append("Saludos cordiales,\n");
-        content.append("Equipo ").append(appName);
-        
-        return content.toString();
+    private static String recipient(Appointment appointment, UserResponse patient) {
+        return appointment.getPatientEmail() != null ? appointment.getPatientEmail() : patient.getEmail();
     }
     
-    private String buildReminderEmailContent(Appointment appointment) {
-        StringBuilder content = new StringBuilder();
-        content.append("Estimado/a ").append(appointment.getPatientName()).append(",\n\n");
-        content.append("🔔 RECORDATORIO: Tiene una cita médica programada para mañana.\n\n");
-        content.append("📅 Fecha y Hora: ").append(appointment.getAppointmentDate().format(DATE_FORMATTER)).append("\n");
-        content.append("👨‍⚕️ Doctor: ").append(appointment.getDoctorName()).append("\n");
-        content.append("🏥 Centro Médico: ").append(appointment.getMedicalCenterName()).append("\n");
-        
-        if (appointment.getMedicalCenterAddress() != null) {
-            content.append("📍 Dirección: ").append(appointment.getMedicalCenterAddress()).append("\n");
-        }
-        
-        content.append("\n");
-        content.append("⚠️ RECORDATORIOS IMPORTANTES:\n");
-        content.append("- Llegue 15 minutos antes de su cita\n");
-        content.append("- Traiga su documento de identidad\n");
-        content.append("- Traiga sus estudios médicos previos si los tiene\n");
-        content.append("- Use mascarilla y mantenga el distanciamiento social\n\n");
-        content.append("Si necesita cancelar o reprogramar su cita, por favor contacte con nosotros lo antes posible.\n\n");
-        content.append("¡Nos vemos mañana!\n\n");
-        content.append("Saludos cordiales,\n");
-        content.append("Equipo ").append(appName);
-        
-        return content.toString();
+    // Flat, pre-formatted values keep the templates free of formatting logic
+    private Map<String, Object> model(Appointment appointment, UserResponse patient, UserResponse doctor) {
+        Map<String, Object> model = new HashMap<>();
+        model.put("appName", appName);
+        model.put("patientName", fullName(patient, appointment.getPatientName()));
+        model.put("doctorName", fullName(doctor, appointment.getDoctorName()));
+        model.put("centerName", appointment.getMedicalCenterName() != null
+                ? appointment.getMedicalCenterName() : doctor.getMedicalCenter());
+        model.put("centerAddress", appointment.getMedicalCenterAddress());
+        model.put("speciality", appointment.getSpecialityName() != null
+                ? appointment.getSpecialityName() : doctor.getSpeciality());
+        model.put("date", appointment.getAppointmentDate().format(DATE_FORMATTER));
+        model.put("duration", appointment.getDurationMinutes());
+        model.put("reason", appointment.getReason());
+        return model;
     }
     
-    private String buildCancellationEmailContent(Appointment appointment) {
-        StringBuilder content = new StringBuilder();
-        content.append("Estimado/a ").append(appointment.getPatientName()).append(",\n\n");
-        content.append("❌ Su cita ha sido CANCELADA.\n\n");
-        content.append("Detalles de la cita cancelada:\n");
-        content.append("📅 Fecha y Hora: ").append(appointment.getAppointmentDate().format(DATE_FORMATTER)).append("\n");
-        content.append("👨‍⚕️ Doctor: ").append(appointment.getDoctorName()).append("\n");
-        content.append("🏥 Centro Médico: ").append(appointment.getMedicalCenterName()).append("\n");
-        
-        if (appointment.getCancellationReason() != null) {
-            content.append("\n📝 Motivo de cancelación: ").append(appointment.getCancellationReason()).append("\n");
+    private static String fullName(UserResponse user, String fallback) {
+        if (user == null || user.getFirstName() == null) {
+            return fallback;
         }
-        
-        content.append("\n");
-        content.append("Si necesita programar una nueva cita, puede hacerlo a través de nuestra plataforma o contactando directamente con el centro médico.\n\n");
-        content.append("Lamentamos cualquier inconveniente que esto pueda causarle.\n\n");
-        content.append("Saludos cordiales,\n");
-        content.append("Equipo ").append(appName);
-        
-        return content.toString();
-    }
-    
-    private String buildRescheduledEmailContent(Appointment appointment) {
-        StringBuilder content = new StringBuilder();
-        content.append("Estimado/a ").append(appointment.getPatientName()).append(",\n\n");
-        content.append("📅 Su cita ha sido REPROGRAMADA.\n\n");
-        content.append("Nuevos detalles de la cita:\n");
-        content.append("📅 Nueva Fecha y Hora: ").append(appointment.getAppointmentDate().format(DATE_FORMATTER)).append("\n");
-        content.append("👨‍⚕️ Doctor: ").append(appointment.getDoctorName()).append("\n");
-        content.append("🏥 Centro Médico: ").append(appointment.getMedicalCenterName()).append("\n");
-        content.append("🩺 Especialidad: ").append(appointment.getSpecialityName()).append("\n");
-        content.append("⏱️ Duración: ").append(appointment.getDurationMinutes()).append(" minutos\n");
-        
-        content.append("\n");
-        content.append("⚠️ RECORDATORIOS:\n");
-        content.append("- Llegue 15 minutos antes de su nueva cita\n");
-        content.append("- Traiga su documento de identidad\n");
-        content.append("- La reprogramación es definitiva\n\n");
-        content.append("¡Nos vemos en la nueva fecha!\n\n");
-        content.append("Saludos cordiales,\n");
-        content.append("Equipo ").append(appName);
-        
-        return content.toString();
-    }
-    
-    private String buildUpdatedEmailContent(Appointment appointment) {
-        StringBuilder content = new StringBuilder();
-        content.append("Estimado/a ").append(appointment.getPatientName()).append(",\n\n");
-        content.append("ℹ️ Su cita ha sido ACTUALIZADA.\n\n");
-        content.append("Detalles actuales de la cita:\n");
-        content.append("📅 Fecha y Hora: ").append(appointment.getAppointmentDate().format(DATE_FORMATTER)).append("\n");
-        content.append("👨‍⚕️ Doctor: ").append(appointment.getDoctorName()).append("\n");
-        content.append("🏥 Centro Médico: ").append(appointment.getMedicalCenterName()).append("\n");
-        content.append("🩺 Especialidad: ").append(appointment.getSpecialityName()).append("\n");
-        content.append("⏱️ Duración: ").append(appointment.getDurationMinutes()).append(" minutos\n");
-        
-        if (appointment.getReason() != null) {
-            content.append("📝 Motivo: ").append(appointment.getReason()).append("\n");
-        }
-        
-        content.append("\n");
-        content.append("Por favor, revise los detalles y asegúrese de que todo esté correcto.\n\n");
-        content.append("Si tiene alguna pregunta, no dude en contactarnos.\n\n");
-        content.append("Saludos cordiales,\n");
-        content.append("Equipo ").append(appName);
-        
-        return content.toString();
+        return user.getLastName() != null ? user.getFirstName() + " " + user.getLastName() : user.getFirstName();
     }
 }
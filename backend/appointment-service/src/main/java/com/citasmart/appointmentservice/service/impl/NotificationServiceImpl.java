@@ -7,6 +7,8 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
@@ -62,6 +64,20 @@ public class NotificationServiceImpl implements NotificationService {
                 appointment.getAppointmentDate());
     }
 
+    @Override
+    @Async
+    public void sendAppointmentSeriesCreatedNotification(List<Appointment> series) {
+        Appointment first = series.get(0);
+        log.info("Sending series created notification for series {}", first.getSeriesId());
+        
+        // TODO: Implement push notification logic
+        log.info("📱 Notification: {} citas programadas para paciente ID {} desde el {} hasta el {}", 
+                series.size(), 
+                first.getPatientId(), 
+                first.getAppointmentDate(), 
+                series.get(series.size() - 1).getAppointmentDate());
+    }
+
     @Override
     @Async
     public void sendSmsNotification(String phoneNumber, String message) {
@@ -0,0 +1,238 @@
+package com.citasmart.appointmentservice.statistics;
+
+import com.citasmart.appointmentservice.event.AppointmentChangedEvent;
+import com.citasmart.appointmentservice.model.AppointmentStatus;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Appointment counts answered from pre-aggregated buckets instead of
+ * {@code COUNT(*)} scans over {@code appointments}.
+ *
+ * Every {@link AppointmentChangedEvent} is turned into +1/-1 deltas on the
+ * (day, doctor, center, status) buckets it leaves and enters. The deltas of a
+ * transaction are accumulated and upserted into {@code appointment_daily_stats}
+ * in one batch just before it commits, so the rollup never disagrees with the
+ * appointments it describes. After commit the same deltas are applied to an
+ * in-memory copy of the per day and status totals around today, which serves
+ * the unfiltered dashboard counts; the copy is periodically rebuilt from the
+ * table to pick up changes made by other instances.
+ *
+ * A range is answered as whole days from the buckets plus, for a partial first
+ * or last day, an indexed count over that fraction of a day.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AppointmentStatistics {
+
+    private static final AppointmentStatus[] STATUSES = AppointmentStatus.values();
+
+    private final StatisticsRollupStore store;
+
+    @Value("${app.statistics.memory-window-days:400}")
+    private int memoryWindowDays;
+
+    // Null until the first refresh; queries fall back to the rollup table meanwhile
+    private volatile DailyCounters counters;
+
+    /**
+     * Number of appointments with {@code status} whose date lies in
+     * [start, end]; null doctor or center means any.
+     */
+    public long count(AppointmentStatus status, Long doctorId, Long medicalCenterId,
+                      LocalDateTime start, LocalDateTime end) {
+        if (end.isBefore(start)) {
+            return 0;
+        }
+        LocalDate firstFullDay = start.toLocalTime().equals(LocalTime.MIDNIGHT)
+                ? start.toLocalDate() : start.toLocalDate().plusDays(1);
+        LocalDate endDay = end.toLocalDate();
+        if (firstFullDay.isAfter(endDay)) {
+            return store.countAppointments(status, doctorId, medicalCenterId, start, end, true);
+        }
+
+        long total = 0;
+        if (start.isBefore(firstFullDay.atStartOfDay())) {
+            total += store.countAppointments(status, doctorId, medicalCenterId, start, firstFullDay.atStartOfDay(), false);
+        }
+        total += sumDays(status, doctorId, medicalCenterId, firstFullDay, endDay);
+        total += store.countAppointments(status, doctorId, medicalCenterId, endDay.atStartOfDay(), end, true);
+        return total;
+    }
+
+    /**
+     * Number of appointments created on {@code day}.
+     */
+    public long countCreatedOn(LocalDate day) {
+        DailyCounters current = counters;
+        if (current != null && current.covers(day, day)) {
+            return current.createdOn(day);
+        }
+        return store.createdOn(day);
+    }
+
+    private long sumDays(AppointmentStatus status, Long doctorId, Long medicalCenterId, LocalDate from, LocalDate to) {
+        if (!from.isBefore(to)) {
+            return 0;
+        }
+        DailyCounters current = counters;
+        if (doctorId == null && medicalCenterId == null && current != null && current.covers(from, to.minusDays(1))) {
+            return current.sum(status, from, to);
+        }
+        return store.sumBuckets(status, doctorId, medicalCenterId, from, to);
+    }
+
+    /**
+     * Collects the deltas of a change into the current transaction; they are
+     * written just before commit and discarded on rollback.
+     */
+    @EventListener
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            PendingDeltas deltas = new PendingDeltas();
+            deltas.add(event);
+            store.applyDeltas(deltas.buckets, deltas.created);
+            applyToMemory(deltas);
+            return;
+        }
+        PendingDeltas deltas = (PendingDeltas) TransactionSynchronizationManager.getResource(this);
+        if (deltas == null) {
+            PendingDeltas pending = new PendingDeltas();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    store.applyDeltas(pending.buckets, pending.created);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(AppointmentStatistics.this);
+                    if (status == STATUS_COMMITTED) {
+                        applyToMemory(pending);
+                    }
+                }
+            });
+            deltas = pending;
+        }
+        deltas.add(event);
+    }
+
+    /**
+     * Rebuilds the in-memory totals for the window around today from the rollup table.
+     */
+    @Scheduled(fixedDelayString = "${app.statistics.refresh-interval:60000}")
+    public void refresh() {
+        LocalDate today = LocalDate.now();
+        DailyCounters fresh = new DailyCounters(today.minusDays(memoryWindowDays), today.plusDays(memoryWindowDays));
+        store.loadDailyTotals(fresh.from, fresh.to, row -> fresh.add(row.getDate("stat_date").toLocalDate(),
+                AppointmentStatus.valueOf(row.getString("status")), row.getLong("total")));
+        store.loadCreatedTotals(fresh.from, fresh.to, row -> fresh.addCreated(
+                row.getDate("created_date").toLocalDate(), row.getLong("created_count")));
+        counters = fresh;
+        log.debug("Refreshed appointment statistics for {} - {}", fresh.from, fresh.to);
+    }
+
+    private void applyToMemory(PendingDeltas deltas) {
+        DailyCounters current = counters;
+        if (current == null) {
+            return;
+        }
+        deltas.buckets.forEach((key, delta) -> current.add(key.day, key.status, delta));
+        deltas.created.forEach(current::addCreated);
+    }
+
+    /**
+     * Bucket deltas of one transaction, kept sorted so upserts lock rows in a stable order.
+     */
+    private static final class PendingDeltas {
+        private final Map<RollupKey, Long> buckets = new TreeMap<>();
+        private final Map<LocalDate, Long> created = new HashMap<>();
+
+        void add(AppointmentChangedEvent event) {
+            if (event.getChangeType() == AppointmentChangedEvent.ChangeType.CREATED) {
+                created.merge(LocalDate.now(), 1L, Long::sum);
+            } else if (event.getPreviousStatus() != null) {
+                LocalDateTime previousDate = event.getPreviousDate() != null
+                        ? event.getPreviousDate() : event.getAppointmentDate();
+                buckets.merge(new RollupKey(previousDate.toLocalDate(), event.getDoctorId(),
+                        event.getMedicalCenterId(), event.getPreviousStatus()), -1L, Long::sum);
+            }
+            buckets.merge(new RollupKey(event.getAppointmentDate().toLocalDate(), event.getDoctorId(),
+                    event.getMedicalCenterId(), event.getStatus()), 1L, Long::sum);
+        }
+    }
+
+    /**
+     * Per day and status totals for [from, to].
+     */
+    private static final class DailyCounters {
+        private final LocalDate from;
+        private final LocalDate to;
+        private final ConcurrentMap<LocalDate, AtomicLongArray> byDay = new ConcurrentHashMap<>();
+        private final ConcurrentMap<LocalDate, AtomicLong> created = new ConcurrentHashMap<>();
+
+        private DailyCounters(LocalDate from, LocalDate to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        boolean covers(LocalDate first, LocalDate last) {
+            return !first.isBefore(from) && !last.isAfter(to);
+        }
+
+        void add(LocalDate day, AppointmentStatus status, long delta) {
+            if (covers(day, day)) {
+                byDay.computeIfAbsent(day, d -> new AtomicLongArray(STATUSES.length))
+                        .addAndGet(status.ordinal(), delta);
+            }
+        }
+
+        void addCreated(LocalDate day, long delta) {
+            if (covers(day, day)) {
+                created.computeIfAbsent(day, d -> new AtomicLong()).addAndGet(delta);
+            }
+        }
+
+        long sum(AppointmentStatus status, LocalDate first, LocalDate end) {
+            long total = 0;
+            for (LocalDate day = first; day.isBefore(end); day = day.plusDays(1)) {
+                AtomicLongArray counts = byDay.get(day);
+                if (counts == null) {
+                    continue;
+                }
+                if (status != null) {
+                    total += counts.get(status.ordinal());
+                } else {
+                    for (int i = 0; i < counts.length(); i++) {
+                        total += counts.get(i);
+                    }
+                }
+            }
+            return total;
+        }
+
+        long createdOn(LocalDate day) {
+            AtomicLong count = created.get(day);
+            return count != null ? count.get() : 0;
+        }
+    }
+}
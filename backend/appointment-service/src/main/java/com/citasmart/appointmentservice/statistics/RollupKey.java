@@ -0,0 +1,56 @@
+package com.citasmart.appointmentservice.statistics;
+
+import com.citasmart.appointmentservice.model.AppointmentStatus;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.Objects;
+
+/**
+ * One bucket of {@code appointment_daily_stats}: day x doctor x center x status.
+ */
+final class RollupKey implements Comparable<RollupKey> {
+
+    private static final Comparator<RollupKey> ORDER = Comparator
+            .comparing((RollupKey key) -> key.day)
+            .thenComparing(key -> key.doctorId)
+            .thenComparing(key -> key.medicalCenterId)
+            .thenComparing(key -> key.status);
+
+    final LocalDate day;
+    final Long doctorId;
+    final Long medicalCenterId;
+    final AppointmentStatus status;
+
+    RollupKey(LocalDate day, Long doctorId, Long medicalCenterId, AppointmentStatus status) {
+        this.day = day;
+        this.doctorId = doctorId;
+        this.medicalCenterId = medicalCenterId;
+        this.status = status;
+    }
+
+    @Override
+    public int compareTo(RollupKey other) {
+        return ORDER.compare(this, other);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof RollupKey)) {
+            return false;
+        }
+        RollupKey other = (RollupKey) o;
+        return day.equals(other.day)
+                && doctorId.equals(other.doctorId)
+                && medicalCenterId.equals(other.medicalCenterId)
+                && status == other.status;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(day, doctorId, medicalCenterId, status);
+    }
+}
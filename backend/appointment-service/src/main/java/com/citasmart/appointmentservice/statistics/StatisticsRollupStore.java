@@ -0,0 +1,124 @@
+package com.citasmart.appointmentservice.statistics;
+
+import com.citasmart.appointmentservice.model.AppointmentStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JDBC access to the statistics rollup tables.
+ *
+ * Deltas are applied with PostgreSQL upserts in one batch, in key order so
+ * that concurrent transactions touching the same buckets lock them in the same
+ * order. Writes join the caller's transaction.
+ */
+@Component
+@RequiredArgsConstructor
+public class StatisticsRollupStore {
+
+    private static final String UPSERT_BUCKET =
+            "INSERT INTO appointment_daily_stats (stat_date, doctor_id, medical_center_id, status, appointment_count) " +
+            "VALUES (?, ?, ?, ?, ?) ON CONFLICT (stat_date, doctor_id, medical_center_id, status) " +
+            "DO UPDATE SET appointment_count = appointment_daily_stats.appointment_count + EXCLUDED.appointment_count";
+
+    private static final String UPSERT_CREATED =
+            "INSERT INTO appointment_daily_created (created_date, created_count) VALUES (?, ?) " +
+            "ON CONFLICT (created_date) " +
+            "DO UPDATE SET created_count = appointment_daily_created.created_count + EXCLUDED.created_count";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    void applyDeltas(Map<RollupKey, Long> buckets, Map<LocalDate, Long> created) {
+        List<Object[]> bucketArgs = new ArrayList<>(buckets.size());
+        buckets.forEach((key, delta) -> {
+            if (delta != 0) {
+                bucketArgs.add(new Object[]{Date.valueOf(key.day), key.doctorId, key.medicalCenterId,
+                        key.status.name(), delta});
+            }
+        });
+        if (!bucketArgs.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT_BUCKET, bucketArgs);
+        }
+        List<Object[]> createdArgs = new ArrayList<>(created.size());
+        created.forEach((day, delta) -> createdArgs.add(new Object[]{Date.valueOf(day), delta}));
+        if (!createdArgs.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT_CREATED, createdArgs);
+        }
+    }
+
+    /**
+     * Streams the per day and status totals of [from, to] to {@code handler}
+     * as (stat_date, status, total) rows.
+     */
+    void loadDailyTotals(LocalDate from, LocalDate to, RowCallbackHandler handler) {
+        jdbcTemplate.query("SELECT stat_date, status, SUM(appointment_count) AS total FROM appointment_daily_stats " +
+                "WHERE stat_date BETWEEN ? AND ? GROUP BY stat_date, status",
+                handler, Date.valueOf(from), Date.valueOf(to));
+    }
+
+    void loadCreatedTotals(LocalDate from, LocalDate to, RowCallbackHandler handler) {
+        jdbcTemplate.query("SELECT created_date, created_count FROM appointment_daily_created " +
+                "WHERE created_date BETWEEN ? AND ?", handler, Date.valueOf(from), Date.valueOf(to));
+    }
+
+    /**
+     * Sums the buckets of the days in [fromDay, toDay); null filters match everything.
+     */
+    long sumBuckets(AppointmentStatus status, Long doctorId, Long medicalCenterId, LocalDate fromDay, LocalDate toDay) {
+        List<Object> params = new ArrayList<>();
+        StringBuilder sql = new StringBuilder(
+                "SELECT COALESCE(SUM(appointment_count), 0) FROM appointment_daily_stats WHERE stat_date >= ? AND stat_date < ?");
+        params.add(Date.valueOf(fromDay));
+        params.add(Date.valueOf(toDay));
+        appendFilters(sql, params, status, doctorId, medicalCenterId);
+        Long total = jdbcTemplate.queryForObject(sql.toString(), Long.class, params.toArray());
+        return total != null ? total : 0;
+    }
+
+    /**
+     * Counts appointments directly over a window shorter than a day, used for
+     * the partial days at the edges of a requested range.
+     */
+    long countAppointments(AppointmentStatus status, Long doctorId, Long medicalCenterId,
+                           LocalDateTime from, LocalDateTime to, boolean inclusiveEnd) {
+        List<Object> params = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT COUNT(*) FROM appointments WHERE appointment_date >= ? AND appointment_date ")
+                .append(inclusiveEnd ? "<= ?" : "< ?");
+        params.add(Timestamp.valueOf(from));
+        params.add(Timestamp.valueOf(to));
+        appendFilters(sql, params, status, doctorId, medicalCenterId);
+        Long total = jdbcTemplate.queryForObject(sql.toString(), Long.class, params.toArray());
+        return total != null ? total : 0;
+    }
+
+    long createdOn(LocalDate day) {
+        List<Long> counts = jdbcTemplate.queryForList(
+                "SELECT created_count FROM appointment_daily_created WHERE created_date = ?", Long.class, Date.valueOf(day));
+        return counts.isEmpty() ? 0 : counts.get(0);
+    }
+
+    private static void appendFilters(StringBuilder sql, List<Object> params, AppointmentStatus status,
+                                      Long doctorId, Long medicalCenterId) {
+        if (status != null) {
+            sql.append(" AND status = ?");
+            params.add(status.name());
+        }
+        if (doctorId != null) {
+            sql.append(" AND doctor_id = ?");
+            params.add(doctorId);
+        }
+        if (medicalCenterId != null) {
+            sql.append(" AND medical_center_id = ?");
+            params.add(medicalCenterId);
+        }
+    }
+}
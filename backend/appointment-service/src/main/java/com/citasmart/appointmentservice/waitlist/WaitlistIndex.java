@@ -0,0 +1,113 @@
+package com.citasmart.appointmentservice.waitlist;
+
+import com.citasmart.appointmentservice.model.WaitlistEntry;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * Waiting entries grouped by what they ask for (a doctor, or a speciality at
+ * a center or anywhere) and ordered by window start within each group.
+ *
+ * Windows are at most {@code maxWindow} long, so only entries starting in
+ * [slotStart - maxWindow, slotStart] can contain a slot; each lookup is a
+ * logarithmic seek followed by a scan of those candidates. Not thread-safe:
+ * the owner serialises access.
+ */
+final class WaitlistIndex {
+
+    private static final Comparator<WaitlistEntry> BY_WINDOW_START =
+            Comparator.comparing(WaitlistEntry::getWindowStart).thenComparing(WaitlistEntry::getId);
+
+    // Earlier registrations win; ids break ties between entries created in the same instant
+    private static final Comparator<WaitlistEntry> PRIORITY =
+            Comparator.comparing(WaitlistEntry::getCreatedAt).thenComparing(WaitlistEntry::getId);
+
+    private final long maxWindowMinutes;
+    private final Map<String, NavigableSet<WaitlistEntry>> groups = new HashMap<>();
+    private final Map<Long, WaitlistEntry> byId = new HashMap<>();
+
+    WaitlistIndex(long maxWindowMinutes) {
+        this.maxWindowMinutes = maxWindowMinutes;
+    }
+
+    void add(WaitlistEntry entry) {
+        remove(entry.getId());
+        groups.computeIfAbsent(groupOf(entry), key -> new TreeSet<>(BY_WINDOW_START)).add(entry);
+        byId.put(entry.getId(), entry);
+    }
+
+    void addAll(Collection<WaitlistEntry> entries) {
+        entries.forEach(this::add);
+    }
+
+    void remove(Long entryId) {
+        WaitlistEntry entry = byId.remove(entryId);
+        if (entry == null) {
+            return;
+        }
+        String group = groupOf(entry);
+        NavigableSet<WaitlistEntry> entries = groups.get(group);
+        if (entries != null) {
+            entries.remove(entry);
+            if (entries.isEmpty()) {
+                groups.remove(group);
+            }
+        }
+    }
+
+    int size() {
+        return byId.size();
+    }
+
+    /**
+     * Highest-priority entry that fits in [start, end) with the given doctor,
+     * or null; the entry is not removed.
+     */
+    WaitlistEntry bestMatch(Long doctorId, Long specialityId, Long medicalCenterId,
+                            LocalDateTime start, LocalDateTime end) {
+        WaitlistEntry best = bestIn(doctorGroup(doctorId), start, end, null);
+        best = bestIn(specialityGroup(specialityId, medicalCenterId), start, end, best);
+        return bestIn(specialityGroup(specialityId, null), start, end, best);
+    }
+
+    private WaitlistEntry bestIn(String group, LocalDateTime start, LocalDateTime end, WaitlistEntry best) {
+        NavigableSet<WaitlistEntry> entries = groups.get(group);
+        if (entries == null) {
+            return best;
+        }
+        WaitlistEntry from = probe(start.minusMinutes(maxWindowMinutes), Long.MIN_VALUE);
+        WaitlistEntry to = probe(start, Long.MAX_VALUE);
+        for (WaitlistEntry entry : entries.subSet(from, true, to, true)) {
+            LocalDateTime needed = start.plusMinutes(entry.getDurationMinutes());
+            if (!needed.isAfter(end) && !needed.isAfter(entry.getWindowEnd())
+                    && (best == null || PRIORITY.compare(entry, best) < 0)) {
+                best = entry;
+            }
+        }
+        return best;
+    }
+
+    private static WaitlistEntry probe(LocalDateTime windowStart, long id) {
+        return WaitlistEntry.builder().id(id).windowStart(windowStart).build();
+    }
+
+    private static String groupOf(WaitlistEntry entry) {
+        return entry.getDoctorId() != null
+                ? doctorGroup(entry.getDoctorId())
+                : specialityGroup(entry.getSpecialityId(), entry.getMedicalCenterId());
+    }
+
+    private static String doctorGroup(Long doctorId) {
+        return "d:" + doctorId;
+    }
+
+    private static String specialityGroup(Long specialityId, Long medicalCenterId) {
+        return "s:" + specialityId + ":" + (medicalCenterId != null ? medicalCenterId : "*");
+    }
+}
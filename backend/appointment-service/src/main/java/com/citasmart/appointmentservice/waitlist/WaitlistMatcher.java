@@ -0,0 +1,380 @@
+package com.citasmart.appointmentservice.waitlist;
+
+import com.citasmart.appointmentservice.event.AppointmentChangedEvent;
+import com.citasmart.appointmentservice.exception.AppointmentConflictException;
+import com.citasmart.appointmentservice.hold.SlotHold;
+import com.citasmart.appointmentservice.hold.SlotHoldService;
+import com.citasmart.appointmentservice.model.WaitlistEntry;
+import com.citasmart.appointmentservice.model.WaitlistStatus;
+import com.citasmart.appointmentservice.repository.WaitlistEntryRepository;
+import com.citasmart.appointmentservice.service.NotificationService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Offers freed slots to waiting patients.
+ *
+ * Every committed cancellation or reschedule that frees an interval is queued
+ * and matched by a single background thread against the {@link WaitlistIndex}
+ * of waiting entries. The best match gets a slot hold on its patient's behalf,
+ * so whoever books for the patient can redeem it. If the freed interval is
+ * longer than the entry needs, the rest is offered to the next match; a part
+ * taken in the meantime is skipped. The offers of a drained batch are claimed
+ * in one JDBC batch (an entry already offered by another instance is skipped
+ * and its hold released) and the patients are then notified, so a doctor's
+ * whole day being cancelled costs a handful of statements rather than one
+ * round trip per slot.
+ *
+ * Offers run out with their hold: the sweep marks them fulfilled when the
+ * patient booked the slot and expired otherwise, and puts unclaimed slots back
+ * in the queue for the next entry.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class WaitlistMatcher {
+
+    private static final String CLAIM_SQL = "UPDATE waitlist_entries SET status = 'OFFERED', offered_doctor_id = ?, "
+            + "offered_medical_center_id = ?, offered_speciality_id = ?, offered_date = ?, hold_token = ?, "
+            + "offer_expires_at = ?, updated_at = ? WHERE id = ? AND status = 'WAITING'";
+
+    // Booking granularity of the agenda: where to look next when part of a freed interval is taken
+    private static final int CONFLICT_STEP_MINUTES = 5;
+
+    private final WaitlistEntryRepository waitlistRepository;
+    private final SlotHoldService slotHoldService;
+    private final NotificationService notificationService;
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.waitlist.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.waitlist.max-window-days:30}")
+    private int maxWindowDays;
+
+    @Value("${app.waitlist.min-lead-minutes:30}")
+    private int minLeadMinutes;
+
+    @Value("${app.waitlist.offer-ttl-minutes:30}")
+    private long offerTtlMinutes;
+
+    @Value("${app.waitlist.batch-size:200}")
+    private int batchSize;
+
+    @Value("${app.waitlist.queue-capacity:10000}")
+    private int queueCapacity;
+
+    // Guarded by itself; replaced wholesale by refresh()
+    private volatile WaitlistIndex index;
+    private BlockingQueue<FreedSlot> queue;
+    private Thread worker;
+    private volatile boolean running;
+    private Counter offeredCounter;
+    private Counter droppedCounter;
+
+    @PostConstruct
+    void init() {
+        index = new WaitlistIndex(maxWindowMinutes());
+        offeredCounter = meterRegistry.counter("appointment.waitlist.offers");
+        droppedCounter = meterRegistry.counter("appointment.waitlist.dropped");
+        queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        meterRegistry.gaugeCollectionSize("appointment.waitlist.queue.size", Collections.emptyList(), queue);
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        worker = new Thread(this::runWorker, "waitlist-matcher");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        if (worker == null) {
+            return;
+        }
+        running = false;
+        worker.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    public long maxWindowMinutes() {
+        return TimeUnit.DAYS.toMinutes(maxWindowDays);
+    }
+
+    /**
+     * Makes a committed waiting entry eligible for offers.
+     */
+    public void track(WaitlistEntry entry) {
+        WaitlistIndex current = index;
+        synchronized (current) {
+            current.add(entry);
+        }
+    }
+
+    public void untrack(Long entryId) {
+        WaitlistIndex current = index;
+        synchronized (current) {
+            current.remove(entryId);
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        FreedSlot freed = FreedSlot.of(event);
+        if (enabled && freed != null) {
+            enqueue(freed);
+        }
+    }
+
+    /**
+     * Rebuilds the index from the database, picking up entries registered on other instances.
+     */
+    @Scheduled(fixedDelayString = "${app.waitlist.refresh-interval:60000}")
+    public void refresh() {
+        if (!enabled) {
+            return;
+        }
+        WaitlistIndex fresh = new WaitlistIndex(maxWindowMinutes());
+        fresh.addAll(waitlistRepository.findWaiting(LocalDateTime.now()));
+        index = fresh;
+        log.debug("Rebuilt waitlist index with {} waiting entries", fresh.size());
+    }
+
+    /**
+     * Closes lapsed windows and offers, and re-offers slots whose offer went unanswered.
+     */
+    @Scheduled(fixedDelayString = "${app.waitlist.sweep-interval:60000}")
+    public void sweep() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        int expired = waitlistRepository.expireWaiting(now);
+        List<WaitlistEntry> lapsed = waitlistRepository.findExpiredOffers(now, PageRequest.of(0, batchSize));
+        if (lapsed.isEmpty()) {
+            if (expired > 0) {
+                log.info("Expired {} waitlist entries whose window has passed", expired);
+            }
+            return;
+        }
+
+        List<Long> ids = new ArrayList<>(lapsed.size());
+        lapsed.forEach(entry -> ids.add(entry.getId()));
+        Set<Long> booked = new HashSet<>(waitlistRepository.findBookedOfferIds(ids));
+        List<Long> unanswered = new ArrayList<>();
+        for (WaitlistEntry entry : lapsed) {
+            if (!booked.contains(entry.getId())) {
+                unanswered.add(entry.getId());
+                enqueue(new FreedSlot(entry.getOfferedDoctorId(), entry.getOfferedSpecialityId(),
+                        entry.getOfferedMedicalCenterId(), entry.getOfferedDate(),
+                        entry.getOfferedDate().plusMinutes(entry.getDurationMinutes())));
+            }
+        }
+        if (!booked.isEmpty()) {
+            waitlistRepository.closeOffers(booked, WaitlistStatus.FULFILLED, now);
+        }
+        if (!unanswered.isEmpty()) {
+            waitlistRepository.closeOffers(unanswered, WaitlistStatus.EXPIRED, now);
+        }
+        log.info("Closed {} waitlist offers ({} booked, {} unanswered) and {} lapsed entries",
+                lapsed.size(), booked.size(), unanswered.size(), expired);
+    }
+
+    private void enqueue(FreedSlot freed) {
+        if (!queue.offer(freed)) {
+            droppedCounter.increment();
+            log.warn("Waitlist queue full ({} slots), not offering {} - {} of doctor {}",
+                    queueCapacity, freed.start, freed.end, freed.doctorId);
+        }
+    }
+
+    private void runWorker() {
+        List<FreedSlot> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                FreedSlot first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                offer(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException e) {
+                log.error("Failed to match {} freed slots against the waitlist", batch.size(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Matches, holds, claims and notifies a batch of freed slots.
+     */
+    void offer(List<FreedSlot> slots) {
+        List<Offer> offers = match(slots);
+        if (offers.isEmpty()) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        int[] claimed = transaction.execute(tx -> jdbcTemplate.batchUpdate(CLAIM_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement statement, int i) throws SQLException {
+                Offer offer = offers.get(i);
+                statement.setLong(1, offer.slot.doctorId);
+                statement.setObject(2, offer.slot.medicalCenterId);
+                statement.setObject(3, offer.slot.specialityId);
+                statement.setTimestamp(4, Timestamp.valueOf(offer.hold.getAppointmentDate()));
+                statement.setString(5, offer.hold.getToken());
+                statement.setTimestamp(6, Timestamp.valueOf(offer.hold.getExpiresAt()));
+                statement.setTimestamp(7, Timestamp.valueOf(now));
+                statement.setLong(8, offer.entry.getId());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return offers.size();
+            }
+        }));
+
+        int notified = 0;
+        for (int i = 0; i < offers.size(); i++) {
+            Offer offer = offers.get(i);
+            int count = claimed != null ? claimed[i] : 0;
+            if (count == 0) {
+                // Offered or withdrawn elsewhere in the meantime
+                slotHoldService.release(offer.hold.getToken(), offer.hold.getHeldBy());
+                continue;
+            }
+            notify(offer);
+            notified++;
+        }
+        offeredCounter.increment(notified);
+        log.info("Made {} waitlist offers from {} freed intervals", notified, slots.size());
+    }
+
+    private List<Offer> match(List<FreedSlot> slots) {
+        LocalDateTime earliest = LocalDateTime.now().plusMinutes(minLeadMinutes);
+        List<Offer> offers = new ArrayList<>();
+        WaitlistIndex current = index;
+        synchronized (current) {
+            for (FreedSlot slot : slots) {
+                LocalDateTime start = slot.start;
+                while (!start.isBefore(earliest) && start.isBefore(slot.end)) {
+                    WaitlistEntry entry = current.bestMatch(slot.doctorId, slot.specialityId,
+                            slot.medicalCenterId, start, slot.end);
+                    if (entry == null) {
+                        break;
+                    }
+                    SlotHold hold;
+                    try {
+                        hold = slotHoldService.hold(slot.doctorId, start, entry.getDurationMinutes(),
+                                SlotHold.onBehalfOf(entry.getPatientId()), offerTtlMinutes);
+                    } catch (AppointmentConflictException e) {
+                        // Part of it was rebooked or held before we got to it; try the rest
+                        start = start.plusMinutes(CONFLICT_STEP_MINUTES);
+                        continue;
+                    }
+                    current.remove(entry.getId());
+                    offers.add(new Offer(entry, slot, hold));
+                    start = hold.getEndTime();
+                }
+            }
+        }
+        return offers;
+    }
+
+    private void notify(Offer offer) {
+        try {
+            notificationService.sendPushNotification(offer.entry.getPatientId(), "Slot available",
+                    "A slot on " + offer.hold.getAppointmentDate() + " is held for you until "
+                            + offer.hold.getExpiresAt() + ". Book it to confirm.");
+        } catch (Exception e) {
+            log.error("Failed to notify patient {} of waitlist offer {}", offer.entry.getPatientId(),
+                    offer.entry.getId(), e);
+        }
+    }
+
+    /**
+     * Interval of a doctor's agenda that became free.
+     */
+    static final class FreedSlot {
+        private final Long doctorId;
+        private final Long specialityId;
+        private final Long medicalCenterId;
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+
+        FreedSlot(Long doctorId, Long specialityId, Long medicalCenterId, LocalDateTime start, LocalDateTime end) {
+            this.doctorId = doctorId;
+            this.specialityId = specialityId;
+            this.medicalCenterId = medicalCenterId;
+            this.start = start;
+            this.end = end;
+        }
+
+        /**
+         * The interval a change released, or null: the old slot of a cancelled,
+         * completed or rescheduled appointment.
+         */
+        static FreedSlot of(AppointmentChangedEvent event) {
+            if (!event.hadSlot()) {
+                return null;
+            }
+            Integer previousDuration = event.getPreviousDurationMinutes() != null
+                    ? event.getPreviousDurationMinutes() : event.getDurationMinutes();
+            boolean moved = !event.getPreviousDate().equals(event.getAppointmentDate())
+                    || !previousDuration.equals(event.getDurationMinutes());
+            if (event.hasSlot() && !moved) {
+                return null;
+            }
+            return new FreedSlot(event.getDoctorId(), event.getSpecialityId(), event.getMedicalCenterId(),
+                    event.getPreviousDate(), event.getPreviousDate().plusMinutes(previousDuration));
+        }
+    }
+
+    private static final class Offer {
+        private final WaitlistEntry entry;
+        private final FreedSlot slot;
+        private final SlotHold hold;
+
+        private Offer(WaitlistEntry entry, FreedSlot slot, SlotHold hold) {
+            this.entry = entry;
+            this.slot = slot;
+            this.hold = hold;
+        }
+    }
+}
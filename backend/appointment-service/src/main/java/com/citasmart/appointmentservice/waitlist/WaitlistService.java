@@ -0,0 +1,114 @@
+package com.citasmart.appointmentservice.waitlist;
+
+import com.citasmart.appointmentservice.dto.WaitlistRequest;
+import com.citasmart.appointmentservice.exception.InvalidAppointmentDataException;
+import com.citasmart.appointmentservice.hold.SlotHold;
+import com.citasmart.appointmentservice.hold.SlotHoldService;
+import com.citasmart.appointmentservice.model.WaitlistEntry;
+import com.citasmart.appointmentservice.model.WaitlistStatus;
+import com.citasmart.appointmentservice.repository.WaitlistEntryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Registration and withdrawal of waitlist entries. Matching against freed
+ * slots is done by {@link WaitlistMatcher}, which sees an entry once the
+ * transaction that wrote it has committed.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional
+public class WaitlistService {
+
+    private final WaitlistEntryRepository waitlistRepository;
+    private final WaitlistMatcher waitlistMatcher;
+    private final SlotHoldService slotHoldService;
+
+    public WaitlistEntry register(WaitlistRequest request, String createdBy) {
+        if (request.getDoctorId() == null && request.getSpecialityId() == null) {
+            throw new InvalidAppointmentDataException("Either a doctor or a speciality is required");
+        }
+        if (!request.getWindowEnd().isAfter(request.getWindowStart())) {
+            throw new InvalidAppointmentDataException("End of the waitlist window must be after its start");
+        }
+        if (Duration.between(request.getWindowStart(), request.getWindowEnd()).toMinutes()
+                > waitlistMatcher.maxWindowMinutes()) {
+            throw new InvalidAppointmentDataException("Waitlist window is too long");
+        }
+        if (Duration.between(request.getWindowStart(), request.getWindowEnd()).toMinutes()
+                < request.getDurationMinutes()) {
+            throw new InvalidAppointmentDataException("Waitlist window is shorter than the requested duration");
+        }
+
+        WaitlistEntry entry = waitlistRepository.save(WaitlistEntry.builder()
+                .patientId(request.getPatientId())
+                .doctorId(request.getDoctorId())
+                .specialityId(request.getSpecialityId())
+                .medicalCenterId(request.getMedicalCenterId())
+                .windowStart(request.getWindowStart())
+                .windowEnd(request.getWindowEnd())
+                .durationMinutes(request.getDurationMinutes())
+                .createdBy(createdBy)
+                .build());
+        afterCommit(() -> waitlistMatcher.track(entry));
+        log.info("Patient {} joined the waitlist (entry {}) for {} - {}", entry.getPatientId(), entry.getId(),
+                entry.getWindowStart(), entry.getWindowEnd());
+        return entry;
+    }
+
+    /**
+     * Withdraws an entry; a pending offer releases its held slot.
+     */
+    public void cancel(Long id) {
+        WaitlistEntry entry = waitlistRepository.findById(id)
+                .orElseThrow(() -> new InvalidAppointmentDataException("Waitlist entry not found: " + id));
+        if (waitlistRepository.cancel(id, LocalDateTime.now()) == 0) {
+            return;
+        }
+        afterCommit(() -> {
+            waitlistMatcher.untrack(id);
+            if (entry.getStatus() == WaitlistStatus.OFFERED && entry.getHoldToken() != null) {
+                // Offers are held on the patient's behalf, not by whoever registered the entry
+                slotHoldService.release(entry.getHoldToken(), SlotHold.onBehalfOf(entry.getPatientId()));
+            }
+        });
+        log.info("Waitlist entry {} withdrawn", id);
+    }
+
+    /**
+     * Whether the entry is the given patient's; used to authorise withdrawals.
+     */
+    @Transactional(readOnly = true)
+    public boolean isOwnedBy(Long id, Long patientId) {
+        return patientId != null && waitlistRepository.findById(id)
+                .map(entry -> patientId.equals(entry.getPatientId()))
+                .orElse(false);
+    }
+
+    @Transactional(readOnly = true)
+    public List<WaitlistEntry> getEntriesByPatientId(Long patientId) {
+        return waitlistRepository.findByPatientIdOrderByCreatedAtDesc(patientId);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
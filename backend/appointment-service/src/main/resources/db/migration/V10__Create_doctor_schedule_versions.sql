@@ -0,0 +1,12 @@
+-- V10__Create_doctor_schedule_versions.sql
+-- Change counter per doctor and day, bumped in the same transaction as any
+-- appointment write on that day; schedule ETags are derived from it
+
+CREATE TABLE doctor_schedule_versions (
+    doctor_id BIGINT NOT NULL,
+    schedule_date DATE NOT NULL,
+    version BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (doctor_id, schedule_date)
+);
+
+COMMENT ON TABLE doctor_schedule_versions IS 'Monotonic per doctor/day counters backing conditional GETs of doctor schedules';
@@ -0,0 +1,25 @@
+-- V3__Create_appointment_outbox.sql
+-- Transactional outbox for appointment notifications
+
+CREATE TABLE appointment_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    appointment_id BIGINT NOT NULL,
+    event_type VARCHAR(40) NOT NULL,
+    channel VARCHAR(20) NOT NULL CHECK (channel IN ('EMAIL', 'PUSH')),
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING' CHECK (status IN ('PENDING', 'PROCESSING', 'SENT', 'FAILED')),
+    attempts INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    claim_token VARCHAR(36),
+    claimed_until TIMESTAMP,
+    last_error TEXT,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    processed_at TIMESTAMP
+);
+
+-- Relay polling: due rows per channel, in insertion order
+CREATE INDEX idx_appointment_outbox_ready ON appointment_outbox(channel, status, next_attempt_at, id);
+CREATE INDEX idx_appointment_outbox_claim_token ON appointment_outbox(claim_token);
+CREATE INDEX idx_appointment_outbox_processed_at ON appointment_outbox(status, processed_at);
+
+COMMENT ON TABLE appointment_outbox IS 'Notifications written with the appointment change and delivered by the outbox relay';
+COMMENT ON COLUMN appointment_outbox.claim_token IS 'Relay run currently delivering the row; only that run may mark it sent';
@@ -0,0 +1,6 @@
+-- V4__Add_appointment_keyset_indexes.sql
+-- Indexes matching the keyset listings ordered by (appointment_date DESC, id DESC)
+
+CREATE INDEX idx_appointments_patient_date_id ON appointments(patient_id, appointment_date DESC, id DESC);
+CREATE INDEX idx_appointments_doctor_date_id ON appointments(doctor_id, appointment_date DESC, id DESC);
+CREATE INDEX idx_appointments_center_date_id ON appointments(medical_center_id, appointment_date DESC, id DESC);
@@ -0,0 +1,31 @@
+-- V5__Create_appointment_statistics_rollups.sql
+-- Pre-aggregated appointment counts, maintained incrementally by the service
+
+CREATE TABLE appointment_daily_stats (
+    stat_date DATE NOT NULL,
+    doctor_id BIGINT NOT NULL,
+    medical_center_id BIGINT NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    appointment_count BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (stat_date, doctor_id, medical_center_id, status)
+);
+
+CREATE INDEX idx_appointment_daily_stats_status_date ON appointment_daily_stats(status, stat_date);
+CREATE INDEX idx_appointment_daily_stats_doctor_date ON appointment_daily_stats(doctor_id, stat_date);
+CREATE INDEX idx_appointment_daily_stats_center_date ON appointment_daily_stats(medical_center_id, stat_date);
+
+CREATE TABLE appointment_daily_created (
+    created_date DATE PRIMARY KEY,
+    created_count BIGINT NOT NULL DEFAULT 0
+);
+
+-- Backfill from the existing appointments
+INSERT INTO appointment_daily_stats (stat_date, doctor_id, medical_center_id, status, appointment_count)
+SELECT CAST(appointment_date AS DATE), doctor_id, medical_center_id, status, COUNT(*)
+FROM appointments
+GROUP BY CAST(appointment_date AS DATE), doctor_id, medical_center_id, status;
+
+INSERT INTO appointment_daily_created (created_date, created_count)
+SELECT CAST(created_at AS DATE), COUNT(*)
+FROM appointments
+GROUP BY CAST(created_at AS DATE);
@@ -0,0 +1,37 @@
+-- V6__Add_appointment_overlap_exclusion.sql
+-- Let the database reject overlapping bookings of the same doctor
+
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+-- end_time was a plain column the application never wrote; derive it from the booking instead.
+-- The V1 views select it, so they are dropped first and recreated unchanged afterwards.
+DROP VIEW IF EXISTS upcoming_appointments;
+DROP VIEW IF EXISTS todays_appointments;
+
+ALTER TABLE appointments DROP COLUMN end_time;
+ALTER TABLE appointments ADD COLUMN end_time TIMESTAMP
+    GENERATED ALWAYS AS (appointment_date + duration_minutes * INTERVAL '1 minute') STORED;
+
+-- Create view for upcoming appointments (useful for reminders)
+CREATE VIEW upcoming_appointments AS
+SELECT 
+    a.*,
+    EXTRACT(EPOCH FROM (a.appointment_date - CURRENT_TIMESTAMP))/3600 AS hours_until_appointment
+FROM appointments a
+WHERE a.appointment_date > CURRENT_TIMESTAMP
+  AND a.status IN ('SCHEDULED', 'CONFIRMED')
+ORDER BY a.appointment_date;
+
+-- Create view for today's appointments
+CREATE VIEW todays_appointments AS
+SELECT *
+FROM appointments
+WHERE DATE(appointment_date) = CURRENT_DATE
+  AND status NOT IN ('CANCELLED')
+ORDER BY appointment_date;
+
+-- Only statuses that hold the slot take part (see AppointmentStatus.occupiesSlot).
+-- Fails if the existing data already contains overlapping active appointments.
+ALTER TABLE appointments ADD CONSTRAINT appointments_no_overlap
+    EXCLUDE USING gist (doctor_id WITH =, tsrange(appointment_date, end_time, '[)') WITH &&)
+    WHERE (status NOT IN ('CANCELLED', 'COMPLETED', 'NO_SHOW'));
@@ -0,0 +1,33 @@
+-- V7__Create_waitlist_entries.sql
+-- Patients waiting for a freed slot with a doctor, or with any doctor of a speciality
+
+CREATE TABLE waitlist_entries (
+    id BIGSERIAL PRIMARY KEY,
+    patient_id BIGINT NOT NULL,
+    doctor_id BIGINT,
+    speciality_id BIGINT,
+    medical_center_id BIGINT,
+    window_start TIMESTAMP NOT NULL,
+    window_end TIMESTAMP NOT NULL,
+    duration_minutes INTEGER NOT NULL CHECK (duration_minutes >= 15 AND duration_minutes <= 240),
+    status VARCHAR(20) NOT NULL DEFAULT 'WAITING' CHECK (status IN ('WAITING', 'OFFERED', 'FULFILLED', 'EXPIRED', 'CANCELLED')),
+    offered_doctor_id BIGINT,
+    offered_medical_center_id BIGINT,
+    offered_speciality_id BIGINT,
+    offered_date TIMESTAMP,
+    hold_token VARCHAR(80),
+    offer_expires_at TIMESTAMP,
+    created_by VARCHAR(100) NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CHECK (doctor_id IS NOT NULL OR speciality_id IS NOT NULL),
+    CHECK (window_end > window_start)
+);
+
+-- Index rebuilds and window expiry only read waiting entries
+CREATE INDEX idx_waitlist_entries_waiting ON waitlist_entries(window_end) WHERE status = 'WAITING';
+CREATE INDEX idx_waitlist_entries_offered ON waitlist_entries(offer_expires_at) WHERE status = 'OFFERED';
+CREATE INDEX idx_waitlist_entries_patient ON waitlist_entries(patient_id, created_at);
+
+COMMENT ON TABLE waitlist_entries IS 'Waitlist of patients matched against freed appointment slots';
+COMMENT ON COLUMN waitlist_entries.hold_token IS 'Slot hold offered to the patient; book with it before offer_expires_at';
@@ -0,0 +1,8 @@
+-- V8__Add_appointment_series.sql
+-- Groups the visits of a recurring follow-up or treatment series
+
+ALTER TABLE appointments ADD COLUMN series_id VARCHAR(36);
+
+CREATE INDEX idx_appointments_series ON appointments(series_id, appointment_date) WHERE series_id IS NOT NULL;
+
+COMMENT ON COLUMN appointments.series_id IS 'Recurring series the appointment was booked with, if any';
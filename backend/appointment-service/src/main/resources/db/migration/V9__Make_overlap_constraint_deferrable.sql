@@ -0,0 +1,10 @@
+-- V9__Make_overlap_constraint_deferrable.sql
+-- Let a bulk shift move a doctor's back-to-back appointments in one UPDATE.
+-- The constraint stays IMMEDIATE by default; only the shift defers it until
+-- every row of the statement has moved.
+
+ALTER TABLE appointments DROP CONSTRAINT appointments_no_overlap;
+ALTER TABLE appointments ADD CONSTRAINT appointments_no_overlap
+    EXCLUDE USING gist (doctor_id WITH =, tsrange(appointment_date, end_time, '[)') WITH &&)
+    WHERE (status NOT IN ('CANCELLED', 'COMPLETED', 'NO_SHOW'))
+    DEFERRABLE INITIALLY IMMEDIATE;
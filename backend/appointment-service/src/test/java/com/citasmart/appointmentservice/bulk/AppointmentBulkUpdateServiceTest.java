@@ -0,0 +1,174 @@
+package com.citasmart.appointmentservice.bulk;
+
+import com.citasmart.appointmentservice.bulk.AppointmentBulkUpdateService.UpdatedRow;
+import com.citasmart.appointmentservice.dto.BulkAppointmentRequest;
+import com.citasmart.appointmentservice.dto.BulkOperationResult;
+import com.citasmart.appointmentservice.event.AppointmentChangedEvent;
+import com.citasmart.appointmentservice.exception.AppointmentConflictException;
+import com.citasmart.appointmentservice.exception.InvalidAppointmentDataException;
+import com.citasmart.appointmentservice.history.AppointmentHistoryWriter;
+import com.citasmart.appointmentservice.hold.SlotHoldService;
+import com.citasmart.appointmentservice.model.Appointment;
+import com.citasmart.appointmentservice.model.AppointmentStatus;
+import com.citasmart.appointmentservice.model.AppointmentType;
+import com.citasmart.appointmentservice.model.OutboxEventType;
+import com.citasmart.appointmentservice.outbox.NotificationOutbox;
+import com.citasmart.appointmentservice.schedule.DoctorScheduleIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AppointmentBulkUpdateServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private AppointmentHistoryWriter historyWriter;
+
+    @Mock
+    private NotificationOutbox notificationOutbox;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private DoctorScheduleIndex scheduleIndex;
+
+    @Mock
+    private SlotHoldService slotHoldService;
+
+    private AppointmentBulkUpdateService bulkService;
+
+    private LocalDateTime nineAm;
+
+    @BeforeEach
+    void setUp() {
+        bulkService = new AppointmentBulkUpdateService(jdbcTemplate, historyWriter, notificationOutbox,
+                eventPublisher, scheduleIndex, slotHoldService);
+        ReflectionTestUtils.setField(bulkService, "maxRangeDays", 31);
+        nineAm = LocalDate.now().plusDays(1).atTime(9, 0);
+    }
+
+    @Test
+    void apply_Cancel_UpdatesRangeWithOneStatementAndQueuesNotificationsInOneBatch() {
+        // Given
+        when(jdbcTemplate.query(anyString(), ArgumentMatchers.<RowMapper<UpdatedRow>>any(), any())).thenReturn(Arrays.asList(
+                row(1L, 100L, nineAm, AppointmentStatus.CANCELLED, AppointmentStatus.CONFIRMED),
+                row(2L, 101L, nineAm.plusMinutes(30), AppointmentStatus.CANCELLED, AppointmentStatus.SCHEDULED)));
+        when(notificationOutbox.enqueueAll(anyList(), eq(OutboxEventType.APPOINTMENT_CANCELLED))).thenReturn(2);
+
+        // When
+        BulkOperationResult result = bulkService.apply(request(BulkAction.CANCEL, null, "Doctor de baja"), "receptionist");
+
+        // Then
+        assertEquals(2, result.getUpdated());
+        assertEquals(2, result.getNotified());
+        assertEquals(Arrays.asList(1L, 2L), result.getAppointmentIds());
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate, times(1)).query(sql.capture(), ArgumentMatchers.<RowMapper<UpdatedRow>>any(), any());
+        assertTrue(sql.getValue().startsWith("UPDATE appointments"));
+        assertTrue(sql.getValue().contains("FOR UPDATE"));
+        verify(jdbcTemplate, never()).execute(anyString());
+
+        ArgumentCaptor<AppointmentChangedEvent> events = ArgumentCaptor.forClass(AppointmentChangedEvent.class);
+        verify(eventPublisher, times(2)).publishEvent(events.capture());
+        assertEquals(AppointmentStatus.CONFIRMED, events.getAllValues().get(0).getPreviousStatus());
+        assertEquals(AppointmentStatus.CANCELLED, events.getAllValues().get(0).getStatus());
+        verify(historyWriter, times(2)).write(any());
+        verify(notificationOutbox, times(1)).enqueueAll(anyList(), eq(OutboxEventType.APPOINTMENT_CANCELLED));
+    }
+
+    @Test
+    void apply_Complete_DoesNotNotifyPatients() {
+        // Given
+        when(jdbcTemplate.query(anyString(), ArgumentMatchers.<RowMapper<UpdatedRow>>any(), any())).thenReturn(Collections.singletonList(
+                row(1L, 100L, nineAm, AppointmentStatus.COMPLETED, AppointmentStatus.CONFIRMED)));
+
+        // When
+        BulkOperationResult result = bulkService.apply(request(BulkAction.COMPLETE, null, null), "receptionist");
+
+        // Then
+        assertEquals(1, result.getUpdated());
+        assertEquals(0, result.getNotified());
+        verify(notificationOutbox, never()).enqueueAll(anyList(), any());
+    }
+
+    @Test
+    void apply_ShiftIntoOtherBooking_ThrowsConflictAndInvalidatesSchedule() {
+        // Given
+        when(jdbcTemplate.query(anyString(), ArgumentMatchers.<RowMapper<UpdatedRow>>any(), any())).thenReturn(Collections.singletonList(
+                row(1L, 100L, nineAm.plusMinutes(30), AppointmentStatus.CONFIRMED, AppointmentStatus.CONFIRMED)));
+        doNothing().when(jdbcTemplate).execute(contains("DEFERRED"));
+        doThrow(new DataIntegrityViolationException("conflict",
+                new SQLException("conflicting key value violates exclusion constraint", "23P01")))
+                .when(jdbcTemplate).execute(contains("IMMEDIATE"));
+
+        // When & Then
+        assertThrows(AppointmentConflictException.class, () -> {
+            bulkService.apply(request(BulkAction.SHIFT, 30, null), "receptionist");
+        });
+
+        verify(scheduleIndex, atLeastOnce()).invalidate(eq(200L), eq(nineAm.toLocalDate()));
+        verify(eventPublisher, never()).publishEvent(any());
+        verify(notificationOutbox, never()).enqueueAll(anyList(), any());
+    }
+
+    @Test
+    void apply_ShiftWithoutMinutes_ThrowsException() {
+        // When & Then
+        assertThrows(InvalidAppointmentDataException.class, () -> {
+            bulkService.apply(request(BulkAction.SHIFT, null, null), "receptionist");
+        });
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    private BulkAppointmentRequest request(BulkAction action, Integer shiftMinutes, String reason) {
+        return BulkAppointmentRequest.builder()
+                .doctorId(200L)
+                .from(nineAm.toLocalDate().atStartOfDay())
+                .to(nineAm.toLocalDate().plusDays(1).atStartOfDay())
+                .action(action)
+                .shiftMinutes(shiftMinutes)
+                .reason(reason)
+                .build();
+    }
+
+    private static UpdatedRow row(Long id, Long patientId, LocalDateTime date,
+                                                               AppointmentStatus status, AppointmentStatus previous) {
+        Appointment appointment = Appointment.builder()
+                .id(id)
+                .patientId(patientId)
+                .doctorId(200L)
+                .medicalCenterId(1L)
+                .specialityId(1L)
+                .appointmentDate(date)
+                .durationMinutes(30)
+                .status(status)
+                .type(AppointmentType.CONSULTATION)
+                .build();
+        return new UpdatedRow(appointment, previous, date);
+    }
+}
@@ -0,0 +1,128 @@
+package com.citasmart.appointmentservice.bulk;
+
+import com.citasmart.appointmentservice.model.AppointmentStatus;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AppointmentExportServiceTest {
+
+    private static final LocalDateTime NINE_AM = LocalDateTime.of(2025, 3, 10, 9, 0);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+    private AppointmentExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("CREATE TABLE appointments (id BIGINT PRIMARY KEY, patient_id BIGINT, doctor_id BIGINT, "
+                + "medical_center_id BIGINT, speciality_id BIGINT, appointment_date TIMESTAMP, duration_minutes INTEGER, "
+                + "status VARCHAR(20), type VARCHAR(20), reason TEXT, notes TEXT, reminder_sent BOOLEAN, "
+                + "cancellation_reason TEXT, cancelled_at TIMESTAMP, created_at TIMESTAMP, updated_at TIMESTAMP, "
+                + "version BIGINT)");
+        insert(3L, 200L, NINE_AM.plusHours(2), "SCHEDULED", "Dolor, fiebre \"alta\"", NINE_AM.minusDays(1));
+        insert(1L, 200L, NINE_AM, "CONFIRMED", "Consulta general", NINE_AM.minusDays(2));
+        insert(2L, 300L, NINE_AM.plusHours(1), "SCHEDULED", null, NINE_AM.minusDays(3));
+
+        exportService = new AppointmentExportService(jdbcTemplate, new DataSourceTransactionManager(database),
+                objectMapper);
+        ReflectionTestUtils.setField(exportService, "fetchSize", 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void export_Csv_WritesHeaderAndEscapedRowsInAppointmentOrder() {
+        // Given
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // When
+        long written = exportService.export(AppointmentExportService.ExportFilter.builder().build(),
+                ImportFormat.CSV, output);
+
+        // Then
+        String[] lines = new String(output.toByteArray(), StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, written);
+        assertEquals(4, lines.length);
+        assertTrue(lines[0].startsWith("id,patient_id,doctor_id,medical_center_id,"));
+        assertTrue(lines[1].startsWith("1,100,200,1,5,2025-03-10T09:00,30,CONFIRMED,CONSULTATION,Consulta general,"));
+        assertTrue(lines[2].startsWith("2,100,300,1,5,2025-03-10T10:00,30,SCHEDULED,CONSULTATION,,"));
+        assertTrue(lines[3].contains(",\"Dolor, fiebre \"\"alta\"\"\","));
+    }
+
+    @Test
+    void export_NdjsonWithFilters_WritesOneObjectPerMatchingRow() throws Exception {
+        // Given
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        AppointmentExportService.ExportFilter filter = AppointmentExportService.ExportFilter.builder()
+                .doctorId(200L)
+                .status(AppointmentStatus.SCHEDULED)
+                .from(NINE_AM)
+                .to(NINE_AM.plusDays(1))
+                .build();
+
+        // When
+        long written = exportService.export(filter, ImportFormat.NDJSON, output);
+
+        // Then
+        String[] lines = new String(output.toByteArray(), StandardCharsets.UTF_8).split("\n");
+        assertEquals(1, written);
+        assertEquals(1, lines.length);
+        JsonNode row = objectMapper.readTree(lines[0]);
+        assertEquals(3L, row.get("id").asLong());
+        assertEquals("2025-03-10T11:00", row.get("appointment_date").asText());
+        assertEquals("Dolor, fiebre \"alta\"", row.get("reason").asText());
+        assertFalse(row.get("reminder_sent").asBoolean());
+        assertTrue(row.get("cancelled_at").isNull());
+    }
+
+    @Test
+    void export_UpdatedSince_ResumesInUpdateOrder() throws Exception {
+        // Given
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        AppointmentExportService.ExportFilter filter = AppointmentExportService.ExportFilter.builder()
+                .updatedSince(NINE_AM.minusDays(2))
+                .build();
+
+        // When
+        long written = exportService.export(filter, ImportFormat.NDJSON, output);
+
+        // Then
+        String[] lines = new String(output.toByteArray(), StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, written);
+        assertEquals(1L, objectMapper.readTree(lines[0]).get("id").asLong());
+        assertEquals(3L, objectMapper.readTree(lines[1]).get("id").asLong());
+    }
+
+    private void insert(Long id, Long doctorId, LocalDateTime date, String status, String reason, LocalDateTime updatedAt) {
+        jdbcTemplate.update("INSERT INTO appointments VALUES (?, 100, ?, 1, 5, ?, 30, ?, 'CONSULTATION', ?, NULL, FALSE, "
+                        + "NULL, NULL, ?, ?, 0)",
+                id, doctorId, Timestamp.valueOf(date), status, reason, Timestamp.valueOf(updatedAt),
+                Timestamp.valueOf(updatedAt));
+    }
+}
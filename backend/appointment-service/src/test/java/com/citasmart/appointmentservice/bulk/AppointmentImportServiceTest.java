@@ -0,0 +1,136 @@
+package com.citasmart.appointmentservice.bulk;
+
+import com.citasmart.appointmentservice.dto.AppointmentImportReport;
+import com.citasmart.appointmentservice.model.Appointment;
+import com.citasmart.appointmentservice.model.AppointmentStatus;
+import com.citasmart.appointmentservice.repository.AppointmentRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import javax.validation.Validation;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AppointmentImportServiceTest {
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @Mock
+    private AppointmentBatchWriter batchWriter;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private AppointmentImportService importService;
+
+    private LocalDateTime nineAm;
+
+    @BeforeEach
+    void setUp() {
+        importService = new AppointmentImportService(appointmentRepository, batchWriter, eventPublisher,
+                transactionManager, new ObjectMapper().registerModule(new JavaTimeModule()),
+                Validation.buildDefaultValidatorFactory().getValidator());
+        ReflectionTestUtils.setField(importService, "batchSize", 1000);
+        ReflectionTestUtils.setField(importService, "maxRows", 1000L);
+        ReflectionTestUtils.setField(importService, "maxReportedErrors", 100);
+
+        nineAm = LocalDate.now().plusDays(1).atTime(9, 0);
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        lenient().doAnswer(invocation -> {
+            List<Appointment> appointments = invocation.getArgument(0);
+            long id = 1000;
+            for (Appointment appointment : appointments) {
+                appointment.setId(id++);
+            }
+            return null;
+        }).when(batchWriter).insertAppointments(anyList());
+    }
+
+    @Test
+    void importAppointments_ReportsInvalidAndConflictingRowsWithoutAbortingLoad() {
+        // Given
+        Appointment existing = Appointment.builder()
+                .id(1L)
+                .doctorId(200L)
+                .appointmentDate(nineAm)
+                .durationMinutes(30)
+                .status(AppointmentStatus.CONFIRMED)
+                .build();
+        when(appointmentRepository.findByDoctorIdInAndAppointmentDateBetween(anyCollection(), any(), any()))
+                .thenReturn(Arrays.asList(existing));
+
+        String ndjson = String.join("\n",
+                row(200L, nineAm.plusMinutes(30), "CONSULTATION", null),
+                row(200L, nineAm.plusMinutes(45), "CONSULTATION", null),
+                row(200L, nineAm.plusMinutes(15), "CONSULTATION", "CANCELLED"),
+                "{\"patientId\": 100, \"doctorId\": 200",
+                "{\"patientId\": 100, \"medicalCenterId\": 1, \"specialityId\": 1, \"appointmentDate\": \""
+                        + nineAm.plusHours(3) + "\", \"durationMinutes\": 30, \"type\": \"CONSULTATION\"}",
+                row(200L, nineAm.minusMinutes(15), "CONSULTATION", null));
+
+        // When
+        AppointmentImportReport report = importService.importAppointments(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), ImportFormat.NDJSON, "admin");
+
+        // Then
+        assertEquals(6, report.getTotalRows());
+        assertEquals(2, report.getImported());
+        assertEquals(4, report.getFailed());
+        assertEquals(Arrays.asList(2L, 4L, 5L, 6L),
+                Arrays.asList(report.getErrors().get(0).getLine(), report.getErrors().get(1).getLine(),
+                        report.getErrors().get(2).getLine(), report.getErrors().get(3).getLine()));
+        assertTrue(report.getErrors().get(2).getMessage().contains("Doctor ID is required"));
+
+        verify(batchWriter, times(1)).insertAppointments(argThat(list -> list.size() == 2));
+        verify(batchWriter, times(1)).insertHistory(argThat(list -> list.size() == 2));
+        verify(eventPublisher, times(2)).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void importAppointments_ParsesCsvWithQuotedFields() {
+        // Given
+        when(appointmentRepository.findByDoctorIdInAndAppointmentDateBetween(anyCollection(), any(), any()))
+                .thenReturn(Arrays.asList());
+        String csv = "patientId,doctorId,medicalCenterId,specialityId,appointmentDate,durationMinutes,type,reason\n"
+                + "100,200,1,1," + nineAm + ",30,CONSULTATION,\"Dolor de cabeza, mareos\"\n"
+                + "101,200,1,1," + nineAm.plusMinutes(30) + ",30,FOLLOW_UP,\n";
+
+        // When
+        AppointmentImportReport report = importService.importAppointments(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), ImportFormat.CSV, "admin");
+
+        // Then
+        assertEquals(2, report.getImported());
+        assertEquals(0, report.getFailed());
+        verify(batchWriter).insertAppointments(argThat(list ->
+                "Dolor de cabeza, mareos".equals(list.get(0).getReason()) && list.get(1).getReason() == null));
+    }
+
+    private static String row(Long doctorId, LocalDateTime date, String type, String status) {
+        return "{\"patientId\": 100, \"doctorId\": " + doctorId + ", \"medicalCenterId\": 1, \"specialityId\": 1, "
+                + "\"appointmentDate\": \"" + date + "\", \"durationMinutes\": 30, \"type\": \"" + type + "\""
+                + (status != null ? ", \"status\": \"" + status + "\"" : "") + "}";
+    }
+}
@@ -0,0 +1,204 @@
+package com.citasmart.appointmentservice.client;
+
+import com.citasmart.appointmentservice.dto.UserBatchRequest;
+import com.citasmart.appointmentservice.dto.UserResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserNearCacheTest {
+
+    @Mock
+    private UserServiceClient userServiceClient;
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private UserNearCache cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new UserNearCache(userServiceClient, redisTemplate, new ObjectMapper(), meterRegistry);
+        ReflectionTestUtils.setField(cache, "batchSize", 2);
+        ReflectionTestUtils.setField(cache, "maxEntries", 3);
+        ReflectionTestUtils.setField(cache, "freshTtl", Duration.ofMinutes(5));
+        ReflectionTestUtils.setField(cache, "staleTtl", Duration.ofMinutes(30));
+        ReflectionTestUtils.setField(cache, "fallbackTtl", Duration.ofHours(24));
+        ReflectionTestUtils.setField(cache, "redisEnabled", false);
+        ReflectionTestUtils.setField(cache, "refreshThreads", 1);
+        cache.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        cache.shutdown();
+    }
+
+    @Test
+    void getUser_SecondReadIsServedFromMemory() {
+        // Given
+        when(userServiceClient.getUserById(1L)).thenReturn(user(1L));
+
+        // When
+        UserResponse first = cache.getUser(1L);
+        UserResponse second = cache.getUser(1L);
+
+        // Then
+        assertEquals(1L, first.getId());
+        assertSame(first, second);
+        verify(userServiceClient, times(1)).getUserById(1L);
+        assertEquals(1.0, requests("miss"));
+        assertEquals(1.0, requests("l1_hit"));
+    }
+
+    @Test
+    void getUsers_FetchesOnlyTheMissesInBatches() {
+        // Given
+        when(userServiceClient.getUserById(1L)).thenReturn(user(1L));
+        cache.getUser(1L);
+        when(userServiceClient.getUsersByIds(any(UserBatchRequest.class)))
+                .thenReturn(Arrays.asList(user(2L), user(3L)))
+                .thenReturn(Collections.singletonList(user(4L)));
+
+        // When
+        Map<Long, UserResponse> users = cache.getUsers(Arrays.asList(1L, 2L, 3L, 4L, 5L));
+
+        // Then
+        assertEquals(4, users.size());
+        assertFalse(users.containsKey(5L));
+        verify(userServiceClient).getUsersByIds(new UserBatchRequest(ids(2L, 3L)));
+        verify(userServiceClient).getUsersByIds(new UserBatchRequest(ids(4L, 5L)));
+        assertEquals(5.0, requests("miss"));
+    }
+
+    @Test
+    void getUser_StaleEntryIsServedAndRefreshedInTheBackground() {
+        // Given
+        UserResponse cached = user(1L);
+        age(cached, Duration.ofMinutes(10));
+        UserResponse renamed = user(1L);
+        renamed.setFirstName("Renamed");
+        when(userServiceClient.getUsersByIds(new UserBatchRequest(ids(1L))))
+                .thenReturn(Collections.singletonList(renamed));
+
+        // When
+        UserResponse served = cache.getUser(1L);
+
+        // Then
+        assertSame(cached, served);
+        verify(userServiceClient, timeout(2000)).getUsersByIds(any());
+        verify(userServiceClient, never()).getUserById(anyLong());
+        assertEquals(1.0, requests("stale_hit"));
+    }
+
+    @Test
+    void getUser_ExpiredEntryIsFetchedAgain() {
+        // Given
+        age(user(1L), Duration.ofHours(1));
+        UserResponse current = user(1L);
+        when(userServiceClient.getUserById(1L)).thenReturn(current);
+
+        // When
+        UserResponse served = cache.getUser(1L);
+
+        // Then
+        assertSame(current, served);
+        assertEquals(1.0, requests("miss"));
+    }
+
+    @Test
+    void getUser_UserServiceDown_FallsBackToExpiredEntryWithinFallbackTtl() {
+        // Given
+        UserResponse cached = user(1L);
+        age(cached, Duration.ofHours(1));
+        age(user(2L), Duration.ofHours(25));
+        when(userServiceClient.getUserById(anyLong())).thenThrow(new IllegalStateException("connection refused"));
+
+        // When / Then
+        assertSame(cached, cache.getUser(1L));
+        assertThrows(IllegalStateException.class, () -> cache.getUser(2L));
+        assertEquals(1.0, requests("fallback"));
+    }
+
+    @Test
+    void localEntries_AreBoundedByMaxEntriesEvictingTheLeastRecentlyUsed() {
+        // Given
+        when(userServiceClient.getUsersByIds(any(UserBatchRequest.class)))
+                .thenReturn(Arrays.asList(user(1L), user(2L)))
+                .thenReturn(Collections.singletonList(user(3L)));
+        cache.getUsers(Arrays.asList(1L, 2L, 3L));
+        when(userServiceClient.getUserById(anyLong())).thenAnswer(invocation -> user(invocation.getArgument(0)));
+
+        // When: 1 is touched, so 2 is the eldest when 4 arrives
+        cache.getUser(1L);
+        cache.getUser(4L);
+
+        // Then
+        assertEquals(3, local().size());
+        assertFalse(local().containsKey(2L));
+        assertTrue(local().keySet().containsAll(Arrays.asList(1L, 3L, 4L)));
+    }
+
+    @Test
+    void evict_DropsTheEntryFromBothLevels() {
+        // Given
+        ReflectionTestUtils.setField(cache, "redisEnabled", true);
+        age(user(1L), Duration.ZERO);
+        when(userServiceClient.getUserById(1L)).thenReturn(user(1L));
+
+        // When
+        cache.evict(1L);
+        cache.getUser(1L);
+
+        // Then
+        verify(redisTemplate).delete("citasmart:users:1");
+        verify(userServiceClient).getUserById(1L);
+    }
+
+    private void age(UserResponse user, Duration age) {
+        local().put(user.getId(), new UserNearCache.CachedUser(user, System.currentTimeMillis() - age.toMillis()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Long, UserNearCache.CachedUser> local() {
+        return (Map<Long, UserNearCache.CachedUser>) ReflectionTestUtils.getField(cache, "local");
+    }
+
+    private double requests(String result) {
+        return meterRegistry.counter("user.cache.requests", "result", result).count();
+    }
+
+    private static Set<Long> ids(Long... ids) {
+        return new LinkedHashSet<>(Arrays.asList(ids));
+    }
+
+    private static UserResponse user(Long id) {
+        return UserResponse.builder()
+                .id(id)
+                .firstName("User")
+                .lastName(String.valueOf(id))
+                .email("user" + id + "@citasmart.com")
+                .build();
+    }
+}
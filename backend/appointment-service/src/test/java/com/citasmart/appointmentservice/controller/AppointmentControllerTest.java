@@ -1,28 +1,42 @@
 package com.citasmart.appointmentservice.controller;
 
+import com.citasmart.appointmentservice.bulk.AppointmentBulkUpdateService;
+import com.citasmart.appointmentservice.bulk.AppointmentExportService;
+import com.citasmart.appointmentservice.bulk.AppointmentImportService;
+import com.citasmart.appointmentservice.bulk.ImportFormat;
 import com.citasmart.appointmentservice.dto.AppointmentCreateRequest;
 import com.citasmart.appointmentservice.dto.AppointmentUpdateRequest;
+import com.citasmart.appointmentservice.hold.SlotHoldService;
 import com.citasmart.appointmentservice.model.Appointment;
 import com.citasmart.appointmentservice.model.AppointmentStatus;
 import com.citasmart.appointmentservice.model.AppointmentType;
+import com.citasmart.appointmentservice.push.SchedulePushHub;
 import com.citasmart.appointmentservice.service.AppointmentService;
+import com.citasmart.appointmentservice.waitlist.WaitlistService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -37,6 +51,24 @@ class AppointmentControllerTest {
     @MockBean
     private AppointmentService appointmentService;
 
+    @MockBean
+    private AppointmentImportService appointmentImportService;
+
+    @MockBean
+    private AppointmentExportService appointmentExportService;
+
+    @MockBean
+    private AppointmentBulkUpdateService appointmentBulkUpdateService;
+
+    @MockBean
+    private SlotHoldService slotHoldService;
+
+    @MockBean
+    private WaitlistService waitlistService;
+
+    @MockBean
+    private SchedulePushHub schedulePushHub;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -255,6 +287,44 @@ class AppointmentControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void exportAppointments_Csv_StreamsExportWithRequestFilters() throws Exception {
+        // Given
+        when(appointmentExportService.export(any(), eq(ImportFormat.CSV), any(OutputStream.class)))
+                .thenAnswer(invocation -> {
+                    OutputStream output = invocation.getArgument(2);
+                    output.write("id,patient_id\n1,100\n".getBytes(StandardCharsets.UTF_8));
+                    return 1L;
+                });
+
+        // When
+        MvcResult result = mockMvc.perform(get("/api/v1/appointments/export")
+                        .param("format", "csv")
+                        .param("doctorId", "200")
+                        .param("status", "SCHEDULED")
+                        .param("from", "2025-03-10T00:00:00")
+                        .param("to", "2025-03-17T00:00:00"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "text/csv"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"appointments.csv\""))
+                .andExpect(content().string("id,patient_id\n1,100\n"));
+        ArgumentCaptor<AppointmentExportService.ExportFilter> filter =
+                ArgumentCaptor.forClass(AppointmentExportService.ExportFilter.class);
+        verify(appointmentExportService).export(filter.capture(), eq(ImportFormat.CSV), any(OutputStream.class));
+        assertEquals(200L, filter.getValue().getDoctorId());
+        assertNull(filter.getValue().getMedicalCenterId());
+        assertEquals(AppointmentStatus.SCHEDULED, filter.getValue().getStatus());
+        assertEquals(LocalDateTime.of(2025, 3, 10, 0, 0), filter.getValue().getFrom());
+        assertEquals(LocalDateTime.of(2025, 3, 17, 0, 0), filter.getValue().getTo());
+        assertNull(filter.getValue().getUpdatedSince());
+    }
+
     @Test
     void createAppointment_Unauthorized() throws Exception {
         // When & Then
@@ -0,0 +1,62 @@
+package com.citasmart.appointmentservice.history;
+
+import com.citasmart.appointmentservice.bulk.AppointmentBatchWriter;
+import com.citasmart.appointmentservice.model.Appointment;
+import com.citasmart.appointmentservice.model.AppointmentHistory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AppointmentHistoryWriterTest {
+
+    @Mock
+    private AppointmentBatchWriter batchWriter;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private AppointmentHistoryWriter historyWriter;
+
+    @BeforeEach
+    void setUp() {
+        historyWriter = new AppointmentHistoryWriter(batchWriter, transactionManager, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(historyWriter, "writeMode", AppointmentHistoryWriter.WriteMode.TRANSACTIONAL);
+        historyWriter.init();
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationManager.unbindResourceIfPossible(historyWriter);
+    }
+
+    @Test
+    void write_Transactional_InsertsAllRowsOfTransactionInOneBatchBeforeCommit() {
+        // Given
+        Appointment appointment = Appointment.builder().id(1L).build();
+
+        // When
+        historyWriter.write(AppointmentHistory.builder().appointment(appointment).action("CREATED").build());
+        historyWriter.write(AppointmentHistory.builder().appointment(appointment).action("CONFIRMED").build());
+
+        // Then
+        verify(batchWriter, never()).insertHistory(anyList());
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.beforeCommit(false);
+        }
+        verify(batchWriter, times(1)).insertHistory(argThat(rows -> rows.size() == 2));
+    }
+}
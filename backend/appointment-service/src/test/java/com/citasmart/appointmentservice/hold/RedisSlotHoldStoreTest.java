@@ -0,0 +1,85 @@
+package com.citasmart.appointmentservice.hold;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RedisSlotHoldStoreTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ZSetOperations<String, String> zSetOperations;
+
+    private RedisSlotHoldStore store;
+
+    @BeforeEach
+    void setUp() {
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        store = new RedisSlotHoldStore(redisTemplate);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void tryHold_PassesEveryHoldKeyTheScriptReads() {
+        // Given
+        when(zSetOperations.rangeByScore(anyString(), anyDouble(), anyDouble()))
+                .thenReturn(new LinkedHashSet<>(Arrays.asList("a1", "b2")));
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), (Object[]) any())).thenReturn(1L);
+
+        // When
+        boolean held = store.tryHold(hold("42.c3"));
+
+        // Then
+        assertTrue(held);
+        ArgumentCaptor<List<String>> keys = ArgumentCaptor.forClass(List.class);
+        verify(redisTemplate).execute(any(RedisScript.class), keys.capture(), (Object[]) any());
+        assertEquals(Arrays.asList("citasmart:holds:{42}", "citasmart:holds:{42}:c3",
+                "citasmart:holds:{42}:a1", "citasmart:holds:{42}:b2"), keys.getValue());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void tryHold_SetChangedBeforeScriptRan_ReadsAgainAndRetries() {
+        // Given
+        when(zSetOperations.rangeByScore(anyString(), anyDouble(), anyDouble()))
+                .thenReturn(Collections.emptySet(), new LinkedHashSet<>(Collections.singletonList("a1")));
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), (Object[]) any())).thenReturn(-1L, 0L);
+
+        // When
+        boolean held = store.tryHold(hold("42.c3"));
+
+        // Then
+        assertFalse(held);
+        verify(redisTemplate, times(2)).execute(any(RedisScript.class), anyList(), (Object[]) any());
+    }
+
+    private static SlotHold hold(String token) {
+        return SlotHold.builder()
+                .token(token)
+                .doctorId(42L)
+                .appointmentDate(LocalDateTime.now().plusDays(1).withNano(0))
+                .durationMinutes(30)
+                .heldBy("ana.perez")
+                .expiresAt(LocalDateTime.now().plusMinutes(30))
+                .build();
+    }
+}
@@ -0,0 +1,68 @@
+package com.citasmart.appointmentservice.mail;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MailTemplatesTest {
+
+    private MailTemplates mailTemplates;
+
+    @BeforeEach
+    void setUp() {
+        mailTemplates = new MailTemplates();
+        mailTemplates.init();
+    }
+
+    @Test
+    void render_Reminder_FillsDetailsAndSkipsMissingAddress() {
+        // Given
+        Map<String, Object> model = model();
+
+        // When
+        String content = mailTemplates.render(MailTemplate.REMINDER, model);
+
+        // Then
+        assertTrue(content.startsWith("Estimado/a Ana García,\n"));
+        assertTrue(content.contains("📅 Fecha y Hora: 15/03/2030 09:00\n"));
+        assertTrue(content.contains("👨‍⚕️ Doctor: Luis Pérez\n"));
+        assertFalse(content.contains("Dirección"));
+        assertTrue(content.endsWith("Equipo CitaSmart\n"));
+    }
+
+    @Test
+    void render_ReusedBuffer_DoesNotLeakPreviousContent() {
+        // Given
+        Map<String, Object> series = model();
+        series.put("count", 2);
+        series.put("dates", Arrays.asList("15/03/2030 09:00", "22/03/2030 09:00"));
+        mailTemplates.render(MailTemplate.SERIES_CONFIRMATION, series);
+
+        Map<String, Object> cancelled = model();
+        cancelled.put("cancellationReason", "Doctor de baja");
+
+        // When
+        String content = mailTemplates.render(MailTemplate.CANCELLATION, cancelled);
+
+        // Then
+        assertTrue(content.startsWith("Estimado/a Ana García,\n"));
+        assertTrue(content.contains("📝 Motivo de cancelación: Doctor de baja\n"));
+        assertFalse(content.contains("22/03/2030"));
+    }
+
+    private static Map<String, Object> model() {
+        Map<String, Object> model = new HashMap<>();
+        model.put("appName", "CitaSmart");
+        model.put("patientName", "Ana García");
+        model.put("doctorName", "Luis Pérez");
+        model.put("centerName", "Centro Norte");
+        model.put("date", "15/03/2030 09:00");
+        model.put("duration", 30);
+        return model;
+    }
+}
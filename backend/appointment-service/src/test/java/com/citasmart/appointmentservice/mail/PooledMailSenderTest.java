@@ -0,0 +1,168 @@
+package com.citasmart.appointmentservice.mail;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.mail.MailProperties;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PooledMailSenderTest {
+
+    private LocalSmtpServer smtpServer;
+
+    private SmtpConnectionPool connectionPool;
+
+    private PooledMailSender mailSender;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        smtpServer = new LocalSmtpServer();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        MailProperties mailProperties = new MailProperties();
+        mailProperties.setHost("localhost");
+        mailProperties.setPort(smtpServer.getPort());
+        connectionPool = new SmtpConnectionPool(mailProperties, meterRegistry);
+        ReflectionTestUtils.setField(connectionPool, "size", 2);
+        ReflectionTestUtils.setField(connectionPool, "maxMessagesPerConnection", 500);
+        ReflectionTestUtils.setField(connectionPool, "borrowTimeoutMillis", 5000L);
+        ReflectionTestUtils.setField(connectionPool, "validateAfterMillis", 60000L);
+        ReflectionTestUtils.setField(connectionPool, "idleTimeoutMillis", 60000L);
+        connectionPool.init();
+
+        mailSender = new PooledMailSender(connectionPool, meterRegistry);
+        ReflectionTestUtils.setField(mailSender, "fromEmail", "noreply@citasmart.com");
+        mailSender.init();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        connectionPool.shutdown();
+        smtpServer.close();
+    }
+
+    @Test
+    void send_ManyMessages_ReusesOneConnection() {
+        // When
+        MailRun run = mailSender.startRun("test");
+        for (int i = 0; i < 20; i++) {
+            mailSender.send("patient" + i + "@example.com", "Recordatorio de Cita", "Mañana a las 09:00");
+        }
+        run.close();
+
+        // Then
+        assertEquals(1, smtpServer.connections.get());
+        assertEquals(20, smtpServer.messages.size());
+        assertTrue(smtpServer.messages.get(19).contains("To: patient19@example.com"));
+        assertEquals(20, run.getSent());
+        assertEquals(0, run.getFailed());
+        assertEquals(1, run.getConnections());
+    }
+
+    @Test
+    void send_ConnectionDroppedByServer_RetriesOnNewConnection() {
+        // Given
+        smtpServer.dropAfterMessage = true;
+        mailSender.send("patient1@example.com", "Cita Confirmada", "Detalles");
+
+        // When
+        mailSender.send("patient2@example.com", "Cita Confirmada", "Detalles");
+
+        // Then
+        assertEquals(2, smtpServer.connections.get());
+        assertEquals(2, smtpServer.messages.size());
+    }
+
+    /**
+     * Minimal SMTP stand-in: accepts every command and keeps the DATA of each message.
+     */
+    private static final class LocalSmtpServer {
+        private final ServerSocket serverSocket;
+        private final AtomicInteger connections = new AtomicInteger();
+        private final List<String> messages = new CopyOnWriteArrayList<>();
+        private volatile boolean dropAfterMessage;
+
+        private LocalSmtpServer() throws IOException {
+            serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+            Thread acceptor = new Thread(this::accept, "local-smtp");
+            acceptor.setDaemon(true);
+            acceptor.start();
+        }
+
+        int getPort() {
+            return serverSocket.getLocalPort();
+        }
+
+        void close() throws IOException {
+            serverSocket.close();
+        }
+
+        private void accept() {
+            while (!serverSocket.isClosed()) {
+                try {
+                    Socket socket = serverSocket.accept();
+                    connections.incrementAndGet();
+                    Thread session = new Thread(() -> serve(socket), "local-smtp-session");
+                    session.setDaemon(true);
+                    session.start();
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        }
+
+        private void serve(Socket socket) {
+            try (Socket client = socket;
+                 BufferedReader in = new BufferedReader(new InputStreamReader(client.getInputStream(), StandardCharsets.UTF_8))) {
+                OutputStream out = client.getOutputStream();
+                reply(out, "220 localhost ESMTP");
+                String line;
+                while ((line = in.readLine()) != null) {
+                    String command = line.length() >= 4 ? line.substring(0, 4).toUpperCase() : line.toUpperCase();
+                    if (command.equals("EHLO")) {
+                        reply(out, "250-localhost");
+                        reply(out, "250 8BITMIME");
+                    } else if (command.equals("DATA")) {
+                        reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                        StringBuilder data = new StringBuilder();
+                        while ((line = in.readLine()) != null && !line.equals(".")) {
+                            data.append(line).append('\n');
+                        }
+                        messages.add(data.toString());
+                        reply(out, "250 OK");
+                        if (dropAfterMessage) {
+                            return;
+                        }
+                    } else if (command.equals("QUIT")) {
+                        reply(out, "221 Bye");
+                        return;
+                    } else {
+                        reply(out, "250 OK");
+                    }
+                }
+            } catch (IOException e) {
+                // Client went away
+            }
+        }
+
+        private static void reply(OutputStream out, String line) throws IOException {
+            out.write((line + "\r\n").getBytes(StandardCharsets.UTF_8));
+            out.flush();
+        }
+    }
+}
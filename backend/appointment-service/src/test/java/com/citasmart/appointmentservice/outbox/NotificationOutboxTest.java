@@ -0,0 +1,104 @@
+package com.citasmart.appointmentservice.outbox;
+
+import com.citasmart.appointmentservice.model.Appointment;
+import com.citasmart.appointmentservice.model.AppointmentOutbox;
+import com.citasmart.appointmentservice.model.OutboxChannel;
+import com.citasmart.appointmentservice.model.OutboxEventType;
+import com.citasmart.appointmentservice.model.OutboxStatus;
+import com.citasmart.appointmentservice.repository.AppointmentOutboxRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NotificationOutboxTest {
+
+    @Mock
+    private AppointmentOutboxRepository outboxRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Captor
+    private ArgumentCaptor<List<AppointmentOutbox>> savedRows;
+
+    @Captor
+    private ArgumentCaptor<List<Object[]>> batchRows;
+
+    private NotificationOutbox outbox;
+
+    @BeforeEach
+    void setUp() {
+        outbox = new NotificationOutbox(outboxRepository, jdbcTemplate);
+        ReflectionTestUtils.setField(outbox, "emailEnabled", true);
+    }
+
+    @Test
+    void enqueue_QueuesOnePendingRowPerChannel() {
+        // When
+        outbox.enqueue(Appointment.builder().id(10L).build(), OutboxEventType.APPOINTMENT_CREATED);
+
+        // Then
+        verify(outboxRepository).saveAll(savedRows.capture());
+        List<AppointmentOutbox> rows = savedRows.getValue();
+        assertEquals(2, rows.size());
+        assertEquals(OutboxChannel.EMAIL, rows.get(0).getChannel());
+        assertEquals(OutboxChannel.PUSH, rows.get(1).getChannel());
+        for (AppointmentOutbox row : rows) {
+            assertEquals(10L, row.getAppointmentId());
+            assertEquals(OutboxStatus.PENDING, row.getStatus());
+            assertEquals(0, row.getAttempts());
+            assertNull(row.getClaimToken());
+        }
+    }
+
+    @Test
+    void enqueueAll_SkipsDuplicatesAndPendingAppointmentsInOneBatch() {
+        // Given
+        ReflectionTestUtils.setField(outbox, "emailEnabled", false);
+        when(outboxRepository.findPendingAppointmentIds(anyCollection(), eq(OutboxEventType.APPOINTMENT_CANCELLED)))
+                .thenReturn(Collections.singletonList(11L));
+
+        // When
+        int queued = outbox.enqueueAll(Arrays.asList(
+                Appointment.builder().id(10L).build(),
+                Appointment.builder().id(11L).build(),
+                Appointment.builder().id(10L).build()), OutboxEventType.APPOINTMENT_CANCELLED);
+
+        // Then
+        assertEquals(1, queued);
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO appointment_outbox"), batchRows.capture());
+        assertEquals(1, batchRows.getValue().size());
+        assertEquals(10L, batchRows.getValue().get(0)[0]);
+        assertEquals("PUSH", batchRows.getValue().get(0)[2]);
+    }
+
+    @Test
+    void enqueueAll_EverythingAlreadyPending_WritesNothing() {
+        // Given
+        when(outboxRepository.findPendingAppointmentIds(anyCollection(), any()))
+                .thenReturn(Collections.singletonList(10L));
+
+        // When
+        int queued = outbox.enqueueAll(Collections.singletonList(Appointment.builder().id(10L).build()),
+                OutboxEventType.APPOINTMENT_UPDATED);
+
+        // Then
+        assertEquals(0, queued);
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
@@ -0,0 +1,209 @@
+package com.citasmart.appointmentservice.outbox;
+
+import com.citasmart.appointmentservice.client.UserNearCache;
+import com.citasmart.appointmentservice.model.Appointment;
+import com.citasmart.appointmentservice.model.AppointmentOutbox;
+import com.citasmart.appointmentservice.model.AppointmentStatus;
+import com.citasmart.appointmentservice.model.OutboxChannel;
+import com.citasmart.appointmentservice.model.OutboxEventType;
+import com.citasmart.appointmentservice.model.OutboxStatus;
+import com.citasmart.appointmentservice.repository.AppointmentOutboxRepository;
+import com.citasmart.appointmentservice.repository.AppointmentRepository;
+import com.citasmart.appointmentservice.service.EmailService;
+import com.citasmart.appointmentservice.service.NotificationService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    @Mock
+    private AppointmentOutboxRepository outboxRepository;
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @Mock
+    private UserNearCache userNearCache;
+
+    @Mock
+    private EmailService emailService;
+
+    @Mock
+    private NotificationService notificationService;
+
+    @Captor
+    private ArgumentCaptor<Collection<Long>> sentIds;
+
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        relay = new OutboxRelay(outboxRepository, appointmentRepository, userNearCache, emailService,
+                notificationService);
+        ReflectionTestUtils.setField(relay, "batchSize", 10);
+        ReflectionTestUtils.setField(relay, "maxBatchesPerRun", 5);
+        ReflectionTestUtils.setField(relay, "emailThreads", 1);
+        ReflectionTestUtils.setField(relay, "pushThreads", 2);
+        ReflectionTestUtils.setField(relay, "maxAttempts", 3);
+        ReflectionTestUtils.setField(relay, "initialBackoff", Duration.ofSeconds(10));
+        ReflectionTestUtils.setField(relay, "maxBackoff", Duration.ofSeconds(60));
+        ReflectionTestUtils.setField(relay, "claimTimeout", Duration.ofMinutes(5));
+        relay.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        relay.shutdown();
+    }
+
+    @Test
+    void drain_ClaimsBatchAndMarksDeliveredRowsSentUnderTheSameToken() {
+        // Given
+        when(outboxRepository.findReadyIds(eq(OutboxChannel.PUSH), any(), any())).thenReturn(Arrays.asList(1L, 2L));
+        ArgumentCaptor<String> claimToken = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<LocalDateTime> claimedUntil = ArgumentCaptor.forClass(LocalDateTime.class);
+        when(outboxRepository.claim(eq(Arrays.asList(1L, 2L)), claimToken.capture(), claimedUntil.capture()))
+                .thenReturn(2);
+        when(outboxRepository.findByClaimToken(anyString())).thenReturn(Arrays.asList(
+                row(1L, 10L, OutboxEventType.APPOINTMENT_CREATED, 0),
+                row(2L, 11L, OutboxEventType.APPOINTMENT_CANCELLED, 0)));
+        when(appointmentRepository.findAllById(any())).thenReturn(Arrays.asList(appointment(10L), appointment(11L)));
+
+        // When
+        int delivered = relay.drain(OutboxChannel.PUSH);
+
+        // Then
+        assertEquals(2, delivered);
+        verify(notificationService).sendAppointmentCreatedNotification(argThat(a -> a.getId() == 10L));
+        verify(notificationService).sendAppointmentCancelledNotification(argThat(a -> a.getId() == 11L));
+        verify(outboxRepository).markSent(sentIds.capture(), eq(claimToken.getValue()), any());
+        assertEquals(2, sentIds.getValue().size());
+        assertTrue(sentIds.getValue().containsAll(Arrays.asList(1L, 2L)));
+        assertTrue(claimedUntil.getValue().isAfter(LocalDateTime.now().plusMinutes(4)));
+        verify(outboxRepository).findByClaimToken(claimToken.getValue());
+    }
+
+    @Test
+    void drain_ClaimTakenByAnotherInstance_DeliversNothing() {
+        // Given
+        when(outboxRepository.findReadyIds(eq(OutboxChannel.PUSH), any(), any())).thenReturn(Arrays.asList(1L, 2L));
+        when(outboxRepository.claim(anyCollection(), anyString(), any())).thenReturn(0);
+
+        // When
+        int delivered = relay.drain(OutboxChannel.PUSH);
+
+        // Then
+        assertEquals(0, delivered);
+        verify(outboxRepository, never()).findByClaimToken(anyString());
+        verifyNoInteractions(notificationService);
+    }
+
+    @Test
+    void drain_FailedDelivery_RetriesWithBackoffThenParksAsFailed() {
+        // Given
+        when(outboxRepository.findReadyIds(eq(OutboxChannel.PUSH), any(), any())).thenReturn(Arrays.asList(1L, 2L));
+        when(outboxRepository.claim(anyCollection(), anyString(), any())).thenReturn(2);
+        when(outboxRepository.findByClaimToken(anyString())).thenReturn(Arrays.asList(
+                row(1L, 10L, OutboxEventType.APPOINTMENT_UPDATED, 0),
+                row(2L, 11L, OutboxEventType.APPOINTMENT_UPDATED, 2)));
+        when(appointmentRepository.findAllById(any())).thenReturn(Arrays.asList(appointment(10L), appointment(11L)));
+        doThrow(new IllegalStateException("push gateway down"))
+                .when(notificationService).sendAppointmentUpdatedNotification(any());
+        LocalDateTime before = LocalDateTime.now();
+
+        // When
+        int delivered = relay.drain(OutboxChannel.PUSH);
+
+        // Then
+        assertEquals(0, delivered);
+        verify(outboxRepository, never()).markSent(anyCollection(), anyString(), any());
+        ArgumentCaptor<LocalDateTime> nextAttempt = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(outboxRepository).markFailed(eq(1L), anyString(), eq(OutboxStatus.PENDING), eq(1),
+                nextAttempt.capture(), eq("push gateway down"));
+        assertFalse(nextAttempt.getValue().isBefore(before.plusSeconds(10)));
+        assertTrue(nextAttempt.getValue().isBefore(before.plusSeconds(13)));
+        verify(outboxRepository).markFailed(eq(2L), anyString(), eq(OutboxStatus.FAILED), eq(3), any(), anyString());
+    }
+
+    @Test
+    void backoff_DoublesPerAttemptWithBoundedJitterUpToTheCap() {
+        for (int attempts = 1; attempts <= 6; attempts++) {
+            long expected = Math.min(60_000, 10_000L << (attempts - 1));
+
+            long backoff = relay.backoff(attempts).toMillis();
+
+            assertTrue(backoff >= expected, "attempt " + attempts + ": " + backoff);
+            assertTrue(backoff <= expected * 1.2, "attempt " + attempts + ": " + backoff);
+        }
+    }
+
+    @Test
+    void relay_ReleasesExpiredClaimsOffTheSchedulerThreadAndSkipsWhileDraining() throws Exception {
+        // Given
+        CountDownLatch draining = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        when(outboxRepository.findReadyIds(any(), any(), any())).thenAnswer(invocation -> {
+            draining.countDown();
+            finish.await(5, TimeUnit.SECONDS);
+            return Collections.emptyList();
+        });
+
+        // When
+        relay.relay();
+        assertTrue(draining.await(5, TimeUnit.SECONDS));
+        relay.relay();
+        finish.countDown();
+
+        // Then
+        @SuppressWarnings("unchecked")
+        CompletableFuture<Void> run = ((AtomicReference<CompletableFuture<Void>>)
+                ReflectionTestUtils.getField(relay, "currentRun")).get();
+        run.get(5, TimeUnit.SECONDS);
+        verify(outboxRepository, times(1)).releaseExpiredClaims(any());
+        verify(outboxRepository, times(OutboxChannel.values().length)).findReadyIds(any(), any(), any());
+    }
+
+    private static AppointmentOutbox row(Long id, Long appointmentId, OutboxEventType eventType, int attempts) {
+        return AppointmentOutbox.builder()
+                .id(id)
+                .appointmentId(appointmentId)
+                .eventType(eventType)
+                .channel(OutboxChannel.PUSH)
+                .status(OutboxStatus.PROCESSING)
+                .attempts(attempts)
+                .build();
+    }
+
+    private static Appointment appointment(Long id) {
+        return Appointment.builder()
+                .id(id)
+                .patientId(100L)
+                .doctorId(200L)
+                .appointmentDate(LocalDateTime.now().plusDays(1))
+                .durationMinutes(30)
+                .status(AppointmentStatus.SCHEDULED)
+                .build();
+    }
+}
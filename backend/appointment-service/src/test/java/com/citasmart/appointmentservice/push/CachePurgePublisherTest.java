@@ -0,0 +1,108 @@
+package com.citasmart.appointmentservice.push;
+
+import com.citasmart.appointmentservice.event.AppointmentChangedEvent;
+import com.citasmart.appointmentservice.model.Appointment;
+import com.citasmart.appointmentservice.model.AppointmentStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CachePurgePublisherTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    private CachePurgePublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        publisher = new CachePurgePublisher(redisTemplate);
+        ReflectionTestUtils.setField(publisher, "channel", "citasmart:cache-purge");
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void affectedBy_RescheduleAwayFromToday_IncludesTodayKey() {
+        // Given
+        LocalDate today = LocalDate.of(2025, 3, 10);
+        Appointment appointment = appointment(200L, today.plusDays(2));
+        AppointmentChangedEvent event = AppointmentChangedEvent.of(AppointmentChangedEvent.ChangeType.UPDATED,
+                appointment, today.atTime(9, 0), 30, AppointmentStatus.SCHEDULED);
+
+        // When
+        Set<String> keys = SurrogateKeys.affectedBy(event, today);
+
+        // Then
+        assertTrue(keys.contains("doctor:200"));
+        assertTrue(keys.contains("medical-center:1"));
+        assertTrue(keys.contains("patient:100"));
+        assertTrue(keys.contains(SurrogateKeys.TODAY));
+        assertFalse(SurrogateKeys.affectedBy(AppointmentChangedEvent.created(appointment), today)
+                .contains(SurrogateKeys.TODAY));
+    }
+
+    @Test
+    void onAppointmentChanged_InTransaction_PublishesOnceAfterCommitAndNothingOnRollback() {
+        // Given
+        LocalDate day = LocalDate.now().plusDays(3);
+        TransactionSynchronizationManager.initSynchronization();
+
+        // When
+        publisher.onAppointmentChanged(AppointmentChangedEvent.created(appointment(200L, day)));
+        publisher.onAppointmentChanged(AppointmentChangedEvent.created(appointment(201L, day)));
+        verifyNoInteractions(redisTemplate);
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        // Then
+        verify(redisTemplate).convertAndSend("citasmart:cache-purge", "doctor:200 medical-center:1 patient:100 doctor:201");
+        assertNull(TransactionSynchronizationManager.getResource(publisher));
+
+        TransactionSynchronizationManager.initSynchronization();
+        publisher.onAppointmentChanged(AppointmentChangedEvent.created(appointment(202L, day)));
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+        verify(redisTemplate, times(1)).convertAndSend(anyString(), anyString());
+    }
+
+    private static void complete(int status) {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (status == TransactionSynchronization.STATUS_COMMITTED) {
+                synchronization.afterCommit();
+            }
+            synchronization.afterCompletion(status);
+        }
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    private static Appointment appointment(Long doctorId, LocalDate day) {
+        return Appointment.builder()
+                .id(1L)
+                .patientId(100L)
+                .doctorId(doctorId)
+                .medicalCenterId(1L)
+                .appointmentDate(day.atTime(9, 0))
+                .durationMinutes(30)
+                .status(AppointmentStatus.SCHEDULED)
+                .build();
+    }
+}
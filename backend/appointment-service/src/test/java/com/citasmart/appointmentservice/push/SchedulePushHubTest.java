@@ -0,0 +1,171 @@
+package com.citasmart.appointmentservice.push;
+
+import com.citasmart.appointmentservice.event.AppointmentChangedEvent;
+import com.citasmart.appointmentservice.model.Appointment;
+import com.citasmart.appointmentservice.model.AppointmentStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SchedulePushHubTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private List<RecordingEmitter> emitters;
+
+    private SchedulePushHub pushHub;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        emitters = new ArrayList<>();
+        pushHub = new SchedulePushHub(meterRegistry) {
+            @Override
+            SseEmitter newEmitter() {
+                RecordingEmitter emitter = new RecordingEmitter();
+                emitters.add(emitter);
+                return emitter;
+            }
+        };
+        ReflectionTestUtils.setField(pushHub, "bufferSize", 2);
+        ReflectionTestUtils.setField(pushHub, "maxSubscribers", 10);
+        ReflectionTestUtils.setField(pushHub, "threads", 1);
+        pushHub.init();
+    }
+
+    @Test
+    void onAppointmentChanged_DeliversDeltaToDoctorCenterAndPatientStreamsOnly() {
+        // Given
+        ManualExecutor senders = new ManualExecutor();
+        ReflectionTestUtils.setField(pushHub, "senders", senders);
+        pushHub.subscribe(PushTopic.DOCTOR, 200L);
+        pushHub.subscribe(PushTopic.MEDICAL_CENTER, 1L);
+        pushHub.subscribe(PushTopic.PATIENT, 100L);
+        pushHub.subscribe(PushTopic.DOCTOR, 201L);
+
+        // When
+        pushHub.onAppointmentChanged(AppointmentChangedEvent.created(appointment()));
+        senders.runAll();
+
+        // Then
+        assertEquals(2, emitters.get(0).sent);
+        assertEquals(2, emitters.get(1).sent);
+        assertEquals(2, emitters.get(2).sent);
+        assertEquals(1, emitters.get(3).sent); // only the ready event
+        assertEquals(3.0, meterRegistry.counter("appointment.push.delivered").count());
+        assertEquals(4, pushHub.subscriberCount());
+    }
+
+    @Test
+    void publish_SubscriberWithFullBuffer_IsEvictedAndClosed() {
+        // Given
+        ManualExecutor senders = new ManualExecutor();
+        ReflectionTestUtils.setField(pushHub, "senders", senders);
+        pushHub.subscribe(PushTopic.DOCTOR, 200L);
+
+        // When: the stream never drains, so the second delta overflows its buffer of two
+        pushHub.publish(ScheduleDelta.from(AppointmentChangedEvent.created(appointment())));
+        pushHub.publish(ScheduleDelta.from(AppointmentChangedEvent.created(appointment())));
+        senders.runAll();
+
+        // Then
+        assertEquals(0, pushHub.subscriberCount());
+        assertEquals(1.0, meterRegistry.counter("appointment.push.evicted").count());
+        assertTrue(emitters.get(0).completed);
+        assertEquals(0, emitters.get(0).sent);
+
+        pushHub.publish(ScheduleDelta.from(AppointmentChangedEvent.created(appointment())));
+        senders.runAll();
+        assertEquals(0, emitters.get(0).sent);
+    }
+
+    @Test
+    void subscribe_AboveLimit_IsRefused() {
+        // Given
+        ReflectionTestUtils.setField(pushHub, "maxSubscribers", 1);
+        pushHub.subscribe(PushTopic.PATIENT, 100L);
+
+        // When & Then
+        assertThrows(ResponseStatusException.class, () -> {
+            pushHub.subscribe(PushTopic.PATIENT, 101L);
+        });
+        assertEquals(1, pushHub.subscriberCount());
+    }
+
+    private static Appointment appointment() {
+        return Appointment.builder()
+                .id(1L)
+                .patientId(100L)
+                .doctorId(200L)
+                .medicalCenterId(1L)
+                .appointmentDate(LocalDate.now().plusDays(1).atTime(9, 0))
+                .durationMinutes(30)
+                .status(AppointmentStatus.SCHEDULED)
+                .build();
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+        private int sent;
+        private boolean completed;
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            sent++;
+        }
+
+        @Override
+        public synchronized void complete() {
+            completed = true;
+        }
+    }
+
+    private static class ManualExecutor extends AbstractExecutorService {
+        private final List<Runnable> tasks = new ArrayList<>();
+
+        void runAll() {
+            while (!tasks.isEmpty()) {
+                tasks.remove(0).run();
+            }
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            tasks.add(command);
+        }
+
+        @Override
+        public void shutdown() {
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return new ArrayList<>();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return false;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return false;
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) {
+            return true;
+        }
+    }
+}
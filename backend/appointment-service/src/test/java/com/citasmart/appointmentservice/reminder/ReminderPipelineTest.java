@@ -0,0 +1,169 @@
+package com.citasmart.appointmentservice.reminder;
+
+import com.citasmart.appointmentservice.client.UserNearCache;
+import com.citasmart.appointmentservice.dto.UserResponse;
+import com.citasmart.appointmentservice.mail.MailRun;
+import com.citasmart.appointmentservice.mail.PooledMailSender;
+import com.citasmart.appointmentservice.model.Appointment;
+import com.citasmart.appointmentservice.model.AppointmentStatus;
+import com.citasmart.appointmentservice.repository.AppointmentRepository;
+import com.citasmart.appointmentservice.schedule.ScheduleVersions;
+import com.citasmart.appointmentservice.service.EmailService;
+import com.citasmart.appointmentservice.service.NotificationService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReminderPipelineTest {
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @Mock
+    private UserNearCache userNearCache;
+
+    @Mock
+    private EmailService emailService;
+
+    @Mock
+    private NotificationService notificationService;
+
+    @Mock
+    private ScheduleVersions scheduleVersions;
+
+    @Mock
+    private PooledMailSender mailSender;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private ReminderPipeline pipeline;
+
+    @BeforeEach
+    void setUp() {
+        pipeline = new ReminderPipeline(appointmentRepository, userNearCache, emailService, notificationService,
+                new SimpleMeterRegistry(), scheduleVersions, mailSender, jdbcTemplate);
+        ReflectionTestUtils.setField(pipeline, "hoursBefore", 24);
+        ReflectionTestUtils.setField(pipeline, "pageSize", 2);
+        ReflectionTestUtils.setField(pipeline, "threads", 2);
+        ReflectionTestUtils.invokeMethod(pipeline, "init");
+
+        lenient().when(mailSender.startRun("reminders")).thenReturn(mock(MailRun.class));
+        Map<Long, UserResponse> users = new HashMap<>();
+        users.put(100L, new UserResponse());
+        users.put(200L, new UserResponse());
+        lenient().when(userNearCache.getUsers(any())).thenReturn(users);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.invokeMethod(pipeline, "shutdown");
+    }
+
+    @Test
+    void run_SendsOnlyAppointmentsItClaimed() {
+        // Given
+        when(appointmentRepository.findReminderPage(any(), any(), anyLong(), any()))
+                .thenReturn(Arrays.asList(appointment(1L), appointment(2L)))
+                .thenReturn(Collections.emptyList());
+        // Appointment 2 was claimed by a run on another instance
+        when(jdbcTemplate.queryForList(startsWith("UPDATE appointments SET reminder_sent = true"), eq(Long.class),
+                eq(1L), eq(2L))).thenReturn(Collections.singletonList(1L));
+
+        // When
+        long sent = pipeline.run();
+
+        // Then
+        assertEquals(1, sent);
+        verify(emailService).sendAppointmentReminderEmail(argThat(appointment -> appointment.getId() == 1L), any(), any());
+        verify(emailService, times(1)).sendAppointmentReminderEmail(any(), any(), any());
+        verify(appointmentRepository, never()).releaseReminders(any());
+    }
+
+    @Test
+    void run_FailedSend_ReleasesItsClaim() {
+        // Given
+        when(appointmentRepository.findReminderPage(any(), any(), anyLong(), any()))
+                .thenReturn(Arrays.asList(appointment(1L), appointment(2L)))
+                .thenReturn(Collections.emptyList());
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), eq(1L), eq(2L)))
+                .thenReturn(Arrays.asList(1L, 2L));
+        lenient().doThrow(new IllegalStateException("push down"))
+                .when(notificationService).sendAppointmentReminderNotification(argThat(appointment -> appointment.getId() == 2L));
+
+        // When
+        long sent = pipeline.run();
+
+        // Then
+        assertEquals(1, sent);
+        verify(appointmentRepository).releaseReminders(Collections.singletonList(2L));
+    }
+
+    @Test
+    void run_PreviousRunFailed_CoversItsWindowUpToTheNewEnd() {
+        // Given
+        when(appointmentRepository.findReminderPage(any(), any(), eq(0L), any()))
+                .thenThrow(new IllegalStateException("connection reset"))
+                .thenReturn(Collections.emptyList());
+        assertThrows(IllegalStateException.class, () -> pipeline.run());
+        LocalDateTime[] unfinished = (LocalDateTime[]) ReflectionTestUtils.getField(pipeline, "unfinishedWindow");
+
+        // When
+        pipeline.run();
+
+        // Then
+        ArgumentCaptor<LocalDateTime> starts = ArgumentCaptor.forClass(LocalDateTime.class);
+        ArgumentCaptor<LocalDateTime> ends = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(appointmentRepository, times(2)).findReminderPage(starts.capture(), ends.capture(), eq(0L), any());
+        assertEquals(unfinished[0], starts.getAllValues().get(1));
+        assertFalse(ends.getAllValues().get(1).isBefore(unfinished[1]));
+        assertNull(ReflectionTestUtils.getField(pipeline, "unfinishedWindow"));
+    }
+
+    @Test
+    void run_AlreadyRunning_SkipsTrigger() {
+        // Given
+        long[] nested = {-1};
+        when(appointmentRepository.findReminderPage(any(), any(), eq(0L), any())).thenAnswer(invocation -> {
+            nested[0] = pipeline.run();
+            return Collections.emptyList();
+        });
+
+        // When
+        pipeline.run();
+
+        // Then
+        assertEquals(0, nested[0]);
+        verify(appointmentRepository, times(1)).findReminderPage(any(), any(), anyLong(), any());
+        verify(mailSender, times(1)).startRun("reminders");
+    }
+
+    private static Appointment appointment(Long id) {
+        return Appointment.builder()
+                .id(id)
+                .patientId(100L)
+                .doctorId(200L)
+                .appointmentDate(LocalDateTime.now().plusHours(30))
+                .durationMinutes(30)
+                .status(AppointmentStatus.SCHEDULED)
+                .build();
+    }
+}
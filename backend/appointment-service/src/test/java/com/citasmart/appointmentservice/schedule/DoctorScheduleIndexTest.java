@@ -0,0 +1,172 @@
+package com.citasmart.appointmentservice.schedule;
+
+import com.citasmart.appointmentservice.event.AppointmentChangedEvent;
+import com.citasmart.appointmentservice.event.AppointmentChangedEvent.ChangeType;
+import com.citasmart.appointmentservice.model.Appointment;
+import com.citasmart.appointmentservice.model.AppointmentStatus;
+import com.citasmart.appointmentservice.model.AppointmentType;
+import com.citasmart.appointmentservice.repository.AppointmentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DoctorScheduleIndexTest {
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @InjectMocks
+    private DoctorScheduleIndex scheduleIndex;
+
+    private LocalDateTime nineAm;
+    private Appointment existing;
+    private List<Appointment> stored;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(scheduleIndex, "maxDays", 1000);
+
+        nineAm = LocalDate.now().plusDays(1).atTime(9, 0);
+        existing = Appointment.builder()
+                .id(1L)
+                .doctorId(200L)
+                .appointmentDate(nineAm)
+                .durationMinutes(30)
+                .status(AppointmentStatus.SCHEDULED)
+                .type(AppointmentType.CONSULTATION)
+                .build();
+
+        // The repository answers with what is committed at the time of the call
+        stored = new ArrayList<>();
+        stored.add(existing);
+        lenient().when(appointmentRepository.findByDoctorIdAndAppointmentDateBetween(eq(200L), any(), any()))
+                .thenAnswer(invocation -> new ArrayList<>(stored));
+    }
+
+    @Test
+    void isAvailable_DetectsOverlapAndAllowsAdjacentSlots() {
+        assertTrue(scheduleIndex.isAvailable(200L, nineAm.plusMinutes(30), nineAm.plusMinutes(60)));
+        assertTrue(scheduleIndex.isAvailable(200L, nineAm.minusMinutes(30), nineAm));
+
+        // The day bucket is loaded once and free slots are then served from memory
+        verify(appointmentRepository, times(1)).findByDoctorIdAndAppointmentDateBetween(eq(200L), any(), any());
+
+        assertFalse(scheduleIndex.isAvailable(200L, nineAm.plusMinutes(15), nineAm.plusMinutes(45)));
+        assertFalse(scheduleIndex.isAvailable(200L, nineAm.minusMinutes(15), nineAm.plusMinutes(5)));
+
+        // Each conflict is confirmed with a fresh read
+        verify(appointmentRepository, times(3)).findByDoctorIdAndAppointmentDateBetween(eq(200L), any(), any());
+    }
+
+    @Test
+    void hasConflict_IgnoresExcludedAppointment() {
+        assertFalse(scheduleIndex.hasConflict(200L, nineAm.plusMinutes(10), nineAm.plusMinutes(40), 1L));
+        assertTrue(scheduleIndex.hasConflict(200L, nineAm.plusMinutes(10), nineAm.plusMinutes(40), 2L));
+    }
+
+    @Test
+    void onAppointmentChanged_TracksCreateRescheduleAndCancel() {
+        assertTrue(scheduleIndex.isAvailable(200L, nineAm.plusHours(2), nineAm.plusHours(3)));
+
+        Appointment booked = Appointment.builder()
+                .id(2L)
+                .doctorId(200L)
+                .appointmentDate(nineAm.plusHours(2))
+                .durationMinutes(60)
+                .status(AppointmentStatus.SCHEDULED)
+                .build();
+        stored.add(booked);
+        scheduleIndex.onAppointmentChanged(AppointmentChangedEvent.created(booked));
+        assertFalse(scheduleIndex.isAvailable(200L, nineAm.plusHours(2).plusMinutes(30), nineAm.plusHours(4)));
+
+        LocalDateTime previousDate = booked.getAppointmentDate();
+        booked.setAppointmentDate(nineAm.plusHours(5));
+        scheduleIndex.onAppointmentChanged(AppointmentChangedEvent.of(
+                ChangeType.UPDATED, booked, previousDate, 60, AppointmentStatus.SCHEDULED));
+        assertTrue(scheduleIndex.isAvailable(200L, nineAm.plusHours(2), nineAm.plusHours(3)));
+        assertFalse(scheduleIndex.isAvailable(200L, nineAm.plusHours(5), nineAm.plusHours(6)));
+
+        booked.setStatus(AppointmentStatus.CANCELLED);
+        scheduleIndex.onAppointmentChanged(AppointmentChangedEvent.of(
+                ChangeType.CANCELLED, booked, booked.getAppointmentDate(), 60, AppointmentStatus.SCHEDULED));
+        assertTrue(scheduleIndex.isAvailable(200L, nineAm.plusHours(5), nineAm.plusHours(6)));
+    }
+
+    @Test
+    void isAvailable_IgnoresInactiveAppointmentsWhenLoading() {
+        existing.setStatus(AppointmentStatus.CANCELLED);
+
+        assertTrue(scheduleIndex.isAvailable(200L, nineAm, nineAm.plusMinutes(30)));
+    }
+
+    @Test
+    void hasConflict_SlotFreedOnAnotherInstance_ConfirmsAgainstDatabase() {
+        assertFalse(scheduleIndex.isAvailable(200L, nineAm, nineAm.plusMinutes(30)));
+
+        // Cancelled elsewhere: no local event reaches this index
+        stored.clear();
+
+        assertTrue(scheduleIndex.isAvailable(200L, nineAm, nineAm.plusMinutes(30)));
+    }
+
+    @Test
+    void isAvailable_BucketOlderThanTtl_IsReloaded() throws InterruptedException {
+        ReflectionTestUtils.setField(scheduleIndex, "ttlMillis", 20L);
+        assertTrue(scheduleIndex.isAvailable(200L, nineAm.plusHours(1), nineAm.plusHours(2)));
+
+        // Booked elsewhere after the bucket was loaded
+        stored.add(Appointment.builder()
+                .id(3L)
+                .doctorId(200L)
+                .appointmentDate(nineAm.plusHours(1))
+                .durationMinutes(60)
+                .status(AppointmentStatus.SCHEDULED)
+                .build());
+        assertTrue(scheduleIndex.isAvailable(200L, nineAm.plusHours(1), nineAm.plusHours(2)));
+        Thread.sleep(30);
+
+        assertFalse(scheduleIndex.isAvailable(200L, nineAm.plusHours(1), nineAm.plusHours(2)));
+    }
+
+    @Test
+    void onRemoteChange_DropsTouchedDaysAndBumpsVersion() {
+        scheduleIndex.busyTicks(200L, nineAm.toLocalDate());
+        scheduleIndex.busyTicks(200L, nineAm.toLocalDate().plusDays(3));
+        long version = scheduleIndex.version(200L);
+
+        scheduleIndex.onRemoteChange(200L, nineAm.plusDays(3), 30, nineAm);
+
+        assertEquals(0, scheduleIndex.size());
+        assertTrue(scheduleIndex.version(200L) > version);
+    }
+
+    @Test
+    void busyTicks_CapReached_EvictsLeastRecentlyLoadedDays() {
+        ReflectionTestUtils.setField(scheduleIndex, "maxDays", 20);
+        LocalDate first = nineAm.toLocalDate();
+        for (int day = 0; day < 20; day++) {
+            scheduleIndex.busyTicks(200L, first.plusDays(day));
+        }
+
+        scheduleIndex.busyTicks(200L, first.plusDays(20));
+
+        assertEquals(19, scheduleIndex.size());
+        // The first day loaded was the first to go
+        scheduleIndex.busyTicks(200L, first);
+        verify(appointmentRepository, times(22)).findByDoctorIdAndAppointmentDateBetween(eq(200L), any(), any());
+    }
+}
@@ -0,0 +1,91 @@
+package com.citasmart.appointmentservice.schedule;
+
+import com.citasmart.appointmentservice.config.BusinessProperties;
+import com.citasmart.appointmentservice.hold.InMemorySlotHoldStore;
+import com.citasmart.appointmentservice.hold.SlotHoldService;
+import com.citasmart.appointmentservice.dto.AvailableSlotDto;
+import com.citasmart.appointmentservice.model.Appointment;
+import com.citasmart.appointmentservice.model.AppointmentStatus;
+import com.citasmart.appointmentservice.repository.AppointmentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FirstAvailableSearchTest {
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    private FirstAvailableSearch search;
+    private LocalDate monday;
+
+    @BeforeEach
+    void setUp() {
+        DoctorScheduleIndex scheduleIndex = new DoctorScheduleIndex(appointmentRepository);
+        ReflectionTestUtils.setField(scheduleIndex, "maxDays", 1000);
+
+        SlotHoldService slotHolds = new SlotHoldService(new InMemorySlotHoldStore(), scheduleIndex);
+        ReflectionTestUtils.setField(slotHolds, "ttlMinutes", 5L);
+
+        BusinessProperties properties = new BusinessProperties();
+        properties.getWorkingHours().setStart(LocalTime.of(9, 0));
+        properties.getWorkingHours().setEnd(LocalTime.of(11, 0));
+
+        search = new FirstAvailableSearch(new DoctorDirectory(appointmentRepository), scheduleIndex,
+                new SlotEngine(scheduleIndex, properties, slotHolds));
+        monday = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+    }
+
+    @Test
+    void search_MergesDoctorsByEarliestStart() {
+        // Doctor 1 is busy until 10:00, doctor 2 until 09:30
+        Appointment first = Appointment.builder()
+                .id(1L).doctorId(1L).appointmentDate(monday.atTime(9, 0)).durationMinutes(60)
+                .status(AppointmentStatus.SCHEDULED).build();
+        Appointment second = Appointment.builder()
+                .id(2L).doctorId(2L).appointmentDate(monday.atTime(9, 0)).durationMinutes(30)
+                .status(AppointmentStatus.SCHEDULED).build();
+
+        when(appointmentRepository.findDoctorIdsBySpecialityAndMedicalCenter(5L, 7L))
+                .thenReturn(Arrays.asList(1L, 2L));
+        when(appointmentRepository.findByDoctorIdInAndAppointmentDateBetween(anyCollection(), any(), any()))
+                .thenReturn(Arrays.asList(first, second));
+
+        List<AvailableSlotDto> slots = search.search(5L, 7L, monday.atStartOfDay(), monday.atTime(23, 0), 30, 4);
+
+        assertEquals(4, slots.size());
+        assertEquals(2L, slots.get(0).getDoctorId());
+        assertEquals(monday.atTime(9, 30), slots.get(0).getStartTime());
+        assertEquals(1L, slots.get(1).getDoctorId());
+        assertEquals(monday.atTime(10, 0), slots.get(1).getStartTime());
+        assertEquals(2L, slots.get(2).getDoctorId());
+        assertEquals(monday.atTime(10, 0), slots.get(2).getStartTime());
+        assertEquals(1L, slots.get(3).getDoctorId());
+        assertEquals(monday.atTime(10, 30), slots.get(3).getStartTime());
+
+        // One bulk range query for all doctors, no per-doctor loads
+        verify(appointmentRepository, never()).findByDoctorIdAndAppointmentDateBetween(any(), any(), any());
+    }
+
+    @Test
+    void search_EmptyWhenNoDoctorsKnown() {
+        when(appointmentRepository.findDoctorIdsBySpecialityAndMedicalCenter(5L, 7L)).thenReturn(Arrays.asList());
+
+        assertTrue(search.search(5L, 7L, monday.atStartOfDay(), monday.atTime(23, 0), 30, 4).isEmpty());
+    }
+}
@@ -0,0 +1,98 @@
+package com.citasmart.appointmentservice.schedule;
+
+import com.citasmart.appointmentservice.event.AppointmentChangedEvent;
+import com.citasmart.appointmentservice.event.AppointmentChangedEvent.ChangeType;
+import com.citasmart.appointmentservice.model.Appointment;
+import com.citasmart.appointmentservice.model.AppointmentStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ScheduleVersionsTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private ScheduleVersions scheduleVersions;
+
+    private LocalDate tomorrow;
+
+    @BeforeEach
+    void setUp() {
+        scheduleVersions = new ScheduleVersions(jdbcTemplate);
+        tomorrow = LocalDate.now().plusDays(1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.unbindResourceIfPossible(scheduleVersions);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void onAppointmentChanged_BumpsEachTouchedDayOnceBeforeCommit() {
+        // Given
+        TransactionSynchronizationManager.initSynchronization();
+        Appointment appointment = appointment(tomorrow);
+        scheduleVersions.onAppointmentChanged(AppointmentChangedEvent.created(appointment));
+        appointment.setAppointmentDate(tomorrow.plusDays(2).atTime(9, 0));
+        scheduleVersions.onAppointmentChanged(AppointmentChangedEvent.of(ChangeType.UPDATED, appointment,
+                tomorrow.atTime(9, 0), 30, AppointmentStatus.SCHEDULED));
+        verifyNoInteractions(jdbcTemplate);
+
+        // When
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.beforeCommit(false);
+        }
+
+        // Then
+        ArgumentCaptor<List<Object[]>> args = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), args.capture());
+        assertEquals(2, args.getValue().size());
+        assertEquals(Date.valueOf(tomorrow), args.getValue().get(0)[1]);
+        assertEquals(Date.valueOf(tomorrow.plusDays(2)), args.getValue().get(1)[1]);
+    }
+
+    @Test
+    void version_SumsDayCountersOfTheRange() {
+        // Given
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class), eq(200L),
+                eq(Date.valueOf(tomorrow)), eq(Date.valueOf(tomorrow.plusDays(6))))).thenReturn(17L);
+
+        // When
+        long version = scheduleVersions.version(200L, tomorrow, tomorrow.plusDays(6));
+
+        // Then
+        assertEquals(17L, version);
+    }
+
+    private static Appointment appointment(LocalDate date) {
+        return Appointment.builder()
+                .id(1L)
+                .doctorId(200L)
+                .medicalCenterId(1L)
+                .appointmentDate(date.atTime(9, 0))
+                .durationMinutes(30)
+                .status(AppointmentStatus.SCHEDULED)
+                .build();
+    }
+}
@@ -0,0 +1,110 @@
+package com.citasmart.appointmentservice.schedule;
+
+import com.citasmart.appointmentservice.config.BusinessProperties;
+import com.citasmart.appointmentservice.exception.AppointmentConflictException;
+import com.citasmart.appointmentservice.hold.InMemorySlotHoldStore;
+import com.citasmart.appointmentservice.hold.SlotHold;
+import com.citasmart.appointmentservice.hold.SlotHoldService;
+import com.citasmart.appointmentservice.model.Appointment;
+import com.citasmart.appointmentservice.model.AppointmentStatus;
+import com.citasmart.appointmentservice.repository.AppointmentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SlotEngineTest {
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    private SlotHoldService slotHolds;
+    private SlotEngine slotEngine;
+    private LocalDate monday;
+
+    @BeforeEach
+    void setUp() {
+        DoctorScheduleIndex scheduleIndex = new DoctorScheduleIndex(appointmentRepository);
+        ReflectionTestUtils.setField(scheduleIndex, "maxDays", 1000);
+
+        slotHolds = new SlotHoldService(new InMemorySlotHoldStore(), scheduleIndex);
+        ReflectionTestUtils.setField(slotHolds, "ttlMinutes", 5L);
+
+        BusinessProperties properties = new BusinessProperties();
+        properties.getWorkingHours().setStart(LocalTime.of(9, 0));
+        properties.getWorkingHours().setEnd(LocalTime.of(10, 0));
+        slotEngine = new SlotEngine(scheduleIndex, properties, slotHolds);
+
+        monday = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+    }
+
+    @Test
+    void findFreeSlots_SubtractsBookedAppointments() {
+        Appointment booked = Appointment.builder()
+                .id(1L)
+                .doctorId(200L)
+                .appointmentDate(monday.atTime(9, 20))
+                .durationMinutes(20)
+                .status(AppointmentStatus.CONFIRMED)
+                .build();
+        when(appointmentRepository.findByDoctorIdAndAppointmentDateBetween(eq(200L), any(), any()))
+                .thenReturn(Arrays.asList(booked));
+
+        List<LocalDateTime> slots = slotEngine.findFreeSlots(200L, monday, 15);
+
+        assertEquals(Arrays.asList(
+                monday.atTime(9, 0), monday.atTime(9, 5),
+                monday.atTime(9, 40), monday.atTime(9, 45)), slots);
+    }
+
+    @Test
+    void findFreeSlots_SubtractsHeldSlotsUntilReleased() {
+        when(appointmentRepository.findByDoctorIdAndAppointmentDateBetween(eq(200L), any(), any()))
+                .thenReturn(Collections.emptyList());
+        SlotHold hold = slotHolds.hold(200L, monday.atTime(9, 0), 30, "patient");
+
+        List<LocalDateTime> held = slotEngine.findFreeSlots(200L, monday, 30);
+        assertThrows(AppointmentConflictException.class, () -> slotHolds.hold(200L, monday.atTime(9, 15), 30, "other"));
+        slotHolds.release(hold.getToken(), "patient");
+        List<LocalDateTime> released = slotEngine.findFreeSlots(200L, monday, 30);
+
+        assertEquals(Arrays.asList(monday.atTime(9, 30)), held);
+        assertEquals(monday.atTime(9, 0), released.get(0));
+    }
+
+    @Test
+    void findFreeSlots_WholeWorkingDayWhenNothingBooked() {
+        when(appointmentRepository.findByDoctorIdAndAppointmentDateBetween(eq(200L), any(), any()))
+                .thenReturn(Collections.emptyList());
+
+        List<LocalDateTime> slots = slotEngine.findFreeSlots(200L, monday, 30);
+
+        assertEquals(7, slots.size());
+        assertEquals(monday.atTime(9, 0), slots.get(0));
+        assertEquals(monday.atTime(9, 30), slots.get(slots.size() - 1));
+    }
+
+    @Test
+    void findFreeSlots_EmptyOnNonWorkingDay() {
+        List<LocalDateTime> slots = slotEngine.findFreeSlots(200L, monday.minusDays(1), 30);
+
+        assertTrue(slots.isEmpty());
+        verifyNoInteractions(appointmentRepository);
+    }
+}
@@ -1,34 +1,49 @@
 package com.citasmart.appointmentservice.service.impl;
 
-import com.citasmart.appointmentservice.client.UserServiceClient;
+import com.citasmart.appointmentservice.bulk.AppointmentBatchWriter;
+import com.citasmart.appointmentservice.client.UserNearCache;
+import com.citasmart.appointmentservice.config.BusinessProperties;
 import com.citasmart.appointmentservice.dto.AppointmentCreateRequest;
+import com.citasmart.appointmentservice.dto.AppointmentSeriesRequest;
 import com.citasmart.appointmentservice.dto.AppointmentUpdateRequest;
+import com.citasmart.appointmentservice.dto.CursorPage;
 import com.citasmart.appointmentservice.dto.UserResponse;
 import com.citasmart.appointmentservice.exception.AppointmentConflictException;
 import com.citasmart.appointmentservice.exception.AppointmentNotFoundException;
 import com.citasmart.appointmentservice.exception.InvalidAppointmentDataException;
+import com.citasmart.appointmentservice.history.AppointmentHistoryWriter;
+import com.citasmart.appointmentservice.hold.SlotHold;
+import com.citasmart.appointmentservice.hold.SlotHoldService;
 import com.citasmart.appointmentservice.model.Appointment;
 import com.citasmart.appointmentservice.model.AppointmentHistory;
 import com.citasmart.appointmentservice.model.AppointmentStatus;
 import com.citasmart.appointmentservice.model.AppointmentType;
-import com.citasmart.appointmentservice.repository.AppointmentHistoryRepository;
+import com.citasmart.appointmentservice.model.OutboxEventType;
+import com.citasmart.appointmentservice.outbox.NotificationOutbox;
 import com.citasmart.appointmentservice.repository.AppointmentRepository;
-import com.citasmart.appointmentservice.service.EmailService;
-import com.citasmart.appointmentservice.service.NotificationService;
+import com.citasmart.appointmentservice.schedule.DoctorScheduleIndex;
+import com.citasmart.appointmentservice.schedule.FirstAvailableSearch;
+import com.citasmart.appointmentservice.schedule.SlotEngine;
+import com.citasmart.appointmentservice.service.AppointmentEnricher;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
+import java.sql.SQLException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -42,16 +57,37 @@ class AppointmentServiceImplTest {
     private AppointmentRepository appointmentRepository;
 
     @Mock
-    private AppointmentHistoryRepository historyRepository;
+    private AppointmentHistoryWriter historyWriter;
 
     @Mock
-    private UserServiceClient userServiceClient;
+    private UserNearCache userNearCache;
 
     @Mock
-    private EmailService emailService;
+    private DoctorScheduleIndex scheduleIndex;
 
     @Mock
-    private NotificationService notificationService;
+    private SlotEngine slotEngine;
+
+    @Mock
+    private FirstAvailableSearch firstAvailableSearch;
+
+    @Mock
+    private BusinessProperties businessProperties;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private AppointmentEnricher appointmentEnricher;
+
+    @Mock
+    private NotificationOutbox notificationOutbox;
+
+    @Mock
+    private SlotHoldService slotHoldService;
+
+    @Mock
+    private AppointmentBatchWriter batchWriter;
 
     @InjectMocks
     private AppointmentServiceImpl appointmentService;
@@ -120,10 +156,10 @@ class AppointmentServiceImplTest {
     @Test
     void createAppointment_Success() {
         // Given
-        when(userServiceClient.getUserById(100L)).thenReturn(patientResponse);
-        when(userServiceClient.getUserById(200L)).thenReturn(doctorResponse);
-        when(appointmentRepository.findConflictingAppointments(any(), any(), any())).thenReturn(Arrays.asList());
-        when(appointmentRepository.save(any(Appointment.class))).thenReturn(appointment);
+        when(userNearCache.getUser(100L)).thenReturn(patientResponse);
+        when(userNearCache.getUser(200L)).thenReturn(doctorResponse);
+        when(scheduleIndex.isAvailable(any(), any(), any())).thenReturn(true);
+        when(appointmentRepository.saveAndFlush(any(Appointment.class))).thenReturn(appointment);
 
         // When
         Appointment result = appointmentService.createAppointment(createRequest, "admin");
@@ -134,35 +170,192 @@ class AppointmentServiceImplTest {
         assertEquals(appointment.getDoctorId(), result.getDoctorId());
         assertEquals(AppointmentStatus.SCHEDULED, result.getStatus());
 
-        verify(appointmentRepository).save(any(Appointment.class));
-        verify(historyRepository).save(any(AppointmentHistory.class));
-        verify(emailService).sendAppointmentConfirmationEmail(any(Appointment.class), any(UserResponse.class), any(UserResponse.class));
-        verify(notificationService).sendAppointmentCreatedNotification(any(Appointment.class));
+        verify(appointmentRepository).saveAndFlush(any(Appointment.class));
+        verify(historyWriter).write(any(AppointmentHistory.class));
+        verify(notificationOutbox).enqueue(any(Appointment.class), eq(OutboxEventType.APPOINTMENT_CREATED));
     }
 
     @Test
     void createAppointment_ConflictingAppointment_ThrowsException() {
         // Given
-        Appointment conflictingAppointment = Appointment.builder()
-                .id(2L)
+        when(scheduleIndex.isAvailable(any(), any(), any())).thenReturn(false);
+
+        // When & Then
+        assertThrows(AppointmentConflictException.class, () -> {
+            appointmentService.createAppointment(createRequest, "admin");
+        });
+
+        verify(appointmentRepository, never()).save(any(Appointment.class));
+        verify(userNearCache, never()).getUser(any());
+        verify(notificationOutbox, never()).enqueue(any(), any());
+    }
+
+    @Test
+    void createAppointment_OverlapConstraintViolated_ThrowsConflict() {
+        // Given
+        when(userNearCache.getUser(100L)).thenReturn(patientResponse);
+        when(userNearCache.getUser(200L)).thenReturn(doctorResponse);
+        when(scheduleIndex.isAvailable(any(), any(), any())).thenReturn(true);
+        when(appointmentRepository.saveAndFlush(any(Appointment.class))).thenThrow(new DataIntegrityViolationException(
+                "could not execute statement", new SQLException("conflicting key value violates exclusion constraint", "23P01")));
+
+        // When & Then
+        assertThrows(AppointmentConflictException.class, () -> {
+            appointmentService.createAppointment(createRequest, "admin");
+        });
+
+        verify(scheduleIndex).invalidate(200L, createRequest.getAppointmentDate().toLocalDate());
+        verify(notificationOutbox, never()).enqueue(any(), any());
+    }
+
+    @Test
+    void createAppointment_WithMatchingHold_SkipsRevalidationAndReleasesHold() {
+        // Given
+        SlotHold hold = SlotHold.builder()
+                .token("200.abc")
                 .doctorId(200L)
                 .appointmentDate(createRequest.getAppointmentDate())
+                .durationMinutes(createRequest.getDurationMinutes())
+                .heldBy("patient")
+                .expiresAt(LocalDateTime.now().plusMinutes(5))
+                .build();
+        createRequest.setHoldToken("200.abc");
+        when(slotHoldService.find("200.abc")).thenReturn(Optional.of(hold));
+        when(userNearCache.getUser(100L)).thenReturn(patientResponse);
+        when(userNearCache.getUser(200L)).thenReturn(doctorResponse);
+        when(appointmentRepository.saveAndFlush(any(Appointment.class))).thenReturn(appointment);
+
+        // When
+        appointmentService.createAppointment(createRequest, "patient");
+
+        // Then
+        verify(scheduleIndex, never()).isAvailable(any(), any(), any());
+        verify(slotHoldService, never()).isHeld(any(), any(), any(), any());
+        verify(slotHoldService).releaseAfterCommit(hold);
+    }
+
+    @Test
+    void createAppointmentSeries_ChecksAllVisitsWithOneQueryAndInsertsOneBatch() {
+        // Given
+        AppointmentSeriesRequest request = seriesRequest(AppointmentType.TREATMENT, 10);
+        when(appointmentRepository.findByDoctorIdAndAppointmentDateBetween(eq(200L), any(), any()))
+                .thenReturn(new ArrayList<>());
+        Map<Long, UserResponse> users = new java.util.HashMap<>();
+        users.put(100L, patientResponse);
+        users.put(200L, doctorResponse);
+        when(userNearCache.getUsers(anyCollection())).thenReturn(users);
+
+        // When
+        List<Appointment> series = appointmentService.createAppointmentSeries(request, "receptionist");
+
+        // Then
+        assertEquals(10, series.size());
+        assertEquals(request.getFirstAppointmentDate().plusWeeks(9), series.get(9).getAppointmentDate());
+        assertNotNull(series.get(0).getSeriesId());
+        assertTrue(series.stream().allMatch(a -> series.get(0).getSeriesId().equals(a.getSeriesId())));
+        verify(appointmentRepository, times(1)).findByDoctorIdAndAppointmentDateBetween(eq(200L), any(), any());
+        verify(batchWriter, times(1)).insertAppointments(argThat(list -> list.size() == 10));
+        verify(notificationOutbox, times(1)).enqueue(any(Appointment.class), eq(OutboxEventType.APPOINTMENT_SERIES_CREATED));
+        verify(userNearCache, never()).getUser(any());
+    }
+
+    @Test
+    void createAppointmentSeries_OccurrenceOverlapsBooking_ThrowsConflict() {
+        // Given
+        AppointmentSeriesRequest request = seriesRequest(AppointmentType.FOLLOW_UP, 4);
+        Appointment booked = Appointment.builder()
+                .id(7L)
+                .doctorId(200L)
+                .appointmentDate(request.getFirstAppointmentDate().plusWeeks(2).minusMinutes(15))
                 .durationMinutes(30)
-                .status(AppointmentStatus.SCHEDULED)
+                .status(AppointmentStatus.CONFIRMED)
+                .build();
+        when(appointmentRepository.findByDoctorIdAndAppointmentDateBetween(eq(200L), any(), any()))
+                .thenReturn(new ArrayList<>(Arrays.asList(booked)));
+
+        // When & Then
+        AppointmentConflictException error = assertThrows(AppointmentConflictException.class, () -> {
+            appointmentService.createAppointmentSeries(request, "receptionist");
+        });
+
+        assertTrue(error.getMessage().contains(request.getFirstAppointmentDate().plusWeeks(2).toString()));
+        verify(batchWriter, never()).insertAppointments(anyList());
+        verify(notificationOutbox, never()).enqueue(any(), any());
+    }
+
+    @Test
+    void createAppointmentSeries_ConsultationType_ThrowsException() {
+        // Given
+        AppointmentSeriesRequest request = seriesRequest(AppointmentType.CONSULTATION, 10);
+
+        // When & Then
+        assertThrows(InvalidAppointmentDataException.class, () -> {
+            appointmentService.createAppointmentSeries(request, "receptionist");
+        });
+
+        verify(appointmentRepository, never()).findByDoctorIdAndAppointmentDateBetween(any(), any(), any());
+    }
+
+    private static AppointmentSeriesRequest seriesRequest(AppointmentType type, int occurrences) {
+        return AppointmentSeriesRequest.builder()
+                .patientId(100L)
+                .doctorId(200L)
+                .medicalCenterId(1L)
+                .specialityId(1L)
+                .firstAppointmentDate(LocalDateTime.now().plusDays(1).withHour(10).withMinute(0).withSecond(0).withNano(0))
+                .durationMinutes(30)
+                .type(type)
+                .occurrences(occurrences)
+                .intervalWeeks(1)
+                .build();
+    }
+
+    @Test
+    void createAppointment_HoldOnBehalfOfPatient_RedeemableByWhoeverBooksForThem() {
+        // Given: a waitlist offer held for patient 100, booked by the patient themself
+        SlotHold hold = SlotHold.builder()
+                .token("200.abc")
+                .doctorId(200L)
+                .appointmentDate(createRequest.getAppointmentDate())
+                .durationMinutes(createRequest.getDurationMinutes())
+                .heldBy(SlotHold.onBehalfOf(100L))
+                .expiresAt(LocalDateTime.now().plusMinutes(30))
                 .build();
+        createRequest.setHoldToken("200.abc");
+        when(slotHoldService.find("200.abc")).thenReturn(Optional.of(hold));
+        when(userNearCache.getUser(100L)).thenReturn(patientResponse);
+        when(userNearCache.getUser(200L)).thenReturn(doctorResponse);
+        when(appointmentRepository.saveAndFlush(any(Appointment.class))).thenReturn(appointment);
+
+        // When
+        appointmentService.createAppointment(createRequest, "patient");
+
+        // Then
+        verify(slotHoldService).releaseAfterCommit(hold);
+        createRequest.setPatientId(101L);
+        assertThrows(InvalidAppointmentDataException.class,
+                () -> appointmentService.createAppointment(createRequest, "patient"));
+    }
 
-        when(userServiceClient.getUserById(100L)).thenReturn(patientResponse);
-        when(userServiceClient.getUserById(200L)).thenReturn(doctorResponse);
-        when(appointmentRepository.findConflictingAppointments(any(), any(), any()))
-                .thenReturn(Arrays.asList(conflictingAppointment));
+    @Test
+    void createAppointment_HoldOfAnotherUser_ThrowsException() {
+        // Given
+        createRequest.setHoldToken("200.abc");
+        when(slotHoldService.find("200.abc")).thenReturn(Optional.of(SlotHold.builder()
+                .token("200.abc")
+                .doctorId(200L)
+                .appointmentDate(createRequest.getAppointmentDate())
+                .durationMinutes(createRequest.getDurationMinutes())
+                .heldBy("someone-else")
+                .expiresAt(LocalDateTime.now().plusMinutes(5))
+                .build()));
 
         // When & Then
-        assertThrows(AppointmentConflictException.class, () -> {
-            appointmentService.createAppointment(createRequest, "admin");
+        assertThrows(InvalidAppointmentDataException.class, () -> {
+            appointmentService.createAppointment(createRequest, "patient");
         });
 
-        verify(appointmentRepository, never()).save(any(Appointment.class));
-        verify(emailService, never()).sendAppointmentConfirmationEmail(any(), any(), any());
+        verify(appointmentRepository, never()).saveAndFlush(any(Appointment.class));
     }
 
     @Test
@@ -182,28 +375,23 @@ class AppointmentServiceImplTest {
     void updateAppointment_Success() {
         // Given
         when(appointmentRepository.findById(1L)).thenReturn(Optional.of(appointment));
-        when(userServiceClient.getUserById(100L)).thenReturn(patientResponse);
-        when(userServiceClient.getUserById(200L)).thenReturn(doctorResponse);
-        when(appointmentRepository.findConflictingAppointments(any(), any(), any())).thenReturn(Arrays.asList());
-        when(appointmentRepository.save(any(Appointment.class))).thenReturn(appointment);
+        when(scheduleIndex.hasConflict(any(), any(), any(), any())).thenReturn(false);
+        when(appointmentRepository.saveAndFlush(any(Appointment.class))).thenReturn(appointment);
 
         // When
         Appointment result = appointmentService.updateAppointment(1L, updateRequest, "admin");
 
         // Then
         assertNotNull(result);
-        verify(appointmentRepository).save(any(Appointment.class));
-        verify(historyRepository).save(any(AppointmentHistory.class));
-        verify(emailService).sendAppointmentUpdateEmail(any(Appointment.class), any(UserResponse.class), any(UserResponse.class));
-        verify(notificationService).sendAppointmentUpdatedNotification(any(Appointment.class));
+        verify(appointmentRepository).saveAndFlush(any(Appointment.class));
+        verify(historyWriter).write(any(AppointmentHistory.class));
+        verify(notificationOutbox).enqueue(any(Appointment.class), eq(OutboxEventType.APPOINTMENT_UPDATED));
     }
 
     @Test
     void cancelAppointment_Success() {
         // Given
         when(appointmentRepository.findById(1L)).thenReturn(Optional.of(appointment));
-        when(userServiceClient.getUserById(100L)).thenReturn(patientResponse);
-        when(userServiceClient.getUserById(200L)).thenReturn(doctorResponse);
         when(appointmentRepository.save(any(Appointment.class))).thenReturn(appointment);
 
         // When
@@ -217,9 +405,10 @@ class AppointmentServiceImplTest {
         assertEquals("Conflicto de horarios", result.getCancellationReason());
 
         verify(appointmentRepository).save(any(Appointment.class));
-        verify(historyRepository).save(any(AppointmentHistory.class));
-        verify(emailService).sendAppointmentCancellationEmail(any(Appointment.class), any(UserResponse.class), any(UserResponse.class));
-        verify(notificationService).sendAppointmentCancelledNotification(any(Appointment.class));
+        verify(historyWriter).write(argThat(history -> history.getPreviousStatus() == AppointmentStatus.SCHEDULED
+                && history.getNewStatus() == AppointmentStatus.CANCELLED
+                && history.getNewDate().equals(appointment.getAppointmentDate())));
+        verify(notificationOutbox).enqueue(any(Appointment.class), eq(OutboxEventType.APPOINTMENT_CANCELLED));
     }
 
     @Test
@@ -238,7 +427,23 @@ class AppointmentServiceImplTest {
         assertNull(result.getConfirmationToken());
 
         verify(appointmentRepository).save(any(Appointment.class));
-        verify(historyRepository).save(any(AppointmentHistory.class));
+        verify(historyWriter).write(any(AppointmentHistory.class));
+    }
+
+    @Test
+    void findFirstAvailableSlots_NonPositiveDurationOrLimit_ThrowsException() {
+        // Given
+        LocalDateTime from = LocalDateTime.now().plusDays(1);
+        LocalDateTime to = from.plusDays(3);
+
+        // When & Then
+        assertThrows(InvalidAppointmentDataException.class,
+                () -> appointmentService.findFirstAvailableSlots(1L, 1L, from, to, 0, 10));
+        assertThrows(InvalidAppointmentDataException.class,
+                () -> appointmentService.findFirstAvailableSlots(1L, 1L, from, to, 30, 0));
+        assertThrows(InvalidAppointmentDataException.class,
+                () -> appointmentService.findFirstAvailableSlots(1L, 1L, from, to, 30, 51));
+        verifyNoInteractions(firstAvailableSearch);
     }
 
     @Test
@@ -259,8 +464,7 @@ class AppointmentServiceImplTest {
         // Given
         LocalDateTime startTime = LocalDateTime.now().plusDays(1);
         LocalDateTime endTime = startTime.plusMinutes(30);
-        when(appointmentRepository.findConflictingAppointments(200L, startTime, endTime))
-                .thenReturn(Arrays.asList());
+        when(scheduleIndex.isAvailable(200L, startTime, endTime)).thenReturn(true);
 
         // When
         boolean result = appointmentService.checkDoctorAvailability(200L, startTime, endTime);
@@ -274,6 +478,7 @@ class AppointmentServiceImplTest {
         // Given
         when(appointmentRepository.findUpcomingAppointments(any(LocalDateTime.class)))
                 .thenReturn(Arrays.asList(appointment));
+        when(appointmentEnricher.enrich(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
 
         // When
         List<Appointment> result = appointmentService.getUpcomingAppointments();
@@ -283,6 +488,48 @@ class AppointmentServiceImplTest {
         assertEquals(1, result.size());
         assertEquals(appointment.getId(), result.get(0).getId());
     }
-}
-}
+
+    @Test
+    void getAppointmentsByDoctorId_Cursor_SeeksPastLastRowWithoutCounting() {
+        // Given
+        Appointment older = Appointment.builder()
+                .id(2L)
+                .doctorId(200L)
+                .appointmentDate(appointment.getAppointmentDate().minusHours(1))
+                .durationMinutes(30)
+                .status(AppointmentStatus.CONFIRMED)
+                .build();
+        Appointment oldest = Appointment.builder()
+                .id(3L)
+                .doctorId(200L)
+                .appointmentDate(appointment.getAppointmentDate().minusHours(2))
+                .durationMinutes(30)
+                .status(AppointmentStatus.CONFIRMED)
+                .build();
+        when(appointmentRepository.findByDoctorIdOrderByAppointmentDateDescIdDesc(eq(200L), any(Pageable.class)))
+                .thenReturn(new ArrayList<>(Arrays.asList(appointment, older, oldest)));
+        when(appointmentRepository.findDoctorPageAfter(eq(200L), eq(older.getAppointmentDate()), eq(2L), any(Pageable.class)))
+                .thenReturn(new ArrayList<>(Arrays.asList(oldest)));
+        when(appointmentEnricher.enrich(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        CursorPage<Appointment> first = appointmentService.getAppointmentsByDoctorId(200L, null, 2, false);
+        CursorPage<Appointment> second = appointmentService.getAppointmentsByDoctorId(200L, first.getNextCursor(), 2, false);
+
+        // Then
+        assertEquals(2, first.getContent().size());
+        assertTrue(first.isHasNext());
+        assertNull(first.getTotalElements());
+        assertEquals(1, second.getContent().size());
+        assertFalse(second.isHasNext());
+        assertNull(second.getNextCursor());
+        verify(appointmentRepository, never()).countByDoctorId(anyLong());
+    }
+
+    @Test
+    void getAppointmentsByPatientId_InvalidCursor_ThrowsException() {
+        // When & Then
+        assertThrows(InvalidAppointmentDataException.class,
+                () -> appointmentService.getAppointmentsByPatientId(100L, "not-a-cursor", 20, false));
+    }
 }
@@ -0,0 +1,87 @@
+package com.citasmart.appointmentservice.statistics;
+
+import com.citasmart.appointmentservice.event.AppointmentChangedEvent;
+import com.citasmart.appointmentservice.event.AppointmentChangedEvent.ChangeType;
+import com.citasmart.appointmentservice.model.Appointment;
+import com.citasmart.appointmentservice.model.AppointmentStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AppointmentStatisticsTest {
+
+    @Mock
+    private StatisticsRollupStore store;
+
+    private AppointmentStatistics statistics;
+
+    private LocalDate tomorrow;
+
+    @BeforeEach
+    void setUp() {
+        statistics = new AppointmentStatistics(store);
+        ReflectionTestUtils.setField(statistics, "memoryWindowDays", 30);
+        tomorrow = LocalDate.now().plusDays(1);
+    }
+
+    @Test
+    void count_SumsWholeDaysFromBucketsAndCountsPartialEdges() {
+        // Given
+        LocalDateTime start = tomorrow.atTime(10, 0);
+        LocalDateTime end = tomorrow.plusDays(3).atTime(12, 0);
+        when(store.countAppointments(AppointmentStatus.CONFIRMED, null, null,
+                start, tomorrow.plusDays(1).atStartOfDay(), false)).thenReturn(2L);
+        when(store.sumBuckets(AppointmentStatus.CONFIRMED, null, null, tomorrow.plusDays(1), tomorrow.plusDays(3)))
+                .thenReturn(40L);
+        when(store.countAppointments(AppointmentStatus.CONFIRMED, null, null,
+                tomorrow.plusDays(3).atStartOfDay(), end, true)).thenReturn(3L);
+
+        // When
+        long count = statistics.count(AppointmentStatus.CONFIRMED, null, null, start, end);
+
+        // Then
+        assertEquals(45L, count);
+    }
+
+    @Test
+    void onAppointmentChanged_MovesBucketAndServesCountsFromMemory() {
+        // Given
+        statistics.refresh();
+        Appointment appointment = Appointment.builder()
+                .id(1L)
+                .doctorId(200L)
+                .medicalCenterId(1L)
+                .appointmentDate(tomorrow.atTime(9, 0))
+                .durationMinutes(30)
+                .status(AppointmentStatus.SCHEDULED)
+                .build();
+        statistics.onAppointmentChanged(AppointmentChangedEvent.created(appointment));
+        appointment.setStatus(AppointmentStatus.CANCELLED);
+
+        // When
+        statistics.onAppointmentChanged(AppointmentChangedEvent.of(ChangeType.CANCELLED, appointment,
+                appointment.getAppointmentDate(), 30, AppointmentStatus.SCHEDULED));
+
+        // Then
+        LocalDateTime from = tomorrow.atStartOfDay();
+        LocalDateTime to = tomorrow.plusDays(1).atStartOfDay();
+        assertEquals(0L, statistics.count(AppointmentStatus.SCHEDULED, null, null, from, to));
+        assertEquals(1L, statistics.count(AppointmentStatus.CANCELLED, null, null, from, to));
+        assertEquals(1L, statistics.countCreatedOn(LocalDate.now()));
+        verify(store, never()).sumBuckets(any(), any(), any(), any(), any());
+        verify(store).applyDeltas(argThat((Map<RollupKey, Long> buckets) -> buckets.containsValue(-1L)
+                && buckets.containsValue(1L)), anyMap());
+    }
+}
@@ -0,0 +1,171 @@
+package com.citasmart.appointmentservice.waitlist;
+
+import com.citasmart.appointmentservice.event.AppointmentChangedEvent;
+import com.citasmart.appointmentservice.event.AppointmentChangedEvent.ChangeType;
+import com.citasmart.appointmentservice.hold.InMemorySlotHoldStore;
+import com.citasmart.appointmentservice.hold.SlotHold;
+import com.citasmart.appointmentservice.hold.SlotHoldService;
+import com.citasmart.appointmentservice.model.Appointment;
+import com.citasmart.appointmentservice.model.AppointmentStatus;
+import com.citasmart.appointmentservice.model.WaitlistEntry;
+import com.citasmart.appointmentservice.repository.WaitlistEntryRepository;
+import com.citasmart.appointmentservice.schedule.DoctorScheduleIndex;
+import com.citasmart.appointmentservice.service.NotificationService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WaitlistMatcherTest {
+
+    @Mock
+    private WaitlistEntryRepository waitlistRepository;
+
+    @Mock
+    private DoctorScheduleIndex scheduleIndex;
+
+    @Mock
+    private NotificationService notificationService;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SlotHoldService slotHolds;
+    private WaitlistMatcher matcher;
+    private LocalDateTime tenAm;
+
+    @BeforeEach
+    void setUp() {
+        slotHolds = new SlotHoldService(new InMemorySlotHoldStore(), scheduleIndex);
+        ReflectionTestUtils.setField(slotHolds, "ttlMinutes", 5L);
+
+        matcher = new WaitlistMatcher(waitlistRepository, slotHolds, notificationService, jdbcTemplate,
+                transactionManager, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(matcher, "enabled", false);
+        ReflectionTestUtils.setField(matcher, "maxWindowDays", 30);
+        ReflectionTestUtils.setField(matcher, "minLeadMinutes", 30);
+        ReflectionTestUtils.setField(matcher, "offerTtlMinutes", 30L);
+        ReflectionTestUtils.setField(matcher, "batchSize", 200);
+        ReflectionTestUtils.setField(matcher, "queueCapacity", 100);
+        matcher.init();
+
+        tenAm = LocalDate.now().plusDays(2).atTime(10, 0);
+        lenient().when(scheduleIndex.isAvailable(any(), any(), any())).thenReturn(true);
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+    }
+
+    @Test
+    void offer_SplitsFreedSlotBetweenEarliestRegisteredEntriesThatFit() {
+        // Given: a 30-minute slot of doctor 200 (speciality 5, center 1) is freed
+        LocalDateTime now = LocalDateTime.now();
+        WaitlistEntry tooLong = entry(1L, 100L, 200L, null, 30, now.minusDays(3));
+        WaitlistEntry anyDoctor = entry(2L, 101L, null, 5L, 15, now.minusDays(2));
+        WaitlistEntry sameDoctor = entry(3L, 102L, 200L, null, 15, now.minusDays(1));
+        WaitlistEntry otherDoctor = entry(4L, 103L, 300L, null, 15, now.minusDays(4));
+        tooLong.setWindowEnd(tenAm.plusMinutes(20));
+        for (WaitlistEntry entry : new WaitlistEntry[]{tooLong, anyDoctor, sameDoctor, otherDoctor}) {
+            matcher.track(entry);
+        }
+        when(jdbcTemplate.batchUpdate(anyString(), any(BatchPreparedStatementSetter.class)))
+                .thenReturn(new int[]{1, 1});
+
+        // When
+        matcher.offer(Collections.singletonList(
+                new WaitlistMatcher.FreedSlot(200L, 5L, 1L, tenAm, tenAm.plusMinutes(30))));
+
+        // Then
+        verify(notificationService).sendPushNotification(eq(101L), anyString(), contains(tenAm.toString()));
+        verify(notificationService).sendPushNotification(eq(102L), anyString(), contains(tenAm.plusMinutes(15).toString()));
+        verifyNoMoreInteractions(notificationService);
+        assertTrue(slotHolds.isHeld(200L, tenAm, tenAm.plusMinutes(30), null));
+    }
+
+    @Test
+    void offer_ReleasesHoldWhenEntryWasClaimedElsewhere() {
+        // Given
+        matcher.track(entry(1L, 100L, 200L, null, 30, LocalDateTime.now().minusDays(1)));
+        when(jdbcTemplate.batchUpdate(anyString(), any(BatchPreparedStatementSetter.class)))
+                .thenReturn(new int[]{0});
+
+        // When
+        matcher.offer(Collections.singletonList(
+                new WaitlistMatcher.FreedSlot(200L, 5L, 1L, tenAm, tenAm.plusMinutes(30))));
+
+        // Then
+        verify(notificationService, never()).sendPushNotification(any(), any(), any());
+        assertFalse(slotHolds.isHeld(200L, tenAm, tenAm.plusMinutes(30), null));
+    }
+
+    @Test
+    void offer_HoldsOnBehalfOfPatientAndSkipsPartTakenInTheMeantime() {
+        // Given: the first 15 minutes of the freed half hour were held again before the matcher ran
+        slotHolds.hold(200L, tenAm, 15, "someone-else");
+        WaitlistEntry entry = entry(1L, 100L, 200L, null, 15, LocalDateTime.now().minusDays(1));
+        entry.setCreatedBy("receptionist");
+        matcher.track(entry);
+        when(jdbcTemplate.batchUpdate(anyString(), any(BatchPreparedStatementSetter.class)))
+                .thenReturn(new int[]{1});
+
+        // When
+        matcher.offer(Collections.singletonList(
+                new WaitlistMatcher.FreedSlot(200L, 5L, 1L, tenAm, tenAm.plusMinutes(30))));
+
+        // Then
+        verify(notificationService).sendPushNotification(eq(100L), anyString(), contains(tenAm.plusMinutes(15).toString()));
+        assertTrue(slotHolds.holdsOn(200L, tenAm.toLocalDate()).stream()
+                .anyMatch(hold -> hold.getAppointmentDate().equals(tenAm.plusMinutes(15))
+                        && hold.getHeldBy().equals(SlotHold.onBehalfOf(100L))));
+    }
+
+    @Test
+    void freedSlot_OnlyForReleasedIntervals() {
+        Appointment appointment = Appointment.builder()
+                .id(1L).doctorId(200L).specialityId(5L).medicalCenterId(1L)
+                .appointmentDate(tenAm.plusHours(2)).durationMinutes(30)
+                .status(AppointmentStatus.SCHEDULED).build();
+
+        AppointmentChangedEvent rescheduled = AppointmentChangedEvent.of(ChangeType.UPDATED, appointment,
+                tenAm, 30, AppointmentStatus.SCHEDULED);
+        appointment.setAppointmentDate(tenAm);
+        AppointmentChangedEvent confirmed = AppointmentChangedEvent.of(ChangeType.CONFIRMED, appointment,
+                tenAm, 30, AppointmentStatus.SCHEDULED);
+
+        assertNotNull(WaitlistMatcher.FreedSlot.of(rescheduled));
+        assertNull(WaitlistMatcher.FreedSlot.of(confirmed));
+        assertNull(WaitlistMatcher.FreedSlot.of(AppointmentChangedEvent.created(appointment)));
+    }
+
+    private WaitlistEntry entry(Long id, Long patientId, Long doctorId, Long specialityId,
+                                int durationMinutes, LocalDateTime createdAt) {
+        return WaitlistEntry.builder()
+                .id(id)
+                .patientId(patientId)
+                .doctorId(doctorId)
+                .specialityId(specialityId)
+                .windowStart(tenAm.minusDays(1))
+                .windowEnd(tenAm.plusDays(1))
+                .durationMinutes(durationMinutes)
+                .createdBy("patient" + patientId)
+                .createdAt(createdAt)
+                .build();
+    }
+}
@@ -0,0 +1,113 @@
+package com.citasmart.appointmentservice.waitlist;
+
+import com.citasmart.appointmentservice.hold.InMemorySlotHoldStore;
+import com.citasmart.appointmentservice.hold.SlotHold;
+import com.citasmart.appointmentservice.hold.SlotHoldService;
+import com.citasmart.appointmentservice.model.WaitlistEntry;
+import com.citasmart.appointmentservice.model.WaitlistStatus;
+import com.citasmart.appointmentservice.repository.WaitlistEntryRepository;
+import com.citasmart.appointmentservice.schedule.DoctorScheduleIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WaitlistServiceTest {
+
+    @Mock
+    private WaitlistEntryRepository waitlistRepository;
+
+    @Mock
+    private WaitlistMatcher waitlistMatcher;
+
+    @Mock
+    private DoctorScheduleIndex scheduleIndex;
+
+    private SlotHoldService slotHolds;
+    private WaitlistService waitlistService;
+    private LocalDateTime tenAm;
+
+    @BeforeEach
+    void setUp() {
+        slotHolds = new SlotHoldService(new InMemorySlotHoldStore(), scheduleIndex);
+        ReflectionTestUtils.setField(slotHolds, "ttlMinutes", 5L);
+        waitlistService = new WaitlistService(waitlistRepository, waitlistMatcher, slotHolds);
+        tenAm = LocalDate.now().plusDays(2).atTime(10, 0);
+        lenient().when(scheduleIndex.isAvailable(any(), any(), any())).thenReturn(true);
+    }
+
+    @Test
+    void cancel_EntryWithOpenOffer_ReleasesTheHeldSlot() {
+        // Given: a receptionist registered the entry, the matcher holds the offer for the patient
+        SlotHold offer = slotHolds.hold(200L, tenAm, 30, SlotHold.onBehalfOf(100L), 30L);
+        WaitlistEntry entry = entry(1L, 100L);
+        entry.setCreatedBy("receptionist");
+        entry.setStatus(WaitlistStatus.OFFERED);
+        entry.setHoldToken(offer.getToken());
+        when(waitlistRepository.findById(1L)).thenReturn(Optional.of(entry));
+        when(waitlistRepository.cancel(eq(1L), any())).thenReturn(1);
+
+        // When
+        waitlistService.cancel(1L);
+
+        // Then
+        assertFalse(slotHolds.find(offer.getToken()).isPresent());
+        assertFalse(slotHolds.isHeld(200L, tenAm, tenAm.plusMinutes(30), null));
+        verify(waitlistMatcher).untrack(1L);
+    }
+
+    @Test
+    void cancel_AlreadyClosedEntry_LeavesOfferAlone() {
+        // Given
+        SlotHold offer = slotHolds.hold(200L, tenAm, 30, SlotHold.onBehalfOf(100L), 30L);
+        WaitlistEntry entry = entry(1L, 100L);
+        entry.setStatus(WaitlistStatus.OFFERED);
+        entry.setHoldToken(offer.getToken());
+        when(waitlistRepository.findById(1L)).thenReturn(Optional.of(entry));
+        when(waitlistRepository.cancel(eq(1L), any())).thenReturn(0);
+
+        // When
+        waitlistService.cancel(1L);
+
+        // Then
+        assertTrue(slotHolds.find(offer.getToken()).isPresent());
+        verify(waitlistMatcher, never()).untrack(anyLong());
+    }
+
+    @Test
+    void isOwnedBy_OnlyTheEntrysPatient() {
+        // Given
+        when(waitlistRepository.findById(1L)).thenReturn(Optional.of(entry(1L, 100L)));
+        when(waitlistRepository.findById(2L)).thenReturn(Optional.empty());
+
+        // When / Then
+        assertTrue(waitlistService.isOwnedBy(1L, 100L));
+        assertFalse(waitlistService.isOwnedBy(1L, 101L));
+        assertFalse(waitlistService.isOwnedBy(2L, 100L));
+        assertFalse(waitlistService.isOwnedBy(1L, null));
+    }
+
+    private WaitlistEntry entry(Long id, Long patientId) {
+        return WaitlistEntry.builder()
+                .id(id)
+                .patientId(patientId)
+                .doctorId(200L)
+                .windowStart(tenAm.minusHours(1))
+                .windowEnd(tenAm.plusHours(2))
+                .durationMinutes(30)
+                .status(WaitlistStatus.WAITING)
+                .createdBy("patient" + patientId)
+                .build();
+    }
+}
@@ -0,0 +1,49 @@
+package com.citasmart.shared.security;
+
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.security.Principal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Caller identity forwarded by the API gateway, used as the authentication
+ * principal so that {@code authentication.principal.id} resolves in
+ * {@code @PreAuthorize} expressions; {@code getName()} is the username as
+ * with a JWT login.
+ */
+@Getter
+public final class GatewayIdentity implements Principal {
+
+    private final Long id;
+    private final String username;
+    private final List<String> roles;
+    private final List<GrantedAuthority> authorities;
+    private final Instant expiresAt;
+
+    public GatewayIdentity(Long id, String username, List<String> roles, Instant expiresAt) {
+        this.id = id;
+        this.username = username;
+        this.roles = Collections.unmodifiableList(new ArrayList<>(roles));
+        List<GrantedAuthority> mapped = new ArrayList<>(roles.size());
+        for (String role : roles) {
+            mapped.add(new SimpleGrantedAuthority("ROLE_" + role));
+        }
+        this.authorities = Collections.unmodifiableList(mapped);
+        this.expiresAt = expiresAt;
+    }
+
+    @Override
+    public String getName() {
+        return username;
+    }
+
+    @Override
+    public String toString() {
+        return username;
+    }
+}
@@ -0,0 +1,118 @@
+package com.citasmart.shared.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.security.web.util.matcher.IpAddressMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Authenticates requests from the identity header the gateway attaches.
+ *
+ * The header is only honoured when the request comes from one of the
+ * trusted gateway addresses; from anywhere else it is hidden from the rest
+ * of the chain, so a client that reaches the service directly cannot claim
+ * an identity. A header that fails the MAC or has expired leaves the request
+ * unauthenticated.
+ *
+ * Not a bean on purpose: as a bean Boot would also register it as a servlet
+ * filter outside the security chain.
+ */
+@Slf4j
+public class GatewayIdentityFilter extends OncePerRequestFilter {
+
+    private final GatewayIdentityVerifier verifier;
+    private final List<IpAddressMatcher> trustedAddresses;
+    private final WebAuthenticationDetailsSource detailsSource = new WebAuthenticationDetailsSource();
+
+    /**
+     * @param trustedAddresses gateway addresses or CIDR ranges; empty trusts none, so identity headers are ignored
+     */
+    public GatewayIdentityFilter(GatewayIdentityVerifier verifier, List<String> trustedAddresses) {
+        this.verifier = verifier;
+        this.trustedAddresses = trustedAddresses.stream()
+                .map(String::trim)
+                .filter(address -> !address.isEmpty())
+                .map(IpAddressMatcher::new)
+                .collect(Collectors.toList());
+        if (this.trustedAddresses.isEmpty()) {
+            log.warn("No trusted gateway addresses configured; identity headers will be ignored");
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String header = request.getHeader(GatewayIdentityVerifier.HEADER);
+        if (header == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        if (!fromGateway(request)) {
+            log.warn("Dropping identity header from untrusted address {}", request.getRemoteAddr());
+            chain.doFilter(new WithoutIdentityHeader(request), response);
+            return;
+        }
+
+        Optional<GatewayIdentity> identity = verifier.verify(header);
+        if (identity.isPresent()) {
+            UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                    identity.get(), null, identity.get().getAuthorities());
+            authentication.setDetails(detailsSource.buildDetails(request));
+            SecurityContextHolder.getContext().setAuthentication(authentication);
+        } else {
+            log.debug("Rejected gateway identity header on {}", request.getRequestURI());
+        }
+        chain.doFilter(request, response);
+    }
+
+    private boolean fromGateway(HttpServletRequest request) {
+        for (IpAddressMatcher matcher : trustedAddresses) {
+            if (matcher.matches(request)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class WithoutIdentityHeader extends HttpServletRequestWrapper {
+
+        private WithoutIdentityHeader(HttpServletRequest request) {
+            super(request);
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return isIdentity(name) ? null : super.getHeader(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            return isIdentity(name) ? Collections.<String>emptyEnumeration() : super.getHeaders(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaderNames() {
+            List<String> names = Collections.list(super.getHeaderNames());
+            names.removeIf(WithoutIdentityHeader::isIdentity);
+            return Collections.enumeration(names);
+        }
+
+        private static boolean isIdentity(String name) {
+            return GatewayIdentityVerifier.HEADER.equalsIgnoreCase(name);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.citasmart.shared.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Checks the identity header signed by the API gateway.
+ *
+ * The value is {@code v1.<payload>.<mac>}: the payload is the base64url of
+ * {@code userId \n username \n ROLE,ROLE \n expiresAtEpochMillis} and the mac
+ * is the base64url HMAC-SHA256 of {@code v1.<payload>} under the secret shared
+ * with the gateway. Verifying costs one HMAC over a short string, with no JWT
+ * parsing and no user lookup.
+ *
+ * The secret has no built-in default: a service without one refuses to start
+ * rather than accept headers signed with a key anyone can read.
+ *
+ * This package is outside the services' component scan; each service brings
+ * the verifier in with {@code @Import} on its security configuration.
+ */
+@Component
+@Slf4j
+public class GatewayIdentityVerifier {
+
+    public static final String HEADER = "X-CitaSmart-Identity";
+
+    private static final String VERSION = "v1.";
+    private static final String ALGORITHM = "HmacSHA256";
+
+    @Value("${app.security.gateway.identity-secret:}")
+    private String identitySecret;
+
+    @Value("${app.security.gateway.max-clock-skew:5000}")
+    private long maxClockSkewMillis;
+
+    private SecretKeySpec key;
+    private ThreadLocal<Mac> macs;
+
+    @PostConstruct
+    void init() {
+        if (identitySecret == null || identitySecret.trim().isEmpty()) {
+            throw new IllegalStateException(
+                    "app.security.gateway.identity-secret is not set; provide the gateway's GATEWAY_IDENTITY_SECRET");
+        }
+        key = new SecretKeySpec(Base64.getDecoder().decode(identitySecret), ALGORITHM);
+        macs = ThreadLocal.withInitial(this::newMac);
+    }
+
+    public Optional<GatewayIdentity> verify(String header) {
+        int macStart = header.lastIndexOf('.');
+        if (!header.startsWith(VERSION) || macStart <= VERSION.length()) {
+            return Optional.empty();
+        }
+        String signed = header.substring(0, macStart);
+        try {
+            byte[] mac = Base64.getUrlDecoder().decode(header.substring(macStart + 1));
+            byte[] expected = macs.get().doFinal(signed.getBytes(StandardCharsets.US_ASCII));
+            if (!MessageDigest.isEqual(mac, expected)) {
+                return Optional.empty();
+            }
+
+            String payload = new String(Base64.getUrlDecoder().decode(signed.substring(VERSION.length())),
+                    StandardCharsets.UTF_8);
+            String[] fields = payload.split("\n", -1);
+            if (fields.length != 4) {
+                return Optional.empty();
+            }
+            Instant expiresAt = Instant.ofEpochMilli(Long.parseLong(fields[3]));
+            if (expiresAt.plusMillis(maxClockSkewMillis).isBefore(Instant.now())) {
+                log.debug("Expired gateway identity for {}", fields[1]);
+                return Optional.empty();
+            }
+            List<String> roles = new ArrayList<>();
+            for (String role : fields[2].split(",")) {
+                if (!role.isEmpty()) {
+                    roles.add(role);
+                }
+            }
+            Long userId = fields[0].isEmpty() ? null : Long.valueOf(fields[0]);
+            return Optional.of(new GatewayIdentity(userId, fields[1], roles, expiresAt));
+        } catch (IllegalArgumentException e) {
+            // Bad base64 or number; NumberFormatException is an IllegalArgumentException
+            return Optional.empty();
+        }
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot initialise " + ALGORITHM, e);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.citasmart.shared.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import javax.servlet.http.HttpServletRequest;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GatewayIdentityFilterTest {
+
+    private static final String SECRET = "Y2l0YXNtYXJ0LWdhdGV3YXktaWRlbnRpdHktc2VjcmV0LWtleS0yMDI1";
+
+    private GatewayIdentityFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        GatewayIdentityVerifier verifier = new GatewayIdentityVerifier();
+        ReflectionTestUtils.setField(verifier, "identitySecret", SECRET);
+        ReflectionTestUtils.setField(verifier, "maxClockSkewMillis", 0L);
+        verifier.init();
+        filter = new GatewayIdentityFilter(verifier, Arrays.asList("10.0.0.0/24", "127.0.0.1"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void doFilter_ValidHeaderFromGateway_AuthenticatesWithPrincipalId() throws Exception {
+        // Given
+        MockHttpServletRequest request = request("10.0.0.7",
+                sign("42\nana.perez\nPATIENT,ADMIN\n" + (System.currentTimeMillis() + 30000)));
+
+        // When
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        // Then
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertNotNull(authentication);
+        GatewayIdentity identity = (GatewayIdentity) authentication.getPrincipal();
+        assertEquals(42L, identity.getId());
+        assertEquals("ana.perez", authentication.getName());
+        assertTrue(authentication.getAuthorities().stream()
+                .anyMatch(authority -> authority.getAuthority().equals("ROLE_ADMIN")));
+    }
+
+    @Test
+    void doFilter_TamperedOrExpiredHeader_LeavesRequestUnauthenticated() throws Exception {
+        // Given
+        String valid = sign("42\nana.perez\nPATIENT\n" + (System.currentTimeMillis() + 30000));
+        String tampered = "v1." + encode("42\nana.perez\nADMIN\n" + (System.currentTimeMillis() + 30000))
+                + valid.substring(valid.lastIndexOf('.'));
+        String expired = sign("42\nana.perez\nPATIENT\n" + (System.currentTimeMillis() - 1000));
+
+        // When
+        filter.doFilter(request("127.0.0.1", tampered), new MockHttpServletResponse(), new MockFilterChain());
+        Authentication afterTampered = SecurityContextHolder.getContext().getAuthentication();
+        filter.doFilter(request("127.0.0.1", expired), new MockHttpServletResponse(), new MockFilterChain());
+        Authentication afterExpired = SecurityContextHolder.getContext().getAuthentication();
+
+        // Then
+        assertNull(afterTampered);
+        assertNull(afterExpired);
+    }
+
+    @Test
+    void doFilter_HeaderFromUntrustedAddress_IsHiddenFromTheChain() throws Exception {
+        // Given
+        MockHttpServletRequest request = request("192.168.1.50",
+                sign("42\nana.perez\nADMIN\n" + (System.currentTimeMillis() + 30000)));
+        MockFilterChain chain = new MockFilterChain();
+
+        // When
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        // Then
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        HttpServletRequest forwarded = (HttpServletRequest) chain.getRequest();
+        assertNull(forwarded.getHeader(GatewayIdentityVerifier.HEADER));
+        assertFalse(Collections.list(forwarded.getHeaderNames()).contains(GatewayIdentityVerifier.HEADER));
+    }
+
+    @Test
+    void doFilter_NoTrustedAddresses_TrustsNoSource() throws Exception {
+        // Given
+        GatewayIdentityVerifier verifier = new GatewayIdentityVerifier();
+        ReflectionTestUtils.setField(verifier, "identitySecret", SECRET);
+        verifier.init();
+        GatewayIdentityFilter trustingNone = new GatewayIdentityFilter(verifier, Collections.singletonList(" "));
+        MockHttpServletRequest request = request("127.0.0.1",
+                sign("42\nana.perez\nADMIN\n" + (System.currentTimeMillis() + 30000)));
+        MockFilterChain chain = new MockFilterChain();
+
+        // When
+        trustingNone.doFilter(request, new MockHttpServletResponse(), chain);
+
+        // Then
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        assertNull(((HttpServletRequest) chain.getRequest()).getHeader(GatewayIdentityVerifier.HEADER));
+    }
+
+    @Test
+    void init_MissingSecret_FailsStartup() {
+        // Given
+        GatewayIdentityVerifier verifier = new GatewayIdentityVerifier();
+        ReflectionTestUtils.setField(verifier, "identitySecret", "");
+
+        // When / Then
+        assertThrows(IllegalStateException.class, verifier::init);
+    }
+
+    private static MockHttpServletRequest request(String remoteAddress, String identity) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/appointments/patient/42");
+        request.setRemoteAddr(remoteAddress);
+        request.addHeader(GatewayIdentityVerifier.HEADER, identity);
+        return request;
+    }
+
+    private static String sign(String payload) throws Exception {
+        String signed = "v1." + encode(payload);
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(Base64.getDecoder().decode(SECRET), "HmacSHA256"));
+        return signed + "." + Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(mac.doFinal(signed.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    private static String encode(String payload) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,7 +1,11 @@
 package com.citasmart.userservice.config;
 
+import com.citasmart.shared.security.GatewayIdentityFilter;
+import com.citasmart.shared.security.GatewayIdentityVerifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
@@ -9,6 +13,7 @@ import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
@@ -25,8 +30,18 @@ import java.util.List;
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity(prePostEnabled = true)
+@Import(GatewayIdentityVerifier.class)
 public class SecurityConfig {
 
+    private final GatewayIdentityVerifier gatewayIdentityVerifier;
+
+    @Value("${app.security.gateway.trusted-addresses:127.0.0.1,::1}")
+    private List<String> trustedGatewayAddresses;
+
+    public SecurityConfig(GatewayIdentityVerifier gatewayIdentityVerifier) {
+        this.gatewayIdentityVerifier = gatewayIdentityVerifier;
+    }
+
     /**
      * Password encoder bean
      */
@@ -77,7 +92,11 @@ public class SecurityConfig {
                 
                 // All other requests require authentication
                 .anyRequest().authenticated()
-            );
+            )
+            
+            // Caller identity signed by the API gateway
+            .addFilterBefore(new GatewayIdentityFilter(gatewayIdentityVerifier, trustedGatewayAddresses),
+                UsernamePasswordAuthenticationFilter.class);
 
         return http.build();
     }
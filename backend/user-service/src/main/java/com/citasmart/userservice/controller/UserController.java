@@ -18,6 +18,8 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 /**
  * REST Controller for User operations
  * 
@@ -87,6 +89,24 @@ public class UserController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    /**
+     * Get several user profiles by ID in one request
+     */
+    @PostMapping("/batch")
+    @PreAuthorize("hasRole('ADMIN') or (#batchRequest.ids.size() == 1 and @userService.isCurrentUser(#batchRequest.ids.iterator().next()))")
+    @Operation(summary = "Get users by IDs", description = "Retrieve the users matching the given IDs with a single lookup; unknown IDs are omitted")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Users retrieved successfully"),
+        @ApiResponse(responseCode = "400", description = "Empty or oversized ID list"),
+        @ApiResponse(responseCode = "403", description = "Not allowed to read other users' profiles")
+    })
+    public ResponseEntity<List<UserResponseDto>> getUsersByIds(
+            @Valid @RequestBody UserBatchRequestDto batchRequest) {
+        log.debug("REST request to get {} users by ID", batchRequest.getIds().size());
+        
+        return ResponseEntity.ok(userService.findByIds(batchRequest.getIds()));
+    }
+
     /**
      * Update user profile
      */
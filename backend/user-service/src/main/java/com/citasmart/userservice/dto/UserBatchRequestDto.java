@@ -0,0 +1,39 @@
+package com.citasmart.userservice.dto;
+
+import javax.validation.constraints.*;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.Set;
+
+/**
+ * DTO for batch user lookup request
+ * 
+ * @author CitaSmart Team
+ * @version 1.0
+ */
+@Schema(description = "Batch user lookup request")
+public class UserBatchRequestDto {
+
+    public static final int MAX_IDS = 500;
+
+    @NotEmpty(message = "At least one user ID is required")
+    @Size(max = MAX_IDS, message = "At most " + MAX_IDS + " user IDs can be requested at once")
+    @Schema(description = "IDs of the users to retrieve", example = "[1, 2, 3]", required = true)
+    private Set<@NotNull Long> ids;
+
+    // Constructors
+    public UserBatchRequestDto() {}
+
+    public UserBatchRequestDto(Set<Long> ids) {
+        this.ids = ids;
+    }
+
+    // Getters and Setters
+    public Set<Long> getIds() {
+        return ids;
+    }
+
+    public void setIds(Set<Long> ids) {
+        this.ids = ids;
+    }
+}
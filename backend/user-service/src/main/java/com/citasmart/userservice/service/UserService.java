@@ -5,6 +5,8 @@ import com.citasmart.userservice.model.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -35,6 +37,11 @@ public interface UserService {
      */
     Optional<UserResponseDto> findById(Long id);
 
+    /**
+     * Find users by IDs in a single query; unknown IDs are skipped
+     */
+    List<UserResponseDto> findByIds(Collection<Long> ids);
+
     /**
      * Update user profile
      */
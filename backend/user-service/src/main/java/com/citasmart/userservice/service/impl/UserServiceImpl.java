@@ -26,9 +26,13 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 /**
  * Implementation of UserService
@@ -177,6 +181,20 @@ public class UserServiceImpl implements UserService {
                 .map(userMapper::toUserResponseDto);
     }
 
+    /**
+     * Find users by IDs in a single query
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<UserResponseDto> findByIds(Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return userRepository.findAllWithRolesByIdIn(ids).stream()
+                .map(userMapper::toUserResponseDto)
+                .collect(Collectors.toList());
+    }
+
     /**
      * Update user profile
      */